@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.parser.ErrorManager;
+import fr.uga.pddl4j.parser.Message;
+import fr.uga.pddl4j.parser.Parser;
+import fr.uga.pddl4j.problem.DefaultProblem;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class contains the methods used by the benchmarks to load the problems of the test benchmarks and to sample
+ * the states of these problems. A problem is designated by its path relative to the directory of the PDDL benchmarks
+ * without extension, e.g., <code>ipc2000/blocks/strips-typed/p005</code>. The domain of the problem is the file
+ * <code>domain.pddl</code> of the same directory. The directory of the benchmarks can be changed with the system
+ * property <code>pddl4j.benchmarks</code>.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+final class BenchmarkProblems {
+
+    /**
+     * The directory of the PDDL benchmarks.
+     */
+    static final String DIRECTORY = System.getProperty("pddl4j.benchmarks", "src/test/resources/benchmarks/pddl");
+
+    /**
+     * The extension of the PDDL files.
+     */
+    static final String EXTENSION = ".pddl";
+
+    /**
+     * The name of the domain files.
+     */
+    static final String DOMAIN = "domain" + BenchmarkProblems.EXTENSION;
+
+    /**
+     * The maximum length of the random walks used to sample the states of a problem.
+     */
+    private static final int MAX_WALK_LENGTH = 32;
+
+    /**
+     * Creates a new object. This constructor is private because the class only contains static methods.
+     */
+    private BenchmarkProblems() {
+        super();
+    }
+
+    /**
+     * Returns the domain file of a problem.
+     *
+     * @param problem the path of the problem relative to the directory of the benchmarks without extension.
+     * @return the domain file of the problem.
+     */
+    static File getDomainFile(final String problem) {
+        return new File(BenchmarkProblems.getProblemFile(problem).getParentFile(), BenchmarkProblems.DOMAIN);
+    }
+
+    /**
+     * Returns the file of a problem.
+     *
+     * @param problem the path of the problem relative to the directory of the benchmarks without extension.
+     * @return the file of the problem.
+     */
+    static File getProblemFile(final String problem) {
+        return new File(BenchmarkProblems.DIRECTORY, problem + BenchmarkProblems.EXTENSION);
+    }
+
+    /**
+     * Parses a problem and its domain.
+     *
+     * @param problem the path of the problem relative to the directory of the benchmarks without extension.
+     * @return the parsed problem.
+     * @throws IOException if the files of the problem cannot be read or contain errors.
+     */
+    static DefaultParsedProblem parse(final String problem) throws IOException {
+        final Parser parser = new Parser();
+        final DefaultParsedProblem parsed = parser.parse(BenchmarkProblems.getDomainFile(problem),
+            BenchmarkProblems.getProblemFile(problem));
+        final ErrorManager errors = parser.getErrorManager();
+        if (!errors.getMessages(Message.Type.LEXICAL_ERROR).isEmpty()
+            || !errors.getMessages(Message.Type.PARSER_ERROR).isEmpty()) {
+            throw new IOException("cannot parse benchmark problem " + problem);
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses and instantiates a problem.
+     *
+     * @param problem the path of the problem relative to the directory of the benchmarks without extension.
+     * @return the instantiated problem.
+     * @throws IOException if the files of the problem cannot be read or contain errors.
+     */
+    static Problem instantiate(final String problem) throws IOException {
+        final Problem pb = new DefaultProblem(BenchmarkProblems.parse(problem));
+        pb.instantiate();
+        return pb;
+    }
+
+    /**
+     * Samples states of a problem with random walks from its initial state. The walks are restarted from the initial
+     * state when a dead end or the maximum length of a walk is reached. The sample depends only on the seed so that
+     * the benchmarks always run on the same states.
+     *
+     * @param problem the problem.
+     * @param size    the number of states to sample.
+     * @param seed    the seed of the random walks.
+     * @return the states sampled.
+     */
+    static List<State> sample(final Problem problem, final int size, final long seed) {
+        final Random random = new Random(seed);
+        final List<State> states = new ArrayList<>(size);
+        final List<Action> applicable = new ArrayList<>();
+        final State init = new State(problem.getInitialState());
+        State current = new State(init);
+        int length = 0;
+        while (states.size() < size) {
+            applicable.clear();
+            for (Action action : problem.getActions()) {
+                if (action.isApplicable(current)) {
+                    applicable.add(action);
+                }
+            }
+            if (applicable.isEmpty() || length == BenchmarkProblems.MAX_WALK_LENGTH) {
+                current = new State(init);
+                length = 0;
+            } else {
+                final Action action = applicable.get(random.nextInt(applicable.size()));
+                current = new State(current);
+                current.apply(action.getConditionalEffects());
+                length++;
+            }
+            states.add(current);
+        }
+        return states;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.util.BitVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements the microbenchmarks of the operations of the bit vectors used by the states, the conditions
+ * and the effects. The allocation-free operations, i.e., <code>contains</code>, <code>isDisjoint</code> and
+ * <code>andNotOr</code>, must allocate zero bytes per operation: this can be checked with the <code>gc</code> profiler
+ * enabled by default in the build.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitVectorBenchmark {
+
+    /**
+     * The number of vectors used in turn by the benchmarks.
+     */
+    private static final int VECTORS = 256;
+
+    /**
+     * The seed used to generate the vectors.
+     */
+    private static final long SEED = 1L;
+
+    /**
+     * The number of bits of the vectors.
+     */
+    @Param({"64", "512", "4096"})
+    private int size;
+
+    /**
+     * The vectors, e.g., the states.
+     */
+    private BitVector[] vectors;
+
+    /**
+     * The subsets of the vectors, e.g., the preconditions satisfied by the states.
+     */
+    private BitVector[] subsets;
+
+    /**
+     * Random vectors, e.g., the positive effects.
+     */
+    private BitVector[] positives;
+
+    /**
+     * Random vectors, e.g., the negative effects.
+     */
+    private BitVector[] negatives;
+
+    /**
+     * The vector updated in place by the benchmarks.
+     */
+    private BitVector target;
+
+    /**
+     * The index of the vectors used by the next operation.
+     */
+    private int index;
+
+    /**
+     * Generates the vectors used by the benchmarks.
+     */
+    @Setup
+    public void setup() {
+        final Random random = new Random(BitVectorBenchmark.SEED);
+        this.vectors = new BitVector[BitVectorBenchmark.VECTORS];
+        this.subsets = new BitVector[BitVectorBenchmark.VECTORS];
+        this.positives = new BitVector[BitVectorBenchmark.VECTORS];
+        this.negatives = new BitVector[BitVectorBenchmark.VECTORS];
+        for (int i = 0; i < BitVectorBenchmark.VECTORS; i++) {
+            this.vectors[i] = this.random(random, 2);
+            this.subsets[i] = new BitVector(this.vectors[i]);
+            this.subsets[i].and(this.random(random, 2));
+            this.positives[i] = this.random(random, 16);
+            this.negatives[i] = this.random(random, 16);
+        }
+        this.target = new BitVector(this.vectors[0]);
+        this.index = 0;
+    }
+
+    /**
+     * Benchmarks the inclusion test of a vector in another.
+     *
+     * @return the result of the test.
+     */
+    @Benchmark
+    public boolean include() {
+        final int i = this.next();
+        return this.vectors[i].include(this.subsets[i]);
+    }
+
+    /**
+     * Benchmarks the exclusion test of a vector from another.
+     *
+     * @return the result of the test.
+     */
+    @Benchmark
+    public boolean exclude() {
+        final int i = this.next();
+        return this.vectors[i].exclude(this.positives[i]);
+    }
+
+    /**
+     * Benchmarks the union of two vectors in place.
+     *
+     * @return the vector updated.
+     */
+    @Benchmark
+    public BitVector or() {
+        this.target.or(this.positives[this.next()]);
+        return this.target;
+    }
+
+    /**
+     * Benchmarks the allocation-free subset test.
+     *
+     * @return the result of the test.
+     */
+    @Benchmark
+    public boolean contains() {
+        final int i = this.next();
+        return this.vectors[i].contains(this.subsets[i]);
+    }
+
+    /**
+     * Benchmarks the allocation-free disjointness test.
+     *
+     * @return the result of the test.
+     */
+    @Benchmark
+    public boolean isDisjoint() {
+        final int i = this.next();
+        return this.vectors[i].isDisjoint(this.negatives[i]);
+    }
+
+    /**
+     * Benchmarks the application of an effect in place.
+     *
+     * @return the vector updated.
+     */
+    @Benchmark
+    public BitVector andNotOr() {
+        final int i = this.next();
+        this.target.andNotOr(this.negatives[i], this.positives[i]);
+        return this.target;
+    }
+
+    /**
+     * Returns the index of the vectors used by the next operation.
+     *
+     * @return the index of the vectors used by the next operation.
+     */
+    private int next() {
+        this.index = (this.index + 1) & (BitVectorBenchmark.VECTORS - 1);
+        return this.index;
+    }
+
+    /**
+     * Generates a random vector.
+     *
+     * @param random the random generator.
+     * @param sparsity the inverse of the probability of a bit to be set.
+     * @return the vector generated.
+     */
+    private BitVector random(final Random random, final int sparsity) {
+        final BitVector vector = new BitVector(this.size);
+        for (int i = 0; i < this.size; i++) {
+            if (random.nextInt(sparsity) == 0) {
+                vector.set(i);
+            }
+        }
+        return vector;
+    }
+}
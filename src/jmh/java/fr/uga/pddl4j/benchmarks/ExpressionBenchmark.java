@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.parser.Expression;
+import fr.uga.pddl4j.parser.ParsedAction;
+import fr.uga.pddl4j.parser.Symbol;
+import fr.uga.pddl4j.parser.TypedSymbol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements the microbenchmarks of the operations on the expressions used during the instantiation of the
+ * problems: the substitution of the parameters of the actions by objects and the simplification of the expressions
+ * obtained. The expressions are the preconditions and the effects of the actions of the problems of the test
+ * benchmarks.
+ * <p>
+ * Both operations modify the expression in place, so each operation is applied to a fresh copy of an expression. The
+ * cost of the copy is measured alone by {@link #copy()} and must be subtracted from the other benchmarks.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    /**
+     * The problem.
+     */
+    @Param({"ipc2000/blocks/strips-typed/p010", "ipc2000/logistics/strips-typed/p10",
+        "ipc1998/gripper/adl/p01"})
+    private String problem;
+
+    /**
+     * The expressions, i.e., the preconditions and the effects of the actions.
+     */
+    private List<Expression<String>> expressions;
+
+    /**
+     * The parameters of the action of each expression.
+     */
+    private List<List<TypedSymbol<String>>> parameters;
+
+    /**
+     * The objects of the problem substituted to the parameters.
+     */
+    private List<Symbol<String>> objects;
+
+    /**
+     * The index of the next expression.
+     */
+    private int index;
+
+    /**
+     * Parses the problem and collects the expressions of its actions.
+     *
+     * @throws IOException if the problem cannot be parsed.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final DefaultParsedProblem pb = BenchmarkProblems.parse(this.problem);
+        this.expressions = new ArrayList<>();
+        this.parameters = new ArrayList<>();
+        for (ParsedAction action : pb.getActions()) {
+            this.expressions.add(action.getPreconditions());
+            this.parameters.add(action.getParameters());
+            this.expressions.add(action.getEffects());
+            this.parameters.add(action.getParameters());
+        }
+        this.objects = new ArrayList<>();
+        for (TypedSymbol<String> constant : pb.getConstants()) {
+            this.objects.add(new Symbol<>(constant));
+        }
+        for (TypedSymbol<String> object : pb.getObjects()) {
+            this.objects.add(new Symbol<>(object));
+        }
+        this.index = 0;
+    }
+
+    /**
+     * Benchmarks the copy of an expression.
+     *
+     * @return the copy.
+     */
+    @Benchmark
+    public Expression<String> copy() {
+        return new Expression<>(this.expressions.get(this.next()));
+    }
+
+    /**
+     * Benchmarks the substitution of the parameters of an action by objects in a copy of an expression.
+     *
+     * @return the expression substituted.
+     */
+    @Benchmark
+    public Expression<String> substitute() {
+        return this.substitute(this.next());
+    }
+
+    /**
+     * Benchmarks the simplification of a copy of an expression after the substitution of its parameters.
+     *
+     * @return the expression simplified.
+     */
+    @Benchmark
+    public Expression<String> simplify() {
+        final Expression<String> exp = this.substitute(this.next());
+        exp.simplify();
+        return exp;
+    }
+
+    /**
+     * Substitutes the parameters of an action in a copy of an expression. The i-th parameter is substituted by the
+     * i-th object of the problem.
+     *
+     * @param i the index of the expression.
+     * @return the expression substituted.
+     */
+    private Expression<String> substitute(final int i) {
+        final Expression<String> exp = new Expression<>(this.expressions.get(i));
+        final List<TypedSymbol<String>> params = this.parameters.get(i);
+        for (int j = 0; j < params.size(); j++) {
+            exp.substitute(params.get(j), this.objects.get(j % this.objects.size()));
+        }
+        return exp;
+    }
+
+    /**
+     * Returns the index of the next expression.
+     *
+     * @return the index of the next expression.
+     */
+    private int next() {
+        this.index++;
+        if (this.index == this.expressions.size()) {
+            this.index = 0;
+        }
+        return this.index;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements the benchmark of the parsing of the domains and the problems of the test benchmarks.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    /**
+     * The problem.
+     */
+    @Param({"ipc2000/blocks/strips-typed/p010", "ipc2000/logistics/strips-typed/p40",
+        "ipc1998/gripper/adl/p08", "ipc2002/depots/strips-automatic/p03"})
+    private String problem;
+
+    /**
+     * The domain file.
+     */
+    private File domainFile;
+
+    /**
+     * The problem file.
+     */
+    private File problemFile;
+
+    /**
+     * Checks the files of the problem.
+     *
+     * @throws FileNotFoundException if a file of the problem does not exist.
+     */
+    @Setup
+    public void setup() throws FileNotFoundException {
+        this.domainFile = BenchmarkProblems.getDomainFile(this.problem);
+        this.problemFile = BenchmarkProblems.getProblemFile(this.problem);
+        if (!this.domainFile.exists() || !this.problemFile.exists()) {
+            throw new FileNotFoundException("missing benchmark problem " + this.problem);
+        }
+    }
+
+    /**
+     * Benchmarks the parsing of the domain and of the problem with a new parser.
+     *
+     * @return the problem parsed.
+     * @throws FileNotFoundException if a file of the problem does not exist.
+     */
+    @Benchmark
+    public DefaultParsedProblem parse() throws FileNotFoundException {
+        return new Parser().parse(this.domainFile, this.problemFile);
+    }
+}
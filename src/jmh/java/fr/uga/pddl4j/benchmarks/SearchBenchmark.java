@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements the macrobenchmarks of the search strategies. Each benchmark runs a search strategy to
+ * completion on a fixed problem of the test benchmarks. The problems are small enough to be solved by all the
+ * strategies in a few seconds. All the search strategies are benchmarked by default.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * The timeout of the searches in seconds.
+     */
+    private static final int TIMEOUT = 60;
+
+    /**
+     * The problem.
+     */
+    @Param({"ipc2000/blocks/strips-typed/p005", "ipc2000/logistics/strips-typed/p05", "ipc1998/gripper/adl/p01"})
+    private String problem;
+
+    /**
+     * The search strategy.
+     */
+    @Param
+    private SearchStrategy.Name strategy;
+
+    /**
+     * The heuristic used by the search strategy.
+     */
+    @Param({"FAST_FORWARD"})
+    private StateHeuristic.Name heuristic;
+
+    /**
+     * The instantiated problem.
+     */
+    private Problem pb;
+
+    /**
+     * Instantiates the problem.
+     *
+     * @throws IOException if the problem cannot be loaded.
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.pb = BenchmarkProblems.instantiate(this.problem);
+    }
+
+    /**
+     * Benchmarks the search of a solution to the problem.
+     *
+     * @return the solution node found or null if no solution was found.
+     */
+    @Benchmark
+    public Node search() {
+        final StateSpaceSearch search = StateSpaceSearch.getInstance(this.strategy, this.heuristic,
+            StateSpaceSearch.DEFAULT_HEURISTIC_WEIGHT, SearchBenchmark.TIMEOUT);
+        return search.searchSolutionNode(this.pb);
+    }
+}
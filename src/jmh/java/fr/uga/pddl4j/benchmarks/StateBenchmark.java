@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements the microbenchmarks of the application of the effects of the actions to the states and of the
+ * satisfaction of the preconditions of the actions by the states. The states are sampled by random walks in the
+ * problems of the test benchmarks.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+
+    /**
+     * The number of states sampled.
+     */
+    private static final int STATES = 1024;
+
+    /**
+     * The seed used to sample the states.
+     */
+    private static final long SEED = 1L;
+
+    /**
+     * The problem.
+     */
+    @Param({"ipc2000/blocks/strips-typed/p010", "ipc2000/logistics/strips-typed/p10",
+        "ipc2002/depots/strips-automatic/p03"})
+    private String problem;
+
+    /**
+     * The states sampled.
+     */
+    private State[] states;
+
+    /**
+     * The preconditions of the actions.
+     */
+    private Condition[] preconditions;
+
+    /**
+     * The effects of the actions.
+     */
+    private List<ConditionalEffect>[] effects;
+
+    /**
+     * The state updated in place by the benchmarks.
+     */
+    private State target;
+
+    /**
+     * The index of the next state.
+     */
+    private int state;
+
+    /**
+     * The index of the next action.
+     */
+    private int action;
+
+    /**
+     * Instantiates the problem and samples its states.
+     *
+     * @throws IOException if the problem cannot be loaded.
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        final Problem pb = BenchmarkProblems.instantiate(this.problem);
+        this.states = BenchmarkProblems.sample(pb, StateBenchmark.STATES, StateBenchmark.SEED).toArray(new State[0]);
+        final List<Action> actions = pb.getActions();
+        this.preconditions = new Condition[actions.size()];
+        this.effects = new List[actions.size()];
+        for (int i = 0; i < actions.size(); i++) {
+            this.preconditions[i] = actions.get(i).getPrecondition();
+            this.effects[i] = actions.get(i).getConditionalEffects();
+        }
+        this.target = new State(this.states[0]);
+        this.state = 0;
+        this.action = 0;
+    }
+
+    /**
+     * Benchmarks the satisfaction of the precondition of an action by a state.
+     *
+     * @return the result of the test.
+     */
+    @Benchmark
+    public boolean satisfy() {
+        return this.states[this.nextState()].satisfy(this.preconditions[this.nextAction()]);
+    }
+
+    /**
+     * Benchmarks the application of the conditional effects of an action to a state.
+     *
+     * @return the state updated.
+     */
+    @Benchmark
+    public State apply() {
+        this.target.apply(this.effects[this.nextAction()]);
+        return this.target;
+    }
+
+    /**
+     * Returns the index of the next state.
+     *
+     * @return the index of the next state.
+     */
+    private int nextState() {
+        this.state = (this.state + 1) & (StateBenchmark.STATES - 1);
+        return this.state;
+    }
+
+    /**
+     * Returns the index of the next action.
+     *
+     * @return the index of the next action.
+     */
+    private int nextAction() {
+        this.action++;
+        if (this.action == this.preconditions.length) {
+            this.action = 0;
+        }
+        return this.action;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.benchmarks;
+
+import fr.uga.pddl4j.heuristics.state.RelaxedGraphHeuristic;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements the microbenchmarks of the heuristics. Each heuristic estimates in turn the distance to the
+ * goal of states sampled by random walks in the problems of the test benchmarks. All the heuristics are benchmarked
+ * by default.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 21.11.2021
+ * @since 4.0
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateHeuristicBenchmark {
+
+    /**
+     * The number of states sampled.
+     */
+    private static final int STATES = 256;
+
+    /**
+     * The seed used to sample the states.
+     */
+    private static final long SEED = 1L;
+
+    /**
+     * The problem.
+     */
+    @Param({"ipc2000/blocks/strips-typed/p010", "ipc2000/logistics/strips-typed/p10"})
+    private String problem;
+
+    /**
+     * The name of the heuristic.
+     */
+    @Param
+    private StateHeuristic.Name name;
+
+    /**
+     * The flag used to compare the incremental computation of the relaxed planning graph with the computation from
+     * scratch. The flag is ignored by the heuristics that are not based on the relaxed planning graph.
+     */
+    @Param({"false", "true"})
+    private boolean incremental;
+
+    /**
+     * The heuristic.
+     */
+    private StateHeuristic heuristic;
+
+    /**
+     * The goal of the problem.
+     */
+    private Condition goal;
+
+    /**
+     * The states sampled.
+     */
+    private State[] states;
+
+    /**
+     * The index of the next state.
+     */
+    private int index;
+
+    /**
+     * Instantiates the problem and the heuristic and samples the states of the problem.
+     *
+     * @throws IOException if the problem cannot be loaded.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final Problem pb = BenchmarkProblems.instantiate(this.problem);
+        this.heuristic = StateHeuristic.getInstance(this.name, pb);
+        if (this.heuristic instanceof RelaxedGraphHeuristic) {
+            ((RelaxedGraphHeuristic) this.heuristic).setIncremental(this.incremental);
+        }
+        this.goal = pb.getGoal();
+        this.states = BenchmarkProblems.sample(pb, StateHeuristicBenchmark.STATES, StateHeuristicBenchmark.SEED)
+            .toArray(new State[0]);
+        this.index = 0;
+    }
+
+    /**
+     * Benchmarks the estimation of the distance of a state to the goal.
+     *
+     * @return the estimation.
+     */
+    @Benchmark
+    public int estimate() {
+        this.index = (this.index + 1) & (StateHeuristicBenchmark.STATES - 1);
+        return this.heuristic.estimate(this.states[this.index], this.goal);
+    }
+}
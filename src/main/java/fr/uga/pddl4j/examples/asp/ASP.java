@@ -26,18 +26,17 @@ import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.ProblemNotSupportedException;
 import fr.uga.pddl4j.planners.SearchStrategy;
 import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.planners.statespace.search.SuccessorGenerator;
 import fr.uga.pddl4j.problem.DefaultProblem;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import fr.uga.pddl4j.problem.operator.ConditionalEffect;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import picocli.CommandLine;
 
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
 
@@ -134,7 +133,9 @@ public class ASP extends AbstractPlanner {
      */
     @CommandLine.Option(names = {"-e", "--heuristic"}, defaultValue = "FAST_FORWARD",
         description = "Set the heuristic : AJUSTED_SUM, AJUSTED_SUM2, AJUSTED_SUM2M, COMBO, "
-            + "MAX, FAST_FORWARD SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)")
+            + "MAX, FAST_FORWARD SET_LEVEL, SUM, SUM_MUTEX, MAX_COST, SUM_COST, FAST_FORWARD_COST, LM_CUT, LM_COUNT, "
+            + "PDB "
+            + "(preset: FAST_FORWARD)")
     public void setHeuristic(StateHeuristic.Name heuristic) {
         this.heuristic = heuristic;
     }
@@ -291,6 +292,10 @@ public class ASP extends AbstractPlanner {
         // First we create an instance of the heuristic to use to guide the search
         final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), problem);
 
+        // We get the successor generator used to compute the actions applicable in a node
+        final SuccessorGenerator generator = SuccessorGenerator.getInstance(problem);
+        final int[] actions = new int[generator.getNumberOfActions()];
+
         // We get the initial state from the planning problem
         final State init = new State(problem.getInitialState());
 
@@ -329,28 +334,20 @@ public class ASP extends AbstractPlanner {
             if (current.satisfy(problem.getGoal())) {
                 return this.extractPlan(current, problem);
             } else { // Else we try to apply the actions of the problem to the current node
-                for (int i = 0; i < problem.getActions().size(); i++) {
-                    // We get the actions of the problem
-                    Action a = problem.getActions().get(i);
-                    // If the action is applicable in the current node
-                    if (a.isApplicable(current)) {
-                        Node next = new Node(current);
-                        // We apply the effect of the action
-                        final List<ConditionalEffect> effects = a.getConditionalEffects();
-                        for (ConditionalEffect ce : effects) {
-                            if (current.satisfy(ce.getCondition())) {
-                                next.apply(ce.getEffect());
-                            }
-                        }
-                        // We set the new child node information
-                        final double g = current.getCost() + 1;
-                        if (!close.contains(next)) {
-                            next.setCost(g);
-                            next.setParent(current);
-                            next.setAction(i);
-                            next.setHeuristic(heuristic.estimate(next, problem.getGoal()));
-                            open.add(next);
-                        }
+                // We get the actions of the problem applicable in the current node
+                final int applicable = generator.getApplicableActions(current, actions);
+                for (int i = 0; i < applicable; i++) {
+                    Node next = new Node(new State());
+                    // We apply the effect of the action
+                    generator.apply(actions[i], current, next);
+                    // We set the new child node information
+                    final double g = current.getCost() + 1;
+                    if (!close.contains(next)) {
+                        next.setCost(g);
+                        next.setParent(current);
+                        next.setAction(actions[i]);
+                        next.setHeuristic(heuristic.estimate(next, problem.getGoal()));
+                        open.add(next);
                     }
                 }
             }
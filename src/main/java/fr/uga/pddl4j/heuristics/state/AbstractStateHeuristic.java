@@ -64,6 +64,19 @@ public abstract class AbstractStateHeuristic extends AbstractHeuristic implement
         this.isAdmissible = true;
     }
 
+    /**
+     * Creates a new goal cost heuristic from an other one. The new heuristic shares the facts and the actions of the
+     * relaxed problem with the other heuristic.
+     *
+     * @param other the other heuristic.
+     */
+    protected AbstractStateHeuristic(final AbstractStateHeuristic other) {
+        this.facts = other.facts;
+        this.goal = other.goal;
+        this.actions = other.actions;
+        this.isAdmissible = other.isAdmissible;
+    }
+
     /**
      * Returns <code>true</code> if this heuristic is admissible.
      *
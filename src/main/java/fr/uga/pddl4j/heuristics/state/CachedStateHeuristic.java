@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.util.Objects;
+
+/**
+ * This class implements a heuristic that stores the values of an other heuristic in a {@link HeuristicCache}. A state
+ * found in the cache is not estimated again by the other heuristic. The cache is keyed by the states only, so a cache
+ * must be used with a single heuristic and a single goal. The value of a heuristic that depends on the path of a node,
+ * e.g., the landmark count heuristic, is the value of the first node estimated with the same state.
+ * <p>
+ * The helpful actions of a state found in the cache are computed by estimating the state with the other heuristic
+ * when they are requested.
+ * </p>
+ * <p>
+ * The searches that already know the Zobrist hash of a state, e.g., the hash of the state in their registry, estimate
+ * the state with the methods that take the hash so that the cache does not compute it again.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 07.12.2021
+ * @since 4.0
+ */
+public final class CachedStateHeuristic implements StateHeuristic {
+
+    /**
+     * The heuristic whose values are cached.
+     */
+    private final StateHeuristic heuristic;
+
+    /**
+     * The cache of the heuristic values.
+     */
+    private final HeuristicCache cache;
+
+    /**
+     * The last state estimated.
+     */
+    private State state;
+
+    /**
+     * The goal of the last state estimated.
+     */
+    private Condition goal;
+
+    /**
+     * The flag set if the last state estimated was estimated by the heuristic whose values are cached.
+     */
+    private boolean estimated;
+
+    /**
+     * Creates a new heuristic that stores the values of a heuristic in a cache.
+     *
+     * @param heuristic the heuristic whose values are cached.
+     * @param cache     the cache of the heuristic values.
+     * @throws NullPointerException if <code>heuristic == null || cache == null</code>.
+     */
+    public CachedStateHeuristic(final StateHeuristic heuristic, final HeuristicCache cache) {
+        Objects.requireNonNull(heuristic);
+        Objects.requireNonNull(cache);
+        this.heuristic = heuristic;
+        this.cache = cache;
+        this.state = null;
+        this.goal = null;
+        this.estimated = false;
+    }
+
+    /**
+     * Returns the heuristic whose values are cached.
+     *
+     * @return the heuristic whose values are cached.
+     */
+    public StateHeuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns the cache of the heuristic values.
+     *
+     * @return the cache of the heuristic values.
+     */
+    public HeuristicCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. The distance is the cost returned by
+     * {@link #estimateCost(State, Condition)} rounded up to the nearest integer. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        final double cost = this.estimateCost(state, goal);
+        return cost >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(cost - 1e-9);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified node. The node is estimated with
+     * {@link StateHeuristic#estimate(Node, Condition)} if its state is not in the cache.
+     *
+     * @param node the node from which the cost to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the cost to reach the goal from the specified node.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return this.estimate(node, this.cache.getHashFunction().hash(node), goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified node whose Zobrist hash is known. The node is
+     * estimated with {@link StateHeuristic#estimate(Node, Condition)} if its state is not in the cache.
+     *
+     * @param node the node from which the cost to the goal must be estimated.
+     * @param hash the Zobrist hash of the state of the node.
+     * @param goal the goal expression.
+     * @return the cost to reach the goal from the specified node.
+     * @see HeuristicCache#getHashFunction()
+     */
+    public double estimate(final Node node, final long hash, final Condition goal) {
+        double value = this.cache.get(node, hash);
+        this.estimated = Double.isNaN(value);
+        if (this.estimated) {
+            value = this.heuristic.estimate(node, goal);
+            this.cache.put(node, hash, value);
+        }
+        this.state = node;
+        this.goal = goal;
+        return value;
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state. The state is estimated with
+     * {@link StateHeuristic#estimateCost(State, Condition)} if it is not in the cache.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     */
+    @Override
+    public double estimateCost(final State state, final Condition goal) {
+        return this.estimateCost(state, this.cache.getHashFunction().hash(state), goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state whose Zobrist hash is known. The state is
+     * estimated with {@link StateHeuristic#estimateCost(State, Condition)} if it is not in the cache.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param hash  the Zobrist hash of the state.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @see HeuristicCache#getHashFunction()
+     */
+    public double estimateCost(final State state, final long hash, final Condition goal) {
+        double value = this.cache.get(state, hash);
+        this.estimated = Double.isNaN(value);
+        if (this.estimated) {
+            value = this.heuristic.estimateCost(state, goal);
+            this.cache.put(state, hash, value);
+        }
+        this.state = state;
+        this.goal = goal;
+        return value;
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from a state registered by a search. The state is estimated with
+     * {@link StateHeuristic#estimateCost(State, int, int, Condition)} if it is not in the cache. A heuristic that
+     * stores information per state does not store it for a state found in the cache.
+     *
+     * @param state  the state from which the cost to the goal must be estimated.
+     * @param id     the index of the state in the registry of the search.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @param goal   the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     */
+    @Override
+    public double estimateCost(final State state, final int id, final int parent, final Condition goal) {
+        return this.estimateCost(state, this.cache.getHashFunction().hash(state), id, parent, goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from a state registered by a search whose Zobrist hash is known.
+     * The state is estimated with {@link StateHeuristic#estimateCost(State, int, int, Condition)} if it is not in the
+     * cache. A heuristic that stores information per state does not store it for a state found in the cache.
+     *
+     * @param state  the state from which the cost to the goal must be estimated.
+     * @param hash   the Zobrist hash of the state, e.g., the hash of the state in the registry of the search.
+     * @param id     the index of the state in the registry of the search.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @param goal   the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @see HeuristicCache#getHashFunction()
+     */
+    public double estimateCost(final State state, final long hash, final int id, final int parent,
+                               final Condition goal) {
+        double value = this.cache.get(state, hash);
+        this.estimated = Double.isNaN(value);
+        if (this.estimated) {
+            value = this.heuristic.estimateCost(state, id, parent, goal);
+            this.cache.put(state, hash, value);
+        }
+        this.state = state;
+        this.goal = goal;
+        return value;
+    }
+
+    /**
+     * Returns <code>true</code> if the heuristic whose values are cached is admissible.
+     *
+     * @return <code>true</code> if the heuristic whose values are cached is admissible.
+     */
+    @Override
+    public boolean isAdmissible() {
+        return this.heuristic.isAdmissible();
+    }
+
+    /**
+     * Returns <code>true</code> if the heuristic whose values are cached is goal independent.
+     *
+     * @return <code>true</code> if the heuristic whose values are cached is goal independent.
+     */
+    @Override
+    public boolean isGoalIndependent() {
+        return this.heuristic.isGoalIndependent();
+    }
+
+    /**
+     * Returns the helpful actions of the last state estimated. If the state was found in the cache, it is estimated
+     * by the heuristic whose values are cached to compute its helpful actions.
+     *
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least
+     *                the number of actions of the problem.
+     * @return the number of helpful actions or -1 if the heuristic does not compute helpful actions.
+     */
+    @Override
+    public int getHelpfulActions(final int[] actions) {
+        if (!this.estimated && this.state != null) {
+            this.heuristic.estimateCost(this.state, this.goal);
+            this.estimated = true;
+        }
+        return this.heuristic.getHelpfulActions(actions);
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the cache of this heuristic and stores the values of a copy of
+     * the heuristic whose values are cached.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public CachedStateHeuristic copy() {
+        return new CachedStateHeuristic(this.heuristic.copy(), this.cache);
+    }
+
+    /**
+     * Returns a copy of this heuristic used by an other thread of the same search. The copy shares the cache of this
+     * heuristic and stores the values of a copy of the heuristic whose values are cached returned by
+     * {@link StateHeuristic#share()}.
+     *
+     * @return a copy of this heuristic sharing the information stored per state.
+     */
+    @Override
+    public CachedStateHeuristic share() {
+        return new CachedStateHeuristic(this.heuristic.share(), this.cache);
+    }
+}
@@ -64,6 +64,27 @@ public final class Combo extends RelaxedGraphHeuristic {
         super.setAdmissible(false);
     }
 
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the graph precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private Combo(final Combo other) {
+        super(other);
+        this.delta = other.delta.copy();
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the graph precomputed by this heuristic and can be used by an
+     * other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public Combo copy() {
+        return new Combo(this);
+    }
+
     /**
      * Return the estimated distance to the goal to reach the specified state. If the return value is
      * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
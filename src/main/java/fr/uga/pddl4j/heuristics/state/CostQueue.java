@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the queue of the propositions ordered by cost. The costs of the propositions added must
+ * not be lower than the cost of the last proposition polled. The propositions of the same cost as the last
+ * proposition polled are kept in a bucket polled before the binary heap. A proposition can be added several times
+ * with different costs, i.e., the queue does not support the decrease of a cost. The propositions are removed
+ * lazily: the caller must skip the propositions whose cost is no longer up to date.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.12.2021
+ * @since 4.0
+ */
+final class CostQueue {
+
+    /**
+     * The bucket of the propositions of the same cost as the last proposition polled.
+     */
+    private int[] bucket;
+
+    /**
+     * The number of propositions of the bucket.
+     */
+    private int bucketSize;
+
+    /**
+     * The position of the next proposition to poll in the bucket.
+     */
+    private int bucketPosition;
+
+    /**
+     * The cost of the last proposition polled.
+     */
+    private double key;
+
+    /**
+     * The propositions of the binary heap.
+     */
+    private int[] heap;
+
+    /**
+     * The costs of the propositions of the binary heap.
+     */
+    private double[] keys;
+
+    /**
+     * The number of propositions of the binary heap.
+     */
+    private int size;
+
+    /**
+     * Creates a new empty queue.
+     */
+    CostQueue() {
+        this.bucket = new int[64];
+        this.heap = new int[64];
+        this.keys = new double[64];
+        this.clear();
+    }
+
+    /**
+     * Removes all the propositions of the queue. The cost of the bucket is reset to zero.
+     */
+    void clear() {
+        this.bucketSize = 0;
+        this.bucketPosition = 0;
+        this.size = 0;
+        this.key = 0.0;
+    }
+
+    /**
+     * Adds a proposition to the queue.
+     *
+     * @param p   the proposition.
+     * @param key the cost of the proposition.
+     */
+    void add(final int p, final double key) {
+        if (key == this.key) {
+            if (this.bucketSize == this.bucket.length) {
+                this.bucket = Arrays.copyOf(this.bucket, this.bucket.length << 1);
+            }
+            this.bucket[this.bucketSize++] = p;
+            return;
+        }
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heap.length << 1);
+            this.keys = Arrays.copyOf(this.keys, this.keys.length << 1);
+        }
+        int i = this.size++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (this.keys[parent] <= key) {
+                break;
+            }
+            this.heap[i] = this.heap[parent];
+            this.keys[i] = this.keys[parent];
+            i = parent;
+        }
+        this.heap[i] = p;
+        this.keys[i] = key;
+    }
+
+    /**
+     * Removes and returns a proposition of the lowest cost of the queue.
+     *
+     * @return a proposition of the lowest cost or -1 if the queue is empty.
+     */
+    int poll() {
+        if (this.bucketPosition < this.bucketSize) {
+            return this.bucket[this.bucketPosition++];
+        }
+        this.bucketSize = 0;
+        this.bucketPosition = 0;
+        if (this.size == 0) {
+            return -1;
+        }
+        final int p = this.heap[0];
+        this.key = this.keys[0];
+        final int last = this.heap[--this.size];
+        final double lastKey = this.keys[this.size];
+        int i = 0;
+        int child = 1;
+        while (child < this.size) {
+            if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+                child++;
+            }
+            if (lastKey <= this.keys[child]) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            this.keys[i] = this.keys[child];
+            i = child;
+            child = 2 * i + 1;
+        }
+        this.heap[i] = last;
+        this.keys[i] = lastKey;
+        return p;
+    }
+
+    /**
+     * Returns the cost of the last proposition polled.
+     *
+     * @return the cost of the last proposition polled.
+     */
+    double getKey() {
+        return this.key;
+    }
+}
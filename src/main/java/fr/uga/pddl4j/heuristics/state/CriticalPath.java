@@ -93,6 +93,26 @@ public final class CriticalPath extends RelaxedGraphHeuristic {
         super.setAdmissible(true);
     }
 
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the graph precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private CriticalPath(final CriticalPath other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the graph precomputed by this heuristic and can be used by an
+     * other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public CriticalPath copy() {
+        return new CriticalPath(this);
+    }
+
     /**
      * Returns a estimation of the distance from a state to a goal.
      *
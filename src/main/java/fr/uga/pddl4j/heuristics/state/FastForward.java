@@ -66,6 +66,26 @@ public final class FastForward extends RelaxedGraphHeuristic {
         super.setAdmissible(false);
     }
 
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the graph precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private FastForward(final FastForward other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the graph precomputed by this heuristic and can be used by an
+     * other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public FastForward copy() {
+        return new FastForward(this);
+    }
+
     /**
      * Return the estimated distance to the goal to reach the specified state. If the return value is
      * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
@@ -83,6 +103,19 @@ public final class FastForward extends RelaxedGraphHeuristic {
         return super.isGoalReachable() ? super.getRelaxedPlanValue() : Integer.MAX_VALUE;
     }
 
+    /**
+     * Returns the helpful actions of the last state estimated, i.e., the actions applicable in the state that achieve
+     * a goal of the first level of the relaxed plan extracted.
+     *
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least
+     *                the number of actions of the problem.
+     * @return the number of helpful actions.
+     */
+    @Override
+    public int getHelpfulActions(final int[] actions) {
+        return super.getRelaxedPlanHelpfulActions(actions);
+    }
+
     /**
      * Return the estimated distance to the goal to reach the specified state. If the return value is
      * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+/**
+ * This class implements the relaxed plan heuristic <code>h_FF</code> with the costs of the actions. The relaxed plan
+ * is extracted from the best supporters computed by the additive heuristic <code>h_add</code> and the heuristic value
+ * is the sum of the costs of the actions of the relaxed plan. For more details on this heuristic see E. Keyder and
+ * H. Geffner, Heuristics for Planning with Action Costs Revisited, in: Proceedings of the 18th European Conference on
+ * Artificial Intelligence, 2008.
+ * <p>
+ * The heuristic is the counterpart of the {@link FastForward} heuristic for the problems with action costs. The
+ * helpful actions are the actions of the relaxed plan applicable in the state.
+ * </p>
+ * <b>Warning:</b> The heuristic is not admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.12.2021
+ * @see RelaxedCostHeuristic
+ * @since 4.0
+ */
+public final class FastForwardCost extends RelaxedCostHeuristic {
+
+    /**
+     * Creates a new <code>FAST_FORWARD_COST</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public FastForwardCost(final Problem problem) {
+        super(problem, true);
+        super.setAdmissible(false);
+    }
+
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the operators precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private FastForwardCost(final FastForwardCost other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the operators precomputed by this heuristic and can be used by
+     * an other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public FastForwardCost copy() {
+        return new FastForwardCost(this);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public double estimateCost(final State state, final Condition goal) {
+        super.setGoal(goal);
+        return super.computeCosts(state) ? super.getRelaxedPlanValue() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the helpful actions of the last state estimated, i.e., the actions of the relaxed plan extracted that
+     * are applicable in the state.
+     *
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least
+     *                the number of actions of the problem.
+     * @return the number of helpful actions.
+     */
+    @Override
+    public int getHelpfulActions(final int[] actions) {
+        return super.getRelaxedPlanHelpfulActions(actions);
+    }
+}
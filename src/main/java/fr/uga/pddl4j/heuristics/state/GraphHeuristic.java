@@ -42,41 +42,47 @@ import java.util.List;
  * see D. Long, M. Fox (1999). Efficient Implementation of the Plan Graph in STAN. Journal of
  * Artificial Intelligence Research, 10(1):87-115.
  * </p>
+ * <p>
+ * The unconditional operators and their static dependences are computed once by the constructor and are never
+ * modified afterwards. The copy constructor shares them and allocates new structures for the levels and the mutual
+ * exclusions of the graph, so that a heuristic and its copies can be used by different threads without paying the
+ * quadratic computation of the dependences again.
+ * </p>
  *
  * @author Damien Pellier
- * @version 1.0 20.08.2010
+ * @version 1.1 15.11.2021
  */
 public abstract class GraphHeuristic extends AbstractStateHeuristic implements PlanningGraphHeuristic {
 
     /**
      * The array used to store the apparition level of the propositions.
      */
-    private int[] propositionsLevel;
+    private final int[] propositionsLevel;
 
     /**
      * The array used to store the preconditions of the operators.
      */
-    private BitVector[] preconditions;
+    private final BitVector[] preconditions;
 
     /**
      * The array used to store the effects of the operators.
      */
-    private BitVector[] effects;
+    private final BitVector[] effects;
 
     /**
      * The dependences between the actions.
      */
-    private BitMatrix operatorsDependences;
+    private final BitMatrix operatorsDependences;
 
     /**
      * The list of operators mutual exclusions of the planning graph stored by level.
      */
-    private List<BitMatrix> operatorsMutex;
+    private final List<BitMatrix> operatorsMutex;
 
     /**
      * The list of propositions mutual exclusions of the planning graph stored by level.
      */
-    private List<BitMatrix> propositionsMutex;
+    private final List<BitMatrix> propositionsMutex;
 
     /**
      * The bit vector that contains the goal of the planning problem.
@@ -118,32 +124,32 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
     /**
      * The list that contains for each level and for each proposition which operators produce it.
      */
-    private List<BitMatrix> achievers;
+    private final List<BitMatrix> achievers;
 
     /**
      * The number of propositions of the problem.
      */
-    private int nbPropositions;
+    private final int nbPropositions;
 
     /**
      * The number of operators of the problem.
      */
-    private int nbOperators;
+    private final int nbOperators;
 
     /**
      * The index of first negative propositions.
      */
-    private int negOffset;
+    private final int negOffset;
 
     /**
      * The bit vector used to store the new operators during the planning graph expansion.
      */
-    private BitVector newOperators;
+    private final BitVector newOperators;
 
     /**
      * The flag used to debug.
      */
-    private boolean debug;
+    private final boolean debug;
 
     /**
      * Creates a new RelaxedGraphHeuristic heuristic.
@@ -172,11 +178,12 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
         }
 
         // Compute the number of unconditional operators of the problem
-        this.nbOperators = this.nbPropositions;
+        int nbUncondOperators = this.nbPropositions;
         final List<Action> pbOperators = problem.getActions();
         for (Action op : pbOperators) {
-            this.nbOperators += op.getConditionalEffects().size();
+            nbUncondOperators += op.getConditionalEffects().size();
         }
+        this.nbOperators = nbUncondOperators;
 
         // If debug flag is true we create the array that contains the string representation of the
         // unconditional operators of the planning problem
@@ -281,6 +288,31 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
         this.newOperators = new BitVector();
     }
 
+    /**
+     * Creates a new GraphHeuristic heuristic from an other one. The new heuristic shares the unconditional operators
+     * and their dependences with the other heuristic but not the structures used to expand the planning graph.
+     *
+     * @param other the other heuristic.
+     */
+    protected GraphHeuristic(final GraphHeuristic other) {
+        super(other);
+        this.debug = other.debug;
+        this.negOffset = other.negOffset;
+        this.nbPropositions = other.nbPropositions;
+        this.nbOperators = other.nbOperators;
+        this.propositions = other.propositions;
+        this.operators = other.operators;
+        this.preconditions = other.preconditions;
+        this.effects = other.effects;
+        this.operatorsDependences = other.operatorsDependences;
+        this.bvgoal = new BitVector(other.bvgoal);
+        this.propositionsLevel = new int[this.nbPropositions];
+        this.propositionsMutex = new ArrayList<>();
+        this.operatorsMutex = new ArrayList<>();
+        this.achievers = new ArrayList<>();
+        this.newOperators = new BitVector();
+    }
+
     /**
      * Set the goal of the problem to solve in order to compute the heuristic.
      *
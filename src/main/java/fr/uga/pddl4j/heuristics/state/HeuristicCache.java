@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.ZobristHash;
+import fr.uga.pddl4j.util.BitSet;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a bounded cache of heuristic values keyed by states. The states are stored as a fixed number
+ * of packed <code>long</code> words, so the cache does not keep references to the states and two states are equal if
+ * their words are equal. The states are hashed with the Zobrist hash function of their number of fluents, which is
+ * the hash function of the registries of the searches (see {@link ZobristHash}): a search that already knows the hash
+ * of a state passes it to {@link #get(BitSet, long)} and {@link #put(BitSet, long, double)} so that the state is not
+ * read again to compute its hash. When the cache is full, the entry to evict is chosen with the Clock algorithm: each
+ * entry has a reference bit set when the entry is read or written, and the hand of the clock evicts the first entry
+ * whose bit is not set, clearing the bits of the entries it passes over.
+ * <p>
+ * The cache is thread safe. It is divided in segments selected by the hash of the states and each segment is locked
+ * independently. The cache records the number of hits, misses and evictions. A cache can be shared by successive
+ * searches of the same problem with the same heuristic, e.g., the enforced hill climbing and the A* search of the FF
+ * planner, so that the second search does not estimate again the states estimated by the first one.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 07.12.2021
+ * @since 4.0
+ */
+public final class HeuristicCache {
+
+    /**
+     * The default number of entries of the cache (2^18).
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    /**
+     * The maximal number of segments of the cache.
+     */
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * The segments of the cache.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The mask used to compute the segment of a hash.
+     */
+    private final int mask;
+
+    /**
+     * The number of entries of the cache.
+     */
+    private final int capacity;
+
+    /**
+     * The hash function of the states.
+     */
+    private final ZobristHash zobrist;
+
+    /**
+     * Creates a new cache for the states of a specified number of fluents.
+     *
+     * @param fluents  the number of fluents of the states.
+     * @param capacity the number of entries of the cache.
+     * @throws IllegalArgumentException if <code>fluents &lt; 0</code> or <code>capacity &lt; 1</code>.
+     */
+    public HeuristicCache(final int fluents, final int capacity) {
+        if (fluents < 0) {
+            throw new IllegalArgumentException("fluents < 0");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        final int words = Math.max(1, (fluents + 63) >>> 6);
+        final int nbSegments = Math.min(HeuristicCache.MAX_SEGMENTS, Integer.highestOneBit(capacity));
+        this.segments = new Segment[nbSegments];
+        for (int i = 0; i < nbSegments; i++) {
+            this.segments[i] = new Segment(words, capacity / nbSegments + (i < capacity % nbSegments ? 1 : 0));
+        }
+        this.mask = nbSegments - 1;
+        this.capacity = capacity;
+        this.zobrist = new ZobristHash(fluents);
+    }
+
+    /**
+     * Returns the number of entries of the cache.
+     *
+     * @return the number of entries of the cache.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the hash function of the states of the cache. The hash of a state computed by this function is the hash
+     * of the state computed by the hash functions of the same number of fluents, e.g., the hash function of the
+     * registry of a search.
+     *
+     * @return the hash function of the states of the cache.
+     */
+    public ZobristHash getHashFunction() {
+        return this.zobrist;
+    }
+
+    /**
+     * Returns the heuristic value of a state stored in the cache.
+     *
+     * @param state the state.
+     * @return the heuristic value of the state or <code>Double.NaN</code> if the state is not in the cache.
+     * @throws IndexOutOfBoundsException if the state has more fluents than the states of the cache.
+     */
+    public double get(final BitSet state) {
+        return this.get(state, this.zobrist.hash(state));
+    }
+
+    /**
+     * Returns the heuristic value of a state stored in the cache from the Zobrist hash of the state.
+     *
+     * @param state the state.
+     * @param hash  the Zobrist hash of the state (see {@link #getHashFunction()}).
+     * @return the heuristic value of the state or <code>Double.NaN</code> if the state is not in the cache.
+     */
+    public double get(final BitSet state, final long hash) {
+        final int h = HeuristicCache.spread(hash);
+        return this.segments[h & this.mask].get(state, h);
+    }
+
+    /**
+     * Stores the heuristic value of a state in the cache. An entry is evicted if the cache is full.
+     *
+     * @param state the state.
+     * @param value the heuristic value of the state.
+     * @throws IndexOutOfBoundsException if the state has more fluents than the states of the cache.
+     */
+    public void put(final BitSet state, final double value) {
+        this.put(state, this.zobrist.hash(state), value);
+    }
+
+    /**
+     * Stores the heuristic value of a state in the cache from the Zobrist hash of the state. An entry is evicted if
+     * the cache is full.
+     *
+     * @param state the state.
+     * @param hash  the Zobrist hash of the state (see {@link #getHashFunction()}).
+     * @param value the heuristic value of the state.
+     * @throws IndexOutOfBoundsException if the state has more fluents than the states of the cache.
+     */
+    public void put(final BitSet state, final long hash, final double value) {
+        final int h = HeuristicCache.spread(hash);
+        this.segments[h & this.mask].put(state, h, value);
+    }
+
+    /**
+     * Removes all the entries of the cache. The statistics of the cache are kept.
+     */
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entries stored in the cache.
+     *
+     * @return the number of entries stored in the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of heuristic values found in the cache.
+     *
+     * @return the number of heuristic values found in the cache.
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Segment segment : this.segments) {
+            hits += segment.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the number of heuristic values not found in the cache.
+     *
+     * @return the number of heuristic values not found in the cache.
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Segment segment : this.segments) {
+            misses += segment.getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries evicted from the cache.
+     *
+     * @return the number of entries evicted from the cache.
+     */
+    public long getEvictions() {
+        long evictions = 0;
+        for (Segment segment : this.segments) {
+            evictions += segment.getEvictions();
+        }
+        return evictions;
+    }
+
+    /**
+     * Returns a string representation of the statistics of the cache.
+     *
+     * @return a string representation of the statistics of the cache.
+     */
+    @Override
+    public String toString() {
+        return "hits: " + this.getHits() + ", misses: " + this.getMisses() + ", evictions: " + this.getEvictions();
+    }
+
+    /**
+     * Folds the Zobrist hash of a state into the hash used to select the segments and the buckets. The bits of a
+     * Zobrist hash are already uniformly distributed, so the two halves of the hash are only combined.
+     *
+     * @param hash the Zobrist hash.
+     * @return the hash folded.
+     */
+    private static int spread(final long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * This class implements a segment of the cache. The entries are stored in parallel arrays and chained in buckets
+     * by their hash.
+     */
+    private static final class Segment {
+
+        /**
+         * The index of no entry.
+         */
+        private static final int NONE = -1;
+
+        /**
+         * The number of words of a state.
+         */
+        private final int words;
+
+        /**
+         * The packed words of the state of each entry.
+         */
+        private final long[] keys;
+
+        /**
+         * The hash of the state of each entry.
+         */
+        private final int[] hashes;
+
+        /**
+         * The heuristic value of each entry.
+         */
+        private final double[] values;
+
+        /**
+         * The reference bit of each entry.
+         */
+        private final boolean[] referenced;
+
+        /**
+         * The next entry of the bucket of each entry.
+         */
+        private final int[] next;
+
+        /**
+         * The first entry of each bucket.
+         */
+        private final int[] buckets;
+
+        /**
+         * The number of entries stored.
+         */
+        private int size;
+
+        /**
+         * The hand of the clock.
+         */
+        private int hand;
+
+        /**
+         * The number of hits.
+         */
+        private long hits;
+
+        /**
+         * The number of misses.
+         */
+        private long misses;
+
+        /**
+         * The number of evictions.
+         */
+        private long evictions;
+
+        /**
+         * Creates a new segment.
+         *
+         * @param words    the number of words of a state.
+         * @param capacity the number of entries of the segment.
+         */
+        private Segment(final int words, final int capacity) {
+            this.words = words;
+            this.keys = new long[capacity * words];
+            this.hashes = new int[capacity];
+            this.values = new double[capacity];
+            this.referenced = new boolean[capacity];
+            this.next = new int[capacity];
+            this.buckets = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+            Arrays.fill(this.buckets, Segment.NONE);
+            this.size = 0;
+            this.hand = 0;
+        }
+
+        /**
+         * Returns the entry of a state.
+         *
+         * @param state the state.
+         * @param hash  the hash of the state.
+         * @return the entry of the state or {@link #NONE} if the state is not stored.
+         */
+        private int find(final BitSet state, final int hash) {
+            int i = this.buckets[(hash >>> 4) & (this.buckets.length - 1)];
+            while (i != Segment.NONE && (this.hashes[i] != hash
+                || !state.equals(this.keys, i * this.words, this.words))) {
+                i = this.next[i];
+            }
+            return i;
+        }
+
+        /**
+         * Returns the heuristic value of a state.
+         *
+         * @param state the state.
+         * @param hash  the hash of the state.
+         * @return the heuristic value of the state or <code>Double.NaN</code> if the state is not stored.
+         */
+        private synchronized double get(final BitSet state, final int hash) {
+            final int i = this.find(state, hash);
+            if (i == Segment.NONE) {
+                this.misses++;
+                return Double.NaN;
+            }
+            this.hits++;
+            this.referenced[i] = true;
+            return this.values[i];
+        }
+
+        /**
+         * Stores the heuristic value of a state.
+         *
+         * @param state the state.
+         * @param hash  the hash of the state.
+         * @param value the heuristic value of the state.
+         */
+        private synchronized void put(final BitSet state, final int hash, final double value) {
+            int i = this.find(state, hash);
+            if (i == Segment.NONE) {
+                if (this.size < this.values.length) {
+                    i = this.size++;
+                } else {
+                    while (this.referenced[this.hand]) {
+                        this.referenced[this.hand] = false;
+                        this.hand = (this.hand + 1) % this.values.length;
+                    }
+                    i = this.hand;
+                    this.hand = (this.hand + 1) % this.values.length;
+                    this.unlink(i);
+                    this.evictions++;
+                }
+                state.toLongArray(this.keys, i * this.words, this.words);
+                this.hashes[i] = hash;
+                final int bucket = (hash >>> 4) & (this.buckets.length - 1);
+                this.next[i] = this.buckets[bucket];
+                this.buckets[bucket] = i;
+            }
+            this.values[i] = value;
+            this.referenced[i] = true;
+        }
+
+        /**
+         * Removes an entry from its bucket.
+         *
+         * @param i the entry.
+         */
+        private void unlink(final int i) {
+            final int bucket = (this.hashes[i] >>> 4) & (this.buckets.length - 1);
+            if (this.buckets[bucket] == i) {
+                this.buckets[bucket] = this.next[i];
+            } else {
+                int j = this.buckets[bucket];
+                while (this.next[j] != i) {
+                    j = this.next[j];
+                }
+                this.next[j] = this.next[i];
+            }
+        }
+
+        /**
+         * Removes all the entries of the segment.
+         */
+        private synchronized void clear() {
+            Arrays.fill(this.buckets, Segment.NONE);
+            Arrays.fill(this.referenced, false);
+            this.size = 0;
+            this.hand = 0;
+        }
+
+        /**
+         * Returns the number of entries stored.
+         *
+         * @return the number of entries stored.
+         */
+        private synchronized int size() {
+            return this.size;
+        }
+
+        /**
+         * Returns the number of hits.
+         *
+         * @return the number of hits.
+         */
+        private synchronized long getHits() {
+            return this.hits;
+        }
+
+        /**
+         * Returns the number of misses.
+         *
+         * @return the number of misses.
+         */
+        private synchronized long getMisses() {
+            return this.misses;
+        }
+
+        /**
+         * Returns the number of evictions.
+         *
+         * @return the number of evictions.
+         */
+        private synchronized long getEvictions() {
+            return this.evictions;
+        }
+    }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.Effect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+
+/**
+ * This class implements an incremental computation of the levels of the relaxed planning graph used by the
+ * {@link RelaxedGraphHeuristic}. The level of a proposition is the index of the first layer of the graph that contains
+ * it and the level of an unconditional operator is the maximum of the levels of its preconditions, i.e., the levels
+ * are the <code>h_max</code> values of the propositions and the operators with unit costs. The difficulty of an
+ * operator is the sum of the levels of its preconditions.
+ * <p>
+ * Contrary to the layered expansion of the graph, the levels are computed for all the propositions and not only until
+ * the goal is reached, and they are kept from one state to the next. Successive states usually differ only by a few
+ * fluents. The levels are updated from the fluents that changed since the last state in two phases:
+ * </p>
+ * <ol>
+ * <li>the propositions and the operators whose level may increase, i.e., those that depend on a proposition that no
+ * longer holds and that have no other support of the same level, are invalidated in increasing order of their former
+ * levels;</li>
+ * <li>the levels of the invalidated propositions and of the propositions that now hold are propagated with a Dijkstra
+ * like algorithm over the graph of the unconditional operators.</li>
+ * </ol>
+ * <p>
+ * The levels are small integers and never decrease below the level of the last proposition polled during the
+ * propagation. Both phases therefore use a bucket queue instead of a binary heap.
+ * </p>
+ * <p>
+ * The levels obtained are the same as those computed by the layered expansion for all the propositions and operators
+ * whose level is lower than the level of the goal. The lists of preconditions, effects, consumers and achievers are
+ * computed once and shared by the copies of the graph. The levels and the scratch structures are owned by each copy.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 30.11.2021
+ * @since 4.0
+ */
+final class IncrementalRelaxedGraph {
+
+    /**
+     * The level of an unreachable proposition or operator.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The number of relevant fluents. The proposition <code>p</code> is indexed by <code>p</code> and the
+     * proposition <code>not p</code> by <code>facts + p</code>.
+     */
+    private final int facts;
+
+    /**
+     * The propositions of the preconditions of each unconditional operator.
+     */
+    private final int[][] preconditions;
+
+    /**
+     * The propositions of the effects of each unconditional operator.
+     */
+    private final int[][] effects;
+
+    /**
+     * The unconditional operators that have each proposition as precondition.
+     */
+    private final int[][] consumers;
+
+    /**
+     * The unconditional operators that have each proposition as effect.
+     */
+    private final int[][] achievers;
+
+    /**
+     * The unconditional operators without precondition.
+     */
+    private final int[] unconditioned;
+
+    /**
+     * The level of the positive propositions.
+     */
+    private final int[] pLevels;
+
+    /**
+     * The level of the negative propositions.
+     */
+    private final int[] nLevels;
+
+    /**
+     * The level of the unconditional operators.
+     */
+    private final int[] operatorsLevels;
+
+    /**
+     * The difficulty of the unconditional operators.
+     */
+    private final int[] operatorsDifficulty;
+
+    /**
+     * The state from which the levels were computed.
+     */
+    private final BitVector state;
+
+    /**
+     * The flag set if the levels were computed from the state.
+     */
+    private boolean valid;
+
+    /**
+     * The marks of the propositions invalidated.
+     */
+    private final boolean[] invalidPropositions;
+
+    /**
+     * The marks of the operators invalidated.
+     */
+    private final boolean[] invalidOperators;
+
+    /**
+     * The propositions invalidated.
+     */
+    private final int[] invalidPropositionsList;
+
+    /**
+     * The number of propositions invalidated.
+     */
+    private int nbInvalidPropositions;
+
+    /**
+     * The operators invalidated.
+     */
+    private final int[] invalidOperatorsList;
+
+    /**
+     * The number of operators invalidated.
+     */
+    private int nbInvalidOperators;
+
+    /**
+     * The queue of the propositions and the operators to invalidate ordered by key. The proposition <code>p</code>
+     * has the key <code>2 * level(p)</code> and the operator <code>o</code>, indexed by <code>2 * facts + o</code>,
+     * has the key <code>2 * level(o) + 1</code> so that an operator is processed after all its preconditions and
+     * before all its effects.
+     */
+    private final BucketQueue invalidation;
+
+    /**
+     * The queue of the propositions whose level is propagated ordered by level.
+     */
+    private final BucketQueue propagation;
+
+    /**
+     * The fluents that changed since the last state.
+     */
+    private final BitVector changed;
+
+    /**
+     * Creates a new incremental relaxed planning graph.
+     *
+     * @param facts               the number of relevant fluents.
+     * @param preconditions       the preconditions of the unconditional operators.
+     * @param effects             the effects of the unconditional operators.
+     * @param pLevels             the array where the levels of the positive propositions are stored.
+     * @param nLevels             the array where the levels of the negative propositions are stored.
+     * @param operatorsLevels     the array where the levels of the unconditional operators are stored.
+     * @param operatorsDifficulty the array where the difficulties of the unconditional operators are stored.
+     */
+    IncrementalRelaxedGraph(final int facts, final Condition[] preconditions, final Effect[] effects,
+                            final int[] pLevels, final int[] nLevels, final int[] operatorsLevels,
+                            final int[] operatorsDifficulty) {
+        this.facts = facts;
+        final int operators = preconditions.length;
+        this.preconditions = new int[operators][];
+        this.effects = new int[operators][];
+        final int[] nbConsumers = new int[2 * facts];
+        final int[] nbAchievers = new int[2 * facts];
+        int nbUnconditioned = 0;
+        for (int o = 0; o < operators; o++) {
+            this.preconditions[o] = this.toPropositions(preconditions[o].getPositiveFluents(),
+                preconditions[o].getNegativeFluents());
+            this.effects[o] = this.toPropositions(effects[o].getPositiveFluents(), effects[o].getNegativeFluents());
+            for (int p : this.preconditions[o]) {
+                nbConsumers[p]++;
+            }
+            for (int p : this.effects[o]) {
+                nbAchievers[p]++;
+            }
+            if (this.preconditions[o].length == 0) {
+                nbUnconditioned++;
+            }
+        }
+        this.consumers = new int[2 * facts][];
+        this.achievers = new int[2 * facts][];
+        for (int p = 0; p < 2 * facts; p++) {
+            this.consumers[p] = new int[nbConsumers[p]];
+            this.achievers[p] = new int[nbAchievers[p]];
+        }
+        this.unconditioned = new int[nbUnconditioned];
+        Arrays.fill(nbConsumers, 0);
+        Arrays.fill(nbAchievers, 0);
+        nbUnconditioned = 0;
+        for (int o = 0; o < operators; o++) {
+            for (int p : this.preconditions[o]) {
+                this.consumers[p][nbConsumers[p]++] = o;
+            }
+            for (int p : this.effects[o]) {
+                this.achievers[p][nbAchievers[p]++] = o;
+            }
+            if (this.preconditions[o].length == 0) {
+                this.unconditioned[nbUnconditioned++] = o;
+            }
+        }
+        this.pLevels = pLevels;
+        this.nLevels = nLevels;
+        this.operatorsLevels = operatorsLevels;
+        this.operatorsDifficulty = operatorsDifficulty;
+        this.state = new BitVector();
+        this.valid = false;
+        this.invalidPropositions = new boolean[2 * facts];
+        this.invalidOperators = new boolean[operators];
+        this.invalidPropositionsList = new int[2 * facts];
+        this.invalidOperatorsList = new int[operators];
+        this.invalidation = new BucketQueue();
+        this.propagation = new BucketQueue();
+        this.changed = new BitVector();
+    }
+
+    /**
+     * Creates a new incremental relaxed planning graph from an other one. The new graph shares the lists of
+     * preconditions, effects, consumers and achievers of the other graph but not the levels.
+     *
+     * @param other               the other graph.
+     * @param pLevels             the array where the levels of the positive propositions are stored.
+     * @param nLevels             the array where the levels of the negative propositions are stored.
+     * @param operatorsLevels     the array where the levels of the unconditional operators are stored.
+     * @param operatorsDifficulty the array where the difficulties of the unconditional operators are stored.
+     */
+    IncrementalRelaxedGraph(final IncrementalRelaxedGraph other, final int[] pLevels, final int[] nLevels,
+                            final int[] operatorsLevels, final int[] operatorsDifficulty) {
+        this.facts = other.facts;
+        this.preconditions = other.preconditions;
+        this.effects = other.effects;
+        this.consumers = other.consumers;
+        this.achievers = other.achievers;
+        this.unconditioned = other.unconditioned;
+        this.pLevels = pLevels;
+        this.nLevels = nLevels;
+        this.operatorsLevels = operatorsLevels;
+        this.operatorsDifficulty = operatorsDifficulty;
+        this.state = new BitVector();
+        this.valid = false;
+        this.invalidPropositions = new boolean[other.invalidPropositions.length];
+        this.invalidOperators = new boolean[other.invalidOperators.length];
+        this.invalidPropositionsList = new int[other.invalidPropositionsList.length];
+        this.invalidOperatorsList = new int[other.invalidOperatorsList.length];
+        this.invalidation = new BucketQueue();
+        this.propagation = new BucketQueue();
+        this.changed = new BitVector();
+    }
+
+    /**
+     * Invalidates the levels. The next update computes the levels from scratch. This method must be called when the
+     * levels are modified by an other computation.
+     */
+    void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * Updates the levels of the propositions and the operators for a specified state.
+     *
+     * @param s the state.
+     */
+    void update(final BitVector s) {
+        if (!this.valid) {
+            this.compute(s);
+        } else {
+            this.changed.clear();
+            this.changed.or(s);
+            this.changed.xor(this.state);
+            // Phase 1: invalidate the propositions that no longer hold and all that depend only on them
+            for (int f = this.changed.nextSetBit(0); f >= 0; f = this.changed.nextSetBit(f + 1)) {
+                final int lost = s.get(f) ? this.facts + f : f;
+                this.invalidation.add(lost, 0);
+            }
+            this.invalidate(s);
+            // Phase 2: propagate the levels of the propositions invalidated and of the propositions that now hold
+            for (int i = 0; i < this.nbInvalidOperators; i++) {
+                final int o = this.invalidOperatorsList[i];
+                this.operatorsLevels[o] = IncrementalRelaxedGraph.INFINITY;
+                this.operatorsDifficulty[o] = IncrementalRelaxedGraph.INFINITY;
+            }
+            for (int i = 0; i < this.nbInvalidPropositions; i++) {
+                this.setLevel(this.invalidPropositionsList[i], IncrementalRelaxedGraph.INFINITY);
+            }
+            for (int i = 0; i < this.nbInvalidPropositions; i++) {
+                final int p = this.invalidPropositionsList[i];
+                int level = IncrementalRelaxedGraph.INFINITY;
+                for (int o : this.achievers[p]) {
+                    if (this.operatorsLevels[o] != IncrementalRelaxedGraph.INFINITY) {
+                        level = Math.min(level, this.operatorsLevels[o] + 1);
+                    }
+                }
+                if (level != IncrementalRelaxedGraph.INFINITY) {
+                    this.setLevel(p, level);
+                    this.propagation.add(p, level);
+                }
+                this.invalidPropositions[p] = false;
+            }
+            for (int i = 0; i < this.nbInvalidOperators; i++) {
+                this.invalidOperators[this.invalidOperatorsList[i]] = false;
+            }
+            this.nbInvalidPropositions = 0;
+            this.nbInvalidOperators = 0;
+            for (int f = this.changed.nextSetBit(0); f >= 0; f = this.changed.nextSetBit(f + 1)) {
+                final int gained = s.get(f) ? f : this.facts + f;
+                this.decrease(gained, 0);
+            }
+            this.propagate();
+        }
+        this.state.clear();
+        this.state.or(s);
+    }
+
+    /**
+     * Computes the levels of the propositions and the operators from scratch for a specified state.
+     *
+     * @param s the state.
+     */
+    private void compute(final BitVector s) {
+        Arrays.fill(this.pLevels, IncrementalRelaxedGraph.INFINITY);
+        Arrays.fill(this.nLevels, IncrementalRelaxedGraph.INFINITY);
+        Arrays.fill(this.operatorsLevels, IncrementalRelaxedGraph.INFINITY);
+        Arrays.fill(this.operatorsDifficulty, IncrementalRelaxedGraph.INFINITY);
+        for (int p = 0; p < 2 * this.facts; p++) {
+            if (this.holds(s, p)) {
+                this.decrease(p, 0);
+            }
+        }
+        // The operators without precondition are applicable in every state
+        for (int o : this.unconditioned) {
+            this.operatorsLevels[o] = 0;
+            this.operatorsDifficulty[o] = 0;
+            for (int p : this.effects[o]) {
+                this.decrease(p, 1);
+            }
+        }
+        this.propagate();
+        this.valid = true;
+    }
+
+    /**
+     * Invalidates in increasing order of their former levels the propositions and the operators of the invalidation
+     * queue and all the propositions and the operators that depend on them. A proposition is invalidated if it does
+     * not hold in the new state and if it has no achiever of the same level that is not invalidated. An operator is
+     * invalidated if one of its preconditions is invalidated.
+     *
+     * @param s the new state.
+     */
+    private void invalidate(final BitVector s) {
+        final int offset = 2 * this.facts;
+        for (int e = this.invalidation.poll(); e >= 0; e = this.invalidation.poll()) {
+            if (e < offset) {
+                if (this.invalidPropositions[e] || this.holds(s, e) || this.isSupported(e)) {
+                    continue;
+                }
+                this.invalidPropositions[e] = true;
+                this.invalidPropositionsList[this.nbInvalidPropositions++] = e;
+                for (int o : this.consumers[e]) {
+                    if (!this.invalidOperators[o] && this.operatorsLevels[o] != IncrementalRelaxedGraph.INFINITY) {
+                        this.invalidOperators[o] = true;
+                        this.invalidOperatorsList[this.nbInvalidOperators++] = o;
+                        this.invalidation.add(offset + o, 2 * this.operatorsLevels[o] + 1);
+                    }
+                }
+            } else {
+                final int o = e - offset;
+                final int level = this.operatorsLevels[o] + 1;
+                for (int p : this.effects[o]) {
+                    if (!this.invalidPropositions[p] && this.getLevel(p) == level) {
+                        this.invalidation.add(p, 2 * level);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a proposition has an achiever that is not invalidated and that gives to the
+     * proposition its current level.
+     *
+     * @param p the proposition.
+     * @return <code>true</code> if the proposition is supported; <code>false</code> otherwise.
+     */
+    private boolean isSupported(final int p) {
+        final int level = this.getLevel(p);
+        for (int o : this.achievers[p]) {
+            if (!this.invalidOperators[o] && this.operatorsLevels[o] != IncrementalRelaxedGraph.INFINITY
+                && this.operatorsLevels[o] + 1 == level) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Propagates the levels of the propositions of the propagation queue in increasing order. Each time a proposition
+     * is polled, the level and the difficulty of the operators that have this proposition as precondition are
+     * recomputed and the levels of their effects are decreased if needed.
+     */
+    private void propagate() {
+        for (int p = this.propagation.poll(); p >= 0; p = this.propagation.poll()) {
+            if (this.getLevel(p) != this.propagation.getKey()) {
+                // The proposition was added again with a lower level and was already propagated
+                continue;
+            }
+            for (int o : this.consumers[p]) {
+                int level = 0;
+                int difficulty = 0;
+                for (int q : this.preconditions[o]) {
+                    final int l = this.getLevel(q);
+                    if (l == IncrementalRelaxedGraph.INFINITY) {
+                        level = IncrementalRelaxedGraph.INFINITY;
+                        break;
+                    }
+                    level = Math.max(level, l);
+                    difficulty += l;
+                }
+                if (level != IncrementalRelaxedGraph.INFINITY
+                    && (level != this.operatorsLevels[o] || difficulty != this.operatorsDifficulty[o])) {
+                    this.operatorsLevels[o] = level;
+                    this.operatorsDifficulty[o] = difficulty;
+                    for (int e : this.effects[o]) {
+                        this.decrease(e, level + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Decreases the level of a proposition and adds it to the propagation queue if the new level is lower than its
+     * current level.
+     *
+     * @param p     the proposition.
+     * @param level the new level.
+     */
+    private void decrease(final int p, final int level) {
+        if (level < this.getLevel(p)) {
+            this.setLevel(p, level);
+            this.propagation.add(p, level);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a proposition holds in a specified state.
+     *
+     * @param s the state.
+     * @param p the proposition.
+     * @return <code>true</code> if the proposition holds in the state; <code>false</code> otherwise.
+     */
+    private boolean holds(final BitVector s, final int p) {
+        return p < this.facts ? s.get(p) : !s.get(p - this.facts);
+    }
+
+    /**
+     * Returns the level of a proposition.
+     *
+     * @param p the proposition.
+     * @return the level of the proposition.
+     */
+    private int getLevel(final int p) {
+        return p < this.facts ? this.pLevels[p] : this.nLevels[p - this.facts];
+    }
+
+    /**
+     * Sets the level of a proposition.
+     *
+     * @param p     the proposition.
+     * @param level the level of the proposition.
+     */
+    private void setLevel(final int p, final int level) {
+        if (p < this.facts) {
+            this.pLevels[p] = level;
+        } else {
+            this.nLevels[p - this.facts] = level;
+        }
+    }
+
+    /**
+     * Converts the positive and negative fluents of a condition or an effect into an array of propositions.
+     *
+     * @param positive the positive fluents.
+     * @param negative the negative fluents.
+     * @return the propositions.
+     */
+    private int[] toPropositions(final BitVector positive, final BitVector negative) {
+        final int[] propositions = new int[positive.cardinality() + negative.cardinality()];
+        int i = 0;
+        for (int p = positive.nextSetBit(0); p >= 0; p = positive.nextSetBit(p + 1)) {
+            propositions[i++] = p;
+        }
+        for (int p = negative.nextSetBit(0); p >= 0; p = negative.nextSetBit(p + 1)) {
+            propositions[i++] = this.facts + p;
+        }
+        return propositions;
+    }
+
+    /**
+     * This class implements a monotone bucket queue. The elements are polled in increasing order of their keys and
+     * the key of an element added must not be lower than the key of the last element polled. An element can be added
+     * several times with different keys, i.e., the queue does not support the decrease of a key. The elements are
+     * removed lazily: the caller must skip the elements whose key is no longer up to date.
+     */
+    private static final class BucketQueue {
+
+        /**
+         * The buckets of elements indexed by key.
+         */
+        private int[][] buckets;
+
+        /**
+         * The number of elements of each bucket.
+         */
+        private int[] sizes;
+
+        /**
+         * The key of the current bucket.
+         */
+        private int key;
+
+        /**
+         * The position of the next element to poll in the current bucket.
+         */
+        private int position;
+
+        /**
+         * The greatest key of the elements of the queue.
+         */
+        private int last;
+
+        /**
+         * Creates a new empty bucket queue.
+         */
+        private BucketQueue() {
+            this.buckets = new int[16][];
+            this.sizes = new int[16];
+            this.key = Integer.MAX_VALUE;
+            this.position = 0;
+            this.last = -1;
+        }
+
+        /**
+         * Adds an element to the queue.
+         *
+         * @param e   the element.
+         * @param key the key of the element.
+         */
+        private void add(final int e, final int key) {
+            if (key >= this.buckets.length) {
+                final int capacity = Math.max(key + 1, this.buckets.length << 1);
+                this.buckets = Arrays.copyOf(this.buckets, capacity);
+                this.sizes = Arrays.copyOf(this.sizes, capacity);
+            }
+            int[] bucket = this.buckets[key];
+            if (bucket == null) {
+                bucket = new int[16];
+                this.buckets[key] = bucket;
+            } else if (this.sizes[key] == bucket.length) {
+                bucket = Arrays.copyOf(bucket, bucket.length << 1);
+                this.buckets[key] = bucket;
+            }
+            bucket[this.sizes[key]++] = e;
+            this.key = Math.min(this.key, key);
+            this.last = Math.max(this.last, key);
+        }
+
+        /**
+         * Removes and returns an element with the lowest key of the queue.
+         *
+         * @return an element with the lowest key or -1 if the queue is empty.
+         */
+        private int poll() {
+            while (this.key <= this.last) {
+                if (this.position < this.sizes[this.key]) {
+                    return this.buckets[this.key][this.position++];
+                }
+                this.sizes[this.key] = 0;
+                this.position = 0;
+                this.key++;
+            }
+            this.key = Integer.MAX_VALUE;
+            this.last = -1;
+            return -1;
+        }
+
+        /**
+         * Returns the key of the last element polled.
+         *
+         * @return the key of the last element polled.
+         */
+        private int getKey() {
+            return this.key;
+        }
+    }
+}
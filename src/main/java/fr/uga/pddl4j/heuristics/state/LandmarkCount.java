@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the landmark counting heuristic <code>LM-count</code>. For more details on this heuristic see
+ * S. Richter, M. Helmert and M. Westphal, Landmarks Revisited, in: Proceedings of the 23rd AAAI Conference on
+ * Artificial Intelligence, 2008.
+ * <p>
+ * The landmarks are the propositions that must be true at some point of every plan of the problem relaxed by ignoring
+ * the negative effects. They are computed once per problem from the initial state by propagating labels over the
+ * relaxed planning graph as proposed by L. Zhu and R. Givan: the label of a proposition is the set of propositions
+ * that must be achieved before it, the proposition itself included, i.e., the intersection over its achievers of the
+ * union of the labels of their preconditions. The landmarks of the goal are the union of the labels of the
+ * propositions of the goal. A landmark is ordered after the other landmarks of its label.
+ * </p>
+ * <p>
+ * The heuristic value is the number of landmarks not yet accepted plus the number of accepted landmarks of the goal
+ * that are false and thus required again. When the heuristic estimates a {@link Node}, the landmarks accepted are
+ * tracked incrementally along the parents of the node: a landmark is accepted by a node if it is accepted by the parent
+ * of the node or if it holds in the node and all the landmarks ordered before it are accepted by the parent. The
+ * landmarks accepted by a node are stored in the node. When the heuristic estimates a state registered by a search
+ * with {@link #estimateCost(State, int, int, Condition)}, the landmarks accepted are tracked in the same way and stored
+ * per index of the state in the registry of the search. The copies returned by {@link #share()} share the landmarks
+ * stored per index.
+ * </p>
+ * <p>
+ * When the heuristic estimates a state without its path, or a state whose parent was not estimated, e.g., because
+ * its value was found in a cache, the landmarks accepted are the landmarks that hold in the initial state, which are
+ * accepted by the root of every search, and the landmarks that hold in the state.
+ * </p>
+ * <b>Warning:</b> The heuristic is not admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 03.12.2021
+ * @since 4.0
+ */
+public final class LandmarkCount extends AbstractStateHeuristic {
+
+    /**
+     * The unconditional operators of the relaxed problem.
+     */
+    private final RelaxedOperators operators;
+
+    /**
+     * The label of each proposition computed from the initial state or null if the proposition is unreachable.
+     */
+    private final BitVector[] labels;
+
+    /**
+     * The propositions that hold in the initial state.
+     */
+    private final BitVector initial;
+
+    /**
+     * The landmarks accepted by the states estimated per index of the state in the registry of the search.
+     */
+    private final AcceptedLandmarks registered;
+
+    /**
+     * The goal of the landmarks computed.
+     */
+    private Condition landmarksGoal;
+
+    /**
+     * The landmarks of the goal.
+     */
+    private final BitVector landmarks;
+
+    /**
+     * The landmarks of the goal that hold in the initial state.
+     */
+    private final BitVector initialLandmarks;
+
+    /**
+     * The propositions of the goal.
+     */
+    private int[] goals;
+
+    /**
+     * The flag set if all the propositions of the goal are reachable from the initial state.
+     */
+    private boolean reachable;
+
+    /**
+     * Creates a new <code>LM_COUNT</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public LandmarkCount(final Problem problem) {
+        super(problem);
+        super.setAdmissible(false);
+        this.operators = new RelaxedOperators(problem);
+        final State init = new State(problem.getInitialState());
+        this.labels = this.computeLabels(init);
+        this.initial = new BitVector();
+        for (int p = 0; p < this.labels.length; p++) {
+            if (this.operators.holds(init, p)) {
+                this.initial.set(p);
+            }
+        }
+        this.registered = new AcceptedLandmarks();
+        this.landmarks = new BitVector();
+        this.initialLandmarks = new BitVector();
+        this.goals = new int[0];
+        this.landmarksGoal = null;
+        this.reachable = true;
+    }
+
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the operators and the labels precomputed by
+     * the other one.
+     *
+     * @param other      the other heuristic.
+     * @param registered the landmarks accepted by the states estimated per index of the state in the registry of the
+     *                   search.
+     */
+    private LandmarkCount(final LandmarkCount other, final AcceptedLandmarks registered) {
+        super(other);
+        this.operators = other.operators;
+        this.labels = other.labels;
+        this.initial = other.initial;
+        this.registered = registered;
+        this.landmarks = new BitVector();
+        this.initialLandmarks = new BitVector();
+        this.goals = new int[0];
+        this.landmarksGoal = null;
+        this.reachable = true;
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the operators and the labels precomputed by this heuristic and
+     * can be used by an other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public LandmarkCount copy() {
+        return new LandmarkCount(this, new AcceptedLandmarks());
+    }
+
+    /**
+     * Returns a copy of this heuristic used by an other thread of the same search. The copy shares the operators and
+     * the labels precomputed by this heuristic and the landmarks accepted by the states already estimated by
+     * {@link #estimateCost(State, int, int, Condition)}.
+     *
+     * @return a copy of this heuristic sharing the landmarks accepted by the states estimated.
+     */
+    @Override
+    public LandmarkCount share() {
+        return new LandmarkCount(this, this.registered);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. The landmarks accepted are those that
+     * hold in the initial state or in the state. If the return value is <code>Integer.MAX_VALUE</code>, it means that
+     * the goal is unreachable from the initial state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        this.updateLandmarks(goal);
+        if (!this.reachable) {
+            return Integer.MAX_VALUE;
+        }
+        return this.count(this.acceptWithoutPath(state), state);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from a state registered by a search. The landmarks accepted by the
+     * state are computed from the landmarks accepted by its parent and stored for the index of the state. If the
+     * parent was not estimated, the landmarks accepted are computed as if the state was estimated without its path.
+     * If the return value is <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the initial
+     * state.
+     *
+     * @param state  the state from which the cost to the goal must be estimated.
+     * @param id     the index of the state in the registry of the search.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @param goal   the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     */
+    @Override
+    public double estimateCost(final State state, final int id, final int parent, final Condition goal) {
+        this.updateLandmarks(goal);
+        if (!this.reachable) {
+            return Integer.MAX_VALUE;
+        }
+        final BitVector accepted;
+        if (parent < 0) {
+            accepted = this.accept(null, state);
+        } else {
+            final BitVector previous = this.registered.get(parent);
+            accepted = previous != null ? this.accept(previous, state) : this.acceptWithoutPath(state);
+        }
+        this.registered.set(id, accepted);
+        return this.count(accepted, state);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified node. The landmarks accepted by the node are
+     * computed from the landmarks accepted by its parent and stored in the node. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the initial state.
+     *
+     * @param node the node from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified node.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        this.updateLandmarks(goal);
+        if (!this.reachable) {
+            return Integer.MAX_VALUE;
+        }
+        final BitVector accepted = this.getAcceptedLandmarks(node);
+        node.setAcceptedLandmarks(accepted);
+        return this.count(accepted, node);
+    }
+
+    /**
+     * Returns <code>false</code>: the landmarks are computed again for each new goal.
+     *
+     * @return <code>false</code>.
+     */
+    @Override
+    public boolean isGoalIndependent() {
+        return false;
+    }
+
+    /**
+     * Returns the number of landmarks not accepted plus the number of accepted landmarks of the goal that do not hold
+     * in a state.
+     *
+     * @param accepted the landmarks accepted by the state.
+     * @param state    the state.
+     * @return the heuristic value of the state.
+     */
+    private int count(final BitVector accepted, final State state) {
+        int value = this.landmarks.cardinality() - accepted.cardinality();
+        for (int g : this.goals) {
+            if (accepted.get(g) && !this.operators.holds(state, g)) {
+                value++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the landmarks accepted by a node. The landmarks accepted by the ancestors of the node that were not
+     * estimated are computed from the first ancestor estimated or from the root node.
+     *
+     * @param node the node.
+     * @return the landmarks accepted by the node.
+     */
+    private BitVector getAcceptedLandmarks(final Node node) {
+        int depth = 0;
+        Node ancestor = node.getParent();
+        while (ancestor != null && ancestor.getAcceptedLandmarks() == null) {
+            depth++;
+            ancestor = ancestor.getParent();
+        }
+        final Node[] path = new Node[depth];
+        Node current = node.getParent();
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i] = current;
+            current = current.getParent();
+        }
+        BitVector accepted = ancestor != null ? ancestor.getAcceptedLandmarks() : null;
+        for (Node n : path) {
+            accepted = this.accept(accepted, n);
+        }
+        return this.accept(accepted, node);
+    }
+
+    /**
+     * Returns the landmarks accepted by a state from the landmarks accepted by its parent. A landmark is accepted if
+     * it is accepted by the parent or if it holds in the state and all the landmarks ordered before it are accepted by
+     * the parent. If the state accepts no new landmark, the landmarks accepted by the parent are returned so that the
+     * states share them.
+     *
+     * @param parent the landmarks accepted by the parent or null if the state is the root of the search.
+     * @param state  the state.
+     * @return the landmarks accepted by the state.
+     */
+    private BitVector accept(final BitVector parent, final State state) {
+        BitVector accepted = parent == null ? new BitVector() : parent;
+        for (int l = this.landmarks.nextSetBit(0); l >= 0; l = this.landmarks.nextSetBit(l + 1)) {
+            if (!accepted.get(l) && this.operators.holds(state, l)) {
+                if (parent == null || this.isOrdered(l, parent)) {
+                    if (accepted == parent) {
+                        accepted = new BitVector(parent);
+                    }
+                    accepted.set(l);
+                }
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns the landmarks accepted by a state whose path is unknown, i.e., the landmarks that hold in the initial
+     * state and the landmarks that hold in the state.
+     *
+     * @param state the state.
+     * @return the landmarks accepted by the state.
+     */
+    private BitVector acceptWithoutPath(final State state) {
+        final BitVector accepted = this.accept(null, state);
+        accepted.or(this.initialLandmarks);
+        return accepted;
+    }
+
+    /**
+     * Returns if all the landmarks ordered before a specified landmark, i.e., the landmarks of its label except
+     * itself, are accepted.
+     *
+     * @param landmark the landmark.
+     * @param accepted the landmarks accepted.
+     * @return <code>true</code> if all the landmarks ordered before the landmark are accepted; <code>false</code>
+     *      otherwise.
+     */
+    private boolean isOrdered(final int landmark, final BitVector accepted) {
+        final BitVector label = this.labels[landmark];
+        for (int l = label.nextSetBit(0); l >= 0; l = label.nextSetBit(l + 1)) {
+            if (l != landmark && !accepted.get(l)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the landmarks of a goal if they are not already computed.
+     *
+     * @param goal the goal.
+     */
+    private void updateLandmarks(final Condition goal) {
+        if (goal.equals(this.landmarksGoal)) {
+            return;
+        }
+        super.setGoal(goal);
+        this.landmarksGoal = new Condition(goal);
+        this.goals = this.operators.toPropositions(goal);
+        this.landmarks.clear();
+        this.reachable = true;
+        for (int g : this.goals) {
+            if (this.labels[g] == null) {
+                this.reachable = false;
+            } else {
+                this.landmarks.or(this.labels[g]);
+            }
+        }
+        this.initialLandmarks.clear();
+        this.initialLandmarks.or(this.landmarks);
+        this.initialLandmarks.and(this.initial);
+    }
+
+    /**
+     * Computes the labels of the propositions from a specified state. The label of a proposition that holds in the
+     * state is the proposition itself. The label of an other proposition is the proposition itself and the
+     * intersection over its achievers of the union of the labels of their preconditions. The labels are computed by
+     * propagating the changes until a fixpoint is reached.
+     *
+     * @param state the state.
+     * @return the labels of the propositions, null for the propositions unreachable from the state.
+     */
+    private BitVector[] computeLabels(final State state) {
+        final int propositions = this.operators.getPropositions();
+        final int[][] preconditions = this.operators.getPreconditions();
+        final int[][] consumers = this.operators.getConsumers();
+        final BitVector[] labels = new BitVector[propositions];
+        final int[] counters = new int[this.operators.size()];
+        for (int o = 0; o < counters.length; o++) {
+            counters[o] = preconditions[o].length;
+        }
+        // The queue of the propositions whose label changed
+        final int[] queue = new int[propositions];
+        final boolean[] queued = new boolean[propositions];
+        int head = 0;
+        int size = 0;
+        for (int p = 0; p < propositions; p++) {
+            if (this.operators.holds(state, p)) {
+                labels[p] = new BitVector();
+                labels[p].set(p);
+                for (int o : consumers[p]) {
+                    counters[o]--;
+                }
+                queue[(head + size++) % propositions] = p;
+                queued[p] = true;
+            }
+        }
+        final BitVector label = new BitVector();
+        for (int o : this.operators.getUnconditioned()) {
+            label.clear();
+            size = this.propagate(o, label, labels, counters, queue, queued, head, size);
+        }
+        while (size > 0) {
+            final int p = queue[head];
+            head = (head + 1) % propositions;
+            size--;
+            queued[p] = false;
+            for (int o : consumers[p]) {
+                if (counters[o] == 0) {
+                    label.clear();
+                    for (int q : preconditions[o]) {
+                        label.or(labels[q]);
+                    }
+                    size = this.propagate(o, label, labels, counters, queue, queued, head, size);
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Propagates the label of an operator to its effects. The label of an effect is intersected with the label of the
+     * operator and the effect itself. The effects whose label changed are added to the queue.
+     *
+     * @param o        the operator.
+     * @param label    the label of the operator, i.e., the union of the labels of its preconditions.
+     * @param labels   the labels of the propositions.
+     * @param counters the number of preconditions of each operator without label.
+     * @param queue    the circular queue of the propositions whose label changed.
+     * @param queued   the flags of the propositions of the queue.
+     * @param head     the head of the queue.
+     * @param size     the size of the queue.
+     * @return the new size of the queue.
+     */
+    private int propagate(final int o, final BitVector label, final BitVector[] labels, final int[] counters,
+                          final int[] queue, final boolean[] queued, final int head, final int size) {
+        int newSize = size;
+        for (int e : this.operators.getEffects()[o]) {
+            final BitVector candidate = new BitVector(label);
+            candidate.set(e);
+            final boolean changed;
+            if (labels[e] == null) {
+                labels[e] = candidate;
+                for (int c : this.operators.getConsumers()[e]) {
+                    counters[c]--;
+                }
+                changed = true;
+            } else {
+                candidate.and(labels[e]);
+                changed = candidate.cardinality() < labels[e].cardinality();
+                if (changed) {
+                    labels[e] = candidate;
+                }
+            }
+            if (changed && !queued[e]) {
+                queued[e] = true;
+                queue[(head + newSize++) % queue.length] = e;
+            }
+        }
+        return newSize;
+    }
+
+    /**
+     * This class implements the table of the landmarks accepted by the states estimated per index of the state in the
+     * registry of the search. The table is shared by the copies of the heuristic used by the threads of a search.
+     */
+    private static final class AcceptedLandmarks {
+
+        /**
+         * The initial capacity of the table.
+         */
+        private static final int INITIAL_CAPACITY = 1024;
+
+        /**
+         * The landmarks accepted per index or null if the state of the index was not estimated.
+         */
+        private BitVector[] table;
+
+        /**
+         * Creates a new empty table.
+         */
+        private AcceptedLandmarks() {
+            this.table = new BitVector[AcceptedLandmarks.INITIAL_CAPACITY];
+        }
+
+        /**
+         * Returns the landmarks accepted by a state.
+         *
+         * @param id the index of the state.
+         * @return the landmarks accepted by the state or null if the state was not estimated.
+         */
+        private synchronized BitVector get(final int id) {
+            return id < this.table.length ? this.table[id] : null;
+        }
+
+        /**
+         * Sets the landmarks accepted by a state.
+         *
+         * @param id       the index of the state.
+         * @param accepted the landmarks accepted by the state.
+         */
+        private synchronized void set(final int id, final BitVector accepted) {
+            if (id >= this.table.length) {
+                this.table = Arrays.copyOf(this.table, Math.max(id + 1, this.table.length << 1));
+            }
+            this.table[id] = accepted;
+        }
+    }
+}
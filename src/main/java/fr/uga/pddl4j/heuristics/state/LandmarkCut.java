@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the landmark-cut heuristic <code>LM-cut</code>. For more details on this heuristic see
+ * M. Helmert and C. Domshlak, Landmarks, Critical Paths and Abstractions: What's the Difference Anyway?, in:
+ * Proceedings of the 19th International Conference on Automated Planning and Scheduling, 2009.
+ * <p>
+ * The heuristic repeatedly computes the <code>h_max</code> costs of the propositions with the current costs of the
+ * actions, chooses for each unconditional operator the precondition of maximal cost and builds the justification
+ * graph whose edges link the chosen precondition of each operator to its effects. The operators that link the
+ * propositions reachable from the state without crossing the goal zone, i.e., the propositions from which the goal is
+ * reached by operators of zero cost, to the goal zone form a cut. The actions of the cut are a disjunctive action
+ * landmark: the minimal cost of its actions is added to the heuristic value and subtracted from the cost of each of
+ * its actions. The computation stops when the <code>h_max</code> cost of the goal is zero.
+ * </p>
+ * <p>
+ * The costs are subtracted from the actions and not from the unconditional operators so that an action whose
+ * conditional effects belong to the same cut is counted once. Thus, the heuristic is admissible with conditional
+ * effects. However, the cost subtracted from an action also decreases the cost of its conditional effects outside the
+ * cut and the heuristic value may be lower than <code>h_max</code>. Thus, the heuristic returns the maximum of both
+ * values. The goal is reached by an artificial operator of zero cost whose preconditions are the goal.
+ * </p>
+ * <b>Warning:</b> The heuristic is admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 03.12.2021
+ * @since 4.0
+ */
+public final class LandmarkCut extends AbstractStateHeuristic {
+
+    /**
+     * The choice of an unconditional operator without precondition, i.e., an operator linked to the state.
+     */
+    private static final int STATE = -1;
+
+    /**
+     * The unconditional operators of the relaxed problem.
+     */
+    private final RelaxedOperators operators;
+
+    /**
+     * The artificial proposition achieved by the goal operator.
+     */
+    private final int goalProposition;
+
+    /**
+     * The index of the artificial operator that achieves the goal.
+     */
+    private final int goalOperator;
+
+    /**
+     * The <code>h_max</code> cost of each proposition.
+     */
+    private final double[] values;
+
+    /**
+     * The <code>h_max</code> cost of the preconditions of each operator.
+     */
+    private final double[] operatorsValues;
+
+    /**
+     * The number of preconditions not yet polled of each operator.
+     */
+    private final int[] counters;
+
+    /**
+     * The precondition chosen for each operator.
+     */
+    private final int[] choices;
+
+    /**
+     * The current cost of each action.
+     */
+    private final double[] costs;
+
+    /**
+     * The propositions of the goal.
+     */
+    private int[] goals;
+
+    /**
+     * The flags of the propositions of the goal.
+     */
+    private final boolean[] goalFlags;
+
+    /**
+     * The flags of the propositions of the goal zone.
+     */
+    private final boolean[] goalZone;
+
+    /**
+     * The flags of the propositions reached before the goal zone.
+     */
+    private final boolean[] reached;
+
+    /**
+     * The stack of the propositions used to compute the zones.
+     */
+    private final int[] stack;
+
+    /**
+     * The operators of the cut.
+     */
+    private final int[] cut;
+
+    /**
+     * The stamp of the last cut of each action used to subtract the cost of an action once per cut.
+     */
+    private final int[] stamps;
+
+    /**
+     * The queue of the propositions ordered by cost.
+     */
+    private final CostQueue queue;
+
+    /**
+     * The stamp of the current cut.
+     */
+    private int stamp;
+
+    /**
+     * Creates a new <code>LM_CUT</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public LandmarkCut(final Problem problem) {
+        super(problem);
+        super.setAdmissible(true);
+        this.operators = new RelaxedOperators(problem);
+        this.goalProposition = this.operators.getPropositions();
+        this.goalOperator = this.operators.size();
+        this.values = new double[this.goalProposition + 1];
+        this.operatorsValues = new double[this.goalOperator + 1];
+        this.counters = new int[this.goalOperator + 1];
+        this.choices = new int[this.goalOperator + 1];
+        this.costs = new double[this.operators.getCosts().length];
+        this.goals = new int[0];
+        this.goalFlags = new boolean[this.goalProposition];
+        this.goalZone = new boolean[this.goalProposition + 1];
+        this.reached = new boolean[this.goalProposition + 1];
+        this.stack = new int[this.goalProposition + 1];
+        this.cut = new int[this.goalOperator];
+        this.stamps = new int[this.costs.length];
+        this.queue = new CostQueue();
+        this.stamp = 0;
+    }
+
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the operators precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private LandmarkCut(final LandmarkCut other) {
+        super(other);
+        this.operators = other.operators;
+        this.goalProposition = other.goalProposition;
+        this.goalOperator = other.goalOperator;
+        this.values = new double[other.values.length];
+        this.operatorsValues = new double[other.operatorsValues.length];
+        this.counters = new int[other.counters.length];
+        this.choices = new int[other.choices.length];
+        this.costs = new double[other.costs.length];
+        this.goals = new int[0];
+        this.goalFlags = new boolean[other.goalFlags.length];
+        this.goalZone = new boolean[other.goalZone.length];
+        this.reached = new boolean[other.reached.length];
+        this.stack = new int[other.stack.length];
+        this.cut = new int[other.cut.length];
+        this.stamps = new int[other.stamps.length];
+        this.queue = new CostQueue();
+        this.stamp = 0;
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the operators precomputed by this heuristic and can be used by
+     * an other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public LandmarkCut copy() {
+        return new LandmarkCut(this);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. The distance is the cost returned by
+     * {@link #estimateCost(State, Condition)} rounded up to the nearest integer. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        final double cost = this.estimateCost(state, goal);
+        return cost >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(cost - 1e-9);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified node. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified node.
+     *
+     * @param node the node from which the cost to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the cost to reach the goal from the specified node.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return this.estimateCost(node, goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public double estimateCost(final State state, final Condition goal) {
+        super.setGoal(goal);
+        for (int g : this.goals) {
+            this.goalFlags[g] = false;
+        }
+        this.goals = this.operators.toPropositions(goal);
+        for (int g : this.goals) {
+            this.goalFlags[g] = true;
+        }
+        System.arraycopy(this.operators.getCosts(), 0, this.costs, 0, this.costs.length);
+        this.computeCosts(state);
+        if (this.values[this.goalProposition] == Double.POSITIVE_INFINITY) {
+            return Integer.MAX_VALUE;
+        }
+        final double max = this.values[this.goalProposition];
+        double value = 0.0;
+        while (this.values[this.goalProposition] > 0.0) {
+            final int size = this.computeCut(state);
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, this.costs[this.operators.getActions()[this.cut[i]]]);
+            }
+            value += min;
+            this.stamp++;
+            for (int i = 0; i < size; i++) {
+                final int a = this.operators.getActions()[this.cut[i]];
+                if (this.stamps[a] != this.stamp) {
+                    this.stamps[a] = this.stamp;
+                    this.costs[a] -= min;
+                }
+            }
+            this.computeCosts(state);
+        }
+        return Math.max(value, max);
+    }
+
+    /**
+     * Computes the <code>h_max</code> costs of the propositions from a specified state with the current costs of the
+     * actions and chooses for each operator reached its precondition of maximal cost.
+     *
+     * @param state the state.
+     */
+    private void computeCosts(final State state) {
+        final int[][] consumers = this.operators.getConsumers();
+        final int facts = this.operators.getFacts();
+        Arrays.fill(this.values, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.operatorsValues, 0.0);
+        final int[][] preconditions = this.operators.getPreconditions();
+        for (int o = 0; o < this.goalOperator; o++) {
+            this.counters[o] = preconditions[o].length;
+            this.choices[o] = LandmarkCut.STATE;
+        }
+        this.counters[this.goalOperator] = this.goals.length;
+        this.choices[this.goalOperator] = LandmarkCut.STATE;
+        this.queue.clear();
+        for (int f = 0; f < facts; f++) {
+            final int p = state.get(f) ? f : facts + f;
+            this.values[p] = 0.0;
+            this.queue.add(p, 0.0);
+        }
+        for (int o : this.operators.getUnconditioned()) {
+            this.trigger(o);
+        }
+        if (this.goals.length == 0) {
+            this.trigger(this.goalOperator);
+        }
+        for (int p = this.queue.poll(); p >= 0; p = this.queue.poll()) {
+            final double value = this.queue.getKey();
+            if (value > this.values[p] || p == this.goalProposition) {
+                continue;
+            }
+            for (int o : consumers[p]) {
+                this.consume(o, p, value);
+            }
+            if (this.goalFlags[p]) {
+                this.consume(this.goalOperator, p, value);
+            }
+        }
+    }
+
+    /**
+     * Updates an operator when one of its preconditions is polled and triggers the operator when all its
+     * preconditions are polled. The precondition chosen for the operator is the last one polled, i.e., a precondition
+     * of maximal cost.
+     *
+     * @param o     the operator.
+     * @param p     the precondition polled.
+     * @param value the cost of the precondition.
+     */
+    private void consume(final int o, final int p, final double value) {
+        if (value >= this.operatorsValues[o]) {
+            this.operatorsValues[o] = value;
+            this.choices[o] = p;
+        }
+        if (--this.counters[o] == 0) {
+            this.trigger(o);
+        }
+    }
+
+    /**
+     * Triggers an operator whose preconditions are all reached and decreases the costs of its effects.
+     *
+     * @param o the operator.
+     */
+    private void trigger(final int o) {
+        if (o == this.goalOperator) {
+            this.values[this.goalProposition] = this.operatorsValues[o];
+            return;
+        }
+        final double cost = this.operatorsValues[o] + this.costs[this.operators.getActions()[o]];
+        for (int p : this.operators.getEffects()[o]) {
+            if (cost < this.values[p]) {
+                this.values[p] = cost;
+                this.queue.add(p, cost);
+            }
+        }
+    }
+
+    /**
+     * Computes the cut of the justification graph between the propositions reached from the state before the goal
+     * zone and the goal zone.
+     *
+     * @param state the state.
+     * @return the number of operators of the cut written at the beginning of the array of the cut.
+     */
+    private int computeCut(final State state) {
+        final int[][] achievers = this.operators.getAchievers();
+        final int[][] consumers = this.operators.getConsumers();
+        final int[][] effects = this.operators.getEffects();
+        final int[] actions = this.operators.getActions();
+        // The goal zone contains the propositions from which the goal is reached by operators of zero cost
+        Arrays.fill(this.goalZone, false);
+        int size = 0;
+        this.goalZone[this.goalProposition] = true;
+        final int choice = this.choices[this.goalOperator];
+        if (choice != LandmarkCut.STATE) {
+            this.goalZone[choice] = true;
+            this.stack[size++] = choice;
+        }
+        while (size > 0) {
+            final int p = this.stack[--size];
+            for (int o : achievers[p]) {
+                final int q = this.choices[o];
+                if (this.counters[o] == 0 && q != LandmarkCut.STATE && !this.goalZone[q]
+                    && this.costs[actions[o]] == 0.0) {
+                    this.goalZone[q] = true;
+                    this.stack[size++] = q;
+                }
+            }
+        }
+        // The propositions reached from the state without crossing the goal zone
+        Arrays.fill(this.reached, false);
+        int nbCut = 0;
+        final int facts = this.operators.getFacts();
+        for (int f = 0; f < facts; f++) {
+            final int p = state.get(f) ? f : facts + f;
+            this.reached[p] = true;
+            this.stack[size++] = p;
+        }
+        for (int o : this.operators.getUnconditioned()) {
+            nbCut = this.follow(o, nbCut);
+            size = this.push(o, size);
+        }
+        while (size > 0) {
+            final int p = this.stack[--size];
+            for (int o : consumers[p]) {
+                if (this.choices[o] == p && this.counters[o] == 0) {
+                    nbCut = this.follow(o, nbCut);
+                    size = this.push(o, size);
+                }
+            }
+        }
+        return nbCut;
+    }
+
+    /**
+     * Adds an operator reached from the state to the cut if one of its effects belongs to the goal zone.
+     *
+     * @param o     the operator.
+     * @param nbCut the number of operators of the cut.
+     * @return the new number of operators of the cut.
+     */
+    private int follow(final int o, final int nbCut) {
+        for (int p : this.operators.getEffects()[o]) {
+            if (this.goalZone[p]) {
+                this.cut[nbCut] = o;
+                return nbCut + 1;
+            }
+        }
+        return nbCut;
+    }
+
+    /**
+     * Pushes the effects of an operator outside the goal zone and not yet reached.
+     *
+     * @param o    the operator.
+     * @param size the size of the stack.
+     * @return the new size of the stack.
+     */
+    private int push(final int o, final int size) {
+        int newSize = size;
+        for (int p : this.operators.getEffects()[o]) {
+            if (!this.goalZone[p] && !this.reached[p]) {
+                this.reached[p] = true;
+                this.stack[newSize++] = p;
+            }
+        }
+        return newSize;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+/**
+ * This class implements the <code>h_max</code> heuristic with the costs of the actions. The cost of a set of
+ * propositions is the maximum of the costs of the propositions and the heuristic value is the cost of the goal. The
+ * heuristic is the counterpart of the {@link Max} heuristic for the problems with action costs: both heuristics are
+ * equal when all the actions have a unit cost.
+ * <b>Warning:</b> The heuristic is admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.12.2021
+ * @see RelaxedCostHeuristic
+ * @since 4.0
+ */
+public final class MaxCost extends RelaxedCostHeuristic {
+
+    /**
+     * Creates a new <code>MAX_COST</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public MaxCost(final Problem problem) {
+        super(problem, false);
+        super.setAdmissible(true);
+    }
+
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the operators precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private MaxCost(final MaxCost other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the operators precomputed by this heuristic and can be used by
+     * an other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public MaxCost copy() {
+        return new MaxCost(this);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public double estimateCost(final State state, final Condition goal) {
+        super.setGoal(goal);
+        return super.computeCosts(state) ? super.getMaxValue() : Integer.MAX_VALUE;
+    }
+}
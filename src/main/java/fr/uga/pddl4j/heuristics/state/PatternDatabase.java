@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a pattern database, i.e., the table of the goal distances of the abstract states of the
+ * projection of a problem onto a pattern of fluents. An abstract state is a valuation of the fluents of the pattern.
+ * It is indexed by the perfect hash function that maps the i-th fluent of the pattern to the i-th bit of the index.
+ * Thus, the distance of a state is looked up in a time linear in the size of the pattern.
+ * <p>
+ * The table is computed once by a backward Dijkstra search from the abstract goal states over the transitions of the
+ * abstract actions. An abstract action is the projection of an action onto the pattern: its precondition and its
+ * effects are restricted to the fluents of the pattern. When the condition of a conditional effect contains fluents
+ * outside the pattern that are not implied by the precondition of the action, the effect may or may not occur and both
+ * transitions are added. The abstraction preserves the paths of the problem, so the distances of the table are
+ * admissible estimates of the costs of the problem.
+ * </p>
+ * <p>
+ * The table can be written in a directory and read back for an other problem whose projection is the same, e.g., a
+ * problem of the same domain that differs only by fluents outside the pattern. The file of a table is named after the
+ * signature of the abstract problem, i.e., a hash of the abstract actions, their costs and the abstract goal.
+ * </p>
+ * <p>
+ * The distances from the abstract initial state to the abstract states are computed on demand by a forward Dijkstra
+ * search from the abstract initial state. They give the distance from the initial state to an other goal than the goal
+ * of the table, e.g., a partial state of a backward search, without computing an other table. They are never written
+ * in a file.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 06.12.2021
+ * @since 4.0
+ */
+final class PatternDatabase {
+
+    /**
+     * The maximal number of fluents of a pattern.
+     */
+    static final int MAX_PATTERN_SIZE = 24;
+
+    /**
+     * The magic number written at the beginning of the file of a table.
+     */
+    private static final int MAGIC = 0x50444231;
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(PatternDatabase.class.getName());
+
+    /**
+     * The fluents of the pattern.
+     */
+    private final int[] pattern;
+
+    /**
+     * The actions whose effects modify a fluent of the pattern.
+     */
+    private final BitVector actions;
+
+    /**
+     * The precondition of each abstract action: the positive fluents at index <code>0</code> and the negative fluents
+     * at index <code>1</code>.
+     */
+    private final int[][] preconditions;
+
+    /**
+     * The conditional effects of each abstract action. Each conditional effect is encoded by five masks: the positive
+     * and the negative fluents of its condition, the fluents added, the fluents deleted and a flag set to
+     * <code>1</code> if the effect occurs as soon as its condition restricted to the pattern holds.
+     */
+    private final int[][] effects;
+
+    /**
+     * The cost of each abstract action.
+     */
+    private final double[] costs;
+
+    /**
+     * The positive fluents of the abstract goal.
+     */
+    private final int positiveGoal;
+
+    /**
+     * The negative fluents of the abstract goal.
+     */
+    private final int negativeGoal;
+
+    /**
+     * The abstract initial state.
+     */
+    private final int init;
+
+    /**
+     * The signature of the abstract problem.
+     */
+    private final long signature;
+
+    /**
+     * The goal distance of each abstract state.
+     */
+    private double[] distances;
+
+    /**
+     * The distance from the abstract initial state of each abstract state or null if they are not computed yet.
+     */
+    private volatile double[] initialDistances;
+
+    /**
+     * Creates the pattern database of a pattern. The abstract problem is built but the table is not computed.
+     *
+     * @param problem the problem.
+     * @param goal    the goal.
+     * @param pattern the fluents of the pattern.
+     * @throws IllegalArgumentException if the pattern has more than {@link #MAX_PATTERN_SIZE} fluents.
+     */
+    PatternDatabase(final Problem problem, final Condition goal, final int[] pattern) {
+        if (pattern.length > PatternDatabase.MAX_PATTERN_SIZE) {
+            throw new IllegalArgumentException("pattern size > " + PatternDatabase.MAX_PATTERN_SIZE);
+        }
+        this.pattern = pattern.clone();
+        final int[] positions = new int[problem.getFluents().size()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < pattern.length; i++) {
+            positions[pattern[i]] = i;
+        }
+        this.actions = new BitVector();
+        // The abstract actions with the same precondition and the same effects are merged with their minimal cost
+        final Map<String, Integer> merged = new HashMap<>();
+        final List<int[]> preconditions = new ArrayList<>();
+        final List<int[]> effects = new ArrayList<>();
+        final List<Double> costs = new ArrayList<>();
+        final List<Action> operators = problem.getActions();
+        for (int a = 0; a < operators.size(); a++) {
+            final Action action = operators.get(a);
+            final Condition pre = action.getPrecondition();
+            if (pre.getPositiveFluents().intersects(pre.getNegativeFluents())) {
+                continue;
+            }
+            final int[] effect = this.project(action, positions);
+            if (effect.length == 0) {
+                continue;
+            }
+            this.actions.set(a);
+            final int[] precondition = new int[] {
+                PatternDatabase.mask(pre.getPositiveFluents(), positions),
+                PatternDatabase.mask(pre.getNegativeFluents(), positions)
+            };
+            final String key = Arrays.toString(precondition) + Arrays.toString(effect);
+            final double cost = action.getCost().getValue();
+            final Integer index = merged.get(key);
+            if (index == null) {
+                merged.put(key, costs.size());
+                preconditions.add(precondition);
+                effects.add(effect);
+                costs.add(cost);
+            } else if (cost < costs.get(index)) {
+                costs.set(index, cost);
+            }
+        }
+        this.preconditions = preconditions.toArray(new int[0][]);
+        this.effects = effects.toArray(new int[0][]);
+        this.costs = new double[costs.size()];
+        for (int i = 0; i < this.costs.length; i++) {
+            this.costs[i] = costs.get(i);
+        }
+        this.positiveGoal = PatternDatabase.mask(goal.getPositiveFluents(), positions);
+        this.negativeGoal = PatternDatabase.mask(goal.getNegativeFluents(), positions);
+        this.init = PatternDatabase.mask(problem.getInitialState().getPositiveFluents(), positions);
+        // The signature does not depend on the order of the actions
+        final List<String> keys = new ArrayList<>(merged.keySet());
+        Collections.sort(keys);
+        long hash = PatternDatabase.hash(0xcbf29ce484222325L, pattern.length);
+        hash = PatternDatabase.hash(hash, this.positiveGoal);
+        hash = PatternDatabase.hash(hash, this.negativeGoal);
+        for (String key : keys) {
+            for (int i = 0; i < key.length(); i++) {
+                hash = PatternDatabase.hash(hash, key.charAt(i));
+            }
+            final long bits = Double.doubleToLongBits(this.costs[merged.get(key)]);
+            hash = PatternDatabase.hash(hash, (int) bits);
+            hash = PatternDatabase.hash(hash, (int) (bits >>> 32));
+        }
+        this.signature = hash;
+        this.distances = null;
+        this.initialDistances = null;
+    }
+
+    /**
+     * Returns the conditional effects of an action projected onto the pattern. The effects that do not modify the
+     * pattern and the effects whose condition contradicts the precondition of the action are removed.
+     *
+     * @param action    the action.
+     * @param positions the position of each fluent in the pattern or -1 if the fluent is not in the pattern.
+     * @return the masks of the conditional effects projected onto the pattern.
+     */
+    private int[] project(final Action action, final int[] positions) {
+        final Condition pre = action.getPrecondition();
+        final List<ConditionalEffect> conditionalEffects = action.getConditionalEffects();
+        final int[] effects = new int[5 * conditionalEffects.size()];
+        int size = 0;
+        for (ConditionalEffect ce : conditionalEffects) {
+            final BitVector positive = ce.getCondition().getPositiveFluents();
+            final BitVector negative = ce.getCondition().getNegativeFluents();
+            final int add = PatternDatabase.mask(ce.getEffect().getPositiveFluents(), positions);
+            final int del = PatternDatabase.mask(ce.getEffect().getNegativeFluents(), positions);
+            if (add == 0 && del == 0 || positive.intersects(negative)
+                || positive.intersects(pre.getNegativeFluents()) || negative.intersects(pre.getPositiveFluents())) {
+                continue;
+            }
+            // The effect occurs if its condition restricted to the pattern holds when the precondition implies the
+            // fluents of the condition outside the pattern
+            boolean certain = true;
+            for (int f = positive.nextSetBit(0); f >= 0 && certain; f = positive.nextSetBit(f + 1)) {
+                certain = positions[f] >= 0 || pre.getPositiveFluents().get(f);
+            }
+            for (int f = negative.nextSetBit(0); f >= 0 && certain; f = negative.nextSetBit(f + 1)) {
+                certain = positions[f] >= 0 || pre.getNegativeFluents().get(f);
+            }
+            effects[size++] = PatternDatabase.mask(positive, positions);
+            effects[size++] = PatternDatabase.mask(negative, positions);
+            effects[size++] = add;
+            effects[size++] = del;
+            effects[size++] = certain ? 1 : 0;
+        }
+        return Arrays.copyOf(effects, size);
+    }
+
+    /**
+     * Returns the mask of the fluents of a set that belong to the pattern.
+     *
+     * @param fluents   the set of fluents.
+     * @param positions the position of each fluent in the pattern or -1 if the fluent is not in the pattern.
+     * @return the mask of the fluents.
+     */
+    private static int mask(final BitVector fluents, final int[] positions) {
+        int mask = 0;
+        for (int f = fluents.nextSetBit(0); f >= 0; f = fluents.nextSetBit(f + 1)) {
+            if (positions[f] >= 0) {
+                mask |= 1 << positions[f];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Adds a value to a FNV-1a hash.
+     *
+     * @param hash  the hash.
+     * @param value the value.
+     * @return the new hash.
+     */
+    private static long hash(final long hash, final int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    /**
+     * Returns the fluents of the pattern.
+     *
+     * @return the fluents of the pattern.
+     */
+    int[] getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Returns the actions whose effects modify a fluent of the pattern. Two pattern databases whose sets of actions
+     * are disjoint are additive.
+     *
+     * @return the actions whose effects modify a fluent of the pattern.
+     */
+    BitVector getActions() {
+        return this.actions;
+    }
+
+    /**
+     * Returns the signature of the abstract problem.
+     *
+     * @return the signature of the abstract problem.
+     */
+    long getSignature() {
+        return this.signature;
+    }
+
+    /**
+     * Returns the number of abstract states of the table.
+     *
+     * @return the number of abstract states of the table.
+     */
+    int size() {
+        return 1 << this.pattern.length;
+    }
+
+    /**
+     * Returns the goal distance of the abstract state of a state.
+     *
+     * @param state the state.
+     * @return the goal distance of the abstract state or <code>Double.POSITIVE_INFINITY</code> if the goal is
+     *      unreachable from the abstract state.
+     */
+    double getDistance(final BitVector state) {
+        int index = 0;
+        for (int i = 0; i < this.pattern.length; i++) {
+            if (state.get(this.pattern[i])) {
+                index |= 1 << i;
+            }
+        }
+        return this.distances[index];
+    }
+
+    /**
+     * Returns the distance from the abstract initial state to the abstract states that satisfy a goal, i.e., the
+     * minimal distance over the abstract states that contain the positive fluents of the goal in the pattern and none
+     * of its negative fluents. The distances from the abstract initial state are computed at the first call.
+     *
+     * @param goal the goal.
+     * @return the distance from the abstract initial state to the abstract goal or
+     *      <code>Double.POSITIVE_INFINITY</code> if the abstract goal is unreachable from the abstract initial state.
+     */
+    double getDistanceFromInitialState(final Condition goal) {
+        int positive = 0;
+        int negative = 0;
+        for (int i = 0; i < this.pattern.length; i++) {
+            if (goal.getPositiveFluents().get(this.pattern[i])) {
+                positive |= 1 << i;
+            }
+            if (goal.getNegativeFluents().get(this.pattern[i])) {
+                negative |= 1 << i;
+            }
+        }
+        if ((positive & negative) != 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double[] distances = this.initialDistances;
+        if (distances == null) {
+            synchronized (this) {
+                distances = this.initialDistances;
+                if (distances == null) {
+                    distances = this.search(true);
+                    this.initialDistances = distances;
+                }
+            }
+        }
+        // The abstract states of the goal are enumerated over the subsets of the fluents free in the goal
+        final int free = (this.size() - 1) & ~(positive | negative);
+        double min = Double.POSITIVE_INFINITY;
+        int subset = free;
+        while (min > 0.0) {
+            min = Math.min(min, distances[positive | subset]);
+            if (subset == 0) {
+                break;
+            }
+            subset = (subset - 1) & free;
+        }
+        return min;
+    }
+
+    /**
+     * Computes the table. If a directory is specified, the table is read from the directory if a table of the same
+     * signature was written before, and it is written in the directory otherwise. The errors of reading and writing
+     * are logged and ignored.
+     *
+     * @param directory the directory of the tables or null.
+     */
+    void compute(final Path directory) {
+        if (directory != null) {
+            final Path file = directory.resolve(String.format("pdb-%016x.bin", this.signature));
+            try {
+                this.distances = this.read(file);
+            } catch (IOException e) {
+                LOGGER.error("* cannot read pattern database " + file + ": " + e.getMessage() + "\n");
+            }
+            if (this.distances == null) {
+                this.distances = this.search(false);
+                try {
+                    this.write(file);
+                } catch (IOException e) {
+                    LOGGER.error("* cannot write pattern database " + file + ": " + e.getMessage() + "\n");
+                }
+            }
+        } else {
+            this.distances = this.search(false);
+        }
+    }
+
+    /**
+     * Computes the goal distances of the abstract states by a backward Dijkstra search from the abstract goal states
+     * or the distances from the abstract initial state by a forward Dijkstra search from the abstract initial state.
+     *
+     * @param forward <code>true</code> to compute the distances from the abstract initial state; <code>false</code>
+     *                to compute the goal distances.
+     * @return the distances of the abstract states.
+     */
+    private double[] search(final boolean forward) {
+        final int size = this.size();
+        // The transitions are collected and sorted by target to get the predecessors of each abstract state, or by
+        // source to get its successors in a forward search
+        int nbTransitions = 0;
+        int[] sources = new int[size];
+        int[] targets = new int[size];
+        int[] labels = new int[size];
+        int[] successors = new int[2];
+        for (int a = 0; a < this.costs.length; a++) {
+            for (int s = 0; s < size; s++) {
+                successors = this.successors(a, s, successors);
+                final int count = successors[0];
+                for (int i = 1; i <= count; i++) {
+                    if (successors[i] != s) {
+                        if (nbTransitions == sources.length) {
+                            sources = Arrays.copyOf(sources, 2 * nbTransitions);
+                            targets = Arrays.copyOf(targets, 2 * nbTransitions);
+                            labels = Arrays.copyOf(labels, 2 * nbTransitions);
+                        }
+                        sources[nbTransitions] = s;
+                        targets[nbTransitions] = successors[i];
+                        labels[nbTransitions] = a;
+                        nbTransitions++;
+                    }
+                }
+            }
+        }
+        final int[] from = forward ? sources : targets;
+        final int[] to = forward ? targets : sources;
+        final int[] offsets = new int[size + 1];
+        for (int t = 0; t < nbTransitions; t++) {
+            offsets[from[t] + 1]++;
+        }
+        for (int s = 0; s < size; s++) {
+            offsets[s + 1] += offsets[s];
+        }
+        final int[] next = Arrays.copyOf(offsets, size);
+        final int[] neighbours = new int[nbTransitions];
+        final int[] neighboursActions = new int[nbTransitions];
+        for (int t = 0; t < nbTransitions; t++) {
+            final int i = next[from[t]]++;
+            neighbours[i] = to[t];
+            neighboursActions[i] = labels[t];
+        }
+        final double[] distances = new double[size];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        final CostQueue queue = new CostQueue();
+        if (forward) {
+            distances[this.init] = 0.0;
+            queue.add(this.init, 0.0);
+        } else {
+            for (int s = 0; s < size; s++) {
+                if ((s & this.positiveGoal) == this.positiveGoal && (s & this.negativeGoal) == 0) {
+                    distances[s] = 0.0;
+                    queue.add(s, 0.0);
+                }
+            }
+        }
+        for (int s = queue.poll(); s >= 0; s = queue.poll()) {
+            final double distance = queue.getKey();
+            if (distance > distances[s]) {
+                continue;
+            }
+            for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                final int n = neighbours[i];
+                final double cost = distance + this.costs[neighboursActions[i]];
+                if (cost < distances[n]) {
+                    distances[n] = cost;
+                    queue.add(n, cost);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Computes the successors of an abstract state by an abstract action. When some effects may or may not occur, the
+     * successors are enumerated over the occurrences of these effects, or over the valuations of the fluents they
+     * modify if there are fewer such valuations.
+     *
+     * @param a          the abstract action.
+     * @param s          the abstract state.
+     * @param successors the array where the number of successors is written at index 0 and the successors after.
+     * @return the array of the successors, which is reallocated if it is too small.
+     */
+    private int[] successors(final int a, final int s, final int[] successors) {
+        final int[] pre = this.preconditions[a];
+        if ((s & pre[0]) != pre[0] || (s & pre[1]) != 0) {
+            successors[0] = 0;
+            return successors;
+        }
+        final int[] effects = this.effects[a];
+        int uncertain = 0;
+        int modified = 0;
+        for (int e = 0; e < effects.length; e += 5) {
+            if (effects[e + 4] == 0 && (s & effects[e]) == effects[e] && (s & effects[e + 1]) == 0) {
+                uncertain++;
+                modified |= effects[e + 2] | effects[e + 3];
+            }
+        }
+        final boolean occurrences = uncertain <= Integer.bitCount(modified);
+        final int count = 1 << (occurrences ? uncertain : Integer.bitCount(modified));
+        final int[] result = successors.length > count ? successors : new int[count + 1];
+        result[0] = count;
+        for (int i = 0; i < count; i++) {
+            // The i-th combination of the occurrences of the uncertain effects
+            int successor = s;
+            int bit = 0;
+            for (int e = 0; e < effects.length; e += 5) {
+                if ((s & effects[e]) == effects[e] && (s & effects[e + 1]) == 0) {
+                    boolean occurs = effects[e + 4] == 1;
+                    if (!occurs && occurrences) {
+                        occurs = (i >>> bit & 1) == 1;
+                        bit++;
+                    }
+                    if (occurs) {
+                        successor = successor & ~effects[e + 3] | effects[e + 2];
+                    }
+                }
+            }
+            if (!occurrences) {
+                // The i-th valuation of the fluents modified by the uncertain effects
+                successor = successor & ~modified | PatternDatabase.deposit(i, modified);
+            }
+            result[i + 1] = successor;
+        }
+        return result;
+    }
+
+    /**
+     * Deposits the low bits of a value at the positions of the bits set in a mask.
+     *
+     * @param value the value.
+     * @param mask  the mask.
+     * @return the bits deposited.
+     */
+    private static int deposit(final int value, final int mask) {
+        int result = 0;
+        int bit = 0;
+        for (int m = mask; m != 0; m &= m - 1) {
+            if ((value >>> bit & 1) == 1) {
+                result |= Integer.lowestOneBit(m);
+            }
+            bit++;
+        }
+        return result;
+    }
+
+    /**
+     * Reads the table from a file.
+     *
+     * @param file the file.
+     * @return the distances read or null if the file does not exist or contains the table of an other abstract
+     *      problem.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    private double[] read(final Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != PatternDatabase.MAGIC || in.readLong() != this.signature
+                || in.readInt() != this.size()) {
+                return null;
+            }
+            final double[] distances = new double[this.size()];
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = in.readDouble();
+            }
+            return distances;
+        }
+    }
+
+    /**
+     * Writes the table in a file. The table is written in a temporary file of the same directory, which is then moved,
+     * so that a table read by an other planner is never partially written.
+     *
+     * @param file the file.
+     * @throws IOException if an error occurs while writing the file.
+     */
+    private void write(final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path tmp = Files.createTempFile(file.getParent(), "pdb-", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(PatternDatabase.MAGIC);
+                out.writeLong(this.signature);
+                out.writeInt(this.size());
+                for (double distance : this.distances) {
+                    out.writeDouble(distance);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
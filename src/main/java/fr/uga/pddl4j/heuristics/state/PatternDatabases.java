@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements the canonical heuristic of a collection of pattern databases. For more details on this
+ * heuristic see P. Haslum, A. Botea, M. Helmert, B. Bonet and S. Koenig, Domain-Independent Construction of Pattern
+ * Database Heuristics for Cost-Optimal Planning, in: Proceedings of the 22nd AAAI Conference on Artificial
+ * Intelligence, 2007.
+ * <p>
+ * The patterns are selected greedily from the causal graph of the problem: for each fluent of the goal not yet in a
+ * pattern, a pattern is built from the fluent by adding the fluents that precede it in the causal graph in breadth
+ * first order, until the pattern reaches its maximal size or the collection its maximal number of abstract states
+ * minus the abstract states kept for the patterns of the other fluents of the goal. The
+ * tables of the pattern databases are computed once per problem (see {@link PatternDatabase}) and shared by the copies
+ * of the heuristic. Thus, the estimation of a state only looks up the distances of the state in the tables.
+ * </p>
+ * <p>
+ * The tables are computed for the goal of the problem and are never computed again. The distance from the initial
+ * state to an other goal, e.g., a partial state of a backward search, is the distance from the abstract initial state
+ * to the abstract states that satisfy the goal in each pattern database, computed once per pattern database by a
+ * forward search. The distance from an other state to an other goal is not supported.
+ * </p>
+ * <p>
+ * Two pattern databases are additive if no action modifies the fluents of both patterns. The heuristic value is the
+ * maximum over the maximal cliques of additive pattern databases of the sum of their distances, which is the best
+ * admissible combination of the distances of the collection.
+ * </p>
+ * <b>Warning:</b> The heuristic is admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 06.12.2021
+ * @since 4.0
+ */
+public final class PatternDatabases extends AbstractStateHeuristic {
+
+    /**
+     * The default maximal number of fluents of a pattern.
+     */
+    public static final int DEFAULT_PATTERN_SIZE = 10;
+
+    /**
+     * The default maximal number of abstract states of the collection of pattern databases (2^16).
+     */
+    public static final int DEFAULT_COLLECTION_SIZE = 1 << 16;
+
+    /**
+     * The initial state of the problem.
+     */
+    private final State initialState;
+
+    /**
+     * The goal of the pattern databases, i.e., the goal of the problem.
+     */
+    private final Condition databasesGoal;
+
+    /**
+     * The pattern databases.
+     */
+    private final PatternDatabase[] databases;
+
+    /**
+     * The maximal cliques of additive pattern databases.
+     */
+    private final int[][] cliques;
+
+    /**
+     * The distance of the last state estimated in each pattern database.
+     */
+    private final double[] distances;
+
+    /**
+     * Creates a new <code>PDB</code> heuristic for a specified planning problem with the default sizes and without
+     * storing the tables.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public PatternDatabases(final Problem problem) {
+        this(problem, PatternDatabases.DEFAULT_PATTERN_SIZE, PatternDatabases.DEFAULT_COLLECTION_SIZE, null);
+    }
+
+    /**
+     * Creates a new <code>PDB</code> heuristic for a specified planning problem. If a directory is specified, the
+     * tables are read from the directory when they were computed before for a problem with the same abstractions and
+     * written in the directory otherwise.
+     *
+     * @param problem        the planning problem.
+     * @param patternSize    the maximal number of fluents of a pattern.
+     * @param collectionSize the maximal number of abstract states of the collection.
+     * @param directory      the directory where the tables are read and written or null.
+     * @throws NullPointerException     if <code>problem == null</code>.
+     * @throws IllegalArgumentException if <code>patternSize &#60; 1</code> or <code>patternSize &#62; 24</code> or
+     *                                  <code>collectionSize &#60; 2</code>.
+     */
+    public PatternDatabases(final Problem problem, final int patternSize, final int collectionSize,
+                            final Path directory) {
+        super(problem);
+        if (patternSize < 1 || patternSize > PatternDatabase.MAX_PATTERN_SIZE) {
+            throw new IllegalArgumentException("patternSize < 1 or patternSize > " + PatternDatabase.MAX_PATTERN_SIZE);
+        }
+        if (collectionSize < 2) {
+            throw new IllegalArgumentException("collectionSize < 2");
+        }
+        super.setAdmissible(true);
+        this.initialState = new State(problem.getInitialState());
+        this.databasesGoal = new Condition(problem.getGoal());
+        final List<int[]> patterns = this.selectPatterns(problem, this.databasesGoal, patternSize,
+            collectionSize);
+        this.databases = new PatternDatabase[patterns.size()];
+        for (int i = 0; i < this.databases.length; i++) {
+            this.databases[i] = new PatternDatabase(problem, this.databasesGoal, patterns.get(i));
+            this.databases[i].compute(directory);
+        }
+        this.cliques = this.computeCliques();
+        this.distances = new double[this.databases.length];
+    }
+
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the pattern databases computed by the other
+     * one.
+     *
+     * @param other the other heuristic.
+     */
+    private PatternDatabases(final PatternDatabases other) {
+        super(other);
+        this.initialState = other.initialState;
+        this.databasesGoal = other.databasesGoal;
+        this.databases = other.databases;
+        this.cliques = other.cliques;
+        this.distances = new double[other.distances.length];
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the pattern databases computed by this heuristic and can be
+     * used by an other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public PatternDatabases copy() {
+        return new PatternDatabases(this);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. The distance is the cost returned by
+     * {@link #estimateCost(State, Condition)} rounded up to the nearest integer. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        final double cost = this.estimateCost(state, goal);
+        return cost >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(cost - 1e-9);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified node. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified node.
+     *
+     * @param node the node from which the cost to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the cost to reach the goal from the specified node.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return this.estimateCost(node, goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state. If the goal is
+     * not the goal of the problem, the state must be the initial state of the problem.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     * @throws UnsupportedOperationException if the goal is not the goal of the problem and the state is not the
+     *      initial state of the problem.
+     */
+    @Override
+    public double estimateCost(final State state, final Condition goal) {
+        final boolean fromInitialState = !goal.equals(this.databasesGoal);
+        if (fromInitialState && !this.initialState.equals(state)) {
+            throw new UnsupportedOperationException("PDB estimates other goals only from the initial state");
+        }
+        for (int i = 0; i < this.databases.length; i++) {
+            this.distances[i] = fromInitialState ? this.databases[i].getDistanceFromInitialState(goal)
+                : this.databases[i].getDistance(state);
+            if (this.distances[i] == Double.POSITIVE_INFINITY) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        double value = 0.0;
+        for (int[] clique : this.cliques) {
+            double sum = 0.0;
+            for (int i : clique) {
+                sum += this.distances[i];
+            }
+            value = Math.max(value, sum);
+        }
+        return value;
+    }
+
+    /**
+     * Computes the maximal cliques of additive pattern databases.
+     *
+     * @return the maximal cliques of additive pattern databases.
+     */
+    private int[][] computeCliques() {
+        // Two pattern databases are compatible if no action modifies both patterns
+        final BitVector[] compatible = new BitVector[this.databases.length];
+        for (int i = 0; i < this.databases.length; i++) {
+            compatible[i] = new BitVector();
+            for (int j = 0; j < this.databases.length; j++) {
+                if (i != j && !this.databases[i].getActions().intersects(this.databases[j].getActions())) {
+                    compatible[i].set(j);
+                }
+            }
+        }
+        final List<int[]> cliques = new ArrayList<>();
+        final BitVector candidates = new BitVector();
+        candidates.set(0, this.databases.length);
+        this.computeCliques(new BitVector(), candidates, new BitVector(), compatible, cliques);
+        return cliques.toArray(new int[0][]);
+    }
+
+    /**
+     * Selects the patterns of a goal. For each fluent of the goal not yet in a pattern, a pattern is built by adding
+     * to the fluent the fluents that precede it in the causal graph in breadth first order. A fluent precedes an
+     * other one in the causal graph if it appears in the precondition, in the condition or in the effect of a
+     * conditional effect of an action that modifies the other one.
+     *
+     * @param problem        the problem.
+     * @param goal           the goal.
+     * @param patternSize    the maximal number of fluents of a pattern.
+     * @param collectionSize the maximal number of abstract states of the collection.
+     * @return the patterns selected.
+     */
+    private List<int[]> selectPatterns(final Problem problem, final Condition goal, final int patternSize,
+                                       final int collectionSize) {
+        final int fluents = problem.getFluents().size();
+        final BitVector[] predecessors = new BitVector[fluents];
+        for (int f = 0; f < fluents; f++) {
+            predecessors[f] = new BitVector();
+        }
+        for (Action action : problem.getActions()) {
+            for (ConditionalEffect ce : action.getConditionalEffects()) {
+                final BitVector sources = new BitVector();
+                sources.or(action.getPrecondition().getPositiveFluents());
+                sources.or(action.getPrecondition().getNegativeFluents());
+                sources.or(ce.getCondition().getPositiveFluents());
+                sources.or(ce.getCondition().getNegativeFluents());
+                final BitVector targets = new BitVector();
+                targets.or(ce.getEffect().getPositiveFluents());
+                targets.or(ce.getEffect().getNegativeFluents());
+                sources.or(targets);
+                for (int f = targets.nextSetBit(0); f >= 0; f = targets.nextSetBit(f + 1)) {
+                    predecessors[f].or(sources);
+                    predecessors[f].clear(f);
+                }
+            }
+        }
+        final BitVector goals = new BitVector();
+        goals.or(goal.getPositiveFluents());
+        goals.or(goal.getNegativeFluents());
+        final List<int[]> patterns = new ArrayList<>();
+        final BitVector covered = new BitVector();
+        final int[] queue = new int[fluents];
+        int remaining = collectionSize;
+        for (int g = goals.nextSetBit(0); g >= 0 && remaining >= 2; g = goals.nextSetBit(g + 1)) {
+            if (covered.get(g)) {
+                continue;
+            }
+            // Two abstract states are kept for each fluent of the goal not yet in a pattern
+            final BitVector uncovered = new BitVector(goals);
+            uncovered.andNot(covered);
+            final int limit = remaining - 2 * (uncovered.cardinality() - 1);
+            final BitVector pattern = new BitVector();
+            pattern.set(g);
+            int size = 1;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = g;
+            while (head < tail && size < patternSize && (1 << (size + 1)) <= limit) {
+                final BitVector next = predecessors[queue[head++]];
+                for (int f = next.nextSetBit(0); f >= 0 && size < patternSize && (1 << (size + 1)) <= limit;
+                     f = next.nextSetBit(f + 1)) {
+                    if (!pattern.get(f)) {
+                        pattern.set(f);
+                        queue[tail++] = f;
+                        size++;
+                    }
+                }
+            }
+            covered.or(pattern);
+            remaining -= 1 << size;
+            final int[] fluentsOfPattern = new int[size];
+            int i = 0;
+            for (int f = pattern.nextSetBit(0); f >= 0; f = pattern.nextSetBit(f + 1)) {
+                fluentsOfPattern[i++] = f;
+            }
+            patterns.add(fluentsOfPattern);
+        }
+        return patterns;
+    }
+
+    /**
+     * Computes the maximal cliques of a compatibility graph with the Bron-Kerbosch algorithm with pivoting.
+     *
+     * @param clique     the current clique.
+     * @param candidates the vertices that can extend the current clique.
+     * @param excluded   the vertices already processed that can extend the current clique.
+     * @param compatible the neighbours of each vertex.
+     * @param cliques    the list where the maximal cliques are added.
+     */
+    private void computeCliques(final BitVector clique, final BitVector candidates, final BitVector excluded,
+                                final BitVector[] compatible, final List<int[]> cliques) {
+        if (candidates.isEmpty()) {
+            if (excluded.isEmpty()) {
+                final int[] vertices = new int[clique.cardinality()];
+                int i = 0;
+                for (int v = clique.nextSetBit(0); v >= 0; v = clique.nextSetBit(v + 1)) {
+                    vertices[i++] = v;
+                }
+                cliques.add(vertices);
+            }
+            return;
+        }
+        // The pivot is the vertex with the most neighbours among the candidates
+        int pivot = -1;
+        int max = -1;
+        final BitVector union = new BitVector(candidates);
+        union.or(excluded);
+        for (int u = union.nextSetBit(0); u >= 0; u = union.nextSetBit(u + 1)) {
+            final BitVector neighbours = new BitVector(compatible[u]);
+            neighbours.and(candidates);
+            if (neighbours.cardinality() > max) {
+                max = neighbours.cardinality();
+                pivot = u;
+            }
+        }
+        final BitVector vertices = new BitVector(candidates);
+        vertices.andNot(compatible[pivot]);
+        for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+            clique.set(v);
+            final BitVector newCandidates = new BitVector(candidates);
+            newCandidates.and(compatible[v]);
+            final BitVector newExcluded = new BitVector(excluded);
+            newExcluded.and(compatible[v]);
+            this.computeCliques(clique, newCandidates, newExcluded, compatible, cliques);
+            clique.clear(v);
+            candidates.clear(v);
+            excluded.set(v);
+        }
+    }
+}
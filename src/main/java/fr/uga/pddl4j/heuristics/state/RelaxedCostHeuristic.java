@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+
+/**
+ * This abstract class implements the basic methods used by the heuristics based on the costs of the actions in the
+ * problem relaxed by ignoring the negative effects. Contrary to the {@link RelaxedGraphHeuristic}, which counts the
+ * layers of the relaxed planning graph, the cost of a proposition is computed from the costs of the actions, i.e., the
+ * values of <code>Action.getCost()</code> accumulated by the search strategies into the cost of the paths:
+ * <ul>
+ * <li> <i>c(p)</i> = 0, if <i>p</i> holds in the state,
+ * <li> <i>c(p)</i> = min[<i>cost(o)</i> + <i>c(Prec(o))</i>] for each <i>o</i> that adds <i>p</i>, otherwise
+ * </ul>
+ * <p>
+ * where <i>c(Prec(o))</i> is the maximum of the costs of the preconditions of <i>o</i> for the <code>h_max</code>
+ * heuristic and their sum for the <code>h_add</code> heuristic. For more details on these heuristics see E. Keyder
+ * and H. Geffner, Heuristics for Planning with Action Costs Revisited, in: Proceedings of the 18th European Conference
+ * on Artificial Intelligence, 2008.
+ * </p>
+ * <p>
+ * The costs are computed by a generalized Dijkstra algorithm over the unconditional operators: the propositions are
+ * polled in increasing order of cost and an operator is triggered once all its preconditions are polled. The
+ * computation stops as soon as all the goals are polled. The queue keeps the propositions of the cost of the last
+ * proposition polled in a bucket apart from the binary heap. Thus, the effects of the actions of zero cost, which have
+ * the same cost as the last proposition polled with the <code>h_max</code> heuristic, are queued and polled without any
+ * heap operation.
+ * </p>
+ * <p>
+ * The preconditions and the effects of the unconditional operators are computed once by the constructor and are never
+ * modified afterwards. Thus, the copy constructor shares them and allocates new arrays for the costs. A heuristic and
+ * its copies can be used by different threads.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.12.2021
+ * @since 4.0
+ */
+public abstract class RelaxedCostHeuristic extends AbstractStateHeuristic {
+
+    /**
+     * The number of relevant fluents. The positive proposition <code>p</code> is indexed by <code>p</code> and the
+     * negative proposition <code>not p</code> by <code>facts + p</code>.
+     */
+    private final int facts;
+
+    /**
+     * The flag set if the cost of the preconditions of an operator is the sum of their costs instead of the maximum.
+     */
+    private final boolean additive;
+
+    /**
+     * The preconditions of each unconditional operator.
+     */
+    private final int[][] preconditions;
+
+    /**
+     * The effects of each unconditional operator.
+     */
+    private final int[][] effects;
+
+    /**
+     * The unconditional operators that have each proposition as precondition.
+     */
+    private final int[][] consumers;
+
+    /**
+     * The unconditional operators without precondition.
+     */
+    private final int[] unconditioned;
+
+    /**
+     * The action of each unconditional operator.
+     */
+    private final int[] actions;
+
+    /**
+     * The cost of each action.
+     */
+    private final double[] costs;
+
+    /**
+     * The cost of each proposition.
+     */
+    private final double[] values;
+
+    /**
+     * The cost of the preconditions of each unconditional operator.
+     */
+    private final double[] operatorsValues;
+
+    /**
+     * The number of preconditions not yet polled of each unconditional operator.
+     */
+    private final int[] counters;
+
+    /**
+     * The best supporter of each proposition, i.e., the unconditional operator that gives the proposition its cost, or
+     * -1 if the proposition holds in the state or is unreachable.
+     */
+    private final int[] supporters;
+
+    /**
+     * The flags of the propositions of the goal.
+     */
+    private final boolean[] goals;
+
+    /**
+     * The propositions of the goal.
+     */
+    private final int[] goalsList;
+
+    /**
+     * The queue of the propositions ordered by cost.
+     */
+    private final CostQueue queue;
+
+    /**
+     * The propositions marked by the extraction of the relaxed plan.
+     */
+    private final BitVector marked;
+
+    /**
+     * The stack of the propositions to support used by the extraction of the relaxed plan.
+     */
+    private final int[] stack;
+
+    /**
+     * The unconditional operators of the relaxed plan extracted.
+     */
+    private final BitVector plan;
+
+    /**
+     * The helpful actions of the relaxed plan extracted.
+     */
+    private final BitVector helpfulActions;
+
+    /**
+     * The number of propositions of the goal.
+     */
+    private int nbGoals;
+
+    /**
+     * Creates a new relaxed cost heuristic for a specified planning problem.
+     *
+     * @param problem  the planning problem.
+     * @param additive <code>true</code> if the cost of the preconditions of an operator is the sum of their costs;
+     *                 <code>false</code> if it is the maximum of their costs.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    protected RelaxedCostHeuristic(final Problem problem, final boolean additive) {
+        super(problem);
+        final RelaxedOperators operators = new RelaxedOperators(problem);
+        this.facts = operators.getFacts();
+        this.additive = additive;
+        this.preconditions = operators.getPreconditions();
+        this.effects = operators.getEffects();
+        this.consumers = operators.getConsumers();
+        this.unconditioned = operators.getUnconditioned();
+        this.actions = operators.getActions();
+        this.costs = operators.getCosts();
+        final int nbOperators = operators.size();
+        this.values = new double[2 * this.facts];
+        this.operatorsValues = new double[nbOperators];
+        this.counters = new int[nbOperators];
+        this.supporters = new int[2 * this.facts];
+        this.goals = new boolean[2 * this.facts];
+        this.goalsList = new int[2 * this.facts];
+        this.queue = new CostQueue();
+        this.marked = new BitVector();
+        this.stack = new int[2 * this.facts];
+        this.plan = new BitVector();
+        this.helpfulActions = new BitVector();
+    }
+
+    /**
+     * Creates a new relaxed cost heuristic from an other one. The new heuristic shares the preconditions and the
+     * effects of the unconditional operators of the other heuristic but not the arrays used to compute the costs.
+     *
+     * @param other the other heuristic.
+     */
+    protected RelaxedCostHeuristic(final RelaxedCostHeuristic other) {
+        super(other);
+        this.facts = other.facts;
+        this.additive = other.additive;
+        this.preconditions = other.preconditions;
+        this.effects = other.effects;
+        this.consumers = other.consumers;
+        this.unconditioned = other.unconditioned;
+        this.actions = other.actions;
+        this.costs = other.costs;
+        this.values = new double[other.values.length];
+        this.operatorsValues = new double[other.operatorsValues.length];
+        this.counters = new int[other.counters.length];
+        this.supporters = new int[other.supporters.length];
+        this.goals = new boolean[other.goals.length];
+        this.goalsList = new int[other.goalsList.length];
+        this.queue = new CostQueue();
+        this.marked = new BitVector();
+        this.stack = new int[other.stack.length];
+        this.plan = new BitVector();
+        this.helpfulActions = new BitVector();
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. The distance is the cost returned by
+     * {@link #estimateCost(State, Condition)} rounded up to the nearest integer. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public final int estimate(final State state, final Condition goal) {
+        final double cost = this.estimateCost(state, goal);
+        return cost >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(cost);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified node. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified node.
+     *
+     * @param node the node from which the cost to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the cost to reach the goal from the specified node.
+     */
+    @Override
+    public final double estimate(final Node node, final Condition goal) {
+        return this.estimateCost(node, goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from the specified state according to the costs of the actions. If
+     * the return value is <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public abstract double estimateCost(final State state, final Condition goal);
+
+    /**
+     * Computes the costs of the propositions from a specified state until all the propositions of the goal are
+     * reached.
+     *
+     * @param state the state.
+     * @return <code>true</code> if all the propositions of the goal are reachable; <code>false</code> otherwise.
+     */
+    protected final boolean computeCosts(final State state) {
+        final BitVector pGoal = super.getGoal().getPositiveFluents();
+        final BitVector nGoal = super.getGoal().getNegativeFluents();
+        for (int i = 0; i < this.nbGoals; i++) {
+            this.goals[this.goalsList[i]] = false;
+        }
+        this.nbGoals = 0;
+        for (int g = pGoal.nextSetBit(0); g >= 0; g = pGoal.nextSetBit(g + 1)) {
+            this.goals[g] = true;
+            this.goalsList[this.nbGoals++] = g;
+        }
+        for (int g = nGoal.nextSetBit(0); g >= 0; g = nGoal.nextSetBit(g + 1)) {
+            this.goals[this.facts + g] = true;
+            this.goalsList[this.nbGoals++] = this.facts + g;
+        }
+        this.plan.clear();
+        this.helpfulActions.clear();
+        Arrays.fill(this.values, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.supporters, -1);
+        Arrays.fill(this.operatorsValues, 0.0);
+        for (int o = 0; o < this.counters.length; o++) {
+            this.counters[o] = this.preconditions[o].length;
+        }
+        this.queue.clear();
+        // The propositions that hold in the state have a zero cost
+        for (int f = 0; f < this.facts; f++) {
+            final int p = state.get(f) ? f : this.facts + f;
+            this.values[p] = 0.0;
+            if (this.consumers[p].length > 0 || this.goals[p]) {
+                this.queue.add(p, 0.0);
+            }
+        }
+        for (int o : this.unconditioned) {
+            this.trigger(o);
+        }
+        int remaining = this.nbGoals;
+        if (remaining == 0) {
+            return true;
+        }
+        for (int p = this.queue.poll(); p >= 0; p = this.queue.poll()) {
+            final double value = this.queue.getKey();
+            if (value > this.values[p]) {
+                // The proposition was added again with a lower cost and was already polled
+                continue;
+            }
+            if (this.goals[p] && --remaining == 0) {
+                return true;
+            }
+            for (int o : this.consumers[p]) {
+                this.operatorsValues[o] = this.additive ? this.operatorsValues[o] + value
+                    : Math.max(this.operatorsValues[o], value);
+                if (--this.counters[o] == 0) {
+                    this.trigger(o);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the maximum of the costs of the propositions of the goal, i.e., the <code>h_max</code> heuristic value.
+     * The costs must be computed with the maximum of the costs of the preconditions.
+     *
+     * @return the maximum of the costs of the propositions of the goal.
+     * @see MaxCost
+     */
+    protected final double getMaxValue() {
+        double max = 0.0;
+        for (int i = 0; i < this.nbGoals; i++) {
+            max = Math.max(max, this.values[this.goalsList[i]]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the sum of the costs of the propositions of the goal, i.e., the <code>h_add</code> heuristic value. The
+     * costs must be computed with the sum of the costs of the preconditions.
+     *
+     * @return the sum of the costs of the propositions of the goal.
+     * @see SumCost
+     */
+    protected final double getSumValue() {
+        double sum = 0.0;
+        for (int i = 0; i < this.nbGoals; i++) {
+            sum += this.values[this.goalsList[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Extracts a relaxed plan from the best supporters of the propositions of the goal and returns the sum of the
+     * costs of its actions. The relaxed plan contains the best supporter of each proposition of the goal that does
+     * not hold in the state and, recursively, the best supporters of the preconditions of the operators of the plan.
+     * The helpful actions are the actions of the operators of the relaxed plan applicable in the state.
+     *
+     * @return the sum of the costs of the actions of the relaxed plan.
+     * @see FastForwardCost
+     */
+    protected final double getRelaxedPlanValue() {
+        double value = 0.0;
+        this.marked.clear();
+        // The propositions are marked when pushed so that each proposition is pushed at most once
+        int size = 0;
+        for (int i = 0; i < this.nbGoals; i++) {
+            final int g = this.goalsList[i];
+            if (this.supporters[g] != -1) {
+                this.marked.set(g);
+                this.stack[size++] = g;
+            }
+        }
+        while (size > 0) {
+            final int o = this.supporters[this.stack[--size]];
+            if (!this.plan.get(o)) {
+                this.plan.set(o);
+                value += this.costs[this.actions[o]];
+                boolean applicable = true;
+                for (int p : this.preconditions[o]) {
+                    if (this.supporters[p] != -1) {
+                        applicable = false;
+                        if (!this.marked.get(p)) {
+                            this.marked.set(p);
+                            this.stack[size++] = p;
+                        }
+                    }
+                }
+                if (applicable) {
+                    this.helpfulActions.set(this.actions[o]);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the helpful actions of the last relaxed plan extracted, i.e., the actions of the relaxed plan applicable
+     * in the state. The helpful actions are written in ascending order at the beginning of the array. If no relaxed
+     * plan was extracted since the last computation of the costs, there is no helpful action.
+     *
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least
+     *                the number of actions of the problem.
+     * @return the number of helpful actions.
+     */
+    protected final int getRelaxedPlanHelpfulActions(final int[] actions) {
+        int count = 0;
+        for (int a = this.helpfulActions.nextSetBit(0); a >= 0; a = this.helpfulActions.nextSetBit(a + 1)) {
+            actions[count++] = a;
+        }
+        return count;
+    }
+
+    /**
+     * Triggers an unconditional operator whose preconditions are all reached and decreases the costs of its effects.
+     *
+     * @param o the unconditional operator.
+     */
+    private void trigger(final int o) {
+        final double cost = this.operatorsValues[o] + this.costs[this.actions[o]];
+        for (int p : this.effects[o]) {
+            if (cost < this.values[p]) {
+                this.values[p] = cost;
+                this.supporters[p] = o;
+                this.queue.add(p, cost);
+            }
+        }
+    }
+}
@@ -37,71 +37,82 @@ import java.util.List;
  * does not compute mutual exclusion. To have more information about this implementation see
  * Hoffmann, J. and Nebel, B. (2001). The FF Planning System: Fast Plan Generation Through Heuristic
  * Search. Journal of Artificial Intelligence Research, 14(1):253-302.
+ * <p>
+ * The preconditions, the effects and the edges of the graph are computed once by the constructor and are never
+ * modified afterwards. Only the levels and the counters are modified by the expansion of the graph. Thus, the copy
+ * constructor shares the former and allocates new arrays for the latter. A heuristic and its copies can be used by
+ * different threads.
+ * </p>
  *
  * @author Damien Pellier
- * @version 1.0 20.08.2010
+ * @version 1.1 15.11.2021
  */
 public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic implements PlanningGraphHeuristic {
 
+    /**
+     * The default value of the incremental computation of the levels of the graph.
+     */
+    public static final boolean DEFAULT_INCREMENTAL = true;
+
     /**
      * The array of unconditional operators of the problem.
      */
-    private int[][] unconditionalOperators;
+    private final int[][] unconditionalOperators;
 
     /**
      * The array used to store for each operator its number of preconditions.
      */
-    private int[] precondCardinality;
+    private final int[] precondCardinality;
 
     /**
      * The array used to store the first level of apparition of an operator.
      */
-    private int[] operatorsLevel;
+    private final int[] operatorsLevel;
 
     /**
      * The array used to store the number of precondition encountered for each operator.
      */
-    private int[] precondCounters;
+    private final int[] precondCounters;
 
     /**
      * The array used to store the difficulty of the operators.
      */
-    private int[] operatorsDifficulty;
+    private final int[] operatorsDifficulty;
 
     /**
      * The array used to store the apparition level of the positive propositions.
      */
-    private int[] pPropLevel;
+    private final int[] pPropLevel;
 
     /**
      * The array used to store the apparition level of the negative propositions.
      */
-    private int[] nPropLevel;
+    private final int[] nPropLevel;
 
     /**
      * The array used to store the preconditions' edges for each operator.
      */
-    private Condition[] precondEdges;
+    private final Condition[] precondEdges;
 
     /**
      * The array used to store the effects' edges for each operator.
      */
-    private Condition[] effectsEdges;
+    private final Condition[] effectsEdges;
 
     /**
      * The array used to store the preconditions of the operators.
      */
-    private Condition[] preconditions;
+    private final Condition[] preconditions;
 
     /**
      * The array used to store the effects of the operators.
      */
-    private Effect[] effects;
+    private final Effect[] effects;
 
     /**
      * The array used to store the unconditional effect of the operators.
      */
-    private Effect[] unconditionalEffects;
+    private final Effect[] unconditionalEffects;
 
     /**
      * The counter used to count the number of goal propositions reached.
@@ -118,6 +129,31 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
      */
     private int level;
 
+    /**
+     * The incremental computation of the levels of the graph.
+     */
+    private final IncrementalRelaxedGraph incrementalGraph;
+
+    /**
+     * The flag set if the levels of the graph are updated incrementally from the last state.
+     */
+    private boolean incremental;
+
+    /**
+     * The positive goals of the first level of the last relaxed plan extracted.
+     */
+    private final BitVector pHelpfulGoals;
+
+    /**
+     * The negative goals of the first level of the last relaxed plan extracted.
+     */
+    private final BitVector nHelpfulGoals;
+
+    /**
+     * The bit vector used to mark the helpful actions.
+     */
+    private final BitVector helpfulActions;
+
     /**
      * Creates a new RelaxedGraphHeuristic heuristic.
      *
@@ -171,6 +207,10 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         this.goalCardinality = super.getGoal().cardinality();
         // The array that contains for each operator the number of propositions of its preconditions
         this.precondCardinality = new int[nbUncondOperators];
+        // The goals of the first level of the relaxed plan used to compute the helpful actions
+        this.pHelpfulGoals = new BitVector();
+        this.nHelpfulGoals = new BitVector();
+        this.helpfulActions = new BitVector();
 
         // The index of the unconditional operators
         int uncondOpIndex = 0;
@@ -242,6 +282,39 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
             }
         }
 
+        this.incrementalGraph = new IncrementalRelaxedGraph(nbRelevantFacts, this.preconditions, this.effects,
+            this.pPropLevel, this.nPropLevel, this.operatorsLevel, this.operatorsDifficulty);
+        this.incremental = RelaxedGraphHeuristic.DEFAULT_INCREMENTAL;
+
+    }
+
+    /**
+     * Creates a new RelaxedGraphHeuristic heuristic from an other one. The new heuristic shares the preconditions, the
+     * effects and the edges of the graph of the other heuristic but not the arrays used to expand the graph.
+     *
+     * @param other the other heuristic.
+     */
+    protected RelaxedGraphHeuristic(final RelaxedGraphHeuristic other) {
+        super(other);
+        this.unconditionalOperators = other.unconditionalOperators;
+        this.precondCardinality = other.precondCardinality;
+        this.precondEdges = other.precondEdges;
+        this.effectsEdges = other.effectsEdges;
+        this.preconditions = other.preconditions;
+        this.effects = other.effects;
+        this.unconditionalEffects = other.unconditionalEffects;
+        this.goalCardinality = other.goalCardinality;
+        this.pPropLevel = new int[other.pPropLevel.length];
+        this.nPropLevel = new int[other.nPropLevel.length];
+        this.operatorsLevel = new int[other.operatorsLevel.length];
+        this.operatorsDifficulty = new int[other.operatorsDifficulty.length];
+        this.precondCounters = new int[other.precondCounters.length];
+        this.incrementalGraph = new IncrementalRelaxedGraph(other.incrementalGraph, this.pPropLevel, this.nPropLevel,
+            this.operatorsLevel, this.operatorsDifficulty);
+        this.incremental = other.incremental;
+        this.pHelpfulGoals = new BitVector();
+        this.nHelpfulGoals = new BitVector();
+        this.helpfulActions = new BitVector();
     }
 
     /**
@@ -256,6 +329,30 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         this.goalCardinality = goal.cardinality();
     }
 
+    /**
+     * Returns <code>true</code> if the levels of the graph are updated incrementally from the last state.
+     *
+     * @return <code>true</code> if the levels of the graph are updated incrementally from the last state;
+     *      <code>false</code> otherwise.
+     * @see IncrementalRelaxedGraph
+     */
+    public final boolean isIncremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Sets if the levels of the graph are updated incrementally from the last state instead of being computed from
+     * scratch for each state. Both computations give the same heuristic values.
+     *
+     * @param incremental <code>true</code> to update the levels of the graph incrementally; <code>false</code>
+     *                    otherwise.
+     * @see IncrementalRelaxedGraph
+     */
+    public final void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+        this.incrementalGraph.invalidate();
+    }
+
     /**
      * This method creates the relaxed planning graph from a specified initial state.
      *
@@ -263,6 +360,12 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
      * @return the level of the graph built.
      */
     protected final int expandRelaxedPlanningGraph(final State state) {
+        // The helpful actions of the previous relaxed plan are no longer valid
+        this.pHelpfulGoals.clear();
+        this.nHelpfulGoals.clear();
+        if (this.incremental) {
+            return this.updateRelaxedPlanningGraph(state);
+        }
 
         Arrays.fill(this.operatorsLevel, Integer.MAX_VALUE);
         // The array that contains the level of the positive proposition apparition
@@ -273,6 +376,8 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         Arrays.fill(this.precondCounters, 0);
         // The array that contains the difficulty value for each operator
         Arrays.fill(this.operatorsDifficulty, Integer.MAX_VALUE);
+        // The levels of the graph are overwritten by the expansion
+        this.incrementalGraph.invalidate();
 
         // The positive goal to reach
         final BitVector pGoal = super.getGoal().getPositiveFluents();
@@ -408,6 +513,34 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         return this.level;
     }
 
+    /**
+     * Updates incrementally the levels of the relaxed planning graph for a specified state. The level of the graph is
+     * the maximum of the levels of the goals as for the layered expansion of the graph.
+     *
+     * @param state the state.
+     * @return the level of the graph.
+     */
+    private int updateRelaxedPlanningGraph(final State state) {
+        this.incrementalGraph.update(state);
+        final BitVector pGoal = super.getGoal().getPositiveFluents();
+        final BitVector nGoal = super.getGoal().getNegativeFluents();
+        this.goalCounter = 0;
+        this.level = 0;
+        for (int g = pGoal.nextSetBit(0); g >= 0; g = pGoal.nextSetBit(g + 1)) {
+            if (this.pPropLevel[g] != Integer.MAX_VALUE) {
+                this.goalCounter++;
+                this.level = Math.max(this.level, this.pPropLevel[g]);
+            }
+        }
+        for (int g = nGoal.nextSetBit(0); g >= 0; g = nGoal.nextSetBit(g + 1)) {
+            if (this.nPropLevel[g] != Integer.MAX_VALUE) {
+                this.goalCounter++;
+                this.level = Math.max(this.level, this.nPropLevel[g]);
+            }
+        }
+        return this.level;
+    }
+
     /**
      * Returns <code>true</code> if the goal is reachable after the planning graph expansion.
      *
@@ -485,6 +618,12 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         for (int g = nGoal.nextSetBit(0); g >= 0; g = nGoal.nextSetBit(g + 1)) {
             goals[this.nPropLevel[g]].getNegativeFluents().set(g);
         }
+        // The goals of the first level are kept to compute the helpful actions. The goals added later at the first
+        // level are kept as they are added because they can be marked as achieved before the first level is reached.
+        if (this.level > 0) {
+            this.pHelpfulGoals.or(goals[1].getPositiveFluents());
+            this.nHelpfulGoals.or(goals[1].getNegativeFluents());
+        }
 
         // We start the extraction of the relaxed plan
         for (int k = level; k > 0; k--) {
@@ -507,6 +646,9 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
                         final int pLevel = this.pPropLevel[p];
                         if (pLevel != 0 && !pGk1.get(p)) {
                             goals[pLevel].getPositiveFluents().set(p);
+                            if (pLevel == 1) {
+                                this.pHelpfulGoals.set(p);
+                            }
                         }
                     }
                     final BitVector nPre = pre.getNegativeFluents();
@@ -514,6 +656,9 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
                         final int pLevel = this.nPropLevel[p];
                         if (pLevel != 0 && !nGk1.get(p)) {
                             goals[pLevel].getNegativeFluents().set(p);
+                            if (pLevel == 1) {
+                                this.nHelpfulGoals.set(p);
+                            }
                         }
                     }
                     // Get the effects of the operator marked them as true
@@ -542,6 +687,9 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
                         final int pLevel = this.pPropLevel[p];
                         if (pLevel != 0 && !pGk1.get(p)) {
                             goals[pLevel].getPositiveFluents().set(p);
+                            if (pLevel == 1) {
+                                this.pHelpfulGoals.set(p);
+                            }
                         }
                     }
                     final BitVector nPre = pre.getNegativeFluents();
@@ -549,6 +697,9 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
                         final int pLevel = this.nPropLevel[p];
                         if (pLevel != 0 && !nGk1.get(p)) {
                             goals[pLevel].getNegativeFluents().set(p);
+                            if (pLevel == 1) {
+                                this.nHelpfulGoals.set(p);
+                            }
                         }
                     }
                     // Get the effects of the operator marked them as true
@@ -570,6 +721,47 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         return value;
     }
 
+    /**
+     * Returns the helpful actions of the last relaxed plan extracted. As defined by J. Hoffmann, the helpful actions
+     * of a state are the actions applicable in the state that achieve a goal of the first level of the relaxed plan,
+     * i.e., a goal that the relaxed plan must achieve by one of the actions of its first step. The helpful actions are
+     * written in ascending order at the beginning of the array. If no relaxed plan was extracted since the last
+     * expansion of the graph, e.g., because the goal is unreachable, there is no helpful action.
+     *
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least
+     *                the number of actions of the problem.
+     * @return the number of helpful actions.
+     */
+    protected final int getRelaxedPlanHelpfulActions(final int[] actions) {
+        this.helpfulActions.clear();
+        for (int p = this.pHelpfulGoals.nextSetBit(0); p >= 0; p = this.pHelpfulGoals.nextSetBit(p + 1)) {
+            this.markHelpfulActions(this.effectsEdges[p].getPositiveFluents());
+        }
+        for (int p = this.nHelpfulGoals.nextSetBit(0); p >= 0; p = this.nHelpfulGoals.nextSetBit(p + 1)) {
+            this.markHelpfulActions(this.effectsEdges[p].getNegativeFluents());
+        }
+        int count = 0;
+        for (int a = this.helpfulActions.nextSetBit(0); a >= 0; a = this.helpfulActions.nextSetBit(a + 1)) {
+            actions[count++] = a;
+        }
+        return count;
+    }
+
+    /**
+     * Marks the actions of the unconditional operators of the first level of the graph among a set of achievers.
+     * An unconditional operator of the first level is applicable in the state from which the graph was expanded
+     * and its effect condition holds in this state.
+     *
+     * @param achievers the unconditional operators that achieve a goal of the first level of the relaxed plan.
+     */
+    private void markHelpfulActions(final BitVector achievers) {
+        for (int u = achievers.nextSetBit(0); u >= 0; u = achievers.nextSetBit(u + 1)) {
+            if (this.operatorsLevel[u] == 0) {
+                this.helpfulActions.set(this.unconditionalOperators[u][0]);
+            }
+        }
+    }
+
     /**
      * Select an effect according to the unconditional operators difficulty heuristic. The question
      * is, which achiever should be choose when no NOOP is available ? It is certainly a good idea
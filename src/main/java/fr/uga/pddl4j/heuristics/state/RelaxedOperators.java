@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.problem.operator.Effect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.List;
+
+/**
+ * This class implements the unconditional operators of a problem relaxed by ignoring the negative effects. An
+ * unconditional operator is created for each conditional effect of each action. Its preconditions are the
+ * precondition of the action and the condition of the effect and its effects are the effect. The positive proposition
+ * <code>p</code> is indexed by <code>p</code> and the negative proposition <code>not p</code> by <code>facts + p</code>
+ * so that the negative propositions are handled as any other proposition.
+ * <p>
+ * The operators are computed once and never modified afterwards. Thus, they can be shared by the heuristics of the
+ * same problem used by different threads.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 03.12.2021
+ * @since 4.0
+ */
+final class RelaxedOperators {
+
+    /**
+     * The number of relevant fluents.
+     */
+    private final int facts;
+
+    /**
+     * The preconditions of each unconditional operator.
+     */
+    private final int[][] preconditions;
+
+    /**
+     * The effects of each unconditional operator.
+     */
+    private final int[][] effects;
+
+    /**
+     * The unconditional operators that have each proposition as precondition.
+     */
+    private final int[][] consumers;
+
+    /**
+     * The unconditional operators that have each proposition as effect.
+     */
+    private final int[][] achievers;
+
+    /**
+     * The unconditional operators without precondition.
+     */
+    private final int[] unconditioned;
+
+    /**
+     * The action of each unconditional operator.
+     */
+    private final int[] actions;
+
+    /**
+     * The cost of each action.
+     */
+    private final double[] costs;
+
+    /**
+     * Creates the unconditional operators of a specified problem.
+     *
+     * @param problem the problem.
+     */
+    RelaxedOperators(final Problem problem) {
+        this.facts = problem.getFluents().size();
+        final List<Action> operators = problem.getActions();
+        int nbOperators = 0;
+        for (Action op : operators) {
+            nbOperators += op.getConditionalEffects().size();
+        }
+        this.preconditions = new int[nbOperators][];
+        this.effects = new int[nbOperators][];
+        this.actions = new int[nbOperators];
+        this.costs = new double[operators.size()];
+        // For each conditional effect we create a new unconditional operator
+        int o = 0;
+        for (int a = 0; a < operators.size(); a++) {
+            final Action op = operators.get(a);
+            this.costs[a] = op.getCost().getValue();
+            for (ConditionalEffect cEffect : op.getConditionalEffects()) {
+                final Condition pre = new Condition(op.getPrecondition());
+                pre.getPositiveFluents().or(cEffect.getCondition().getPositiveFluents());
+                pre.getNegativeFluents().or(cEffect.getCondition().getNegativeFluents());
+                this.preconditions[o] = this.toPropositions(pre);
+                final Effect effect = cEffect.getEffect();
+                this.effects[o] = this.toPropositions(effect.getPositiveFluents(), effect.getNegativeFluents());
+                this.actions[o] = a;
+                o++;
+            }
+        }
+        // The consumers and the achievers of each proposition
+        final int[] nbConsumers = new int[2 * this.facts];
+        final int[] nbAchievers = new int[2 * this.facts];
+        int nbUnconditioned = 0;
+        for (o = 0; o < nbOperators; o++) {
+            for (int p : this.preconditions[o]) {
+                nbConsumers[p]++;
+            }
+            for (int p : this.effects[o]) {
+                nbAchievers[p]++;
+            }
+            if (this.preconditions[o].length == 0) {
+                nbUnconditioned++;
+            }
+        }
+        this.consumers = new int[2 * this.facts][];
+        this.achievers = new int[2 * this.facts][];
+        for (int p = 0; p < 2 * this.facts; p++) {
+            this.consumers[p] = new int[nbConsumers[p]];
+            this.achievers[p] = new int[nbAchievers[p]];
+            nbConsumers[p] = 0;
+            nbAchievers[p] = 0;
+        }
+        this.unconditioned = new int[nbUnconditioned];
+        nbUnconditioned = 0;
+        for (o = 0; o < nbOperators; o++) {
+            for (int p : this.preconditions[o]) {
+                this.consumers[p][nbConsumers[p]++] = o;
+            }
+            for (int p : this.effects[o]) {
+                this.achievers[p][nbAchievers[p]++] = o;
+            }
+            if (this.preconditions[o].length == 0) {
+                this.unconditioned[nbUnconditioned++] = o;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of relevant fluents.
+     *
+     * @return the number of relevant fluents.
+     */
+    int getFacts() {
+        return this.facts;
+    }
+
+    /**
+     * Returns the number of propositions, i.e., twice the number of relevant fluents.
+     *
+     * @return the number of propositions.
+     */
+    int getPropositions() {
+        return 2 * this.facts;
+    }
+
+    /**
+     * Returns the number of unconditional operators.
+     *
+     * @return the number of unconditional operators.
+     */
+    int size() {
+        return this.preconditions.length;
+    }
+
+    /**
+     * Returns the preconditions of each unconditional operator.
+     *
+     * @return the preconditions of each unconditional operator.
+     */
+    int[][] getPreconditions() {
+        return this.preconditions;
+    }
+
+    /**
+     * Returns the effects of each unconditional operator.
+     *
+     * @return the effects of each unconditional operator.
+     */
+    int[][] getEffects() {
+        return this.effects;
+    }
+
+    /**
+     * Returns the unconditional operators that have each proposition as precondition.
+     *
+     * @return the unconditional operators that have each proposition as precondition.
+     */
+    int[][] getConsumers() {
+        return this.consumers;
+    }
+
+    /**
+     * Returns the unconditional operators that have each proposition as effect.
+     *
+     * @return the unconditional operators that have each proposition as effect.
+     */
+    int[][] getAchievers() {
+        return this.achievers;
+    }
+
+    /**
+     * Returns the unconditional operators without precondition.
+     *
+     * @return the unconditional operators without precondition.
+     */
+    int[] getUnconditioned() {
+        return this.unconditioned;
+    }
+
+    /**
+     * Returns the action of each unconditional operator.
+     *
+     * @return the action of each unconditional operator.
+     */
+    int[] getActions() {
+        return this.actions;
+    }
+
+    /**
+     * Returns the cost of each action.
+     *
+     * @return the cost of each action.
+     */
+    double[] getCosts() {
+        return this.costs;
+    }
+
+    /**
+     * Returns <code>true</code> if a proposition holds in a state.
+     *
+     * @param state the state.
+     * @param p     the proposition.
+     * @return <code>true</code> if the proposition holds in the state; <code>false</code> otherwise.
+     */
+    boolean holds(final BitVector state, final int p) {
+        return p < this.facts ? state.get(p) : !state.get(p - this.facts);
+    }
+
+    /**
+     * Returns the propositions of a condition.
+     *
+     * @param condition the condition.
+     * @return the propositions.
+     */
+    int[] toPropositions(final Condition condition) {
+        return this.toPropositions(condition.getPositiveFluents(), condition.getNegativeFluents());
+    }
+
+    /**
+     * Returns the propositions of a set of positive and negative fluents.
+     *
+     * @param positive the positive fluents.
+     * @param negative the negative fluents.
+     * @return the propositions.
+     */
+    private int[] toPropositions(final BitVector positive, final BitVector negative) {
+        final int[] propositions = new int[positive.cardinality() + negative.cardinality()];
+        int i = 0;
+        for (int p = positive.nextSetBit(0); p >= 0; p = positive.nextSetBit(p + 1)) {
+            propositions[i++] = p;
+        }
+        for (int p = negative.nextSetBit(0); p >= 0; p = negative.nextSetBit(p + 1)) {
+            propositions[i++] = this.facts + p;
+        }
+        return propositions;
+    }
+}
@@ -21,6 +21,8 @@ import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Condition;
 
+import java.nio.file.Path;
+
 /**
  * This interface defines the methods accessible from all goal cost heuristics. An goal cost heuristic is a function
  * that estimates the remaining distance to the goal. In order to find this estimation an heuristic
@@ -75,6 +77,30 @@ public interface StateHeuristic extends Heuristic {
          * The type for the <code>SumMutex</code> heuristic.
          */
         SUM_MUTEX,
+        /**
+         * The type for the <code>MaxCost</code> heuristic.
+         */
+        MAX_COST,
+        /**
+         * The type for the <code>SumCost</code> heuristic.
+         */
+        SUM_COST,
+        /**
+         * The type for the <code>FastForwardCost</code> heuristic.
+         */
+        FAST_FORWARD_COST,
+        /**
+         * The type for the <code>LandmarkCut</code> heuristic.
+         */
+        LM_CUT,
+        /**
+         * The type for the <code>LandmarkCount</code> heuristic.
+         */
+        LM_COUNT,
+        /**
+         * The type for the <code>PatternDatabases</code> heuristic.
+         */
+        PDB,
     }
 
     /**
@@ -99,6 +125,39 @@ public interface StateHeuristic extends Heuristic {
      */
     double estimate(final Node node, final Condition goal);
 
+    /**
+     * Return the estimated cost to reach the goal from the specified state as a real value. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified state. The heuristics
+     * that take into account the costs of the actions override this method. By default, the cost is the distance
+     * returned by {@link #estimate(State, Condition)}.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     */
+    default double estimateCost(final State state, final Condition goal) {
+        return this.estimate(state, goal);
+    }
+
+    /**
+     * Return the estimated cost to reach the goal from a state registered by a search as a real value. The state is
+     * identified by its index in the registry of the search and its parent by the index of the parent in the same
+     * registry, or -1 if the state is the root of the search. The heuristics that track information along the path of
+     * a state, e.g., the landmarks accepted, store this information per index and compute it from the information of
+     * the parent, so the parent must be estimated before the state. By default, the path of the state is ignored and
+     * the cost is the cost returned by {@link #estimateCost(State, Condition)}.
+     *
+     * @param state  the state from which the cost to the goal must be estimated.
+     * @param id     the index of the state in the registry of the search.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @param goal   the goal expression.
+     * @return the cost to reach the goal from the specified state.
+     */
+    default double estimateCost(final State state, final int id, final int parent, final Condition goal) {
+        return this.estimateCost(state, goal);
+    }
+
     /**
      * Returns <code>true</code> if this heuristic is admissible.
      *
@@ -107,35 +166,86 @@ public interface StateHeuristic extends Heuristic {
     boolean isAdmissible();
 
     /**
-     * Create an instance of a goal cost heuristic for a specified problem.
+     * Returns <code>true</code> if the structures precomputed by this heuristic do not depend on the goal, i.e., if
+     * the heuristic estimates the distance to an other goal than the goal of the problem without computing them
+     * again. The searches that estimate the distance from the initial state to many partial states only use the
+     * heuristics that are goal independent. By default, a heuristic is goal independent.
+     *
+     * @return <code>true</code> if this heuristic is goal independent.
+     */
+    default boolean isGoalIndependent() {
+        return true;
+    }
+
+    /**
+     * Returns the helpful actions of the last state estimated by this heuristic, also known as the preferred
+     * operators of the state. The helpful actions are applicable in the state and are considered by the heuristic as
+     * the most promising ones to reach the goal. They are written in ascending order at the beginning of the array.
+     * By default, a heuristic does not compute helpful actions.
+     *
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least
+     *                the number of actions of the problem.
+     * @return the number of helpful actions or -1 if the heuristic does not compute helpful actions.
+     */
+    default int getHelpfulActions(final int[] actions) {
+        return -1;
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the structures precomputed by this heuristic, i.e., the
+     * structures that are never modified by the estimation, and has its own structures for the estimation. Thus, the
+     * copy is cheap to build and can be used by an other thread than this heuristic. All the heuristics of the library
+     * override this method; by default, a heuristic cannot be copied and cannot be used by the searches that estimate
+     * the states with several threads.
+     *
+     * @return a copy of this heuristic.
+     * @throws UnsupportedOperationException if the heuristic cannot be copied.
+     */
+    default StateHeuristic copy() {
+        throw new UnsupportedOperationException(this.getClass().getName() + " cannot be copied");
+    }
+
+    /**
+     * Returns a copy of this heuristic used by an other thread of the same search. Unlike {@link #copy()}, the copy
+     * also shares the information stored per state by {@link #estimateCost(State, int, int, Condition)}, so that the
+     * threads of a search can estimate the successors of the states estimated by the other threads. By default, the
+     * copy is the copy returned by {@link #copy()}.
+     *
+     * @return a copy of this heuristic sharing the information stored per state.
+     */
+    default StateHeuristic share() {
+        return this.copy();
+    }
+
+    /**
+     * Create an instance of a goal cost heuristic for a specified problem. The structures precomputed by a heuristic
+     * are computed at the first call for a problem and are shared by all the instances returned for this problem. The
+     * instances returned can be used by different threads.
      *
      * @param name    the name of the heuristic to create.
      * @param problem the problem for which the heuristic is created.
      * @return the heuristic created.
      */
     public static StateHeuristic getInstance(final StateHeuristic.Name name, final Problem problem) {
-        switch (name) {
-            case FAST_FORWARD:
-                return new FastForward(problem);
-            case SUM:
-                return new Sum(problem);
-            case SUM_MUTEX:
-                return new SumMutex(problem);
-            case AJUSTED_SUM:
-                return new AdjustedSum(problem);
-            case AJUSTED_SUM2:
-                return new AdjustedSum2(problem);
-            case AJUSTED_SUM2M:
-                return new AjustedSum2M(problem);
-            case COMBO:
-                return new Combo(problem);
-            case MAX:
-                return new Max(problem);
-            case SET_LEVEL:
-                return new SetLevel(problem);
-            default:
-                return null;
-        }
+        return StateHeuristicFactory.getInstance(name, problem, null);
+    }
+
+    /**
+     * Create an instance of a goal cost heuristic for a specified problem whose tables are stored in a directory. If
+     * the structures precomputed by the heuristic are not yet computed for the problem, the heuristics that compute
+     * tables, i.e., the <code>PatternDatabases</code> heuristic, read their tables from the directory when they were
+     * computed before and write them in the directory otherwise. The instances returned afterwards by
+     * {@link #getInstance(StateHeuristic.Name, Problem)} for this problem share these tables.
+     *
+     * @param name      the name of the heuristic to create.
+     * @param problem   the problem for which the heuristic is created.
+     * @param directory the directory where the tables are read and written or null if the tables are not stored.
+     * @return the heuristic created.
+     * @see PatternDatabases
+     */
+    public static StateHeuristic getInstance(final StateHeuristic.Name name, final Problem problem,
+                                             final Path directory) {
+        return StateHeuristicFactory.getInstance(name, problem, directory);
     }
 
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class implements the factory used by {@link StateHeuristic#getInstance(StateHeuristic.Name, Problem)}. The
+ * factory keeps a prototype of each heuristic already built for a problem and returns copies of it. The copies share
+ * the structures precomputed by the prototype, e.g., the edges of the relaxed planning graph or the dependences between
+ * the operators of the planning graph, so that these structures are computed only once per problem.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.11.2021
+ */
+final class StateHeuristicFactory {
+
+    /**
+     * The prototypes of the heuristics already built for each problem.
+     */
+    private static final Map<Problem, Map<StateHeuristic.Name, StateHeuristic>> PROTOTYPES = new WeakHashMap<>();
+
+    /**
+     * Creates a new factory. This class is not instantiable.
+     */
+    private StateHeuristicFactory() {
+    }
+
+    /**
+     * Returns an instance of a heuristic for a specified problem. The instance is a copy of the prototype of the
+     * heuristic for the problem. The prototype is built at the first call.
+     *
+     * @param name      the name of the heuristic.
+     * @param problem   the problem.
+     * @param directory the directory where the prototype reads and writes its tables when it is built or null if the
+     *                  tables are not stored.
+     * @return the heuristic or null if the name of the heuristic is unknown.
+     */
+    static StateHeuristic getInstance(final StateHeuristic.Name name, final Problem problem, final Path directory) {
+        StateHeuristic prototype;
+        synchronized (StateHeuristicFactory.PROTOTYPES) {
+            Map<StateHeuristic.Name, StateHeuristic> prototypes = StateHeuristicFactory.PROTOTYPES.get(problem);
+            if (prototypes == null) {
+                prototypes = new EnumMap<>(StateHeuristic.Name.class);
+                StateHeuristicFactory.PROTOTYPES.put(problem, prototypes);
+            }
+            prototype = prototypes.get(name);
+            if (prototype == null) {
+                prototype = StateHeuristicFactory.newInstance(name, problem, directory);
+                if (prototype == null) {
+                    return null;
+                }
+                prototypes.put(name, prototype);
+            }
+        }
+        return prototype.copy();
+    }
+
+    /**
+     * Builds a new heuristic for a specified problem.
+     *
+     * @param name      the name of the heuristic.
+     * @param problem   the problem.
+     * @param directory the directory where the heuristic reads and writes its tables or null if the tables are not
+     *                  stored.
+     * @return the heuristic or null if the name of the heuristic is unknown.
+     */
+    private static StateHeuristic newInstance(final StateHeuristic.Name name, final Problem problem,
+                                              final Path directory) {
+        switch (name) {
+            case FAST_FORWARD:
+                return new FastForward(problem);
+            case SUM:
+                return new Sum(problem);
+            case SUM_MUTEX:
+                return new SumMutex(problem);
+            case AJUSTED_SUM:
+                return new AdjustedSum(problem);
+            case AJUSTED_SUM2:
+                return new AdjustedSum2(problem);
+            case AJUSTED_SUM2M:
+                return new AjustedSum2M(problem);
+            case COMBO:
+                return new Combo(problem);
+            case MAX:
+                return new Max(problem);
+            case SET_LEVEL:
+                return new SetLevel(problem);
+            case MAX_COST:
+                return new MaxCost(problem);
+            case SUM_COST:
+                return new SumCost(problem);
+            case FAST_FORWARD_COST:
+                return new FastForwardCost(problem);
+            case LM_CUT:
+                return new LandmarkCut(problem);
+            case LM_COUNT:
+                return new LandmarkCount(problem);
+            case PDB:
+                return directory == null ? new PatternDatabases(problem) : new PatternDatabases(problem,
+                    PatternDatabases.DEFAULT_PATTERN_SIZE, PatternDatabases.DEFAULT_COLLECTION_SIZE, directory);
+            default:
+                return null;
+        }
+    }
+}
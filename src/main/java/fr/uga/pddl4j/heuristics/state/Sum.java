@@ -68,6 +68,26 @@ public final class Sum extends RelaxedGraphHeuristic {
         super.setAdmissible(false);
     }
 
+    /**
+     * Creates a new heuristic from an other one. The new heuristic shares the graph precomputed by the other one.
+     *
+     * @param other the other heuristic.
+     */
+    private Sum(final Sum other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of this heuristic. The copy shares the graph precomputed by this heuristic and can be used by an
+     * other thread.
+     *
+     * @return a copy of this heuristic.
+     */
+    @Override
+    public Sum copy() {
+        return new Sum(this);
+    }
+
     /**
      * Return the distance to the goal state from the specified state. If the return value is
      * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
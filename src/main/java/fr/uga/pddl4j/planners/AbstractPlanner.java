@@ -21,12 +21,11 @@ import fr.uga.pddl4j.parser.Message;
 import fr.uga.pddl4j.parser.Parser;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.util.MemoryEstimator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.LoggerConfig;
-
-import org.openjdk.jol.info.GraphLayout;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
@@ -35,6 +34,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Objects;
 
 /**
  * This abstract class defines the main methods to access a planner.
@@ -85,6 +85,11 @@ public abstract class AbstractPlanner implements Planner {
      */
     private Statistics statistics;
 
+    /**
+     * The control of the searches run by the planner.
+     */
+    private SearchControl searchControl;
+
     /**
      * Creates a new planner.
      */
@@ -93,6 +98,7 @@ public abstract class AbstractPlanner implements Planner {
         this.setConfiguration(Planner.getDefaultConfiguration());
         this.parser = new Parser();
         this.statistics = new Statistics();
+        this.searchControl = new SearchControl();
         this.parsedProblem = null;
         this.instantiateProblem = null;
     }
@@ -348,6 +354,28 @@ public abstract class AbstractPlanner implements Planner {
         return this.statistics;
     }
 
+    /**
+     * Returns the control of the searches run by the planner. The control can be used to set a deadline and budgets
+     * to the searches or to cancel them from an other thread.
+     *
+     * @return the control of the searches run by the planner.
+     * @see SearchControl
+     */
+    public final SearchControl getSearchControl() {
+        return this.searchControl;
+    }
+
+    /**
+     * Sets the control of the searches run by the planner.
+     *
+     * @param control the control of the searches run by the planner.
+     * @throws NullPointerException if <code>control == null</code>.
+     */
+    public final void setSearchControl(final SearchControl control) {
+        Objects.requireNonNull(control);
+        this.searchControl = control;
+    }
+
     /**
      * Solves the problem as defined by the planner configuration.
      *
@@ -405,9 +433,12 @@ public abstract class AbstractPlanner implements Planner {
 
         Problem pb = this.instantiate(parsedProblem);
         this.getStatistics().setTimeToEncode(System.currentTimeMillis() - begin);
-        this.getStatistics().setMemoryUsedForProblemRepresentation(GraphLayout.parseInstance(pb).totalSize());
 
         if (pb != null) {
+            if (LOGGER.isDebugEnabled()) {
+                // Walking the object graph of the problem is costly: the memory is only measured in debug mode
+                this.getStatistics().setMemoryUsedForProblemRepresentation(MemoryEstimator.deepSizeOf(pb));
+            }
 
             this.getStatistics().setNumberOfActions(pb.getActions().size());
             this.getStatistics().setNumberOfRelevantFluents(pb.getFluents().size());
@@ -434,7 +465,7 @@ public abstract class AbstractPlanner implements Planner {
                 if (LOGGER.isFatalEnabled()) {
                     LOGGER.fatal(e.getMessage());
                 }
-                System.exit(1);
+                return null;
             }
 
             if (LOGGER.isInfoEnabled()) {
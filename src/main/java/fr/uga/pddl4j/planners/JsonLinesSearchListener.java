@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * This class implements a listener that writes the progress of the searches in a file, one JSON object per line. Each
+ * line is flushed when it is written so that the file can be followed while the search is running. The listener can
+ * be shared by several searches running in parallel.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 20.11.2021
+ * @since 4.0
+ */
+public final class JsonLinesSearchListener implements SearchListener, Closeable {
+
+    /**
+     * The writer of the file.
+     */
+    private final Writer writer;
+
+    /**
+     * The first error raised when writing the file or null if no error occurred.
+     */
+    private IOException error;
+
+    /**
+     * Creates a new listener that writes the progress of the searches in a specified file.
+     *
+     * @param file the path of the file.
+     * @param append <code>true</code> to write at the end of the file if the file already exists; <code>false</code>
+     *               to overwrite the file.
+     * @throws IOException if the file cannot be opened.
+     * @throws NullPointerException if <code>file == null</code>.
+     */
+    public JsonLinesSearchListener(final String file, final boolean append) throws IOException {
+        Objects.requireNonNull(file);
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append),
+            StandardCharsets.UTF_8));
+        this.error = null;
+    }
+
+    /**
+     * Creates a new listener that writes the progress of the searches in a specified file. The file is overwritten if
+     * it already exists.
+     *
+     * @param file the path of the file.
+     * @throws IOException if the file cannot be opened.
+     * @throws NullPointerException if <code>file == null</code>.
+     */
+    public JsonLinesSearchListener(final String file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * Writes the progress of a search on a new line of the file. The errors are not thrown in order to not stop the
+     * search: the first error is thrown when the listener is closed.
+     *
+     * @param progress the progress of the search.
+     */
+    @Override
+    public synchronized void progressed(final SearchProgress progress) {
+        if (this.error == null) {
+            try {
+                this.writer.write(progress.toJson());
+                this.writer.write('\n');
+                this.writer.flush();
+            } catch (IOException e) {
+                this.error = e;
+            }
+        }
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if an error occurred when the file was written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.writer.close();
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+}
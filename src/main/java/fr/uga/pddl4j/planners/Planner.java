@@ -24,6 +24,7 @@ import fr.uga.pddl4j.planners.htn.stn.TFD;
 import fr.uga.pddl4j.planners.statespace.FF;
 import fr.uga.pddl4j.planners.statespace.GSP;
 import fr.uga.pddl4j.planners.statespace.HSP;
+import fr.uga.pddl4j.planners.statespace.Portfolio;
 import fr.uga.pddl4j.problem.Problem;
 import org.apache.logging.log4j.Level;
 
@@ -110,6 +111,11 @@ public interface Planner extends Serializable, Callable<Integer> {
          * PFD (Partial-order Forward Decomposition) planner.
          */
         PFD,
+
+        /**
+         * The portfolio planner.
+         */
+        PORTFOLIO,
     }
 
     /**
@@ -283,6 +289,32 @@ public interface Planner extends Serializable, Callable<Integer> {
      */
     boolean isSupported(Problem problem);
 
+    /**
+     * Create an instance of a planner with its default configuration. The planner can then be configured from the
+     * command line with picocli.
+     *
+     * @param name the name of the planner to create.
+     * @return the planner created.
+     */
+    static Planner getInstance(final Planner.Name name) {
+        switch (name) {
+            case FF:
+                return new FF();
+            case HSP:
+                return new HSP();
+            case GSP:
+                return new GSP();
+            case TFD:
+                return new TFD();
+            case PFD:
+                return new PFD();
+            case PORTFOLIO:
+                return new Portfolio();
+            default:
+                return null;
+        }
+    }
+
     /**
      * Create an instance of a planner from a specified configuration.
      *
@@ -302,6 +334,8 @@ public interface Planner extends Serializable, Callable<Integer> {
                 return new TFD(configuration);
             case PFD:
                 return new PFD(configuration);
+            case PORTFOLIO:
+                return new Portfolio(configuration);
             default:
                 return null;
         }
@@ -0,0 +1,531 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This class implements the control of a running search. A control carries the limits of the search: a wall-clock
+ * deadline, a cancellation flag, a budget of expanded nodes and a budget of memory. The control can be shared between
+ * the thread running the search and the threads that want to stop it.
+ * <p>
+ * A search calls {@link #start(long)} before its first expansion and polls the control with
+ * {@link #isInterrupted(long)} at each expansion. The cancellation is seen at once whereas the clock, the node count
+ * and the memory are only checked every {@link #getPollingInterval()} expansions in order to keep the poll cheap. When
+ * a limit is reached, the search returns what it found so far and the reason why it stopped is given by
+ * {@link #getStatus()}.
+ * </p>
+ * <p>
+ * The control also publishes the progress of the search to its {@link SearchListener}. When the reporting period is
+ * elapsed, {@link #isReportDue()} returns <code>true</code> and the search calls
+ * {@link #report(long, long, long, long, double, double, long)} with its current counters. The searches also report
+ * once at their end.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 18.11.2021
+ * @since 4.0
+ */
+public final class SearchControl {
+
+    /**
+     * The enumeration of the status of a search.
+     */
+    public enum Status {
+        /**
+         * The search is running or has terminated normally.
+         */
+        RUNNING,
+        /**
+         * The search was stopped because its deadline was reached.
+         */
+        TIMEOUT,
+        /**
+         * The search was stopped because its cancellation was requested.
+         */
+        CANCELLED,
+        /**
+         * The search was stopped because it expanded more nodes than its budget.
+         */
+        NODE_LIMIT,
+        /**
+         * The search was stopped because the memory used exceeded its budget.
+         */
+        MEMORY_LIMIT
+    }
+
+    /**
+     * The value of a limit that is not set.
+     */
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    /**
+     * The default number of expansions between two checks of the limits.
+     */
+    public static final int DEFAULT_POLLING_INTERVAL = 16;
+
+    /**
+     * The default period in milliseconds between two reports of the progress of a search.
+     */
+    public static final long DEFAULT_REPORTING_PERIOD = 1000;
+
+    /**
+     * The deadline set by the user in milliseconds since the epoch.
+     */
+    private volatile long deadline;
+
+    /**
+     * The deadline of the running search in milliseconds since the epoch, i.e., the earliest of the deadline of the
+     * control and of the timeout of the search.
+     */
+    private volatile long limit;
+
+    /**
+     * The maximum number of nodes expanded by the search.
+     */
+    private volatile long nodeBudget;
+
+    /**
+     * The maximum number of bytes of memory used by the search.
+     */
+    private volatile long memoryBudget;
+
+    /**
+     * The number of expansions between two checks of the limits.
+     */
+    private volatile int pollingInterval;
+
+    /**
+     * The flag used to request the cancellation of the search.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * The status of the search.
+     */
+    private volatile Status status;
+
+    /**
+     * The listeners notified of the progress of the search.
+     */
+    private final List<SearchListener> listeners;
+
+    /**
+     * The period in milliseconds between two reports of the progress of the search.
+     */
+    private volatile long reportingPeriod;
+
+    /**
+     * The flag set when the reporting period is elapsed.
+     */
+    private volatile boolean reportDue;
+
+    /**
+     * The time of the next report in milliseconds since the epoch.
+     */
+    private volatile long nextReport;
+
+    /**
+     * The time when the search started in milliseconds since the epoch.
+     */
+    private long begin;
+
+    /**
+     * The time of the previous report in milliseconds since the epoch.
+     */
+    private long lastReport;
+
+    /**
+     * The number of nodes expanded at the previous report.
+     */
+    private long lastExploredNodes;
+
+    /**
+     * The number of nodes generated at the previous report.
+     */
+    private long lastCreatedNodes;
+
+    /**
+     * The time spent in garbage collection by the JVM when the search started.
+     */
+    private long gcTimeAtStart;
+
+    /**
+     * Creates a new control without limit.
+     */
+    public SearchControl() {
+        this.deadline = SearchControl.NO_LIMIT;
+        this.limit = SearchControl.NO_LIMIT;
+        this.nodeBudget = SearchControl.NO_LIMIT;
+        this.memoryBudget = SearchControl.NO_LIMIT;
+        this.pollingInterval = SearchControl.DEFAULT_POLLING_INTERVAL;
+        this.cancelled = false;
+        this.status = Status.RUNNING;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.reportingPeriod = SearchControl.DEFAULT_REPORTING_PERIOD;
+        this.reportDue = false;
+        this.nextReport = SearchControl.NO_LIMIT;
+    }
+
+    /**
+     * Creates a new control with the limits and the listeners of an other control. The cancellation request and the
+     * status of the other control are not copied.
+     *
+     * @param other the other control.
+     */
+    public SearchControl(final SearchControl other) {
+        this();
+        this.deadline = other.deadline;
+        this.nodeBudget = other.nodeBudget;
+        this.memoryBudget = other.memoryBudget;
+        this.pollingInterval = other.pollingInterval;
+        this.listeners.addAll(other.listeners);
+        this.reportingPeriod = other.reportingPeriod;
+    }
+
+    /**
+     * Returns the deadline of the control in milliseconds since the epoch.
+     *
+     * @return the deadline of the control or {@link #NO_LIMIT} if the control has no deadline.
+     */
+    public long getDeadline() {
+        return this.deadline;
+    }
+
+    /**
+     * Sets the deadline of the control in milliseconds since the epoch. The deadline is applied in addition of the
+     * timeout of the searches.
+     *
+     * @param deadline the deadline or {@link #NO_LIMIT} to remove the deadline.
+     */
+    public void setDeadline(final long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Sets the deadline of the control to a specified amount of time from now.
+     *
+     * @param timeout the time allocated in milliseconds.
+     * @throws IllegalArgumentException if <code>timeout &lt; 0</code>.
+     */
+    public void setTimeout(final long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout < 0");
+        }
+        this.deadline = SearchControl.add(System.currentTimeMillis(), timeout);
+    }
+
+    /**
+     * Returns the maximum number of nodes expanded by a search.
+     *
+     * @return the maximum number of nodes expanded or {@link #NO_LIMIT} if the node count is not bounded.
+     */
+    public long getNodeBudget() {
+        return this.nodeBudget;
+    }
+
+    /**
+     * Sets the maximum number of nodes expanded by a search.
+     *
+     * @param budget the maximum number of nodes expanded or {@link #NO_LIMIT} to remove the bound.
+     * @throws IllegalArgumentException if <code>budget &lt; 0</code>.
+     */
+    public void setNodeBudget(final long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget < 0");
+        }
+        this.nodeBudget = budget;
+    }
+
+    /**
+     * Returns the maximum number of bytes of memory used by a search.
+     *
+     * @return the maximum number of bytes of memory or {@link #NO_LIMIT} if the memory is not bounded.
+     */
+    public long getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Sets the maximum number of bytes of memory used by a search. The memory used is estimated from the heap of the
+     * JVM. It thus includes the memory used by the other threads and the garbage not yet collected.
+     *
+     * @param budget the maximum number of bytes of memory or {@link #NO_LIMIT} to remove the bound.
+     * @throws IllegalArgumentException if <code>budget &lt; 0</code>.
+     */
+    public void setMemoryBudget(final long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget < 0");
+        }
+        this.memoryBudget = budget;
+    }
+
+    /**
+     * Returns the number of expansions between two checks of the limits.
+     *
+     * @return the number of expansions between two checks of the limits.
+     */
+    public int getPollingInterval() {
+        return this.pollingInterval;
+    }
+
+    /**
+     * Sets the number of expansions between two checks of the limits.
+     *
+     * @param interval the number of expansions between two checks of the limits.
+     * @throws IllegalArgumentException if <code>interval &lt; 1</code>.
+     */
+    public void setPollingInterval(final int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval < 1");
+        }
+        this.pollingInterval = interval;
+    }
+
+    /**
+     * Adds a listener notified of the progress of the search.
+     *
+     * @param listener the listener to add.
+     * @throws NullPointerException if <code>listener == null</code>.
+     */
+    public void addSearchListener(final SearchListener listener) {
+        Objects.requireNonNull(listener);
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener notified of the progress of the search.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeSearchListener(final SearchListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns the period in milliseconds between two reports of the progress of the search.
+     *
+     * @return the period between two reports of the progress of the search.
+     */
+    public long getReportingPeriod() {
+        return this.reportingPeriod;
+    }
+
+    /**
+     * Sets the period in milliseconds between two reports of the progress of the search. The period is only checked
+     * every {@link #getPollingInterval()} expansions.
+     *
+     * @param period the period between two reports of the progress of the search.
+     * @throws IllegalArgumentException if <code>period &lt; 1</code>.
+     */
+    public void setReportingPeriod(final long period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("period < 1");
+        }
+        this.reportingPeriod = period;
+    }
+
+    /**
+     * Requests the cancellation of the search. The search stops at its next expansion. The request remains until the
+     * control is reset.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.status = Status.CANCELLED;
+    }
+
+    /**
+     * Returns <code>true</code> if the cancellation of the search was requested.
+     *
+     * @return <code>true</code> if the cancellation of the search was requested; <code>false</code> otherwise.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Clears the cancellation request and the status of the control. The limits are kept.
+     */
+    public void reset() {
+        this.cancelled = false;
+        this.status = Status.RUNNING;
+    }
+
+    /**
+     * Returns the status of the search. The status is {@link Status#RUNNING} if the search is running or has
+     * terminated without reaching a limit.
+     *
+     * @return the status of the search.
+     */
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Returns <code>true</code> if the last search was stopped by a limit or a cancellation.
+     *
+     * @return <code>true</code> if the last search was stopped by a limit or a cancellation; <code>false</code>
+     *      otherwise.
+     */
+    public boolean isInterrupted() {
+        return this.status != Status.RUNNING;
+    }
+
+    /**
+     * Starts a new search. The deadline of the search is the earliest of the deadline of the control and of the
+     * timeout of the search. The status of a previous search is cleared unless the cancellation was requested.
+     *
+     * @param timeout the timeout of the search in milliseconds.
+     */
+    public void start(final long timeout) {
+        final long now = System.currentTimeMillis();
+        this.limit = Math.min(this.deadline, SearchControl.add(now, timeout));
+        if (!this.cancelled) {
+            this.status = Status.RUNNING;
+        }
+        synchronized (this) {
+            this.begin = now;
+            this.lastReport = now;
+            this.lastExploredNodes = 0;
+            this.lastCreatedNodes = 0;
+            this.gcTimeAtStart = SearchControl.getGcTime();
+            this.reportDue = false;
+            this.nextReport = SearchControl.add(now, this.reportingPeriod);
+        }
+    }
+
+    /**
+     * Polls the control and returns <code>true</code> if the search must stop. The limits are checked only when the
+     * number of expanded nodes is a multiple of the polling interval. Hence, the searches must call this method with a
+     * count increased by one at each expansion.
+     *
+     * @param nodes the number of nodes expanded so far by the search.
+     * @return <code>true</code> if the search must stop; <code>false</code> otherwise.
+     */
+    public boolean isInterrupted(final long nodes) {
+        if (this.status != Status.RUNNING) {
+            return true;
+        }
+        if (nodes % this.pollingInterval != 0) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        if (now >= this.nextReport && !this.listeners.isEmpty()) {
+            this.reportDue = true;
+        }
+        if (now >= this.limit) {
+            this.stop(Status.TIMEOUT);
+        } else if (nodes >= this.nodeBudget) {
+            this.stop(Status.NODE_LIMIT);
+        } else if (this.memoryBudget != SearchControl.NO_LIMIT) {
+            final Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > this.memoryBudget) {
+                this.stop(Status.MEMORY_LIMIT);
+            }
+        }
+        return this.status != Status.RUNNING;
+    }
+
+    /**
+     * Returns <code>true</code> if the reporting period is elapsed and the search must report its progress with
+     * {@link #report(long, long, long, long, double, double, long)}. The period is checked by
+     * {@link #isInterrupted(long)}.
+     *
+     * @return <code>true</code> if the search must report its progress; <code>false</code> otherwise.
+     */
+    public boolean isReportDue() {
+        return this.reportDue;
+    }
+
+    /**
+     * Reports the progress of the search to the listeners of the control. The rates are computed since the previous
+     * report of the search. This method does nothing if the control has no listener.
+     *
+     * @param exploredNodes the number of nodes expanded.
+     * @param createdNodes  the number of nodes generated.
+     * @param openSize      the number of nodes of the open list.
+     * @param closedSize    the number of nodes of the closed list.
+     * @param bestHeuristic the best heuristic value reached so far or <code>NaN</code> if the search has no
+     *                      heuristic.
+     * @param layer         the value of the evaluation function of the last node expanded or <code>NaN</code>.
+     * @param heuristicTime the time spent to compute the heuristic since the beginning of the search in milliseconds.
+     */
+    public void report(final long exploredNodes, final long createdNodes, final long openSize, final long closedSize,
+                       final double bestHeuristic, final double layer, final long heuristicTime) {
+        this.reportDue = false;
+        if (this.listeners.isEmpty()) {
+            return;
+        }
+        final SearchProgress progress;
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+            final double seconds = Math.max(1, now - this.lastReport) / 1000.0;
+            final long elapsed = now - this.begin;
+            progress = new SearchProgress(elapsed, exploredNodes, createdNodes,
+                (exploredNodes - this.lastExploredNodes) / seconds, (createdNodes - this.lastCreatedNodes) / seconds,
+                openSize, closedSize, bestHeuristic, layer,
+                elapsed > 0 ? Math.min(1.0, (double) heuristicTime / elapsed) : 0.0,
+                SearchControl.getGcTime() - this.gcTimeAtStart);
+            this.lastReport = now;
+            this.lastExploredNodes = exploredNodes;
+            this.lastCreatedNodes = createdNodes;
+            this.nextReport = SearchControl.add(now, this.reportingPeriod);
+        }
+        for (SearchListener listener : this.listeners) {
+            listener.progressed(progress);
+        }
+    }
+
+    /**
+     * Stops the search for a specified reason. The first reason recorded is kept.
+     *
+     * @param reason the reason why the search stops.
+     */
+    private synchronized void stop(final Status reason) {
+        if (this.status == Status.RUNNING) {
+            this.status = reason;
+        }
+    }
+
+    /**
+     * Returns the time spent in garbage collection by the JVM in milliseconds.
+     *
+     * @return the time spent in garbage collection by the JVM.
+     */
+    private static long getGcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Adds a duration to a time without overflow.
+     *
+     * @param time     the time.
+     * @param duration the duration.
+     * @return the sum of the time and the duration or {@link #NO_LIMIT} if the sum overflows.
+     */
+    private static long add(final long time, final long duration) {
+        final long sum = time + duration;
+        return sum < time ? SearchControl.NO_LIMIT : sum;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners;
+
+/**
+ * This interface defines a listener of the progress of a search. The listeners are registered on the
+ * {@link SearchControl} of a search or of a planner. They are notified by the thread running the search at the period
+ * of the control and once when the search terminates. A listener must thus return quickly.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 20.11.2021
+ * @since 4.0
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Notifies the listener of the progress of a search.
+     *
+     * @param progress the progress of the search.
+     */
+    void progressed(final SearchProgress progress);
+
+}
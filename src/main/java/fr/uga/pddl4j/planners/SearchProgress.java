@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners;
+
+import org.json.simple.JSONObject;
+
+import java.io.Serializable;
+
+/**
+ * This class implements a snapshot of the progress of a search. The rates are computed over the period elapsed since
+ * the previous snapshot of the search. The values that are not relevant for a search, e.g., the best heuristic value
+ * of a blind search, are <code>NaN</code>.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 20.11.2021
+ * @since 4.0
+ */
+public final class SearchProgress implements Serializable {
+
+    /**
+     * The time elapsed since the beginning of the search in milliseconds.
+     */
+    private final long time;
+
+    /**
+     * The number of nodes expanded.
+     */
+    private final long exploredNodes;
+
+    /**
+     * The number of nodes generated.
+     */
+    private final long createdNodes;
+
+    /**
+     * The number of nodes expanded per second.
+     */
+    private final double expansionRate;
+
+    /**
+     * The number of nodes generated per second.
+     */
+    private final double generationRate;
+
+    /**
+     * The number of nodes of the open list.
+     */
+    private final long openSize;
+
+    /**
+     * The number of nodes of the closed list.
+     */
+    private final long closedSize;
+
+    /**
+     * The best heuristic value reached so far.
+     */
+    private final double bestHeuristic;
+
+    /**
+     * The value of the evaluation function of the last node expanded.
+     */
+    private final double layer;
+
+    /**
+     * The share of the time of the search spent to compute the heuristic.
+     */
+    private final double heuristicTimeShare;
+
+    /**
+     * The time spent in garbage collection since the beginning of the search in milliseconds.
+     */
+    private final long gcTime;
+
+    /**
+     * Creates a new snapshot of the progress of a search.
+     *
+     * @param time               the time elapsed since the beginning of the search in milliseconds.
+     * @param exploredNodes      the number of nodes expanded.
+     * @param createdNodes       the number of nodes generated.
+     * @param expansionRate      the number of nodes expanded per second.
+     * @param generationRate     the number of nodes generated per second.
+     * @param openSize           the number of nodes of the open list.
+     * @param closedSize         the number of nodes of the closed list.
+     * @param bestHeuristic      the best heuristic value reached so far.
+     * @param layer              the value of the evaluation function of the last node expanded.
+     * @param heuristicTimeShare the share of the time of the search spent to compute the heuristic.
+     * @param gcTime             the time spent in garbage collection since the beginning of the search.
+     */
+    public SearchProgress(final long time, final long exploredNodes, final long createdNodes,
+                          final double expansionRate, final double generationRate, final long openSize,
+                          final long closedSize, final double bestHeuristic, final double layer,
+                          final double heuristicTimeShare, final long gcTime) {
+        this.time = time;
+        this.exploredNodes = exploredNodes;
+        this.createdNodes = createdNodes;
+        this.expansionRate = expansionRate;
+        this.generationRate = generationRate;
+        this.openSize = openSize;
+        this.closedSize = closedSize;
+        this.bestHeuristic = bestHeuristic;
+        this.layer = layer;
+        this.heuristicTimeShare = heuristicTimeShare;
+        this.gcTime = gcTime;
+    }
+
+    /**
+     * Returns the time elapsed since the beginning of the search in milliseconds.
+     *
+     * @return the time elapsed since the beginning of the search.
+     */
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * Returns the number of nodes expanded.
+     *
+     * @return the number of nodes expanded.
+     */
+    public long getExploredNodes() {
+        return this.exploredNodes;
+    }
+
+    /**
+     * Returns the number of nodes generated.
+     *
+     * @return the number of nodes generated.
+     */
+    public long getCreatedNodes() {
+        return this.createdNodes;
+    }
+
+    /**
+     * Returns the number of nodes expanded per second since the previous snapshot.
+     *
+     * @return the number of nodes expanded per second.
+     */
+    public double getExpansionRate() {
+        return this.expansionRate;
+    }
+
+    /**
+     * Returns the number of nodes generated per second since the previous snapshot.
+     *
+     * @return the number of nodes generated per second.
+     */
+    public double getGenerationRate() {
+        return this.generationRate;
+    }
+
+    /**
+     * Returns the number of nodes of the open list.
+     *
+     * @return the number of nodes of the open list.
+     */
+    public long getOpenSize() {
+        return this.openSize;
+    }
+
+    /**
+     * Returns the number of nodes of the closed list.
+     *
+     * @return the number of nodes of the closed list.
+     */
+    public long getClosedSize() {
+        return this.closedSize;
+    }
+
+    /**
+     * Returns the best heuristic value reached so far. A best heuristic value that does not decrease over several
+     * snapshots is the sign of a plateau.
+     *
+     * @return the best heuristic value reached so far or <code>NaN</code> if the search has no heuristic.
+     */
+    public double getBestHeuristic() {
+        return this.bestHeuristic;
+    }
+
+    /**
+     * Returns the value of the evaluation function of the last node expanded, i.e., the current f-layer for A*.
+     *
+     * @return the value of the evaluation function of the last node expanded or <code>NaN</code> if it is not
+     *      relevant for the search.
+     */
+    public double getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * Returns the share of the time of the search spent to compute the heuristic.
+     *
+     * @return the share of the time of the search spent to compute the heuristic, between 0 and 1.
+     */
+    public double getHeuristicTimeShare() {
+        return this.heuristicTimeShare;
+    }
+
+    /**
+     * Returns the time spent in garbage collection since the beginning of the search in milliseconds.
+     *
+     * @return the time spent in garbage collection since the beginning of the search.
+     */
+    public long getGcTime() {
+        return this.gcTime;
+    }
+
+    /**
+     * Returns the JSON representation of the snapshot on a single line. The values that are <code>NaN</code> are
+     * written as <code>null</code>.
+     *
+     * @return the JSON representation of the snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public String toJson() {
+        final JSONObject json = new JSONObject();
+        json.put("time", this.time);
+        json.put("explored", this.exploredNodes);
+        json.put("created", this.createdNodes);
+        json.put("expansionRate", SearchProgress.toJsonValue(this.expansionRate));
+        json.put("generationRate", SearchProgress.toJsonValue(this.generationRate));
+        json.put("open", this.openSize);
+        json.put("closed", this.closedSize);
+        json.put("bestHeuristic", SearchProgress.toJsonValue(this.bestHeuristic));
+        json.put("layer", SearchProgress.toJsonValue(this.layer));
+        json.put("heuristicTimeShare", SearchProgress.toJsonValue(this.heuristicTimeShare));
+        json.put("gcTime", this.gcTime);
+        return json.toJSONString();
+    }
+
+    /**
+     * Returns a string representation of the snapshot.
+     *
+     * @return a string representation of the snapshot.
+     */
+    @Override
+    public String toString() {
+        return this.toJson();
+    }
+
+    /**
+     * Converts a double into a JSON value. JSON does not allow infinite and <code>NaN</code> values: they are
+     * converted into <code>null</code>.
+     *
+     * @param value the value to convert.
+     * @return the JSON value.
+     */
+    private static Double toJsonValue(final double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+    }
+}
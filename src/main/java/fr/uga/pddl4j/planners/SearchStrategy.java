@@ -57,6 +57,38 @@ public interface SearchStrategy extends Serializable {
          * The hill climbing first search strategy.
          */
         HILL_CLIMBING,
+        /**
+         * The multi-threaded hash distributed A* search strategy.
+         */
+        HDA_STAR,
+        /**
+         * The regression search strategy over partial states.
+         */
+        REGRESSION,
+        /**
+         * The bidirectional A* search strategy.
+         */
+        BIDIRECTIONAL_ASTAR,
+        /**
+         * The iterative deepening A* search strategy.
+         */
+        IDA_STAR,
+        /**
+         * The simplified memory-bounded A* search strategy.
+         */
+        SMA_STAR,
+        /**
+         * The external-memory breadth first search strategy.
+         */
+        EXTERNAL_BREADTH_FIRST,
+        /**
+         * The external-memory A* search strategy.
+         */
+        EXTERNAL_ASTAR,
+        /**
+         * The greedy best first search strategy with lazy evaluation of the heuristic.
+         */
+        LAZY_GREEDY_BEST_FIRST,
     }
 
     /**
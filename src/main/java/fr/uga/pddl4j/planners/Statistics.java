@@ -66,6 +66,21 @@ public class Statistics implements Serializable {
      */
     private String problem;
 
+    /**
+     * The number of nodes explored by each thread of the search.
+     */
+    private int[] exploredNodesPerThread;
+
+    /**
+     * The number of nodes explored by the search.
+     */
+    private long exploredNodes;
+
+    /**
+     * The number of nodes created by the search.
+     */
+    private long createdNodes;
+
     /**
      * Creates a new statistics object to store statistical information about  planner performances.
      * The default statistic values are set to 0.
@@ -79,6 +94,9 @@ public class Statistics implements Serializable {
         this.numberOfActions = 0;
         this.numberOfRelevantFacts = 0;
         this.problem = null;
+        this.exploredNodesPerThread = new int[0];
+        this.exploredNodes = 0;
+        this.createdNodes = 0;
     }
 
     /**
@@ -104,7 +122,8 @@ public class Statistics implements Serializable {
      *
      */
     /**
-     * Returns the memory used to encode the planning problem in bytes.
+     * Returns the memory used to encode the planning problem in bytes. The memory is measured by walking the object
+     * graph of the problem: it is only measured when the planner runs in debug mode and is 0 otherwise.
      *
      * @return the memory used to encode the planning problem.
      */
@@ -175,6 +194,60 @@ public class Statistics implements Serializable {
         this.numberOfRelevantFacts = facts;
     }
 
+    /**
+     * Returns the number of nodes explored by each thread of the search.
+     *
+     * @return the number of nodes explored by each thread of the search.
+     */
+    public final int[] getExploredNodesPerThread() {
+        return this.exploredNodesPerThread.clone();
+    }
+
+    /**
+     * Sets the number of nodes explored by each thread of the search.
+     *
+     * @param nodes the number of nodes explored by each thread of the search.
+     */
+    public final void setExploredNodesPerThread(final int[] nodes) {
+        this.exploredNodesPerThread = nodes.clone();
+    }
+
+    /**
+     * Returns the number of nodes explored by the search.
+     *
+     * @return the number of nodes explored by the search.
+     */
+    public final long getExploredNodes() {
+        return this.exploredNodes;
+    }
+
+    /**
+     * Sets the number of nodes explored by the search.
+     *
+     * @param nodes the number of nodes explored by the search.
+     */
+    public final void setExploredNodes(final long nodes) {
+        this.exploredNodes = nodes;
+    }
+
+    /**
+     * Returns the number of nodes created by the search.
+     *
+     * @return the number of nodes created by the search.
+     */
+    public final long getCreatedNodes() {
+        return this.createdNodes;
+    }
+
+    /**
+     * Sets the number of nodes created by the search.
+     *
+     * @param nodes the number of nodes created by the search.
+     */
+    public final void setCreatedNodes(final long nodes) {
+        this.createdNodes = nodes;
+    }
+
     /**
      * Returns the encoding time, i.e., the time to encode the planning problem in a compact representation.
      *
@@ -258,6 +331,16 @@ public class Statistics implements Serializable {
         strb.append(String.format("%8.2f MBytes for problem representation%n", memoryForProblemInMBytes));
         strb.append(String.format("%8.2f MBytes for searching%n", memoryUsedToSearchInMBytes));
         strb.append(String.format("%8.2f MBytes total%n%n%n", totalMemoryInMBytes));
+        strb.append(String.format("* Nodes:%n"));
+        strb.append(String.format("%8d nodes explored%n", this.exploredNodes));
+        strb.append(String.format("%8d nodes created%n%n%n", this.createdNodes));
+        if (this.exploredNodesPerThread.length > 1) {
+            strb.append(String.format("* Nodes explored per thread:%n"));
+            for (int i = 0; i < this.exploredNodesPerThread.length; i++) {
+                strb.append(String.format("%8d nodes explored by thread %d%n", this.exploredNodesPerThread[i], i));
+            }
+            strb.append(String.format("%n%n"));
+        }
 
         return strb.toString();
     }
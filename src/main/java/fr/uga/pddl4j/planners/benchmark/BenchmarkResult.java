@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.benchmark;
+
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Statistics;
+import org.json.simple.JSONObject;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * This class implements the result of the run of a planner configuration on a problem by the benchmark runner. A
+ * result contains the statistics of the planner, the number of nodes explored and created by the search and the
+ * length and the cost of the plan found. The results are written and read in JSON and written in CSV.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ * @see BenchmarkRunner
+ */
+public final class BenchmarkResult implements Serializable {
+
+    /**
+     * The status of a run.
+     */
+    public enum Status {
+        /**
+         * The planner found a plan.
+         */
+        SOLVED,
+        /**
+         * The planner terminated without finding a plan.
+         */
+        UNSOLVED,
+        /**
+         * The planner or the run reached its timeout.
+         */
+        TIMEOUT,
+        /**
+         * The planner ran out of memory.
+         */
+        OUT_OF_MEMORY,
+        /**
+         * The planner or the run failed.
+         */
+        ERROR,
+    }
+
+    /**
+     * The header of the CSV tables of results.
+     */
+    public static final String CSV_HEADER = "configuration,domain,problem,status,time_to_parse,time_to_encode,"
+        + "time_to_search,wall_time,memory_for_problem,memory_to_search,actions,fluents,explored_nodes,created_nodes,"
+        + "plan_length,plan_cost";
+
+    /**
+     * The configuration of the planner, i.e., its name followed by its command line options.
+     */
+    private final String configuration;
+
+    /**
+     * The path of the domain file.
+     */
+    private final String domain;
+
+    /**
+     * The path of the problem file.
+     */
+    private final String problem;
+
+    /**
+     * The status of the run.
+     */
+    private Status status;
+
+    /**
+     * The time spent to parse the problem in milliseconds.
+     */
+    private long timeToParse;
+
+    /**
+     * The time spent to encode the problem in milliseconds.
+     */
+    private long timeToEncode;
+
+    /**
+     * The time spent to search a plan in milliseconds.
+     */
+    private long timeToSearch;
+
+    /**
+     * The wall time of the run, including the start of the JVM, in milliseconds.
+     */
+    private long wallTime;
+
+    /**
+     * The memory used to represent the problem in bytes.
+     */
+    private long memoryForProblem;
+
+    /**
+     * The memory used to search a plan in bytes.
+     */
+    private long memoryToSearch;
+
+    /**
+     * The number of actions of the problem.
+     */
+    private long actions;
+
+    /**
+     * The number of relevant fluents of the problem.
+     */
+    private long fluents;
+
+    /**
+     * The number of nodes explored by the search.
+     */
+    private long exploredNodes;
+
+    /**
+     * The number of nodes created by the search.
+     */
+    private long createdNodes;
+
+    /**
+     * The length of the plan found or -1 if no plan was found.
+     */
+    private long planLength;
+
+    /**
+     * The cost of the plan found or <code>NaN</code> if no plan was found.
+     */
+    private double planCost;
+
+    /**
+     * Creates a new result with the status <code>ERROR</code>.
+     *
+     * @param configuration the configuration of the planner.
+     * @param domain        the path of the domain file.
+     * @param problem       the path of the problem file.
+     * @throws NullPointerException if one of the parameters is null.
+     */
+    public BenchmarkResult(final String configuration, final String domain, final String problem) {
+        this.configuration = Objects.requireNonNull(configuration);
+        this.domain = Objects.requireNonNull(domain);
+        this.problem = Objects.requireNonNull(problem);
+        this.status = Status.ERROR;
+        this.planLength = -1;
+        this.planCost = Double.NaN;
+    }
+
+    /**
+     * Returns the configuration of the planner.
+     *
+     * @return the configuration of the planner.
+     */
+    public String getConfiguration() {
+        return this.configuration;
+    }
+
+    /**
+     * Returns the path of the domain file.
+     *
+     * @return the path of the domain file.
+     */
+    public String getDomain() {
+        return this.domain;
+    }
+
+    /**
+     * Returns the path of the problem file.
+     *
+     * @return the path of the problem file.
+     */
+    public String getProblem() {
+        return this.problem;
+    }
+
+    /**
+     * Returns the status of the run.
+     *
+     * @return the status of the run.
+     */
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Sets the status of the run.
+     *
+     * @param status the status of the run.
+     * @throws NullPointerException if <code>status == null</code>.
+     */
+    public void setStatus(final Status status) {
+        this.status = Objects.requireNonNull(status);
+    }
+
+    /**
+     * Returns the time spent to parse the problem in milliseconds.
+     *
+     * @return the time spent to parse the problem.
+     */
+    public long getTimeToParse() {
+        return this.timeToParse;
+    }
+
+    /**
+     * Returns the time spent to encode the problem in milliseconds.
+     *
+     * @return the time spent to encode the problem.
+     */
+    public long getTimeToEncode() {
+        return this.timeToEncode;
+    }
+
+    /**
+     * Returns the time spent to search a plan in milliseconds.
+     *
+     * @return the time spent to search a plan.
+     */
+    public long getTimeToSearch() {
+        return this.timeToSearch;
+    }
+
+    /**
+     * Returns the total time spent by the planner, i.e., the time to parse, encode and search, in milliseconds.
+     *
+     * @return the total time spent by the planner.
+     */
+    public long getTotalTime() {
+        return this.timeToParse + this.timeToEncode + this.timeToSearch;
+    }
+
+    /**
+     * Returns the wall time of the run, including the start of the JVM, in milliseconds.
+     *
+     * @return the wall time of the run.
+     */
+    public long getWallTime() {
+        return this.wallTime;
+    }
+
+    /**
+     * Sets the wall time of the run in milliseconds.
+     *
+     * @param time the wall time of the run.
+     */
+    public void setWallTime(final long time) {
+        this.wallTime = time;
+    }
+
+    /**
+     * Returns the memory used to represent the problem in bytes.
+     *
+     * @return the memory used to represent the problem.
+     */
+    public long getMemoryForProblem() {
+        return this.memoryForProblem;
+    }
+
+    /**
+     * Returns the memory used to search a plan in bytes.
+     *
+     * @return the memory used to search a plan.
+     */
+    public long getMemoryToSearch() {
+        return this.memoryToSearch;
+    }
+
+    /**
+     * Returns the number of actions of the problem.
+     *
+     * @return the number of actions of the problem.
+     */
+    public long getActions() {
+        return this.actions;
+    }
+
+    /**
+     * Returns the number of relevant fluents of the problem.
+     *
+     * @return the number of relevant fluents of the problem.
+     */
+    public long getFluents() {
+        return this.fluents;
+    }
+
+    /**
+     * Returns the number of nodes explored by the search.
+     *
+     * @return the number of nodes explored by the search.
+     */
+    public long getExploredNodes() {
+        return this.exploredNodes;
+    }
+
+    /**
+     * Returns the number of nodes created by the search.
+     *
+     * @return the number of nodes created by the search.
+     */
+    public long getCreatedNodes() {
+        return this.createdNodes;
+    }
+
+    /**
+     * Returns the length of the plan found.
+     *
+     * @return the length of the plan found or -1 if no plan was found.
+     */
+    public long getPlanLength() {
+        return this.planLength;
+    }
+
+    /**
+     * Returns the cost of the plan found.
+     *
+     * @return the cost of the plan found or <code>NaN</code> if no plan was found.
+     */
+    public double getPlanCost() {
+        return this.planCost;
+    }
+
+    /**
+     * Copies the statistics of a planner into this result.
+     *
+     * @param statistics the statistics of the planner.
+     */
+    public void setStatistics(final Statistics statistics) {
+        this.timeToParse = statistics.getTimeToParse();
+        this.timeToEncode = statistics.getTimeToEncode();
+        this.timeToSearch = statistics.getTimeToSearch();
+        this.memoryForProblem = statistics.getMemoryUsedForProblemRepresentation();
+        this.memoryToSearch = statistics.getMemoryUsedToSearch();
+        this.actions = statistics.getNumberOfActions();
+        this.fluents = statistics.getNumberOfRelevantFluents();
+        this.exploredNodes = statistics.getExploredNodes();
+        this.createdNodes = statistics.getCreatedNodes();
+    }
+
+    /**
+     * Sets the plan found by the planner. The length and the cost of the plan are stored in this result.
+     *
+     * @param plan the plan found or null if no plan was found.
+     */
+    public void setPlan(final Plan plan) {
+        if (plan == null) {
+            this.planLength = -1;
+            this.planCost = Double.NaN;
+        } else {
+            this.planLength = plan.size();
+            this.planCost = plan.cost();
+        }
+    }
+
+    /**
+     * Returns the key that identifies the run of the result, i.e., the configuration, the domain and the problem. The
+     * key is used to match the results with the results of a baseline.
+     *
+     * @return the key of the result.
+     */
+    public String getKey() {
+        return this.configuration + "|" + this.domain + "|" + this.problem;
+    }
+
+    /**
+     * Returns the JSON representation of this result. The cost of a plan is <code>null</code> if no plan was found.
+     *
+     * @return the JSON representation of this result.
+     */
+    @SuppressWarnings("unchecked")
+    public JSONObject toJson() {
+        final JSONObject json = new JSONObject();
+        json.put("configuration", this.configuration);
+        json.put("domain", this.domain);
+        json.put("problem", this.problem);
+        json.put("status", this.status.name());
+        json.put("timeToParse", this.timeToParse);
+        json.put("timeToEncode", this.timeToEncode);
+        json.put("timeToSearch", this.timeToSearch);
+        json.put("wallTime", this.wallTime);
+        json.put("memoryForProblem", this.memoryForProblem);
+        json.put("memoryToSearch", this.memoryToSearch);
+        json.put("actions", this.actions);
+        json.put("fluents", this.fluents);
+        json.put("exploredNodes", this.exploredNodes);
+        json.put("createdNodes", this.createdNodes);
+        json.put("planLength", this.planLength);
+        json.put("planCost", Double.isNaN(this.planCost) ? null : this.planCost);
+        return json;
+    }
+
+    /**
+     * Creates a result from its JSON representation.
+     *
+     * @param json the JSON representation of the result.
+     * @return the result.
+     * @throws IllegalArgumentException if the JSON representation is not a valid result.
+     */
+    public static BenchmarkResult fromJson(final JSONObject json) {
+        try {
+            final BenchmarkResult result = new BenchmarkResult((String) json.get("configuration"),
+                (String) json.get("domain"), (String) json.get("problem"));
+            result.status = Status.valueOf((String) json.get("status"));
+            result.timeToParse = BenchmarkResult.getLong(json, "timeToParse");
+            result.timeToEncode = BenchmarkResult.getLong(json, "timeToEncode");
+            result.timeToSearch = BenchmarkResult.getLong(json, "timeToSearch");
+            result.wallTime = BenchmarkResult.getLong(json, "wallTime");
+            result.memoryForProblem = BenchmarkResult.getLong(json, "memoryForProblem");
+            result.memoryToSearch = BenchmarkResult.getLong(json, "memoryToSearch");
+            result.actions = BenchmarkResult.getLong(json, "actions");
+            result.fluents = BenchmarkResult.getLong(json, "fluents");
+            result.exploredNodes = BenchmarkResult.getLong(json, "exploredNodes");
+            result.createdNodes = BenchmarkResult.getLong(json, "createdNodes");
+            result.planLength = BenchmarkResult.getLong(json, "planLength");
+            final Number cost = (Number) json.get("planCost");
+            result.planCost = cost == null ? Double.NaN : cost.doubleValue();
+            return result;
+        } catch (ClassCastException | NullPointerException e) {
+            throw new IllegalArgumentException("invalid benchmark result: " + json, e);
+        }
+    }
+
+    /**
+     * Returns the CSV representation of this result. The columns are described by {@link #CSV_HEADER}.
+     *
+     * @return the CSV representation of this result.
+     */
+    public String toCsv() {
+        return String.join(",",
+            BenchmarkResult.toCsvField(this.configuration),
+            BenchmarkResult.toCsvField(this.domain),
+            BenchmarkResult.toCsvField(this.problem),
+            this.status.name(),
+            Long.toString(this.timeToParse),
+            Long.toString(this.timeToEncode),
+            Long.toString(this.timeToSearch),
+            Long.toString(this.wallTime),
+            Long.toString(this.memoryForProblem),
+            Long.toString(this.memoryToSearch),
+            Long.toString(this.actions),
+            Long.toString(this.fluents),
+            Long.toString(this.exploredNodes),
+            Long.toString(this.createdNodes),
+            Long.toString(this.planLength),
+            Double.isNaN(this.planCost) ? "" : String.format(Locale.US, "%.2f", this.planCost));
+    }
+
+    /**
+     * Returns a string representation of this result.
+     *
+     * @return a string representation of this result.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s %s [%s]: %s in %d ms (%d nodes explored)", this.configuration,
+            this.problem, this.domain, this.status, this.getTotalTime(), this.exploredNodes);
+    }
+
+    /**
+     * Returns the value of a numeric field of a JSON object as a long.
+     *
+     * @param json  the JSON object.
+     * @param field the name of the field.
+     * @return the value of the field.
+     */
+    private static long getLong(final JSONObject json, final String field) {
+        return ((Number) json.get(field)).longValue();
+    }
+
+    /**
+     * Escapes a field of a CSV table. The fields that contain a comma, a quote or a line break are quoted.
+     *
+     * @param field the field.
+     * @return the field escaped.
+     */
+    private static String toCsvField(final String field) {
+        if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+}
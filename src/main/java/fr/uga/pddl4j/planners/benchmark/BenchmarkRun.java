@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.benchmark;
+
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.AbstractPlanner;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.SearchControl;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import picocli.CommandLine;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class implements a single run of the benchmark runner. It is the main class of the JVM forked by the runner for
+ * each planner configuration and each problem. The run solves the problem with the planner configuration and writes
+ * its result in JSON in a file read by the runner.
+ * <p>
+ * The arguments of the run are the path of the result file, the configuration of the planner, i.e., the name of the
+ * planner followed by its command line options in a single argument, the domain file and the problem file.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ * @see BenchmarkRunner
+ */
+public final class BenchmarkRun {
+
+    /**
+     * The class logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(BenchmarkRun.class.getName());
+
+    /**
+     * The number of arguments of a run.
+     */
+    static final int ARGUMENTS = 4;
+
+    /**
+     * Creates a new run. This constructor is private because the class only contains static methods.
+     */
+    private BenchmarkRun() {
+        super();
+    }
+
+    /**
+     * Splits a planner configuration into its tokens: the name of the planner followed by its command line options.
+     *
+     * @param configuration the configuration of the planner.
+     * @return the tokens of the configuration.
+     */
+    static String[] split(final String configuration) {
+        return configuration.trim().split("\\s+");
+    }
+
+    /**
+     * Creates and configures the planner of a configuration.
+     *
+     * @param configuration the configuration of the planner.
+     * @param domain        the domain file.
+     * @param problem       the problem file.
+     * @return the planner.
+     * @throws IllegalArgumentException if the name of the planner is unknown.
+     * @throws CommandLine.ParameterException if the options of the planner are invalid.
+     */
+    static AbstractPlanner createPlanner(final String configuration, final String domain, final String problem) {
+        final String[] tokens = BenchmarkRun.split(configuration);
+        final Planner.Name name = Planner.Name.valueOf(tokens[0].toUpperCase(Locale.ROOT));
+        final AbstractPlanner planner = (AbstractPlanner) Planner.getInstance(name);
+        final String[] args = Arrays.copyOf(tokens, tokens.length + 1);
+        System.arraycopy(tokens, 1, args, 0, tokens.length - 1);
+        args[tokens.length - 1] = domain;
+        args[tokens.length] = problem;
+        new CommandLine(planner).parseArgs(args);
+        return planner;
+    }
+
+    /**
+     * Solves a problem with a planner configuration and returns the result.
+     *
+     * @param configuration the configuration of the planner.
+     * @param domain        the domain file.
+     * @param problem       the problem file.
+     * @return the result of the run.
+     */
+    static BenchmarkResult run(final String configuration, final String domain, final String problem) {
+        final BenchmarkResult result = new BenchmarkResult(configuration, domain, problem);
+        AbstractPlanner planner = null;
+        try {
+            planner = BenchmarkRun.createPlanner(configuration, domain, problem);
+            final Plan plan = planner.solve();
+            result.setPlan(plan);
+            if (plan != null) {
+                result.setStatus(BenchmarkResult.Status.SOLVED);
+            } else if (planner.getSearchControl().getStatus().equals(SearchControl.Status.TIMEOUT)) {
+                result.setStatus(BenchmarkResult.Status.TIMEOUT);
+            } else if (planner.getSearchControl().getStatus().equals(SearchControl.Status.MEMORY_LIMIT)) {
+                result.setStatus(BenchmarkResult.Status.OUT_OF_MEMORY);
+            } else {
+                result.setStatus(BenchmarkResult.Status.UNSOLVED);
+            }
+        } catch (OutOfMemoryError e) {
+            result.setStatus(BenchmarkResult.Status.OUT_OF_MEMORY);
+        } catch (Throwable t) {
+            LOGGER.error("run failed", t);
+            result.setStatus(BenchmarkResult.Status.ERROR);
+        }
+        if (planner != null) {
+            result.setStatistics(planner.getStatistics());
+        }
+        return result;
+    }
+
+    /**
+     * The main method of a run.
+     *
+     * @param args the path of the result file, the configuration of the planner, the domain file and the problem file.
+     */
+    public static void main(final String[] args) {
+        if (args.length != BenchmarkRun.ARGUMENTS) {
+            LOGGER.fatal("usage: BenchmarkRun <result> <configuration> <domain> <problem>\n");
+            System.exit(1);
+        }
+        final BenchmarkResult result = BenchmarkRun.run(args[1], args[2], args[3]);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(args[0]), StandardCharsets.UTF_8)) {
+            writer.write(result.toJson().toJSONString());
+        } catch (IOException e) {
+            LOGGER.fatal("result cannot be written: " + e.getMessage() + "\n");
+            System.exit(2);
+        }
+        // A search that leaves a non daemon thread alive leaks it: the thread is reported and the run is stopped so
+        // that the runner does not wait for the JVM until its timeout and lose the result
+        if (BenchmarkRun.logLiveThreads()) {
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Logs the non daemon threads still alive except the current thread.
+     *
+     * @return <code>true</code> if a non daemon thread other than the current thread is alive; <code>false</code>
+     *      otherwise.
+     */
+    private static boolean logLiveThreads() {
+        boolean alive = false;
+        for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+            final Thread thread = entry.getKey();
+            if (thread != Thread.currentThread() && thread.isAlive() && !thread.isDaemon()) {
+                alive = true;
+                final StringBuilder str = new StringBuilder("thread still alive after the run: ");
+                str.append(thread.getName());
+                for (StackTraceElement element : entry.getValue()) {
+                    str.append("\n\tat ").append(element);
+                }
+                LOGGER.error(str.append("\n").toString());
+            }
+        }
+        return alive;
+    }
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class implements the benchmark runner of the library. The runner solves a set of problems with a set of planner
+ * configurations. Each configuration is run on each problem in its own forked JVM with a fixed heap so that the runs
+ * do not interfere with each other. The results of the runs, i.e., the statistics of the planners, the number of
+ * nodes explored and created and the length and the cost of the plans, are written in CSV and JSON.
+ * <p>
+ * A configuration is the name of a planner followed by its command line options, e.g., <code>"HSP -e MAX"</code>. The
+ * problems are given by glob patterns, e.g., <code>"benchmarks/pddl/ipc2000/blocks/strips-typed/p00*.pddl"</code>.
+ * Unless a domain is specified, the domain of a problem is the file <code>domain</code> with the extension of the
+ * problem in the directory of the problem.
+ * </p>
+ * <p>
+ * The results can be compared to the JSON results of a previous execution of the runner. A run is a regression if it
+ * is no longer solved or if its time, its number of explored nodes or the cost of its plan increased by more than a
+ * threshold.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ */
+@CommandLine.Command(name = "BenchmarkRunner",
+    version = "BenchmarkRunner 1.0",
+    description = "Runs planner configurations on a set of problems and compares the results to a baseline.",
+    sortOptions = false,
+    mixinStandardHelpOptions = true,
+    headerHeading = "Usage:%n",
+    synopsisHeading = "%n",
+    descriptionHeading = "%nDescription:%n%n",
+    parameterListHeading = "%nParameters:%n",
+    optionListHeading = "%nOptions:%n")
+public final class BenchmarkRunner implements Callable<Integer> {
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(BenchmarkRunner.class.getName());
+
+    /**
+     * The exit code returned when a regression is found.
+     */
+    public static final int REGRESSION = 3;
+
+    /**
+     * The characters of the glob patterns.
+     */
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /**
+     * The name of the domain files without extension.
+     */
+    private static final String DOMAIN = "domain";
+
+    /**
+     * The glob patterns of the problems.
+     */
+    @CommandLine.Option(names = {"-p", "--problems"}, required = true, paramLabel = "<glob>",
+        description = "Set a glob pattern of the problems to solve (repeatable).")
+    private List<String> problems;
+
+    /**
+     * The domain of the problems or null if the domain of each problem is in its directory.
+     */
+    @CommandLine.Option(names = {"-d", "--domain"}, paramLabel = "<domain>",
+        description = "Set the domain of all the problems (preset: the domain file of the directory of each problem).")
+    private String domain;
+
+    /**
+     * The planner configurations.
+     */
+    @CommandLine.Option(names = {"-c", "--configuration"}, required = true, paramLabel = "<configuration>",
+        description = "Set a planner configuration, i.e., the name of a planner followed by its options, "
+            + "e.g., \"HSP -e MAX\" (repeatable).")
+    private List<String> configurations;
+
+    /**
+     * The heap of the forked JVM.
+     */
+    @CommandLine.Option(names = {"-x", "--heap"}, defaultValue = "2g", paramLabel = "<heap>",
+        description = "Set the fixed heap size of the JVM of each run (preset: 2g).")
+    private String heap;
+
+    /**
+     * The timeout of a run in seconds.
+     */
+    @CommandLine.Option(names = {"-t", "--timeout"}, defaultValue = "900", paramLabel = "<timeout>",
+        description = "Set the time after which a run is killed in seconds (preset: 900).")
+    private int timeout;
+
+    /**
+     * The CSV file of the results.
+     */
+    @CommandLine.Option(names = {"--csv"}, paramLabel = "<file>", description = "Write the results in CSV.")
+    private File csv;
+
+    /**
+     * The JSON file of the results.
+     */
+    @CommandLine.Option(names = {"--json"}, paramLabel = "<file>", description = "Write the results in JSON.")
+    private File json;
+
+    /**
+     * The JSON file of the results of the baseline.
+     */
+    @CommandLine.Option(names = {"-b", "--baseline"}, paramLabel = "<file>",
+        description = "Compare the results to the JSON results of a baseline.")
+    private File baseline;
+
+    /**
+     * The threshold of the regressions.
+     */
+    @CommandLine.Option(names = {"--threshold"}, defaultValue = "0.1", paramLabel = "<threshold>",
+        description = "Set the relative increase of time, explored nodes or plan cost flagged as a regression "
+            + "(preset: 0.1).")
+    private double threshold;
+
+    /**
+     * The minimum increase of time of a regression in milliseconds.
+     */
+    @CommandLine.Option(names = {"--min-time"}, defaultValue = "100", paramLabel = "<time>",
+        description = "Set the minimum increase of time flagged as a regression in milliseconds (preset: 100).")
+    private long minTime;
+
+    /**
+     * The directory where the outputs of the runs are kept or null if the outputs are discarded.
+     */
+    @CommandLine.Option(names = {"--log-directory"}, paramLabel = "<directory>",
+        description = "Keep the output of each run in a directory.")
+    private File logDirectory;
+
+    /**
+     * Creates a new benchmark runner.
+     */
+    public BenchmarkRunner() {
+        super();
+    }
+
+    /**
+     * Runs the planner configurations on the problems, writes the results and compares them to the baseline.
+     *
+     * @return 0 if no regression was found; 1 if the options are invalid; 2 if an error occurred; 3 if a regression
+     *      was found.
+     */
+    @Override
+    public Integer call() {
+        try {
+            final List<String> files = new ArrayList<>();
+            for (String glob : this.problems) {
+                files.addAll(BenchmarkRunner.expand(glob));
+            }
+            if (files.isEmpty()) {
+                LOGGER.fatal("no problem matches " + this.problems + "\n");
+                return 1;
+            }
+            if (this.logDirectory != null) {
+                Files.createDirectories(this.logDirectory.toPath());
+            }
+            final List<BenchmarkResult> results = new ArrayList<>();
+            for (String configuration : this.configurations) {
+                for (String problem : files) {
+                    final BenchmarkResult result = this.fork(configuration, this.getDomain(problem), problem,
+                        results.size());
+                    LOGGER.info(result + "\n");
+                    results.add(result);
+                }
+            }
+            if (this.csv != null) {
+                BenchmarkRunner.writeCsv(results, this.csv);
+            }
+            if (this.json != null) {
+                BenchmarkRunner.writeJson(results, this.json);
+            }
+            if (this.baseline != null) {
+                final List<String> regressions = BenchmarkRunner.compare(results,
+                    BenchmarkRunner.readJson(this.baseline), this.threshold, this.minTime);
+                for (String regression : regressions) {
+                    LOGGER.error("regression: " + regression + "\n");
+                }
+                if (!regressions.isEmpty()) {
+                    return BenchmarkRunner.REGRESSION;
+                }
+                LOGGER.info("no regression found\n");
+            }
+            return 0;
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            LOGGER.fatal(e.getMessage() + "\n");
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.fatal("benchmark interrupted\n");
+            return 2;
+        }
+    }
+
+    /**
+     * Returns the domain of a problem.
+     *
+     * @param problem the path of the problem file.
+     * @return the path of the domain file.
+     */
+    private String getDomain(final String problem) {
+        if (this.domain != null) {
+            return this.domain;
+        }
+        final int dot = problem.lastIndexOf('.');
+        final String extension = dot > problem.lastIndexOf(File.separatorChar) ? problem.substring(dot) : "";
+        return new File(new File(problem).getParentFile(), BenchmarkRunner.DOMAIN + extension).getPath();
+    }
+
+    /**
+     * Runs a planner configuration on a problem in a forked JVM.
+     *
+     * @param configuration the configuration of the planner.
+     * @param domain        the path of the domain file.
+     * @param problem       the path of the problem file.
+     * @param index         the index of the run.
+     * @return the result of the run.
+     * @throws IOException          if the JVM cannot be forked or if its result cannot be read.
+     * @throws ParseException       if the result of the run is malformed.
+     * @throws InterruptedException if the runner is interrupted while waiting for the run.
+     */
+    private BenchmarkResult fork(final String configuration, final String domain, final String problem,
+                                 final int index) throws IOException, ParseException, InterruptedException {
+        final File result = File.createTempFile("pddl4j-benchmark", ".json");
+        final File log;
+        if (this.logDirectory == null) {
+            log = File.createTempFile("pddl4j-benchmark", ".log");
+        } else {
+            final String name = new File(problem).getName().replaceAll("\\.[^.]*$", "");
+            log = new File(this.logDirectory, String.format(Locale.ROOT, "%04d-%s.log", index, name));
+        }
+        final List<String> command = Arrays.asList(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Xms" + this.heap,
+            "-Xmx" + this.heap,
+            "-cp", System.getProperty("java.class.path"),
+            BenchmarkRun.class.getName(),
+            result.getPath(), configuration, domain, problem);
+        final long begin = System.currentTimeMillis();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            BenchmarkResult run;
+            if (!process.waitFor(this.timeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+                run = new BenchmarkResult(configuration, domain, problem);
+                run.setStatus(BenchmarkResult.Status.TIMEOUT);
+            } else if (result.length() > 0) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(result), StandardCharsets.UTF_8)) {
+                    run = BenchmarkResult.fromJson((JSONObject) new JSONParser().parse(reader));
+                }
+            } else {
+                // The run crashed before writing its result, e.g., the JVM could not be created
+                run = new BenchmarkResult(configuration, domain, problem);
+            }
+            run.setWallTime(System.currentTimeMillis() - begin);
+            if (run.getStatus().equals(BenchmarkResult.Status.ERROR)) {
+                LOGGER.error("run failed, see " + (this.logDirectory == null ? "the output of the run with "
+                    + "--log-directory" : log.getPath()) + "\n");
+            }
+            return run;
+        } finally {
+            process.destroy();
+            Files.deleteIfExists(result.toPath());
+            if (this.logDirectory == null) {
+                Files.deleteIfExists(log.toPath());
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted list of the files that match a glob pattern. The pattern is matched against the paths of the
+     * files below the longest prefix of the pattern without glob characters.
+     *
+     * @param glob the glob pattern.
+     * @return the files that match the pattern.
+     * @throws IOException if a directory cannot be read.
+     */
+    static List<String> expand(final String glob) throws IOException {
+        final String pattern = glob.replace('/', File.separatorChar);
+        int meta = pattern.length();
+        for (char c : BenchmarkRunner.GLOB_CHARACTERS.toCharArray()) {
+            final int i = pattern.indexOf(c);
+            if (i >= 0) {
+                meta = Math.min(meta, i);
+            }
+        }
+        if (meta == pattern.length()) {
+            return new File(pattern).isFile() ? new ArrayList<>(Arrays.asList(pattern)) : new ArrayList<>();
+        }
+        final int separator = pattern.lastIndexOf(File.separatorChar, meta);
+        final Path base = Paths.get(separator < 0 ? "." : pattern.substring(0, separator + 1));
+        if (!Files.isDirectory(base)) {
+            return new ArrayList<>();
+        }
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> paths = Files.walk(base)) {
+            return paths.filter(Files::isRegularFile)
+                .map(p -> separator < 0 ? base.relativize(p) : p)
+                .filter(matcher::matches)
+                .map(Path::toString)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Compares results to the results of a baseline. A result is a regression if the run was solved in the baseline
+     * and is no longer solved, or if its total time, its number of explored nodes or the cost of its plan increased
+     * by more than a threshold. An increase of time is only a regression if it is also greater than a minimum time in
+     * order to ignore the noise of the small problems. The results without baseline are ignored.
+     *
+     * @param results   the results.
+     * @param baseline  the results of the baseline.
+     * @param threshold the relative increase flagged as a regression.
+     * @param minTime   the minimum increase of time flagged as a regression in milliseconds.
+     * @return the description of the regressions found.
+     */
+    static List<String> compare(final List<BenchmarkResult> results, final List<BenchmarkResult> baseline,
+                                final double threshold, final long minTime) {
+        final Map<String, BenchmarkResult> references = new HashMap<>();
+        for (BenchmarkResult reference : baseline) {
+            references.put(reference.getKey(), reference);
+        }
+        final List<String> regressions = new ArrayList<>();
+        for (BenchmarkResult result : results) {
+            final BenchmarkResult reference = references.get(result.getKey());
+            if (reference == null || !reference.getStatus().equals(BenchmarkResult.Status.SOLVED)) {
+                continue;
+            }
+            final String run = result.getConfiguration() + " " + result.getProblem() + ": ";
+            if (!result.getStatus().equals(BenchmarkResult.Status.SOLVED)) {
+                regressions.add(run + "solved -> " + result.getStatus());
+                continue;
+            }
+            if (BenchmarkRunner.isIncreased(reference.getTotalTime(), result.getTotalTime(), threshold)
+                && result.getTotalTime() - reference.getTotalTime() >= minTime) {
+                regressions.add(run + BenchmarkRunner.toString("time (ms)", reference.getTotalTime(),
+                    result.getTotalTime()));
+            }
+            if (BenchmarkRunner.isIncreased(reference.getExploredNodes(), result.getExploredNodes(), threshold)) {
+                regressions.add(run + BenchmarkRunner.toString("explored nodes", reference.getExploredNodes(),
+                    result.getExploredNodes()));
+            }
+            if (BenchmarkRunner.isIncreased(reference.getPlanCost(), result.getPlanCost(), threshold)) {
+                regressions.add(run + BenchmarkRunner.toString("plan cost", reference.getPlanCost(),
+                    result.getPlanCost()));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Returns if a value increased by more than a threshold relatively to a reference value.
+     *
+     * @param reference the reference value.
+     * @param value     the value.
+     * @param threshold the relative threshold.
+     * @return <code>true</code> if the value increased by more than the threshold; <code>false</code> otherwise.
+     */
+    private static boolean isIncreased(final double reference, final double value, final double threshold) {
+        return value > reference * (1.0 + threshold);
+    }
+
+    /**
+     * Returns the description of the increase of a value.
+     *
+     * @param name      the name of the value.
+     * @param reference the reference value.
+     * @param value     the value.
+     * @return the description of the increase.
+     */
+    private static String toString(final String name, final double reference, final double value) {
+        return String.format(Locale.US, "%s %.2f -> %.2f (%+.1f%%)", name, reference, value,
+            reference == 0 ? Double.POSITIVE_INFINITY : 100.0 * (value - reference) / reference);
+    }
+
+    /**
+     * Writes results in a CSV file.
+     *
+     * @param results the results.
+     * @param file    the file.
+     * @throws IOException if the file cannot be written.
+     */
+    static void writeCsv(final List<BenchmarkResult> results, final File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(BenchmarkResult.CSV_HEADER);
+            writer.write('\n');
+            for (BenchmarkResult result : results) {
+                writer.write(result.toCsv());
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes results in a JSON file as an array of objects.
+     *
+     * @param results the results.
+     * @param file    the file.
+     * @throws IOException if the file cannot be written.
+     */
+    @SuppressWarnings("unchecked")
+    static void writeJson(final List<BenchmarkResult> results, final File file) throws IOException {
+        final JSONArray array = new JSONArray();
+        for (BenchmarkResult result : results) {
+            array.add(result.toJson());
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(array.toJSONString());
+        }
+    }
+
+    /**
+     * Reads results from a JSON file written by {@link #writeJson(List, File)}.
+     *
+     * @param file the file.
+     * @return the results.
+     * @throws IOException    if the file cannot be read.
+     * @throws ParseException if the file is not a valid JSON file.
+     */
+    static List<BenchmarkResult> readJson(final File file) throws IOException, ParseException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            final JSONArray array = (JSONArray) new JSONParser().parse(reader);
+            final List<BenchmarkResult> results = new ArrayList<>(array.size());
+            for (Object result : array) {
+                results.add(BenchmarkResult.fromJson((JSONObject) result));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * The main method of the benchmark runner.
+     *
+     * @param args the arguments of the command line.
+     */
+    public static void main(final String[] args) {
+        final CommandLine cmd = new CommandLine(new BenchmarkRunner());
+        System.exit(cmd.execute(args));
+    }
+}
@@ -448,6 +448,7 @@ public abstract class AbstractSTNPlanner extends AbstractHTNPlanner implements S
                 begin = System.currentTimeMillis();
                 plan = this.solve(pb);
                 end = System.currentTimeMillis();
+                this.getStatistics().setTimeToSearch(end - begin);
                 searchTime = (end - begin) / 1000.0;
             } catch (OutOfMemoryError err) {
                 if (LOGGER.isFatalEnabled()) {
@@ -457,8 +458,6 @@ public abstract class AbstractSTNPlanner extends AbstractHTNPlanner implements S
                 if (LOGGER.isFatalEnabled()) {
                     LOGGER.fatal(e.getMessage() + "\n");
                 }
-            } finally {
-                System.exit(0);
             }
 
             // Print plan solution
@@ -472,6 +471,11 @@ public abstract class AbstractSTNPlanner extends AbstractHTNPlanner implements S
                     strb.append(pb.toString(plan.getHierarchy()));
                     strb.append(String.format("\nPlan total cost      : %4.2f%n", plan.cost()));
                 }
+            } else if (this.getSearchControl().isInterrupted()) {
+                if (LOGGER.isInfoEnabled()) {
+                    strb.append(String.format("Search interrupted (%s)%n%n", this.getSearchControl().getStatus()));
+                    strb.append("==> <==\n\n");
+                }
             } else {
                 if (LOGGER.isInfoEnabled()) {
                     strb.append(String.format(String.format("Problem with no solution plan found%n%n")));
@@ -482,6 +486,7 @@ public abstract class AbstractSTNPlanner extends AbstractHTNPlanner implements S
             strb.append(String.format("Searching time       : %4.3fs%n", searchTime));
             strb.append(String.format("Total time           : %4.3fs%n%n", searchTime + instantiationTime));
             LOGGER.info(strb);
+            return plan;
         } else {
             if (LOGGER.isInfoEnabled()) {
                 StringBuilder strb = new StringBuilder();
@@ -18,6 +18,7 @@ package fr.uga.pddl4j.planners.htn.stn;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.ProblemNotSupportedException;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.planners.statespace.GSP;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
@@ -137,15 +138,23 @@ public final class  PFD extends AbstractSTNPlanner {
         // Declare the plan used to store the result of the exploration
         Plan plan = null;
 
-        // Get the timeout for searching
-        final int timeout = this.getTimeout() * 1000;
-        final long start = System.currentTimeMillis();
-        long elapsedTime = 0;
+        // Start the control of the search with the timeout of the planner
+        final SearchControl control = this.getSearchControl();
+        control.start(this.getTimeout() * 1000L);
+        int expanded = 0;
+        int created = 1;
+        double bestHeuristic = Double.POSITIVE_INFINITY;
 
         // Start exploring the search space
-        while (!open.isEmpty() && plan == null && elapsedTime < timeout) {
+        while (!open.isEmpty() && plan == null && !control.isInterrupted(expanded)) {
+            if (control.isReportDue()) {
+                control.report(expanded, created, open.size(), expanded, bestHeuristic, Double.NaN, 0);
+            }
+            expanded++;
             // Get and remove the first node of the pending list of nodes.
             final PFDNode currentNode = open.poll();
+            // The number of tasks left to decompose is used as heuristic value
+            bestHeuristic = Math.min(bestHeuristic, currentNode.getTaskNetwork().getTasks().size());
 
             if (this.isInteractive()) {
                 LOGGER.info("=========> Pop a new node <=========\n");
@@ -159,7 +168,7 @@ public final class  PFD extends AbstractSTNPlanner {
             // If the task network has no more task, a solution is found
             if (currentNode.getTaskNetwork().isEmpty()) {
                 if (currentNode.getState().satisfy(problem.getGoal())) {
-                    return super.extractPlan(currentNode, problem);
+                    plan = super.extractPlan(currentNode, problem);
                 }  else {
                     if (LOGGER.isDebugEnabled()) {
                         Plan p = super.extractPlan(currentNode, problem);
@@ -197,6 +206,7 @@ public final class  PFD extends AbstractSTNPlanner {
                                 childNode.getTaskNetwork().removeTask(task);
                                 childNode.setTask(taskIndex);
                                 open.add(childNode);
+                                created++;
                                 if (this.isInteractive()) {
                                     LOGGER.info("=====> Decomposition succeeded push node:");
                                     LOGGER.info(problem.toString(childNode.getState()));
@@ -231,6 +241,7 @@ public final class  PFD extends AbstractSTNPlanner {
                                 childNode.getTaskNetwork().decompose(task, method);
                                 childNode.setTask(taskIndex);
                                 open.add(childNode);
+                                created++;
                                 if (this.isInteractive()) {
                                     LOGGER.info("=====> Decomposition succeeded push node:");
                                     LOGGER.info(problem.toString(childNode.getTaskNetwork()));
@@ -247,9 +258,11 @@ public final class  PFD extends AbstractSTNPlanner {
                         }
                     }
                 }
-                elapsedTime = System.currentTimeMillis() - start;
             }
         }
+        control.report(expanded, created, open.size(), expanded, bestHeuristic, Double.NaN, 0);
+        this.getStatistics().setExploredNodes(expanded);
+        this.getStatistics().setCreatedNodes(created);
         return plan;
     }
 
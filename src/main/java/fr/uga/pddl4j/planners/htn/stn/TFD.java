@@ -19,6 +19,7 @@ import fr.uga.pddl4j.parser.RequireKey;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.ProblemNotSupportedException;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
@@ -145,15 +146,23 @@ public final class TFD extends AbstractSTNPlanner {
         // Declare the plan used to store the result of the exploration
         Plan plan = null;
 
-        // Get the timeout for searching
-        final int timeout = this.getTimeout() * 1000;
-        final long start = System.currentTimeMillis();
-        long elapsedTime = 0;
+        // Start the control of the search with the timeout of the planner
+        final SearchControl control = this.getSearchControl();
+        control.start(this.getTimeout() * 1000L);
+        int expanded = 0;
+        int created = 1;
+        double bestHeuristic = Double.POSITIVE_INFINITY;
 
         // Start exploring the search space
-        while (!open.isEmpty() && plan == null && elapsedTime < timeout) {
+        while (!open.isEmpty() && plan == null && !control.isInterrupted(expanded)) {
+            if (control.isReportDue()) {
+                control.report(expanded, created, open.size(), expanded, bestHeuristic, Double.NaN, 0);
+            }
+            expanded++;
             // Get and remove the first node of the pending list of nodes.
             final TFDNode currentNode = open.poll();
+            // The number of tasks left to decompose is used as heuristic value
+            bestHeuristic = Math.min(bestHeuristic, currentNode.getTasks().size());
 
             if (this.isInteractive()) {
                 LOGGER.info("=========> Pop a new node <=========\n");
@@ -168,7 +177,7 @@ public final class TFD extends AbstractSTNPlanner {
             // If the task network is empty we've got a solution
             if (currentNode.getTasks().isEmpty()) {
                 if (currentNode.getState().satisfy(problem.getGoal())) {
-                    return super.extractPlan(currentNode, problem);
+                    plan = super.extractPlan(currentNode, problem);
                 }  else {
                     if (LOGGER.isDebugEnabled()) {
                         Plan p = super.extractPlan(currentNode, problem);
@@ -198,6 +207,7 @@ public final class TFD extends AbstractSTNPlanner {
                             childNode.getState().apply(action.getConditionalEffects());
                             childNode.setTask(task);
                             open.add(childNode);
+                            created++;
                             if (this.isInteractive()) {
                                 LOGGER.info("=====> Decomposition succeeded push node:");
                                 LOGGER.info(problem.toString(childNode.getState()));
@@ -229,6 +239,7 @@ public final class TFD extends AbstractSTNPlanner {
                             childNode.pushAllTasks(method.getSubTasks());
                             childNode.setTask(task);
                             open.add(childNode);
+                            created++;
                             if (this.isInteractive()) {
                                 LOGGER.info("=====> Decomposition succeeded push node:");
                                 LOGGER.info("=====>\n" + problem.toString(childNode.getState()));
@@ -248,8 +259,10 @@ public final class TFD extends AbstractSTNPlanner {
                     }
                 }
             }
-            elapsedTime = System.currentTimeMillis() - start;
         }
+        control.report(expanded, created, open.size(), expanded, bestHeuristic, Double.NaN, 0);
+        this.getStatistics().setExploredNodes(expanded);
+        this.getStatistics().setCreatedNodes(created);
         return plan;
     }
 
@@ -15,23 +15,30 @@
 
 package fr.uga.pddl4j.planners.statespace;
 
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.parser.RequireKey;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.plan.SequentialPlan;
 import fr.uga.pddl4j.planners.AbstractPlanner;
 import fr.uga.pddl4j.planners.InvalidConfigurationException;
+import fr.uga.pddl4j.planners.JsonLinesSearchListener;
 import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.ProblemNotSupportedException;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.AbstractExternalSearch;
+import fr.uga.pddl4j.planners.statespace.search.IDAStar;
 import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.SMAStar;
 import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
 import fr.uga.pddl4j.problem.Problem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -65,6 +72,52 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
      */
     private StateHeuristic.Name heuristic;
 
+    /**
+     * The number of threads used by the search strategies.
+     */
+    private int numberOfThreads;
+
+    /**
+     * The flag set if the search strategies prune the applicable actions with strong stubborn sets.
+     */
+    private boolean stubbornSetPruning;
+
+    /**
+     * The use of the helpful actions by the search strategies.
+     */
+    private StateSpaceSearch.HelpfulActions helpfulActions;
+
+    /**
+     * The number of entries of the cache of the heuristic values shared by the search strategies.
+     */
+    private int heuristicCacheSize;
+
+    /**
+     * The path of the file where the progress of the searches is written or null if the progress is not written.
+     */
+    private String progressLog;
+
+    /**
+     * The path of the directory where the tables of the PDB heuristic are read and written or null if the tables are
+     * not stored.
+     */
+    private String patternDatabases;
+
+    /**
+     * The maximum number of nodes kept in memory by the SMA_STAR search strategy.
+     */
+    private int nodeLimit;
+
+    /**
+     * The number of entries of the transposition table of the IDA_STAR search strategy.
+     */
+    private int tableSize;
+
+    /**
+     * The number of records of the sort buffer of the external-memory search strategies.
+     */
+    private int bufferSize;
+
     /**
      * Creates a new planner.
      */
@@ -133,6 +186,211 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         this.heuristic = heuristic;
     }
 
+    /**
+     * Sets the number of threads used by the search strategies of the planner. The threads are used to evaluate the
+     * heuristic in parallel and by the HDA* search strategy.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setNumberOfThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("number of threads must be greater than 0");
+        }
+        this.numberOfThreads = threads;
+    }
+
+    /**
+     * Returns the number of threads used by the search strategies of the planner.
+     *
+     * @return the number of threads used by the search strategies of the planner.
+     */
+    public final int getNumberOfThreads() {
+        return this.numberOfThreads;
+    }
+
+    /**
+     * Sets if the search strategies of the planner prune the applicable actions of the states with strong stubborn
+     * sets. The pruning preserves the optimality of the A* search strategy.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     */
+    public void setStubbornSetPruning(final boolean pruning) {
+        this.stubbornSetPruning = pruning;
+    }
+
+    /**
+     * Returns <code>true</code> if the search strategies of the planner prune the applicable actions of the states
+     * with strong stubborn sets.
+     *
+     * @return <code>true</code> if the applicable actions are pruned with strong stubborn sets; <code>false</code>
+     *      otherwise.
+     */
+    public final boolean isStubbornSetPruning() {
+        return this.stubbornSetPruning;
+    }
+
+    /**
+     * Sets the use of the helpful actions computed by the heuristic. Only the enforced hill climbing and the greedy
+     * best first search strategies use the helpful actions.
+     *
+     * @param helpfulActions the use of the helpful actions. The use of the helpful actions cannot be null.
+     * @throws IllegalArgumentException if the use of the helpful actions is null.
+     */
+    public void setHelpfulActions(final StateSpaceSearch.HelpfulActions helpfulActions) {
+        if (helpfulActions == null) {
+            throw new IllegalArgumentException("helpfulActions == null");
+        }
+        this.helpfulActions = helpfulActions;
+    }
+
+    /**
+     * Returns the use of the helpful actions computed by the heuristic.
+     *
+     * @return the use of the helpful actions computed by the heuristic.
+     */
+    public final StateSpaceSearch.HelpfulActions getHelpfulActions() {
+        return this.helpfulActions;
+    }
+
+    /**
+     * Sets the number of entries of the cache of the heuristic values. The cache is shared by the search strategies
+     * of the planner, so that a search strategy does not estimate again the states estimated by the previous ones.
+     *
+     * @param size the number of entries of the cache or 0 if the heuristic values are not cached.
+     * @throws IllegalArgumentException if the number of entries is less than 0.
+     * @see HeuristicCache
+     */
+    public void setHeuristicCacheSize(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("heuristic cache size must be greater or equal to 0");
+        }
+        this.heuristicCacheSize = size;
+    }
+
+    /**
+     * Returns the number of entries of the cache of the heuristic values.
+     *
+     * @return the number of entries of the cache of the heuristic values or 0 if the heuristic values are not cached.
+     */
+    public final int getHeuristicCacheSize() {
+        return this.heuristicCacheSize;
+    }
+
+    /**
+     * Sets the file where the progress of the searches is written, one JSON object per line. The file is overwritten
+     * at each call to {@link #solve()} and each line is flushed when it is written, so that the file can be followed
+     * while the planner is running.
+     *
+     * @param file the path of the file or null if the progress of the searches is not written.
+     * @see JsonLinesSearchListener
+     */
+    public void setProgressLog(final String file) {
+        this.progressLog = file;
+    }
+
+    /**
+     * Returns the file where the progress of the searches is written.
+     *
+     * @return the path of the file or null if the progress of the searches is not written.
+     */
+    public final String getProgressLog() {
+        return this.progressLog;
+    }
+
+    /**
+     * Sets the directory where the tables of the PDB heuristic are read and written. The tables computed for a
+     * problem are written in the directory and read back by the planners that solve a problem with the same
+     * abstractions, e.g., an other problem of the same domain.
+     *
+     * @param directory the path of the directory or null if the tables are not stored.
+     * @see fr.uga.pddl4j.heuristics.state.PatternDatabases
+     */
+    public void setPatternDatabases(final String directory) {
+        this.patternDatabases = directory;
+    }
+
+    /**
+     * Returns the directory where the tables of the PDB heuristic are read and written.
+     *
+     * @return the path of the directory or null if the tables are not stored.
+     */
+    public final String getPatternDatabases() {
+        return this.patternDatabases;
+    }
+
+    /**
+     * Sets the maximum number of nodes kept in memory by the SMA_STAR search strategy.
+     *
+     * @param limit the maximum number of nodes. The limit must be greater than 0.
+     * @throws IllegalArgumentException if the limit is less than 1.
+     * @see SMAStar#setNodeLimit(int)
+     */
+    public void setNodeLimit(final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("node limit must be greater than 0");
+        }
+        this.nodeLimit = limit;
+    }
+
+    /**
+     * Returns the maximum number of nodes kept in memory by the SMA_STAR search strategy.
+     *
+     * @return the maximum number of nodes kept in memory by the SMA_STAR search strategy.
+     */
+    public final int getNodeLimit() {
+        return this.nodeLimit;
+    }
+
+    /**
+     * Sets the number of entries of the transposition table of the IDA_STAR search strategy.
+     *
+     * @param size the number of entries of the transposition table. The size must be greater than 0.
+     * @throws IllegalArgumentException if the size is less than 1.
+     * @see IDAStar#setTableSize(int)
+     */
+    public void setTableSize(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("table size must be greater than 0");
+        }
+        this.tableSize = size;
+    }
+
+    /**
+     * Returns the number of entries of the transposition table of the IDA_STAR search strategy.
+     *
+     * @return the number of entries of the transposition table of the IDA_STAR search strategy.
+     */
+    public final int getTableSize() {
+        return this.tableSize;
+    }
+
+    /**
+     * Sets the number of records of the sort buffer of the EXTERNAL_BREADTH_FIRST and EXTERNAL_ASTAR search
+     * strategies.
+     *
+     * @param size the number of records of the sort buffer. The size must be greater than 0.
+     * @throws IllegalArgumentException if the size is less than 1.
+     * @see AbstractExternalSearch#setBufferSize(int)
+     */
+    public void setBufferSize(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("buffer size must be greater than 0");
+        }
+        this.bufferSize = size;
+    }
+
+    /**
+     * Returns the number of records of the sort buffer of the EXTERNAL_BREADTH_FIRST and EXTERNAL_ASTAR search
+     * strategies.
+     *
+     * @return the number of records of the sort buffer of the external-memory search strategies.
+     */
+    public final int getBufferSize() {
+        return this.bufferSize;
+    }
+
     /**
      * Returns the name of the heuristic used by the planner to solve a planning problem.
      *
@@ -163,6 +421,11 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         return super.hasValidConfiguration()
             && this.getHeuristicWeight() > 0.0
             && this.getHeuristic() != null
+            && this.getNumberOfThreads() > 0
+            && this.getHeuristicCacheSize() >= 0
+            && this.getNodeLimit() > 0
+            && this.getTableSize() > 0
+            && this.getBufferSize() > 0
             && !this.getSearchStrategies().isEmpty();
     }
 
@@ -178,6 +441,16 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
             throw new InvalidConfigurationException("Undefined heuristic");
         } else if (this.getSearchStrategies().isEmpty()) {
             throw new InvalidConfigurationException("Undefined search strategies");
+        } else if (this.getNumberOfThreads() < 1) {
+            throw new InvalidConfigurationException("Invalid number of threads");
+        } else if (this.getHeuristicCacheSize() < 0) {
+            throw new InvalidConfigurationException("Invalid heuristic cache size");
+        } else if (this.getNodeLimit() < 1) {
+            throw new InvalidConfigurationException("Invalid node limit");
+        } else if (this.getTableSize() < 1) {
+            throw new InvalidConfigurationException("Invalid table size");
+        } else if (this.getBufferSize() < 1) {
+            throw new InvalidConfigurationException("Invalid buffer size");
         }
     }
 
@@ -194,6 +467,20 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         config.setProperty(StateSpacePlanner.HEURISTIC_SETTING, StateSpacePlanner.DEFAULT_HEURISTIC.toString());
         config.setProperty(StateSpacePlanner.WEIGHT_HEURISTIC_SETTING,
             Double.toString(StateSpacePlanner.DEFAULT_WEIGHT_HEURISTIC));
+        config.setProperty(StateSpacePlanner.NUMBER_OF_THREADS_SETTING,
+            Integer.toString(StateSpacePlanner.DEFAULT_NUMBER_OF_THREADS));
+        config.setProperty(StateSpacePlanner.STUBBORN_SET_PRUNING_SETTING,
+            Boolean.toString(StateSpacePlanner.DEFAULT_STUBBORN_SET_PRUNING));
+        config.setProperty(StateSpacePlanner.HELPFUL_ACTIONS_SETTING,
+            StateSpacePlanner.DEFAULT_HELPFUL_ACTIONS.toString());
+        config.setProperty(StateSpacePlanner.HEURISTIC_CACHE_SIZE_SETTING,
+            Integer.toString(StateSpacePlanner.DEFAULT_HEURISTIC_CACHE_SIZE));
+        config.setProperty(StateSpacePlanner.NODE_LIMIT_SETTING,
+            Integer.toString(StateSpacePlanner.DEFAULT_NODE_LIMIT));
+        config.setProperty(StateSpacePlanner.TABLE_SIZE_SETTING,
+            Integer.toString(StateSpacePlanner.DEFAULT_TABLE_SIZE));
+        config.setProperty(StateSpacePlanner.BUFFER_SIZE_SETTING,
+            Integer.toString(StateSpacePlanner.DEFAULT_BUFFER_SIZE));
         return config;
     }
 
@@ -208,6 +495,21 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         config.setProperty(StateSpacePlanner.SEARCH_STRATEGIES_SETTING, this.getSearchStrategies().toString());
         config.setProperty(StateSpacePlanner.HEURISTIC_SETTING, this.getHeuristic().toString());
         config.setProperty(StateSpacePlanner.WEIGHT_HEURISTIC_SETTING, Double.toString(this.getHeuristicWeight()));
+        config.setProperty(StateSpacePlanner.NUMBER_OF_THREADS_SETTING, Integer.toString(this.getNumberOfThreads()));
+        config.setProperty(StateSpacePlanner.STUBBORN_SET_PRUNING_SETTING,
+            Boolean.toString(this.isStubbornSetPruning()));
+        config.setProperty(StateSpacePlanner.HELPFUL_ACTIONS_SETTING, this.getHelpfulActions().toString());
+        config.setProperty(StateSpacePlanner.HEURISTIC_CACHE_SIZE_SETTING,
+            Integer.toString(this.getHeuristicCacheSize()));
+        config.setProperty(StateSpacePlanner.NODE_LIMIT_SETTING, Integer.toString(this.getNodeLimit()));
+        config.setProperty(StateSpacePlanner.TABLE_SIZE_SETTING, Integer.toString(this.getTableSize()));
+        config.setProperty(StateSpacePlanner.BUFFER_SIZE_SETTING, Integer.toString(this.getBufferSize()));
+        if (this.getProgressLog() != null) {
+            config.setProperty(StateSpacePlanner.PROGRESS_LOG_SETTING, this.getProgressLog());
+        }
+        if (this.getPatternDatabases() != null) {
+            config.setProperty(StateSpacePlanner.PATTERN_DATABASES_SETTING, this.getPatternDatabases());
+        }
         return config;
     }
 
@@ -238,11 +540,117 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
             this.setHeuristic(StateHeuristic.Name.valueOf(configuration.getProperty(
                 StateSpacePlanner.HEURISTIC_SETTING)));
         }
+        if (configuration.getProperty(StateSpacePlanner.NUMBER_OF_THREADS_SETTING) == null) {
+            this.setNumberOfThreads(StateSpacePlanner.DEFAULT_NUMBER_OF_THREADS);
+        } else {
+            this.setNumberOfThreads(Integer.parseInt(configuration.getProperty(
+                StateSpacePlanner.NUMBER_OF_THREADS_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.STUBBORN_SET_PRUNING_SETTING) == null) {
+            this.setStubbornSetPruning(StateSpacePlanner.DEFAULT_STUBBORN_SET_PRUNING);
+        } else {
+            this.setStubbornSetPruning(Boolean.parseBoolean(configuration.getProperty(
+                StateSpacePlanner.STUBBORN_SET_PRUNING_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.HELPFUL_ACTIONS_SETTING) == null) {
+            this.setHelpfulActions(StateSpacePlanner.DEFAULT_HELPFUL_ACTIONS);
+        } else {
+            this.setHelpfulActions(StateSpaceSearch.HelpfulActions.valueOf(configuration.getProperty(
+                StateSpacePlanner.HELPFUL_ACTIONS_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.HEURISTIC_CACHE_SIZE_SETTING) == null) {
+            this.setHeuristicCacheSize(StateSpacePlanner.DEFAULT_HEURISTIC_CACHE_SIZE);
+        } else {
+            this.setHeuristicCacheSize(Integer.parseInt(configuration.getProperty(
+                StateSpacePlanner.HEURISTIC_CACHE_SIZE_SETTING)));
+        }
+        this.setProgressLog(configuration.getProperty(StateSpacePlanner.PROGRESS_LOG_SETTING));
+        this.setPatternDatabases(configuration.getProperty(StateSpacePlanner.PATTERN_DATABASES_SETTING));
+        if (configuration.getProperty(StateSpacePlanner.NODE_LIMIT_SETTING) == null) {
+            this.setNodeLimit(StateSpacePlanner.DEFAULT_NODE_LIMIT);
+        } else {
+            this.setNodeLimit(Integer.parseInt(configuration.getProperty(StateSpacePlanner.NODE_LIMIT_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.TABLE_SIZE_SETTING) == null) {
+            this.setTableSize(StateSpacePlanner.DEFAULT_TABLE_SIZE);
+        } else {
+            this.setTableSize(Integer.parseInt(configuration.getProperty(StateSpacePlanner.TABLE_SIZE_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.BUFFER_SIZE_SETTING) == null) {
+            this.setBufferSize(StateSpacePlanner.DEFAULT_BUFFER_SIZE);
+        } else {
+            this.setBufferSize(Integer.parseInt(configuration.getProperty(StateSpacePlanner.BUFFER_SIZE_SETTING)));
+        }
+    }
+
+    /**
+     * Sets the memory bounds of the planner to a search strategy. The bounds are only set to the search strategies
+     * that keep a bounded number of nodes or entries in memory.
+     *
+     * @param search the search strategy.
+     */
+    protected final void setMemoryBounds(final StateSpaceSearch search) {
+        if (search instanceof SMAStar) {
+            ((SMAStar) search).setNodeLimit(this.getNodeLimit());
+        } else if (search instanceof IDAStar) {
+            ((IDAStar) search).setTableSize(this.getTableSize());
+        } else if (search instanceof AbstractExternalSearch) {
+            ((AbstractExternalSearch) search).setBufferSize(this.getBufferSize());
+        }
+    }
+
+    /**
+     * Builds the tables of the PDB heuristic of a problem in the directory of the pattern databases if the heuristic
+     * is PDB and the directory is set. The tables are read from the directory when they were computed before and
+     * written in the directory otherwise. The instances of the heuristic used afterwards by the search strategies to
+     * solve the problem share these tables.
+     *
+     * @param problem   the problem to solve.
+     * @param heuristic the heuristic used to solve the problem.
+     */
+    protected final void loadPatternDatabases(final Problem problem, final StateHeuristic.Name heuristic) {
+        if (heuristic == StateHeuristic.Name.PDB && this.getPatternDatabases() != null) {
+            StateHeuristic.getInstance(heuristic, problem, Paths.get(this.getPatternDatabases()));
+        }
+    }
+
+    /**
+     * Solves the problem as defined by the planner configuration. If a progress log is set, the progress of the
+     * searches is written in the log while the problem is solved.
+     *
+     * @return the solution plan found or null is no solution was found.
+     * @throws InvalidConfigurationException if the planner configuration is invalid or if the progress log cannot be
+     *      opened.
+     */
+    @Override
+    public Plan solve() throws InvalidConfigurationException {
+        if (this.getProgressLog() == null) {
+            return super.solve();
+        }
+        final JsonLinesSearchListener listener;
+        try {
+            listener = new JsonLinesSearchListener(this.getProgressLog());
+        } catch (IOException e) {
+            throw new InvalidConfigurationException("Progress log cannot be opened: " + e.getMessage());
+        }
+        final SearchControl control = this.getSearchControl();
+        control.addSearchListener(listener);
+        try {
+            return super.solve();
+        } finally {
+            control.removeSearchListener(listener);
+            try {
+                listener.close();
+            } catch (IOException e) {
+                LOGGER.error("* progress log cannot be written: " + e.getMessage() + "\n");
+            }
+        }
     }
 
     /**
      * Search a solution plan to a specified domain and problem. The method search a solution plan by trying iteratively
-     * all the search strategies defined.
+     * all the search strategies defined. If the heuristic cache size is greater than 0, the search strategies share a
+     * cache of the heuristic values.
      *
      * @param problem the problem to solve.
      * @return the plan found or null if no plan was found.
@@ -256,39 +664,56 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         Plan plan = null;
         final Iterator<SearchStrategy.Name> i = this.getSearchStrategies().iterator();
         int timeout = this.getTimeout();
-        while (plan == null && i.hasNext()) {
+        final SearchControl control = this.getSearchControl();
+        final HeuristicCache cache = this.getHeuristicCacheSize() > 0
+            ? new HeuristicCache(problem.getFluents().size(), this.getHeuristicCacheSize()) : null;
+        this.loadPatternDatabases(problem, this.getHeuristic());
+        while (plan == null && i.hasNext() && !control.isCancelled()) {
             final long begin = System.currentTimeMillis();
             final SearchStrategy.Name strategy = i.next();
             LOGGER.info("* Starting " + strategy.name() + " search with "
                 + this.getConfiguration().getProperty(AbstractStateSpacePlanner.HEURISTIC_SETTING) + " heuristic \n");
             StateSpaceSearch search = StateSpaceSearch.getInstance(strategy, this.getHeuristic(),
-                this.getHeuristicWeight(), timeout);
+                this.getHeuristicWeight(), timeout, this.getNumberOfThreads());
+            search.setStubbornSetPruning(this.isStubbornSetPruning());
+            search.setHelpfulActions(this.getHelpfulActions());
+            search.setHeuristicCache(cache);
+            this.setMemoryBounds(search);
+            search.setSearchControl(control);
             final Node solution = search.searchSolutionNode(problem);
             plan = (SequentialPlan) search.extractPlan(solution, problem);
             if (solution != null) {
                 LOGGER.info("* " + strategy.name() + " search succeeded\n");
                 this.getStatistics().setTimeToSearch(search.getSearchingTime());
                 this.getStatistics().setMemoryUsedToSearch(search.getMemoryUsed());
+                this.getStatistics().setExploredNodesPerThread(search.getExploredNodesPerThread());
+            } else if (control.isInterrupted()) {
+                LOGGER.info("* " + strategy.name() + " search interrupted (" + control.getStatus() + ")\n");
             } else {
                 LOGGER.info("* " + strategy.name() + " search failed\n");
             }
             final long end = System.currentTimeMillis();
             this.getStatistics().setMemoryUsedToSearch(search.getMemoryUsed());
+            this.getStatistics().setExploredNodes(search.getExploredNodes());
+            this.getStatistics().setCreatedNodes(search.getCreatedNodes());
             timeout -= ((end - begin) / 1000);
         }
+        if (cache != null) {
+            LOGGER.info("* Heuristic cache " + cache + "\n");
+        }
         return plan;
     }
 
     /**
-     * Returns if a specified problem is supported by the planner.
+     * Returns if a specified problem is supported by the planner. The action costs are supported: the search
+     * strategies add the cost of the actions to the cost of the nodes.
      *
      * @param problem the problem to test.
      * @return <code>true</code> if the problem is supported <code>false</code> otherwise.
      */
     @Override
     public boolean isSupported(Problem problem) {
-        return (problem.getRequirements().contains(RequireKey.ACTION_COSTS)
-            || problem.getRequirements().contains(RequireKey.CONSTRAINTS)
+        return (problem.getRequirements().contains(RequireKey.CONSTRAINTS)
             || problem.getRequirements().contains(RequireKey.CONTINOUS_EFFECTS)
             || problem.getRequirements().contains(RequireKey.DERIVED_PREDICATES)
             || problem.getRequirements().contains(RequireKey.DURATIVE_ACTIONS)
@@ -19,11 +19,13 @@
 
 package fr.uga.pddl4j.planners.statespace;
 
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
 import fr.uga.pddl4j.parser.DefaultParsedProblem;
 import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.SearchStrategy;
 
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
 import fr.uga.pddl4j.problem.DefaultProblem;
 import fr.uga.pddl4j.problem.Problem;
 import org.apache.logging.log4j.LogManager;
@@ -34,14 +36,18 @@ import java.util.Arrays;
 
 /**
  * This class implements Fast Forward planner based on Enforced Hill Climbing algorithm and AStar search.
+ * By default, as in the original FF planner, the enforced hill climbing only applies the helpful actions of the
+ * states and the AStar search, which is complete, is used only if the enforced hill climbing fails.
  *
  *
  * <p>The command line syntax to launch the planner is as follow:</p>
  *
  * <pre>
  * {@code
- * FF [-hV] [-l=<logLevel>] [-t=<timeout>] [-w=<weight>] <domain>
- *             <problem>
+ * FF [-hV] [--stubborn-sets] [--helpful-actions=<mode>]
+ *             [--heuristic-cache=<entries>] [-l=<logLevel>] [-n=<threads>]
+ *             [--progress-log=<file>] [-t=<timeout>] [-w=<weight>]
+ *             <domain> <problem>
  *
  * Description:
  *
@@ -58,6 +64,21 @@ import java.util.Arrays;
  *   -t, --timeout=<timeout>   Set the time out of the planner in seconds (
  *                               preset 600s).
  *   -w, --weight=<weight>     Set the weight of the heuristic (preset 1.0).
+ *   -n, --threads=<threads>   Set the number of threads used to evaluate the
+ *                               heuristic and by the HDA_STAR search strategy
+ *                               (preset 1).
+ *       --stubborn-sets       Prune the applicable actions with strong stubborn
+ *                               sets (preset: false).
+ *       --helpful-actions=<mode>
+ *                             Set the use of the helpful actions by the enforced
+ *                               hill climbing and greedy best first search
+ *                               strategies: IGNORE, PRUNE, PREFER (preset: PRUNE).
+ *       --heuristic-cache=<entries>
+ *                             Set the number of entries of the cache of the
+ *                               heuristic values shared by the search
+ *                               strategies, 0 to disable it (preset: 262144).
+ *       --progress-log=<file> Write the progress of the search in a file, one
+ *                               JSON object per line (preset: none).
  *   -h, --help                Show this help message and exit.
  *   -V, --version             Print version information and exit.
  *  }
@@ -123,6 +144,8 @@ public final class FF extends AbstractStateSpacePlanner  {
         PlannerConfiguration config = Planner.getDefaultConfiguration();
         config.setProperty(FF.SEARCH_STRATEGIES_SETTING, Arrays.asList(SearchStrategy.Name.ENFORCED_HILL_CLIMBING,
             SearchStrategy.Name.ASTAR));
+        config.setProperty(FF.HELPFUL_ACTIONS_SETTING, StateSpaceSearch.HelpfulActions.PRUNE.toString());
+        config.setProperty(FF.HEURISTIC_CACHE_SIZE_SETTING, Integer.toString(HeuristicCache.DEFAULT_CAPACITY));
         return config;
     }
 
@@ -138,6 +161,77 @@ public final class FF extends AbstractStateSpacePlanner  {
         super.setHeuristicWeight(weight);
     }
 
+    /**
+     * Sets the number of threads used by the search strategies. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    @CommandLine.Option(names = { "-n", "--threads" }, defaultValue = "1", paramLabel = "<threads>",
+        description = "Set the number of threads used to evaluate the heuristic and by the HDA_STAR search strategy "
+            + "(preset 1).")
+    @Override
+    public final void setNumberOfThreads(final int threads) {
+        super.setNumberOfThreads(threads);
+    }
+
+    /**
+     * Sets if the search strategies prune the applicable actions with strong stubborn sets. This method is overrided
+     * to add the command line option of the planner.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     */
+    @CommandLine.Option(names = { "--stubborn-sets" }, description = "Prune the applicable actions with strong "
+        + "stubborn sets (preset: false).")
+    @Override
+    public final void setStubbornSetPruning(final boolean pruning) {
+        super.setStubbornSetPruning(pruning);
+    }
+
+    /**
+     * Sets the use of the helpful actions computed by the heuristic. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param helpfulActions the use of the helpful actions.
+     */
+    @CommandLine.Option(names = { "--helpful-actions" }, defaultValue = "PRUNE", paramLabel = "<mode>",
+        description = "Set the use of the helpful actions by the enforced hill climbing and greedy best first search "
+            + "strategies: IGNORE, PRUNE, PREFER (preset: PRUNE).")
+    @Override
+    public final void setHelpfulActions(final StateSpaceSearch.HelpfulActions helpfulActions) {
+        super.setHelpfulActions(helpfulActions);
+    }
+
+    /**
+     * Sets the number of entries of the cache of the heuristic values shared by the search strategies. This method is
+     * overrided to add the command line option of the planner.
+     *
+     * @param size the number of entries of the cache or 0 if the heuristic values are not cached.
+     * @throws IllegalArgumentException if the number of entries is less than 0.
+     */
+    @CommandLine.Option(names = { "--heuristic-cache" }, defaultValue = "262144", paramLabel = "<entries>",
+        description = "Set the number of entries of the cache of the heuristic values shared by the search "
+            + "strategies, 0 to disable it (preset: 262144).")
+    @Override
+    public final void setHeuristicCacheSize(final int size) {
+        super.setHeuristicCacheSize(size);
+    }
+
+    /**
+     * Sets the file where the progress of the searches is written. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param file the path of the file or null if the progress of the searches is not written.
+     */
+    @CommandLine.Option(names = { "--progress-log" }, paramLabel = "<file>", description = "Write the progress of "
+        + "the search in a file, one JSON object per line (preset: none).")
+    @Override
+    public final void setProgressLog(final String file) {
+        super.setProgressLog(file);
+    }
+
     /**
      * Instantiates the planning problem from a parsed problem.
      *
@@ -24,6 +24,7 @@ import fr.uga.pddl4j.parser.DefaultParsedProblem;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.SearchStrategy;
 
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
 import fr.uga.pddl4j.problem.DefaultProblem;
 import fr.uga.pddl4j.problem.Problem;
 import org.apache.logging.log4j.LogManager;
@@ -40,9 +41,16 @@ import java.util.List;
  *
  * <pre>
  * {@code
- * GSP [-hV] [-e="<heuristic>] [-l=<logLevel>]
- *                                [-t=<timeout>] [-w=<weight>] [-s
- *                                [=<strategies>...]]... <domain> <problem>
+ * GSP [-hV] [--stubborn-sets] [--buffer-size=<records>]
+ *                                [--helpful-actions=<mode>] [-e="<heuristic>]
+ *                                [--heuristic-cache=<entries>] [-l=<logLevel>]
+ *                                [-n=<threads>] [--node-limit=<nodes>]
+ *                                [--pdb-directory=<directory>]
+ *                                [--progress-log=<file>]
+ *                                [--table-size=<entries>]
+ *                                [-t=<timeout>] [-w=<weight>]
+ *                                [-s[=<strategies>...]]...
+ *                                <domain> <problem>
  *
  * Description:
  *
@@ -62,12 +70,44 @@ import java.util.List;
  *   -e, --heuristic=<heuristic>
  *                             Set the heuristics: AJUSTED_SUM, AJUSTED_SUM2,
  *                               AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD,
- *                               SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)
+ *                               SET_LEVEL, SUM, SUM_MUTEX, MAX_COST, SUM_COST,
+ *                               FAST_FORWARD_COST, LM_CUT, LM_COUNT, PDB (preset: FAST_FORWARD)
  *   -s, --search-strategies[=<strategies>...]
  *                             Set the search strategies: ASTAR,
  *                               ENFORCED_HILL_CLIMBING, BREADTH_FIRST,
- *                               GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING
- *                               (preset: ASTAR)
+ *                               GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING,
+ *                               HDA_STAR, REGRESSION, BIDIRECTIONAL_ASTAR,
+ *                               IDA_STAR, SMA_STAR, EXTERNAL_BREADTH_FIRST,
+ *                               EXTERNAL_ASTAR, LAZY_GREEDY_BEST_FIRST (preset:
+ *                               ASTAR)
+ *   -n, --threads=<threads>   Set the number of threads used to evaluate the
+ *                               heuristic and by the HDA_STAR search strategy
+ *                               (preset 1).
+ *       --stubborn-sets       Prune the applicable actions with strong stubborn
+ *                               sets (preset: false).
+ *       --helpful-actions=<mode>
+ *                             Set the use of the helpful actions by the enforced
+ *                               hill climbing and greedy best first search
+ *                               strategies: IGNORE, PRUNE, PREFER (preset: IGNORE).
+ *       --heuristic-cache=<entries>
+ *                             Set the number of entries of the cache of the
+ *                               heuristic values shared by the search
+ *                               strategies, 0 to disable it (preset: 0).
+ *       --progress-log=<file> Write the progress of the search in a file, one
+ *                               JSON object per line (preset: none).
+ *       --pdb-directory=<directory>
+ *                             Read and write the tables of the PDB heuristic in
+ *                               a directory (preset: none).
+ *       --node-limit=<nodes>  Set the maximum number of nodes kept in memory by
+ *                               the SMA_STAR search strategy (preset: 1048576).
+ *       --table-size=<entries>
+ *                             Set the number of entries of the transposition
+ *                               table of the IDA_STAR search strategy (preset:
+ *                               1048576).
+ *       --buffer-size=<records>
+ *                             Set the number of records of the sort buffer of
+ *                               the EXTERNAL_BREADTH_FIRST and EXTERNAL_ASTAR
+ *                               search strategies (preset: 1048576).
  *   -h, --help                Show this help message and exit.
  *   -V, --version             Print version information and exit.
  * }
@@ -146,12 +186,142 @@ public final class GSP extends AbstractStateSpacePlanner {
      */
     @CommandLine.Option(names = { "-e", "--heuristic" }, defaultValue = "FAST_FORWARD",
         description = "Set the heuristics: AJUSTED_SUM, AJUSTED_SUM2, AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD, "
-            +  "SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)")
+            +  "SET_LEVEL, SUM, SUM_MUTEX, MAX_COST, SUM_COST, FAST_FORWARD_COST, LM_CUT, LM_COUNT, PDB "
+            + "(preset: FAST_FORWARD)")
     @Override
     public final void setHeuristic(StateHeuristic.Name heuristic)  {
         super.setHeuristic(heuristic);
     }
 
+    /**
+     * Sets the number of threads used by the search strategies. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    @CommandLine.Option(names = { "-n", "--threads" }, defaultValue = "1", paramLabel = "<threads>",
+        description = "Set the number of threads used to evaluate the heuristic and by the HDA_STAR search strategy "
+            + "(preset 1).")
+    @Override
+    public final void setNumberOfThreads(final int threads) {
+        super.setNumberOfThreads(threads);
+    }
+
+    /**
+     * Sets if the search strategies prune the applicable actions with strong stubborn sets. This method is overrided
+     * to add the command line option of the planner.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     */
+    @CommandLine.Option(names = { "--stubborn-sets" }, description = "Prune the applicable actions with strong "
+        + "stubborn sets (preset: false).")
+    @Override
+    public final void setStubbornSetPruning(final boolean pruning) {
+        super.setStubbornSetPruning(pruning);
+    }
+
+    /**
+     * Sets the use of the helpful actions computed by the heuristic. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param helpfulActions the use of the helpful actions.
+     */
+    @CommandLine.Option(names = { "--helpful-actions" }, defaultValue = "IGNORE", paramLabel = "<mode>",
+        description = "Set the use of the helpful actions by the enforced hill climbing and greedy best first search "
+            + "strategies: IGNORE, PRUNE, PREFER (preset: IGNORE).")
+    @Override
+    public final void setHelpfulActions(final StateSpaceSearch.HelpfulActions helpfulActions) {
+        super.setHelpfulActions(helpfulActions);
+    }
+
+    /**
+     * Sets the number of entries of the cache of the heuristic values shared by the search strategies. This method is
+     * overrided to add the command line option of the planner.
+     *
+     * @param size the number of entries of the cache or 0 if the heuristic values are not cached.
+     * @throws IllegalArgumentException if the number of entries is less than 0.
+     */
+    @CommandLine.Option(names = { "--heuristic-cache" }, defaultValue = "0", paramLabel = "<entries>",
+        description = "Set the number of entries of the cache of the heuristic values shared by the search "
+            + "strategies, 0 to disable it (preset: 0).")
+    @Override
+    public final void setHeuristicCacheSize(final int size) {
+        super.setHeuristicCacheSize(size);
+    }
+
+    /**
+     * Sets the file where the progress of the searches is written. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param file the path of the file or null if the progress of the searches is not written.
+     */
+    @CommandLine.Option(names = { "--progress-log" }, paramLabel = "<file>", description = "Write the progress of "
+        + "the search in a file, one JSON object per line (preset: none).")
+    @Override
+    public final void setProgressLog(final String file) {
+        super.setProgressLog(file);
+    }
+
+    /**
+     * Sets the directory where the tables of the PDB heuristic are read and written. This method is overrided to add
+     * the command line option of the planner.
+     *
+     * @param directory the path of the directory or null if the tables are not stored.
+     */
+    @CommandLine.Option(names = { "--pdb-directory" }, paramLabel = "<directory>", description = "Read and write "
+        + "the tables of the PDB heuristic in a directory (preset: none).")
+    @Override
+    public final void setPatternDatabases(final String directory) {
+        super.setPatternDatabases(directory);
+    }
+
+    /**
+     * Sets the maximum number of nodes kept in memory by the SMA_STAR search strategy. This method is overrided to
+     * add the command line option of the planner.
+     *
+     * @param limit the maximum number of nodes. The limit must be greater than 0.
+     * @throws IllegalArgumentException if the limit is less than 1.
+     */
+    @CommandLine.Option(names = { "--node-limit" }, defaultValue = "1048576", paramLabel = "<nodes>",
+        description = "Set the maximum number of nodes kept in memory by the SMA_STAR search strategy "
+            + "(preset: 1048576).")
+    @Override
+    public final void setNodeLimit(final int limit) {
+        super.setNodeLimit(limit);
+    }
+
+    /**
+     * Sets the number of entries of the transposition table of the IDA_STAR search strategy. This method is
+     * overrided to add the command line option of the planner.
+     *
+     * @param size the number of entries of the transposition table. The size must be greater than 0.
+     * @throws IllegalArgumentException if the size is less than 1.
+     */
+    @CommandLine.Option(names = { "--table-size" }, defaultValue = "1048576", paramLabel = "<entries>",
+        description = "Set the number of entries of the transposition table of the IDA_STAR search strategy "
+            + "(preset: 1048576).")
+    @Override
+    public final void setTableSize(final int size) {
+        super.setTableSize(size);
+    }
+
+    /**
+     * Sets the number of records of the sort buffer of the external-memory search strategies. This method is
+     * overrided to add the command line option of the planner.
+     *
+     * @param size the number of records of the sort buffer. The size must be greater than 0.
+     * @throws IllegalArgumentException if the size is less than 1.
+     */
+    @CommandLine.Option(names = { "--buffer-size" }, defaultValue = "1048576", paramLabel = "<records>",
+        description = "Set the number of records of the sort buffer of the EXTERNAL_BREADTH_FIRST and EXTERNAL_ASTAR "
+            + "search strategies (preset: 1048576).")
+    @Override
+    public final void setBufferSize(final int size) {
+        super.setBufferSize(size);
+    }
+
     /**
      * Set the list of search strategies used by the planner to solve a planning problem.
      *
@@ -159,7 +329,8 @@ public final class GSP extends AbstractStateSpacePlanner {
      */
     @CommandLine.Option(names = { "-s", "--search-strategies" }, paramLabel = "<strategies>", arity = "0..*",
         defaultValue = "ASTAR", description = "Set the search strategies: ASTAR, ENFORCED_HILL_CLIMBING, "
-        + "BREADTH_FIRST, GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING (preset: ASTAR)")
+        + "BREADTH_FIRST, GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING, HDA_STAR, REGRESSION, BIDIRECTIONAL_ASTAR, "
+        + "IDA_STAR, SMA_STAR, EXTERNAL_BREADTH_FIRST, EXTERNAL_ASTAR, LAZY_GREEDY_BEST_FIRST (preset: ASTAR)")
     public final void setSearchStrategies(List<SearchStrategy.Name> strategies)  {
         super.setSearchStrategies(strategies);
     }
@@ -38,8 +38,10 @@ import picocli.CommandLine;
  *
  * <pre>
  * {@code
- * HSP [-hV] [-e=<heuristic>] [-l=<logLevel>]
- *                            [-t=<timeout>] [-w=<weight>] <domain> <problem>
+ * HSP [-hV] [--stubborn-sets] [-e=<heuristic>] [-l=<logLevel>] [-n=<threads>]
+ *                            [--pdb-directory=<directory>]
+ *                            [--progress-log=<file>] [-t=<timeout>]
+ *                            [-w=<weight>] <domain> <problem>
  *
  * Description:
  *
@@ -58,7 +60,18 @@ import picocli.CommandLine;
  *   -e, --heuristic=<heuristic>
  *                             Set the heuristic : AJUSTED_SUM, AJUSTED_SUM2,
  *                               AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD,
- *                               SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)
+ *                               SET_LEVEL, SUM, SUM_MUTEX, MAX_COST, SUM_COST,
+ *                               FAST_FORWARD_COST, LM_CUT, LM_COUNT, PDB (preset: FAST_FORWARD)
+ *   -n, --threads=<threads>   Set the number of threads used to evaluate the
+ *                               heuristic and by the HDA_STAR search strategy
+ *                               (preset 1).
+ *       --stubborn-sets       Prune the applicable actions with strong stubborn
+ *                               sets (preset: false).
+ *       --progress-log=<file> Write the progress of the search in a file, one
+ *                               JSON object per line (preset: none).
+ *       --pdb-directory=<directory>
+ *                             Read and write the tables of the PDB heuristic in
+ *                               a directory (preset: none).
  *   -h, --help                Show this help message and exit.
  *   -V, --version             Print version information and exit.
  *  }
@@ -132,11 +145,67 @@ public final class HSP extends AbstractStateSpacePlanner  {
      */
     @CommandLine.Option(names = { "-e", "--heuristic" }, defaultValue = "FAST_FORWARD",
         description = "Set the heuristic : AJUSTED_SUM, AJUSTED_SUM2, AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD, "
-            + "SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)")
+            + "SET_LEVEL, SUM, SUM_MUTEX, MAX_COST, SUM_COST, FAST_FORWARD_COST, LM_CUT, LM_COUNT, PDB "
+            + "(preset: FAST_FORWARD)")
     public final void setHeuristic(StateHeuristic.Name heuristic)  {
         super.setHeuristic(heuristic);
     }
 
+    /**
+     * Sets the number of threads used by the search strategies. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    @CommandLine.Option(names = { "-n", "--threads" }, defaultValue = "1", paramLabel = "<threads>",
+        description = "Set the number of threads used to evaluate the heuristic and by the HDA_STAR search strategy "
+            + "(preset 1).")
+    @Override
+    public final void setNumberOfThreads(final int threads) {
+        super.setNumberOfThreads(threads);
+    }
+
+    /**
+     * Sets if the search strategies prune the applicable actions with strong stubborn sets. This method is overrided
+     * to add the command line option of the planner.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     */
+    @CommandLine.Option(names = { "--stubborn-sets" }, description = "Prune the applicable actions with strong "
+        + "stubborn sets (preset: false).")
+    @Override
+    public final void setStubbornSetPruning(final boolean pruning) {
+        super.setStubbornSetPruning(pruning);
+    }
+
+    /**
+     * Sets the file where the progress of the searches is written. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param file the path of the file or null if the progress of the searches is not written.
+     */
+    @CommandLine.Option(names = { "--progress-log" }, paramLabel = "<file>", description = "Write the progress of "
+        + "the search in a file, one JSON object per line (preset: none).")
+    @Override
+    public final void setProgressLog(final String file) {
+        super.setProgressLog(file);
+    }
+
+    /**
+     * Sets the directory where the tables of the PDB heuristic are read and written. This method is overrided to add
+     * the command line option of the planner.
+     *
+     * @param directory the path of the directory or null if the tables are not stored.
+     */
+    @CommandLine.Option(names = { "--pdb-directory" }, paramLabel = "<directory>", description = "Read and write "
+        + "the tables of the PDB heuristic in a directory (preset: none).")
+    @Override
+    public final void setPatternDatabases(final String directory) {
+        super.setPatternDatabases(directory);
+    }
+
     /**
      * Checks the planner configuration and returns if the configuration is valid. A configuration is valid if (1) the
      * domain and the problem files exist and can be read, (2) the timeout is greater than 0, (3) the weight of the
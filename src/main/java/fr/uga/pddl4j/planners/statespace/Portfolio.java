@@ -0,0 +1,691 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.ProblemNotSupportedException;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.DefaultProblem;
+import fr.uga.pddl4j.problem.Problem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import picocli.CommandLine;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements a portfolio planner. The planner runs several configurations, i.e., a search strategy, a
+ * heuristic and a weight, concurrently on the same instantiated problem. Each configuration runs in its own thread.
+ * By default, the planner returns the first plan found and cancels the other searches. It can also wait for all the
+ * configurations until the time out and return the plan with the lowest cost.
+ *
+ * <p>The command line syntax to launch the planner is as follow:</p>
+ *
+ * <pre>
+ * {@code
+ * PORTFOLIO [-bhV] [--stubborn-sets] [--helpful-actions=<mode>]
+ *                  [-l=<logLevel>] [-n=<threads>] [--pdb-directory=<directory>]
+ *                  [--progress-log=<file>]
+ *                  [-t=<timeout>]
+ *                  [-p=<configurations>...]... <domain> <problem>
+ *
+ * Description:
+ *
+ * Solves a specified planning problem by running concurrently a portfolio of
+ * search strategies and heuristics.
+ *
+ * Parameters:
+ *       <domain>              The domain file.
+ *       <problem>             The problem file.
+ *
+ * Options:
+ *   -l, --log=<logLevel>      Set the level of trace: ALL, DEBUG, INFO, ERROR,
+ *                               FATAL, OFF, TRACE (preset INFO).
+ *   -t, --timeout=<timeout>   Set the time out of the planner in seconds (
+ *                               preset 600s).
+ *   -p, --portfolio=<configurations>...
+ *                             Set the configurations of the portfolio. A
+ *                               configuration has the form
+ *                               STRATEGY[:HEURISTIC[:WEIGHT]] (preset:
+ *                               GREEDY_BEST_FIRST:FAST_FORWARD:1.0
+ *                               ENFORCED_HILL_CLIMBING:FAST_FORWARD:1.0
+ *                               ASTAR:FAST_FORWARD:1.0 ASTAR:MAX:1.0).
+ *   -b, --best                Wait for all the configurations until the time
+ *                               out and return the plan with the lowest cost.
+ *   -n, --threads=<threads>   Set the number of threads used by each
+ *                               configuration to evaluate the heuristic
+ *                               (preset 1).
+ *       --stubborn-sets       Prune the applicable actions with strong stubborn
+ *                               sets (preset: false).
+ *       --helpful-actions=<mode>
+ *                             Set the use of the helpful actions by the enforced
+ *                               hill climbing and greedy best first search
+ *                               strategies: IGNORE, PRUNE, PREFER (preset: IGNORE).
+ *       --progress-log=<file> Write the progress of the search in a file, one
+ *                               JSON object per line (preset: none).
+ *       --pdb-directory=<directory>
+ *                             Read and write the tables of the PDB heuristic in
+ *                               a directory (preset: none).
+ *   -h, --help                Show this help message and exit.
+ *   -V, --version             Print version information and exit.
+ * }
+ * </pre>
+ *
+ * <p>Command line example:</p>
+ * <pre>
+ * {@code
+ *  java -cp build/libs/pddl4j-4.0-all.jar fr.uga.pddl4j.planners.statespace.Portfolio
+ *         src/test/resources/benchmarks/pddl/ipc2002/depots/strips-automatic/domain.pddl
+ *         src/test/resources/benchmarks/pddl/ipc2002/depots/strips-automatic/p01.pddl
+ *         -p GREEDY_BEST_FIRST:FAST_FORWARD ASTAR:MAX:1.0
+ *         -t 1000
+ * }
+ * </pre>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 17.11.2021
+ *
+ * @see fr.uga.pddl4j.planners.PlannerConfiguration
+ */
+@CommandLine.Command(name = "PORTFOLIO",
+    version = "PORTFOLIO 1.0",
+    description = "Solves a specified planning problem by running concurrently a portfolio of search strategies and "
+        + "heuristics.",
+    sortOptions = false,
+    mixinStandardHelpOptions = true,
+    headerHeading = "Usage:%n",
+    synopsisHeading = "%n",
+    descriptionHeading = "%nDescription:%n%n",
+    parameterListHeading = "%nParameters:%n",
+    optionListHeading = "%nOptions:%n")
+public final class Portfolio extends AbstractStateSpacePlanner {
+
+    /**
+     * The PORTFOLIO setting used for planner configuration.
+     */
+    public static final String PORTFOLIO_SETTING = "PORTFOLIO";
+
+    /**
+     * The default value of the PORTFOLIO setting used for planner configuration.
+     */
+    public static final List<Entry> DEFAULT_PORTFOLIO = Arrays.asList(
+        new Entry(SearchStrategy.Name.GREEDY_BEST_FIRST, StateHeuristic.Name.FAST_FORWARD, 1.0),
+        new Entry(SearchStrategy.Name.ENFORCED_HILL_CLIMBING, StateHeuristic.Name.FAST_FORWARD, 1.0),
+        new Entry(SearchStrategy.Name.ASTAR, StateHeuristic.Name.FAST_FORWARD, 1.0),
+        new Entry(SearchStrategy.Name.ASTAR, StateHeuristic.Name.MAX, 1.0));
+
+    /**
+     * The BEST_PLAN setting used for planner configuration.
+     */
+    public static final String BEST_PLAN_SETTING = "BEST_PLAN";
+
+    /**
+     * The default value of the BEST_PLAN setting used for planner configuration.
+     */
+    public static final boolean DEFAULT_BEST_PLAN = false;
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(Portfolio.class.getName());
+
+    /**
+     * The maximum delay in milliseconds between two checks of the cancellation of the planner.
+     */
+    private static final long CANCELLATION_DELAY = 100;
+
+    /**
+     * The maximum delay in milliseconds given to the searches to stop once they are cancelled. A search that does not
+     * check its control, e.g., while it builds its heuristic, may not stop within this delay.
+     */
+    private static final long TERMINATION_DELAY = 5000;
+
+    /**
+     * The configurations of the portfolio.
+     */
+    private List<Entry> portfolio;
+
+    /**
+     * The flag used to indicate if the planner returns the best plan found before the time out or the first one.
+     */
+    private boolean bestPlan;
+
+    /**
+     * Creates a new planner with default parameters.
+     */
+    public Portfolio() {
+        this(Portfolio.getDefaultConfiguration());
+    }
+
+    /**
+     * Creates a new planner from a planner configuration.
+     *
+     * @param configuration the configuration of the planner.
+     */
+    public Portfolio(final PlannerConfiguration configuration) {
+        super(configuration);
+    }
+
+    /**
+     * Sets the configurations of the portfolio.
+     *
+     * @param portfolio the configurations of the portfolio.
+     */
+    @CommandLine.Option(names = { "-p", "--portfolio" }, paramLabel = "<configurations>", arity = "1..*",
+        converter = EntryConverter.class, defaultValue = "GREEDY_BEST_FIRST:FAST_FORWARD:1.0,"
+        + "ENFORCED_HILL_CLIMBING:FAST_FORWARD:1.0,ASTAR:FAST_FORWARD:1.0,ASTAR:MAX:1.0", split = ",",
+        description = "Set the configurations of the portfolio. A configuration has the form "
+            + "STRATEGY[:HEURISTIC[:WEIGHT]] (preset: GREEDY_BEST_FIRST:FAST_FORWARD:1.0 "
+            + "ENFORCED_HILL_CLIMBING:FAST_FORWARD:1.0 ASTAR:FAST_FORWARD:1.0 ASTAR:MAX:1.0).")
+    public void setPortfolio(final List<Entry> portfolio) {
+        this.portfolio = new ArrayList<>(portfolio);
+    }
+
+    /**
+     * Returns the configurations of the portfolio.
+     *
+     * @return the configurations of the portfolio.
+     */
+    public final List<Entry> getPortfolio() {
+        return this.portfolio;
+    }
+
+    /**
+     * Sets if the planner returns the plan with the lowest cost found before the time out or the first plan found.
+     *
+     * @param bestPlan <code>true</code> to return the plan with the lowest cost found before the time out;
+     *                 <code>false</code> to return the first plan found.
+     */
+    @CommandLine.Option(names = { "-b", "--best" }, description = "Wait for all the configurations until the time "
+        + "out and return the plan with the lowest cost.")
+    public void setBestPlan(final boolean bestPlan) {
+        this.bestPlan = bestPlan;
+    }
+
+    /**
+     * Returns <code>true</code> if the planner returns the plan with the lowest cost found before the time out.
+     *
+     * @return <code>true</code> if the planner returns the plan with the lowest cost found before the time out;
+     *      <code>false</code> if the planner returns the first plan found.
+     */
+    public final boolean isBestPlan() {
+        return this.bestPlan;
+    }
+
+    /**
+     * Sets the number of threads used by each configuration. This method is overrided to add the command line option
+     * of the planner.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    @CommandLine.Option(names = { "-n", "--threads" }, defaultValue = "1", paramLabel = "<threads>",
+        description = "Set the number of threads used by each configuration to evaluate the heuristic (preset 1).")
+    @Override
+    public final void setNumberOfThreads(final int threads) {
+        super.setNumberOfThreads(threads);
+    }
+
+    /**
+     * Sets if the search strategies prune the applicable actions with strong stubborn sets. This method is overrided
+     * to add the command line option of the planner.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     */
+    @CommandLine.Option(names = { "--stubborn-sets" }, description = "Prune the applicable actions with strong "
+        + "stubborn sets (preset: false).")
+    @Override
+    public final void setStubbornSetPruning(final boolean pruning) {
+        super.setStubbornSetPruning(pruning);
+    }
+
+    /**
+     * Sets the use of the helpful actions computed by the heuristic. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param helpfulActions the use of the helpful actions.
+     */
+    @CommandLine.Option(names = { "--helpful-actions" }, defaultValue = "IGNORE", paramLabel = "<mode>",
+        description = "Set the use of the helpful actions by the enforced hill climbing and greedy best first search "
+            + "strategies: IGNORE, PRUNE, PREFER (preset: IGNORE).")
+    @Override
+    public final void setHelpfulActions(final StateSpaceSearch.HelpfulActions helpfulActions) {
+        super.setHelpfulActions(helpfulActions);
+    }
+
+    /**
+     * Sets the file where the progress of the searches is written. This method is overrided to add the command line
+     * option of the planner.
+     *
+     * @param file the path of the file or null if the progress of the searches is not written.
+     */
+    @CommandLine.Option(names = { "--progress-log" }, paramLabel = "<file>", description = "Write the progress of "
+        + "the search in a file, one JSON object per line (preset: none).")
+    @Override
+    public final void setProgressLog(final String file) {
+        super.setProgressLog(file);
+    }
+
+    /**
+     * Sets the directory where the tables of the PDB heuristic are read and written. This method is overrided to add
+     * the command line option of the planner.
+     *
+     * @param directory the path of the directory or null if the tables are not stored.
+     */
+    @CommandLine.Option(names = { "--pdb-directory" }, paramLabel = "<directory>", description = "Read and write "
+        + "the tables of the PDB heuristic in a directory (preset: none).")
+    @Override
+    public final void setPatternDatabases(final String directory) {
+        super.setPatternDatabases(directory);
+    }
+
+    /**
+     * This method return the default arguments of the planner.
+     *
+     * @return the default arguments of the planner.
+     * @see PlannerConfiguration
+     */
+    public static PlannerConfiguration getDefaultConfiguration() {
+        final PlannerConfiguration config = AbstractStateSpacePlanner.getDefaultConfiguration();
+        config.setProperty(Portfolio.PORTFOLIO_SETTING, Portfolio.DEFAULT_PORTFOLIO.toString());
+        config.setProperty(Portfolio.BEST_PLAN_SETTING, Boolean.toString(Portfolio.DEFAULT_BEST_PLAN));
+        return config;
+    }
+
+    /**
+     * Returns the configuration of the planner.
+     *
+     * @return the configuration of the planner.
+     */
+    @Override
+    public PlannerConfiguration getConfiguration() {
+        final PlannerConfiguration config = super.getConfiguration();
+        config.setProperty(Portfolio.PORTFOLIO_SETTING, this.getPortfolio().toString());
+        config.setProperty(Portfolio.BEST_PLAN_SETTING, Boolean.toString(this.isBestPlan()));
+        return config;
+    }
+
+    /**
+     * Sets the configuration of the planner. If a planner setting is not defined in the specified configuration, the
+     * setting is initialized with its default value.
+     *
+     * @param configuration the configuration to set.
+     */
+    @Override
+    public void setConfiguration(final PlannerConfiguration configuration) {
+        super.setConfiguration(configuration);
+        if (configuration.getProperty(Portfolio.PORTFOLIO_SETTING) == null) {
+            this.setPortfolio(Portfolio.DEFAULT_PORTFOLIO);
+        } else {
+            this.setPortfolio(Portfolio.toEntries(configuration.getProperty(Portfolio.PORTFOLIO_SETTING)));
+        }
+        if (configuration.getProperty(Portfolio.BEST_PLAN_SETTING) == null) {
+            this.setBestPlan(Portfolio.DEFAULT_BEST_PLAN);
+        } else {
+            this.setBestPlan(Boolean.parseBoolean(configuration.getProperty(Portfolio.BEST_PLAN_SETTING)));
+        }
+    }
+
+    /**
+     * Checks the planner configuration and returns if the configuration is valid. A configuration is valid if the
+     * configuration of a state space planner is valid and if the portfolio is not empty.
+     *
+     * @return <code>true</code> if the configuration is valid <code>false</code> otherwise.
+     */
+    @Override
+    public boolean hasValidConfiguration() {
+        return super.hasValidConfiguration() && !this.getPortfolio().isEmpty();
+    }
+
+    /**
+     * Instantiates the planning problem from a parsed problem.
+     *
+     * @param problem the problem to instantiate.
+     * @return the instantiated planning problem or null if the problem cannot be instantiated.
+     */
+    @Override
+    public Problem instantiate(final DefaultParsedProblem problem) {
+        Problem pb = new DefaultProblem(problem);
+        pb.instantiate();
+        return pb;
+    }
+
+    /**
+     * Search a solution plan to a specified problem. The configurations of the portfolio are run concurrently. The
+     * searches still running are cancelled when the first plan is found or, if the planner looks for the best plan,
+     * when the time out is reached.
+     *
+     * @param problem the problem to solve.
+     * @return the plan found or null if no plan was found.
+     * @throws ProblemNotSupportedException if the problem to solve is not supported by the planner.
+     */
+    @Override
+    public Plan solve(final Problem problem) throws ProblemNotSupportedException {
+        if (!this.isSupported(problem)) {
+            throw new ProblemNotSupportedException("Problem not supported");
+        }
+        final List<Entry> entries = this.getPortfolio();
+        final int size = entries.size();
+        final StateSpaceSearch[] searches = new StateSpaceSearch[size];
+        final Node[] solutions = new Node[size];
+        final SearchControl control = this.getSearchControl();
+        for (int i = 0; i < size; i++) {
+            final Entry entry = entries.get(i);
+            this.loadPatternDatabases(problem, entry.getHeuristic());
+            searches[i] = StateSpaceSearch.getInstance(entry.getStrategy(), entry.getHeuristic(), entry.getWeight(),
+                this.getTimeout(), this.getNumberOfThreads());
+            searches[i].setStubbornSetPruning(this.isStubbornSetPruning());
+            searches[i].setHelpfulActions(this.getHelpfulActions());
+            this.setMemoryBounds(searches[i]);
+            // Each search has its own control with the limits of the planner so that it can be stopped alone
+            searches[i].setSearchControl(new SearchControl(control));
+        }
+        LOGGER.info("* Starting portfolio " + entries + "\n");
+        // The threads are daemon threads so that a search that does not stop cannot prevent the JVM from exiting
+        final ExecutorService executor = Executors.newFixedThreadPool(size, runnable -> {
+            final Thread thread = new Thread(runnable, "portfolio-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        final List<Future<Integer>> futures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            futures.add(completion.submit(() -> {
+                solutions[index] = searches[index].searchSolutionNode(problem);
+                return index;
+            }));
+        }
+        final long deadline = Math.min(control.getDeadline(), System.currentTimeMillis() + this.getTimeout() * 1000L);
+        Plan plan = null;
+        int winner = -1;
+        try {
+            int done = 0;
+            while (done < size && (plan == null || this.isBestPlan()) && !control.isCancelled()) {
+                // The wait is bounded to see the cancellation of the planner
+                final long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                final Future<Integer> future = completion.poll(Math.min(remaining, Portfolio.CANCELLATION_DELAY),
+                    TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    if (remaining == 0) {
+                        break;
+                    }
+                    continue;
+                }
+                done++;
+                final int index;
+                try {
+                    index = future.get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("* search of the portfolio failed: " + e.getCause() + "\n");
+                    continue;
+                }
+                final Plan candidate = searches[index].extractPlan(solutions[index], problem);
+                if (candidate != null) {
+                    LOGGER.info("* " + entries.get(index) + " search succeeded (cost " + candidate.cost() + ")\n");
+                    if (plan == null || candidate.cost() < plan.cost()) {
+                        plan = candidate;
+                        winner = index;
+                    }
+                } else if (searches[index].getSearchControl().isInterrupted()) {
+                    LOGGER.info("* " + entries.get(index) + " search interrupted ("
+                        + searches[index].getSearchControl().getStatus() + ")\n");
+                } else {
+                    LOGGER.info("* " + entries.get(index) + " search failed\n");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // The searches still running stop at their next expansion
+            for (StateSpaceSearch search : searches) {
+                search.cancel();
+            }
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(Portfolio.TERMINATION_DELAY, TimeUnit.MILLISECONDS)) {
+                    for (int i = 0; i < size; i++) {
+                        if (!futures.get(i).isDone()) {
+                            LOGGER.warn("* " + entries.get(i) + " search did not stop within "
+                                + Portfolio.TERMINATION_DELAY + " ms\n");
+                        }
+                    }
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (winner != -1) {
+            final StateSpaceSearch search = searches[winner];
+            this.getStatistics().setTimeToSearch(search.getSearchingTime());
+            this.getStatistics().setMemoryUsedToSearch(search.getMemoryUsed());
+            this.getStatistics().setExploredNodesPerThread(search.getExploredNodesPerThread());
+            this.getStatistics().setExploredNodes(search.getExploredNodes());
+            this.getStatistics().setCreatedNodes(search.getCreatedNodes());
+        }
+        return plan;
+    }
+
+    /**
+     * Converts a string into a list of configurations. The string must have the form
+     * <code>[STRATEGY:HEURISTIC:WEIGHT, ...]</code> as returned by the method <code>toString()</code> of a list of
+     * configurations.
+     *
+     * @param str the string to convert.
+     * @return the list of configurations.
+     * @throws IllegalArgumentException if the string is not a valid list of configurations.
+     */
+    public static List<Entry> toEntries(final String str) throws IllegalArgumentException {
+        if (str.startsWith("[") && str.endsWith("]")) {
+            final List<Entry> list = new ArrayList<>();
+            for (String e : str.substring(1, str.length() - 1).split(",")) {
+                list.add(Entry.valueOf(e.replaceAll("\\s", "")));
+            }
+            return list;
+        }
+        throw new IllegalArgumentException("Invalid portfolio");
+    }
+
+    /**
+     * The main method of the <code>Portfolio</code> planner.
+     *
+     * @param args the arguments of the command line.
+     */
+    public static void main(final String[] args) {
+        try {
+            final Portfolio planner = new Portfolio();
+            CommandLine cmd = new CommandLine(planner);
+            int exitCode = (int) cmd.execute(args);
+            if (exitCode == 1) {
+                LOGGER.fatal(cmd.getUsageMessage());
+            }
+            System.exit(exitCode);
+        } catch (Throwable e) {
+            LOGGER.fatal(e.getMessage());
+        }
+    }
+
+    /**
+     * This class implements a configuration of the portfolio, i.e., a search strategy, a heuristic and the weight of
+     * the heuristic.
+     */
+    public static final class Entry implements Serializable {
+
+        /**
+         * The search strategy of the configuration.
+         */
+        private final SearchStrategy.Name strategy;
+
+        /**
+         * The heuristic of the configuration.
+         */
+        private final StateHeuristic.Name heuristic;
+
+        /**
+         * The weight of the heuristic.
+         */
+        private final double weight;
+
+        /**
+         * Creates a new configuration.
+         *
+         * @param strategy  the search strategy.
+         * @param heuristic the heuristic.
+         * @param weight    the weight of the heuristic.
+         * @throws NullPointerException if <code>strategy == null</code> or <code>heuristic == null</code>.
+         * @throws IllegalArgumentException if <code>weight &lt;= 0</code>.
+         */
+        public Entry(final SearchStrategy.Name strategy, final StateHeuristic.Name heuristic, final double weight) {
+            Objects.requireNonNull(strategy);
+            Objects.requireNonNull(heuristic);
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight must be greater than 0.0");
+            }
+            this.strategy = strategy;
+            this.heuristic = heuristic;
+            this.weight = weight;
+        }
+
+        /**
+         * Returns the search strategy of the configuration.
+         *
+         * @return the search strategy of the configuration.
+         */
+        public SearchStrategy.Name getStrategy() {
+            return this.strategy;
+        }
+
+        /**
+         * Returns the heuristic of the configuration.
+         *
+         * @return the heuristic of the configuration.
+         */
+        public StateHeuristic.Name getHeuristic() {
+            return this.heuristic;
+        }
+
+        /**
+         * Returns the weight of the heuristic of the configuration.
+         *
+         * @return the weight of the heuristic of the configuration.
+         */
+        public double getWeight() {
+            return this.weight;
+        }
+
+        /**
+         * Converts a string of the form <code>STRATEGY[:HEURISTIC[:WEIGHT]]</code> into a configuration. The heuristic
+         * and the weight are optional and set to their default value if they are omitted.
+         *
+         * @param str the string to convert.
+         * @return the configuration.
+         * @throws IllegalArgumentException if the string is not a valid configuration.
+         */
+        public static Entry valueOf(final String str) throws IllegalArgumentException {
+            final String[] tab = str.trim().toUpperCase().split(":");
+            if (tab.length > 3) {
+                throw new IllegalArgumentException(str + " is not a valid portfolio configuration.");
+            }
+            try {
+                final SearchStrategy.Name strategy = SearchStrategy.Name.valueOf(tab[0]);
+                final StateHeuristic.Name heuristic = tab.length > 1 ? StateHeuristic.Name.valueOf(tab[1])
+                    : StateSpacePlanner.DEFAULT_HEURISTIC;
+                final double weight = tab.length > 2 ? Double.parseDouble(tab[2])
+                    : StateSpacePlanner.DEFAULT_WEIGHT_HEURISTIC;
+                return new Entry(strategy, heuristic, weight);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(str + " is not a valid portfolio configuration.", e);
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if this configuration is equal to an object.
+         *
+         * @param obj the object to compare.
+         * @return <code>true</code> if this configuration is equal to an object; <code>false</code> otherwise.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || this.getClass() != obj.getClass()) {
+                return false;
+            }
+            final Entry other = (Entry) obj;
+            return this.strategy == other.strategy && this.heuristic == other.heuristic
+                && Double.compare(this.weight, other.weight) == 0;
+        }
+
+        /**
+         * Returns the hash code of this configuration.
+         *
+         * @return the hash code of this configuration.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.strategy, this.heuristic, this.weight);
+        }
+
+        /**
+         * Returns a string representation of this configuration of the form <code>STRATEGY:HEURISTIC:WEIGHT</code>.
+         *
+         * @return a string representation of this configuration.
+         */
+        @Override
+        public String toString() {
+            return this.strategy + ":" + this.heuristic + ":" + this.weight;
+        }
+    }
+
+    /**
+     * This class implements the converter used to parse the configurations of the portfolio from the command line.
+     */
+    public static final class EntryConverter implements CommandLine.ITypeConverter<Entry> {
+
+        /**
+         * Converts a string of the form <code>STRATEGY[:HEURISTIC[:WEIGHT]]</code> into a configuration.
+         *
+         * @param value the string to convert.
+         * @return the configuration.
+         * @throws IllegalArgumentException if the string is not a valid configuration.
+         */
+        @Override
+        public Entry convert(final String value) throws IllegalArgumentException {
+            return Entry.valueOf(value);
+        }
+    }
+}
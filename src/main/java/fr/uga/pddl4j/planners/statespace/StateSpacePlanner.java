@@ -19,6 +19,10 @@ import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.planners.Planner;
 
 import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.AbstractExternalSearch;
+import fr.uga.pddl4j.planners.statespace.search.IDAStar;
+import fr.uga.pddl4j.planners.statespace.search.SMAStar;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
 import fr.uga.pddl4j.problem.Problem;
 
 import java.util.Arrays;
@@ -63,4 +67,89 @@ public interface StateSpacePlanner extends Planner {
      */
     static final double DEFAULT_WEIGHT_HEURISTIC = 1.0;
 
+    /**
+     * The NUMBER_OF_THREADS property used for planner configuration.
+     */
+    static final String NUMBER_OF_THREADS_SETTING = "NUMBER_OF_THREADS";
+
+    /**
+     * The default value of the NUMBER_OF_THREADS property used for planner configuration.
+     */
+    static final int DEFAULT_NUMBER_OF_THREADS = 1;
+
+    /**
+     * The STUBBORN_SET_PRUNING property used for planner configuration.
+     */
+    static final String STUBBORN_SET_PRUNING_SETTING = "STUBBORN_SET_PRUNING";
+
+    /**
+     * The default value of the STUBBORN_SET_PRUNING property used for planner configuration.
+     */
+    static final boolean DEFAULT_STUBBORN_SET_PRUNING = false;
+
+    /**
+     * The HELPFUL_ACTIONS property used for planner configuration.
+     */
+    static final String HELPFUL_ACTIONS_SETTING = "HELPFUL_ACTIONS";
+
+    /**
+     * The default value of the HELPFUL_ACTIONS property used for planner configuration.
+     */
+    static final StateSpaceSearch.HelpfulActions DEFAULT_HELPFUL_ACTIONS = StateSpaceSearch.HelpfulActions.IGNORE;
+
+    /**
+     * The HEURISTIC_CACHE_SIZE property used for planner configuration.
+     */
+    static final String HEURISTIC_CACHE_SIZE_SETTING = "HEURISTIC_CACHE_SIZE";
+
+    /**
+     * The default value of the HEURISTIC_CACHE_SIZE property used for planner configuration.
+     */
+    static final int DEFAULT_HEURISTIC_CACHE_SIZE = 0;
+
+    /**
+     * The PROGRESS_LOG property used for planner configuration. The property is the path of the file where the
+     * progress of the searches is written. The progress is not written if the property is not set.
+     */
+    static final String PROGRESS_LOG_SETTING = "PROGRESS_LOG";
+
+    /**
+     * The PATTERN_DATABASES property used for planner configuration. The property is the path of the directory where
+     * the tables of the PDB heuristic are read and written. The tables are not stored if the property is not set.
+     */
+    static final String PATTERN_DATABASES_SETTING = "PATTERN_DATABASES";
+
+    /**
+     * The NODE_LIMIT property used for planner configuration. The property is the maximum number of nodes kept in
+     * memory by the SMA_STAR search strategy.
+     */
+    static final String NODE_LIMIT_SETTING = "NODE_LIMIT";
+
+    /**
+     * The default value of the NODE_LIMIT property used for planner configuration.
+     */
+    static final int DEFAULT_NODE_LIMIT = SMAStar.DEFAULT_NODE_LIMIT;
+
+    /**
+     * The TABLE_SIZE property used for planner configuration. The property is the number of entries of the
+     * transposition table of the IDA_STAR search strategy.
+     */
+    static final String TABLE_SIZE_SETTING = "TABLE_SIZE";
+
+    /**
+     * The default value of the TABLE_SIZE property used for planner configuration.
+     */
+    static final int DEFAULT_TABLE_SIZE = IDAStar.DEFAULT_TABLE_SIZE;
+
+    /**
+     * The BUFFER_SIZE property used for planner configuration. The property is the number of records of the sort
+     * buffer of the EXTERNAL_BREADTH_FIRST and EXTERNAL_ASTAR search strategies.
+     */
+    static final String BUFFER_SIZE_SETTING = "BUFFER_SIZE";
+
+    /**
+     * The default value of the BUFFER_SIZE property used for planner configuration.
+     */
+    static final int DEFAULT_BUFFER_SIZE = AbstractExternalSearch.DEFAULT_BUFFER_SIZE;
+
 }
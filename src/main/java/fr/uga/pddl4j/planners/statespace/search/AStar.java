@@ -16,21 +16,20 @@
 package fr.uga.pddl4j.planners.statespace.search;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
 
 /**
- * This class implements A* search strategy.
+ * This class implements A* search strategy. The states explored and pending are stored in a {@link StateRegistry} and
+ * the search manipulates their integer identifiers instead of node objects.
  *
  * @author D. Pellier
- * @version 1.0 - 01.06.2018
+ * @version 1.1 - 28.10.2021
  */
 public final class AStar extends AbstractStateSpaceSearch {
 
@@ -62,95 +61,118 @@ public final class AStar extends AbstractStateSpaceSearch {
     public Node search(final Problem codedProblem) {
         Objects.requireNonNull(codedProblem);
         final long begin = System.currentTimeMillis();
-        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
-        // Get the initial state from the planning problem
-        final State init = new State(codedProblem.getInitialState());
-        // Initialize the closed list of nodes (store the nodes explored)
-        final Map<State, Node> closeSet = new HashMap<>();
-        final Map<State, Node> openSet = new HashMap<>();
-        // Initialize the opened list (store the pending node)
-        final double currWeight = getWeight();
-        // The list stores the node ordered according to the A* (getFValue = g + h) function
-        final PriorityQueue<Node> open = new PriorityQueue<>(100, new NodeComparator(currWeight));
-        // Creates the root node of the tree search
-        final Node root = new Node(init, null, -1, 0, heuristic.estimate(init, codedProblem.getGoal()));
-        // Adds the root to the list of pending nodes
-        open.add(root);
-        openSet.put(init, root);
+        // The heuristic values of the successors of a state are evaluated in batch, in parallel if the search uses
+        // several threads
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            // Initialize the registry used to store the states explored and pending
+            final StateRegistry registry = new StateRegistry(ZobristHash.getInstance(codedProblem));
+            // Initialize the opened list (store the pending states)
+            final double currWeight = getWeight();
+            // The list stores the states ordered according to the A* (getFValue = g + h) function
+            final IntIndexedPriorityQueue open = new IntIndexedPriorityQueue((s1, s2) ->
+                Double.compare(registry.getValueF(s1, currWeight), registry.getValueF(s2, currWeight)));
+            // Get the initial state from the planning problem
+            final State init = new State(codedProblem.getInitialState());
+            // Creates the root of the tree search and adds it to the list of pending states
+            final int root = registry.insert(init);
+            registry.setPath(root, -1, -1, 0, 0);
+            registry.setHeuristic(root, evaluator.estimate(init, registry.getHash(root), root, -1));
+            open.add(root);
 
-        this.resetNodesStatistics();
-        Node solution = null;
-        final long timeout = this.getTimeout() * 1000;
-        long time = 0;
-        // Start of the search
-        while (!open.isEmpty() && solution == null && time < timeout) {
-            // Pop the first node in the pending list open
-            final Node current = open.poll();
-            openSet.remove(current);
-            closeSet.put(current, current);
-            // If the goal is satisfy in the current node then extract the search and return it
-            if (current.satisfy(codedProblem.getGoal())) {
-                solution = current;
-            } else {
-                // Try to apply the operators of the problem to this node
-                int index = 0;
-                for (Action op : codedProblem.getActions()) {
-
-                    // Test if a specified operator is applicable in the current state
-                    if (op.isApplicable(current)) {
-                        //System.out.println("IS APPLICABLE");
-                        Node state = new Node(current);
+            this.resetNodesStatistics();
+            int solution = -1;
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            // The best heuristic value reached and the value of the evaluation function of the last state expanded
+            double bestHeuristic = registry.getHeuristic(root);
+            double layer = Double.NaN;
+            // The states used to decode the current state and to compute its successors
+            final State current = new State();
+            final State next = new State();
+            // The successor generator and the buffer used to store the actions applicable in the current state
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final int[] actions = new int[generator.getNumberOfActions()];
+            // The batch of new successors waiting for their heuristic value
+            final State[] batch = new State[actions.length];
+            final int[] batchIds = new int[actions.length];
+            final long[] batchHashes = new long[actions.length];
+            final double[] batchValues = new double[actions.length];
+            // Start of the search
+            while (!open.isEmpty() && solution == -1 && !control.isInterrupted(expanded)) {
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(),
+                        bestHeuristic, layer, evaluator.getTime());
+                }
+                expanded++;
+                this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed());
+                // Pop the first state in the pending list open
+                final int currentId = open.poll();
+                registry.getState(currentId, current);
+                layer = registry.getValueF(currentId, this.getWeight());
+                bestHeuristic = Math.min(bestHeuristic, registry.getHeuristic(currentId));
+                // If the goal is satisfy in the current state then extract the search and return it
+                if (current.satisfy(codedProblem.getGoal())) {
+                    solution = currentId;
+                } else {
+                    final double currentCost = registry.getCost(currentId);
+                    final int depth = registry.getDepth(currentId) + 1;
+                    // The states registered from now on are new successors waiting for their heuristic value
+                    final int first = registry.size();
+                    int count = 0;
+                    // Apply the operators of the problem applicable in this state
+                    final int applicable = pruning.prune(current, actions,
+                        generator.getApplicableActions(current, actions));
+                    for (int i = 0; i < applicable; i++) {
+                        final int index = actions[i];
+                        final Action op = codedProblem.getActions().get(index);
                         this.setCreatedNodes(this.getCreatedNodes() + 1);
-
-                        // Apply the effect of the applicable operator
-                        // Test if the condition of the effect is satisfied in the current state
-                        // Apply the effect to the successor node
-                        op.getConditionalEffects().stream().filter(ce -> current.satisfy(ce.getCondition()))
-                            .forEach(ce -> state.apply(ce.getEffect()));
-                        final double g = current.getCost() + op.getCost().getValue();
-                        Node result = openSet.get(state);
-                        if (result == null) {
-                            result = closeSet.get(state);
-                            if (result != null) {
-                                if (g < result.getCost()) {
-                                    result.setCost(g);
-                                    result.setParent(current);
-                                    result.setAction(index);
-                                    result.setDepth(current.getDepth() + 1);
-                                    open.add(result);
-                                    openSet.put(result, result);
-                                    closeSet.remove(result);
+                        // Apply the effect of the applicable operator to the successor state
+                        final long hash = generator.apply(index, current, registry.getHash(currentId), next,
+                            registry.getHashFunction());
+                        final double g = currentCost + op.getCost().getValue();
+                        final int id = registry.insert(next, hash);
+                        if (id >= 0) {
+                            // The state was never reached before
+                            registry.setPath(id, currentId, index, g, depth);
+                            if (batch[count] == null) {
+                                batch[count] = new State();
+                            }
+                            batch[count].clear();
+                            batch[count].or(next);
+                            batchHashes[count] = hash;
+                            batchIds[count++] = id;
+                        } else {
+                            final int known = -(id + 1);
+                            if (g < registry.getCost(known)) {
+                                registry.setPath(known, currentId, index, g, depth);
+                                // Update the state if it is pending or reopen it if it was explored. A state of the
+                                // batch is added to the open list once evaluated
+                                if (known < first && !open.update(known)) {
+                                    open.add(known);
                                 }
-                            } else {
-                                state.setCost(g);
-                                state.setParent(current);
-                                state.setAction(index);
-                                state.setHeuristic(heuristic.estimate(state, codedProblem.getGoal()));
-                                state.setDepth(current.getDepth() + 1);
-                                open.add(state);
-                                openSet.put(state, state);
                             }
-                        } else if (g < result.getCost()) {
-                            result.setCost(g);
-                            result.setParent(current);
-                            result.setAction(index);
-                            result.setDepth(current.getDepth() + 1);
                         }
                     }
-                    index++;
+                    evaluator.estimate(batch, batchHashes, batchIds, currentId, count, batchValues);
+                    for (int i = 0; i < count; i++) {
+                        registry.setHeuristic(batchIds[i], batchValues[i]);
+                        open.add(batchIds[i]);
+                    }
                 }
             }
-            // Compute the searching time
-            time = System.currentTimeMillis() - begin;
-        }
 
-        this.setExploredNodes(closeSet.size());
-        this.setPendingNodes(openSet.size());
-        this.setMemoryUsed(GraphLayout.parseInstance(closeSet).totalSize()
-            + GraphLayout.parseInstance(openSet).totalSize());
-        this.setSearchingTime(time);
+            control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(), bestHeuristic,
+                layer, evaluator.getTime());
+            this.setExploredNodes(registry.size() - open.size());
+            this.setPendingNodes(open.size());
+            this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed());
+            this.debugMemoryUsed(registry, open);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
 
-        // return the search computed or null if no search was found
-        return solution;
+            // return the search computed or null if no search was found
+            return registry.toNode(solution);
+        }
     }
 }
@@ -0,0 +1,575 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.util.MemoryEstimator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * This abstract class defines the common methods of the external-memory searches. The states generated by these
+ * searches are not kept on the heap: they are packed in records (see {@link StateFile}) and written in files of a
+ * temporary working directory. The duplicates are detected with delayed duplicate detection: the successors are
+ * collected in a sort buffer of fixed size, which is sorted and written as a sorted run each time it is full. The runs
+ * are then merged, which removes the duplicates of the runs, and the merged records are compared with the sorted files
+ * of the states already expanded, which removes the states already explored. The memory used by the search is the
+ * memory of the sort buffer plus the I/O buffers of the files.
+ * <p>
+ * A record is made of the words of the packed state followed by one word that stores the index of the action that
+ * generated the state, or -1 for the initial state. The parents of the states are not stored: the solution plan is
+ * rebuilt backward from the goal state by searching, among the states expanded at the previous layer of the search, a
+ * state from which the action of the record leads to the state of the record.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 26.11.2021
+ * @since 4.0
+ */
+public abstract class AbstractExternalSearch extends AbstractStateSpaceSearch {
+
+    /**
+     * The default number of records of the sort buffer (2^20).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(AbstractExternalSearch.class.getName());
+
+    /**
+     * The directory where the working directories of the search are created or null to use the default temporary
+     * directory of the system.
+     */
+    private String directory;
+
+    /**
+     * The number of records of the sort buffer.
+     */
+    private int bufferSize;
+
+    /**
+     * Creates a new external-memory search strategy with default parameters.
+     */
+    public AbstractExternalSearch() {
+        super();
+        this.directory = null;
+        this.bufferSize = AbstractExternalSearch.DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Creates a new external-memory search strategy.
+     *
+     * @param timeout the time out of the planner.
+     */
+    public AbstractExternalSearch(int timeout) {
+        super(timeout);
+        this.directory = null;
+        this.bufferSize = AbstractExternalSearch.DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Creates a new external-memory search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public AbstractExternalSearch(int timeout, StateHeuristic.Name heuristic, double weight) {
+        super(timeout, heuristic, weight);
+        this.directory = null;
+        this.bufferSize = AbstractExternalSearch.DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Returns the directory where the files of the search are written or null if the default temporary directory of
+     * the system is used.
+     *
+     * @return the directory where the files of the search are written.
+     */
+    public final String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Sets the directory where the files of the search are written. The files are written in a working directory
+     * created in this directory and deleted at the end of the search.
+     *
+     * @param directory the directory where the files of the search are written or null to use the default temporary
+     *                  directory of the system.
+     */
+    public final void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the number of records of the sort buffer of the search.
+     *
+     * @return the number of records of the sort buffer of the search.
+     */
+    public final int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Sets the number of records of the sort buffer of the search. The buffer bounds the number of states kept on
+     * the heap.
+     *
+     * @param size the number of records of the sort buffer. The size must be greater than 0.
+     * @throws IllegalArgumentException if <code>size &lt; 1</code>.
+     */
+    public final void setBufferSize(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
+        }
+        this.bufferSize = size;
+    }
+
+    /**
+     * Creates the working directory of a search.
+     *
+     * @return the path of the working directory.
+     * @throws IOException if the directory cannot be created.
+     */
+    protected final Path createWorkingDirectory() throws IOException {
+        if (this.directory == null) {
+            return Files.createTempDirectory("pddl4j-");
+        }
+        final Path parent = Paths.get(this.directory);
+        Files.createDirectories(parent);
+        return Files.createTempDirectory(parent, "pddl4j-");
+    }
+
+    /**
+     * Deletes the working directory of a search and the files it contains. The errors are logged and ignored.
+     *
+     * @param working the path of the working directory or null.
+     */
+    protected final void deleteWorkingDirectory(final Path working) {
+        if (working == null) {
+            return;
+        }
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(working)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(working);
+        } catch (IOException e) {
+            LOGGER.error("* cannot delete working directory " + working + ": " + e.getMessage() + "\n");
+        }
+    }
+
+    /**
+     * Returns the number of words needed to pack the states of a problem.
+     *
+     * @param problem the problem.
+     * @return the number of words needed to pack the states of a problem.
+     */
+    protected static int getStateWords(final Problem problem) {
+        return Math.max(1, (problem.getFluents().size() + 63) >>> 6);
+    }
+
+    /**
+     * Creates the sort buffer of a search. The number of records of the buffer is bounded so that the records fit in
+     * an array.
+     *
+     * @param words the number of words of the packed states.
+     * @return the sort buffer.
+     */
+    protected final SortBuffer createSortBuffer(final int words) {
+        return new SortBuffer(Math.min(this.bufferSize, (Integer.MAX_VALUE - 8) / (words + 1)), words);
+    }
+
+    /**
+     * Compares the packed states of two records.
+     *
+     * @param a     the array that contains the first record.
+     * @param aFrom the index of the first word of the first record.
+     * @param b     the array that contains the second record.
+     * @param bFrom the index of the first word of the second record.
+     * @param words the number of words of the packed states.
+     * @return a negative integer, zero, or a positive integer as the first state is less than, equal to, or greater
+     *     than the second state.
+     */
+    protected static int compare(final long[] a, final int aFrom, final long[] b, final int bFrom, final int words) {
+        for (int i = 0; i < words; i++) {
+            final int cmp = Long.compare(a[aFrom + i], b[bFrom + i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Merges sorted runs of records and visits the records of the runs that are not duplicates. A record is a
+     * duplicate if its state was already visited during the merge or if its state is in one of the sorted files of
+     * the states already explored. The runs are deleted once merged.
+     *
+     * @param runs     the sorted runs to merge.
+     * @param explored the sorted files of the states already explored.
+     * @param words    the number of words of the packed states.
+     * @param visitor  the visitor of the records.
+     * @return {@code false} if the visitor stopped the merge; {@code true} otherwise.
+     * @throws IOException if a file cannot be read.
+     */
+    protected static boolean merge(final List<StateFile> runs, final List<StateFile> explored, final int words,
+                                   final RecordVisitor visitor) throws IOException {
+        final PriorityQueue<StateFile.Reader> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+            (r1, r2) -> AbstractExternalSearch.compare(r1.getCurrent(), 0, r2.getCurrent(), 0, words));
+        final List<StateFile.Reader> readers = new ArrayList<>(runs.size() + explored.size());
+        final List<StateFile.Reader> filters = new ArrayList<>(explored.size());
+        try {
+            for (StateFile run : runs) {
+                final StateFile.Reader reader = run.openReader();
+                readers.add(reader);
+                if (reader.next()) {
+                    heads.add(reader);
+                }
+            }
+            final boolean[] open = new boolean[explored.size()];
+            for (StateFile file : explored) {
+                final StateFile.Reader reader = file.openReader();
+                readers.add(reader);
+                open[filters.size()] = reader.next();
+                filters.add(reader);
+            }
+            final long[] last = new long[words + 1];
+            boolean first = true;
+            while (!heads.isEmpty()) {
+                final StateFile.Reader head = heads.poll();
+                final long[] record = head.getCurrent();
+                boolean duplicate = !first && AbstractExternalSearch.compare(record, 0, last, 0, words) == 0;
+                if (!duplicate) {
+                    System.arraycopy(record, 0, last, 0, record.length);
+                    first = false;
+                    // The explored files are sorted: skip their records smaller than the current one
+                    for (int i = 0; i < filters.size() && !duplicate; i++) {
+                        final StateFile.Reader filter = filters.get(i);
+                        int cmp = -1;
+                        while (open[i] && (cmp = AbstractExternalSearch.compare(filter.getCurrent(), 0, record, 0,
+                            words)) < 0) {
+                            open[i] = filter.next();
+                        }
+                        duplicate = open[i] && cmp == 0;
+                    }
+                    if (!duplicate && !visitor.visit(last)) {
+                        return false;
+                    }
+                }
+                if (head.next()) {
+                    heads.add(head);
+                }
+            }
+            return true;
+        } finally {
+            for (StateFile.Reader reader : readers) {
+                reader.close();
+            }
+            for (StateFile run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * Searches in sorted files a predecessor of a state, i.e., a state in which a specified action is applicable and
+     * leads to the state. The states already visited by the rebuild of the plan are skipped, so that the rebuild
+     * cannot loop on a cycle of actions of cost 0.
+     *
+     * @param files       the files to search.
+     * @param target      the state.
+     * @param action      the index of the action that leads to the state.
+     * @param problem     the problem to solve.
+     * @param generator   the successor generator of the problem.
+     * @param visited     the states already visited by the rebuild of the plan.
+     * @param predecessor the state where the predecessor found is stored.
+     * @param record      the array where the record of the predecessor found is copied.
+     * @return the index of the file where a predecessor was found or -1 if no predecessor was found.
+     * @throws IOException if a file cannot be read.
+     */
+    protected static int findPredecessor(final List<StateFile> files, final State target, final int action,
+                                         final Problem problem, final SuccessorGenerator generator,
+                                         final Set<State> visited, final State predecessor, final long[] record)
+        throws IOException {
+        final Action op = problem.getActions().get(action);
+        final int words = record.length - 1;
+        final State successor = new State();
+        for (int i = 0; i < files.size(); i++) {
+            try (StateFile.Reader reader = files.get(i).openReader()) {
+                while (reader.next()) {
+                    final long[] current = reader.getCurrent();
+                    predecessor.setWords(current, 0, words);
+                    if (op.isApplicable(predecessor) && !visited.contains(predecessor)) {
+                        generator.apply(action, predecessor, successor);
+                        if (successor.equals(target)) {
+                            System.arraycopy(current, 0, record, 0, record.length);
+                            return i;
+                        }
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds the solution node of a plan from the states of the plan and the actions that lead to them.
+     *
+     * @param states  the states of the plan from the initial state to the goal state.
+     * @param actions the index of the action that leads to each state or -1 for the initial state.
+     * @param problem the problem to solve.
+     * @return the solution node.
+     */
+    protected static Node toNode(final List<State> states, final List<Integer> actions, final Problem problem) {
+        Node node = null;
+        double cost = 0.0;
+        for (int i = 0; i < states.size(); i++) {
+            final int action = actions.get(i);
+            if (action != -1) {
+                cost += problem.getActions().get(action).getCost().getValue();
+            }
+            node = new Node(states.get(i), node, action, cost, i, 0.0);
+        }
+        return node;
+    }
+
+    /**
+     * This interface defines a visitor of the records produced by a merge.
+     */
+    @FunctionalInterface
+    protected interface RecordVisitor {
+
+        /**
+         * Visits a record. The array is reused by the merge and must not be kept by the visitor.
+         *
+         * @param record the record.
+         * @return {@code false} to stop the merge; {@code true} otherwise.
+         * @throws IOException if the visitor cannot write the record.
+         */
+        boolean visit(long[] record) throws IOException;
+    }
+
+    /**
+     * This interface defines a factory of the files of the sorted runs written by a sort buffer.
+     */
+    @FunctionalInterface
+    protected interface RunFactory {
+
+        /**
+         * Creates and registers the file of a new sorted run for the records of a specified key.
+         *
+         * @param key the key of the records of the run.
+         * @return the file of the new run.
+         * @throws IOException if the file cannot be created.
+         */
+        StateFile create(long key) throws IOException;
+    }
+
+    /**
+     * This class implements the sort buffer of an external-memory search. The buffer stores a fixed number of records
+     * on the heap. Each record has a key that identifies the file it belongs to, e.g., a layer of the search. When the
+     * buffer is flushed, the records are sorted by key and by state and the records of each key are written in a new
+     * sorted run.
+     */
+    protected static final class SortBuffer {
+
+        /**
+         * The number of words of the packed states.
+         */
+        private final int words;
+
+        /**
+         * The number of words of a record.
+         */
+        private final int recordWords;
+
+        /**
+         * The records of the buffer.
+         */
+        private final long[] records;
+
+        /**
+         * The key of each record.
+         */
+        private final long[] keys;
+
+        /**
+         * The sorted order of the records.
+         */
+        private final int[] order;
+
+        /**
+         * The temporary array used to sort the records.
+         */
+        private final int[] tmp;
+
+        /**
+         * The number of records in the buffer.
+         */
+        private int size;
+
+        /**
+         * Creates a new sort buffer.
+         *
+         * @param capacity the number of records of the buffer.
+         * @param words    the number of words of the packed states.
+         */
+        SortBuffer(final int capacity, final int words) {
+            this.words = words;
+            this.recordWords = words + 1;
+            this.records = new long[capacity * this.recordWords];
+            this.keys = new long[capacity];
+            this.order = new int[capacity];
+            this.tmp = new int[capacity];
+            this.size = 0;
+        }
+
+        /**
+         * Returns the number of records in the buffer.
+         *
+         * @return the number of records in the buffer.
+         */
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * Returns {@code true} if the buffer is full.
+         *
+         * @return {@code true} if the buffer is full; {@code false} otherwise.
+         */
+        boolean isFull() {
+            return this.size == this.keys.length;
+        }
+
+        /**
+         * Adds a record to the buffer. The buffer must not be full.
+         *
+         * @param key    the key of the record.
+         * @param state  the state of the record.
+         * @param action the index of the action that generated the state.
+         */
+        void add(final long key, final State state, final int action) {
+            final int from = this.size * this.recordWords;
+            state.toLongArray(this.records, from, this.words);
+            this.records[from + this.words] = action;
+            this.keys[this.size] = key;
+            this.order[this.size] = this.size;
+            this.size++;
+        }
+
+        /**
+         * Sorts the records of the buffer and writes the records of each key in a new sorted run. The buffer is
+         * empty after the flush.
+         *
+         * @param factory the factory of the runs.
+         * @throws IOException if a run cannot be written.
+         */
+        void flush(final RunFactory factory) throws IOException {
+            if (this.size == 0) {
+                return;
+            }
+            this.sort(0, this.size);
+            int i = 0;
+            while (i < this.size) {
+                final long key = this.keys[this.order[i]];
+                final StateFile run = factory.create(key);
+                try (StateFile.Writer writer = run.openWriter()) {
+                    while (i < this.size && this.keys[this.order[i]] == key) {
+                        writer.write(this.records, this.order[i] * this.recordWords);
+                        i++;
+                    }
+                }
+            }
+            this.size = 0;
+        }
+
+        /**
+         * Sorts a range of the order of the records with a merge sort.
+         *
+         * @param from the first index of the range, inclusive.
+         * @param to   the last index of the range, exclusive.
+         */
+        private void sort(final int from, final int to) {
+            if (to - from < 2) {
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            this.sort(from, middle);
+            this.sort(middle, to);
+            if (this.compare(this.order[middle - 1], this.order[middle]) <= 0) {
+                return;
+            }
+            System.arraycopy(this.order, from, this.tmp, from, to - from);
+            int i = from;
+            int j = middle;
+            for (int k = from; k < to; k++) {
+                if (j >= to || i < middle && this.compare(this.tmp[i], this.tmp[j]) <= 0) {
+                    this.order[k] = this.tmp[i++];
+                } else {
+                    this.order[k] = this.tmp[j++];
+                }
+            }
+        }
+
+        /**
+         * Compares two records of the buffer by key and by state.
+         *
+         * @param r1 the index of the first record.
+         * @param r2 the index of the second record.
+         * @return a negative integer, zero, or a positive integer as the first record is less than, equal to, or
+         *     greater than the second record.
+         */
+        private int compare(final int r1, final int r2) {
+            final int cmp = Long.compare(this.keys[r1], this.keys[r2]);
+            if (cmp != 0) {
+                return cmp;
+            }
+            return AbstractExternalSearch.compare(this.records, r1 * this.recordWords, this.records,
+                r2 * this.recordWords, this.words);
+        }
+
+        /**
+         * Returns the memory used by the buffer in bytes.
+         *
+         * @return the memory used by the buffer in bytes.
+         */
+        long getMemoryUsed() {
+            return MemoryEstimator.sizeOfObject(5 * MemoryEstimator.REFERENCE + 3 * 4)
+                + MemoryEstimator.sizeOfArray(this.records.length, 8)
+                + MemoryEstimator.sizeOfArray(this.keys.length, 8)
+                + MemoryEstimator.sizeOfArray(this.order.length, 4)
+                + MemoryEstimator.sizeOfArray(this.tmp.length, 4);
+        }
+    }
+}
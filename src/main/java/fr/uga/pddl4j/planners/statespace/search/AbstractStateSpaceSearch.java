@@ -15,11 +15,16 @@
 
 package fr.uga.pddl4j.planners.statespace.search;
 
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.plan.SequentialPlan;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.util.MemoryEstimator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.Objects;
 
@@ -32,6 +37,11 @@ import java.util.Objects;
  */
 public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
 
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(AbstractStateSpaceSearch.class.getName());
+
     /**
      * The heuristic of the planner.
      */
@@ -47,15 +57,41 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
      */
     private int timeout;
 
+    /**
+     * The number of threads used by the search.
+     */
+    private int numberOfThreads;
+
+    /**
+     * The flag set if the applicable actions are pruned with strong stubborn sets.
+     */
+    private boolean stubbornSetPruning;
+
+    /**
+     * The use of the helpful actions computed by the heuristic.
+     */
+    private HelpfulActions helpfulActions;
+
+    /**
+     * The cache of the heuristic values or null if the heuristic values are not cached.
+     */
+    private HeuristicCache heuristicCache;
+
+    /**
+     * The control of the search.
+     */
+    private SearchControl control;
+
     /**
      * The time spend to find a solution.
      */
     private long searchingTime;
 
     /**
-     * The amount of memory used for the search.
+     * The amount of memory used for the search. The amount is updated while the search is running and can be read
+     * from an other thread.
      */
-    private long memoryUsed;
+    private volatile long memoryUsed;
 
     /**
      * The number of explored nodes.
@@ -133,6 +169,144 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         return this.timeout;
     }
 
+    /**
+     * Returns the number of threads used by the search.
+     *
+     * @return the number of threads used by the search.
+     */
+    @Override
+    public int getNumberOfThreads() {
+        return this.numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads used by the search.
+     *
+     * @param threads the number of threads used by the search.
+     * @throws IllegalArgumentException if <code>threads &lt; 1</code>.
+     */
+    @Override
+    public void setNumberOfThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1");
+        }
+        this.numberOfThreads = threads;
+    }
+
+    /**
+     * Returns <code>true</code> if the search prunes the applicable actions of the states with strong stubborn sets.
+     *
+     * @return <code>true</code> if the search prunes the applicable actions with strong stubborn sets;
+     *      <code>false</code> otherwise.
+     */
+    @Override
+    public boolean isStubbornSetPruning() {
+        return this.stubbornSetPruning;
+    }
+
+    /**
+     * Sets if the search prunes the applicable actions of the states with strong stubborn sets.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     */
+    @Override
+    public void setStubbornSetPruning(final boolean pruning) {
+        this.stubbornSetPruning = pruning;
+    }
+
+    /**
+     * Returns the cache of the heuristic values used by the search.
+     *
+     * @return the cache of the heuristic values or null if the heuristic values are not cached.
+     */
+    @Override
+    public HeuristicCache getHeuristicCache() {
+        return this.heuristicCache;
+    }
+
+    /**
+     * Sets the cache of the heuristic values used by the search.
+     *
+     * @param cache the cache of the heuristic values or null if the heuristic values are not cached.
+     */
+    @Override
+    public void setHeuristicCache(final HeuristicCache cache) {
+        this.heuristicCache = cache;
+    }
+
+    /**
+     * Returns the use of the helpful actions computed by the heuristic.
+     *
+     * @return the use of the helpful actions computed by the heuristic.
+     */
+    @Override
+    public HelpfulActions getHelpfulActions() {
+        return this.helpfulActions;
+    }
+
+    /**
+     * Sets the use of the helpful actions computed by the heuristic.
+     *
+     * @param helpfulActions the use of the helpful actions. The use of the helpful actions cannot be null.
+     */
+    @Override
+    public void setHelpfulActions(final HelpfulActions helpfulActions) {
+        Objects.requireNonNull(helpfulActions);
+        this.helpfulActions = helpfulActions;
+    }
+
+    /**
+     * Returns the pruning of the applicable actions used by the search for a specified problem. The pruning keeps all
+     * the applicable actions if the stubborn set pruning is disabled.
+     *
+     * @param problem the problem to solve.
+     * @return the pruning of the applicable actions.
+     */
+    protected final StubbornSets getStubbornSets(final Problem problem) {
+        return this.stubbornSetPruning ? StubbornSets.getInstance(problem) : StubbornSets.NONE;
+    }
+
+    /**
+     * Returns the control of the search.
+     *
+     * @return the control of the search.
+     */
+    @Override
+    public final SearchControl getSearchControl() {
+        return this.control;
+    }
+
+    /**
+     * Sets the control of the search.
+     *
+     * @param control the control of the search.
+     * @throws NullPointerException if <code>control == null</code>.
+     */
+    @Override
+    public final void setSearchControl(final SearchControl control) {
+        Objects.requireNonNull(control);
+        this.control = control;
+    }
+
+    /**
+     * Requests the cancellation of the search. The search stops at the next node expanded.
+     */
+    @Override
+    public void cancel() {
+        this.control.cancel();
+    }
+
+    /**
+     * Returns <code>true</code> if the cancellation of the search was requested.
+     *
+     * @return <code>true</code> if the cancellation of the search was requested; <code>false</code> otherwise.
+     */
+    @Override
+    public boolean isCancelled() {
+        return this.control.isCancelled();
+    }
+
     /**
      * Returns the time spend to find a solution.
      *
@@ -154,7 +328,8 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
     }
 
     /**
-     * Returns the amount of memory used for the search.
+     * Returns the amount of memory in bytes used for the search. The amount is estimated from the data structures of
+     * the search and is updated while the search is running.
      *
      * @return the amount of memory used for the search.
      */
@@ -262,6 +437,10 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         this.timeout = timeout;
         this.heuristic = heuristic;
         this.weight = weight;
+        this.numberOfThreads = StateSpaceSearch.DEFAULT_NUMBER_OF_THREADS;
+        this.stubbornSetPruning = StateSpaceSearch.DEFAULT_STUBBORN_SET_PRUNING;
+        this.helpfulActions = StateSpaceSearch.DEFAULT_HELPFUL_ACTIONS;
+        this.control = new SearchControl();
         this.searchingTime = 0;
         this.memoryUsed = 0;
         resetNodesStatistics();
@@ -319,6 +498,31 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         }
     }
 
+    /**
+     * Logs the exact deep size of the data structures of the search in order to check the estimation of the memory
+     * used. The deep size walks the whole object graph of the structures: it is only computed when the debug level is
+     * enabled.
+     *
+     * @param structures the data structures of the search.
+     */
+    protected final void debugMemoryUsed(final Object... structures) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("memory used for searching: %d bytes estimated, %d bytes measured%n",
+                this.getMemoryUsed(), MemoryEstimator.deepSizeOf(structures)));
+        }
+    }
+
+    /**
+     * Starts the control of the search with the timeout of the search and returns it. This method must be called by
+     * the search before its first expansion.
+     *
+     * @return the control of the search.
+     */
+    protected final SearchControl startSearchControl() {
+        this.control.start(this.getTimeout() * 1000L);
+        return this.control;
+    }
+
     /**
      * Reset Nodes statistics.
      */
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+
+/**
+ * This class implements a bidirectional A* search strategy. A forward A* search from the initial state and a
+ * backward A* search over partial states from the goal, as in {@link RegressionSearch}, are run alternately: the
+ * search with the smallest list of pending nodes is expanded first. The forward search estimates the distance from its
+ * states to the goal and the backward search the distance from the initial state to its partial states.
+ * <p>
+ * Each state generated by the forward search is tested against all the partial states already generated by the
+ * backward search: a meeting gives a solution whose cost is the sum of the costs of the state and of the partial
+ * state. The partial states generated by the backward search are only tested against the initial state, not against
+ * the states already generated by the forward search, because this test would scan the whole forward registry. A
+ * meeting can thus be missed when the partial state is generated after the state. The search stops when the value of
+ * the evaluation function of the next node of one of the two searches is greater or equal to the cost of the best
+ * solution found. Each search alone finds the solutions that do not meet the other one, i.e., the forward search
+ * meets the root of the backward search when it reaches the goal and the backward search meets the initial state.
+ * The solution is thus optimal if the heuristic is admissible and the weight is 1.
+ * </p>
+ * <p>
+ * The backward search estimates the distance from the initial state to each new partial state, i.e., to a new goal.
+ * When the heuristic of the search computes its structures again for each goal, see
+ * {@link StateHeuristic#isGoalIndependent()}, the backward search uses the admissible heuristic <code>h_max</code>
+ * instead.
+ * </p>
+ * <p>
+ * The backward search is only defined for the problems whose actions have unconditional effects; the search returns
+ * null for the other problems.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ */
+public final class BidirectionalAStar extends AbstractStateSpaceSearch {
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(BidirectionalAStar.class.getName());
+
+    /**
+     * The heuristic of the backward search when the heuristic of the search is not goal independent.
+     */
+    private static final StateHeuristic.Name BACKWARD_HEURISTIC = StateHeuristic.Name.MAX;
+
+    /**
+     * Creates a new bidirectional A* search strategy with default parameters.
+     */
+    public BidirectionalAStar() {
+        super();
+    }
+
+    /**
+     * Creates a new bidirectional A* search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public BidirectionalAStar(int timeout, StateHeuristic.Name heuristic, double weight) {
+        super(timeout, heuristic, weight);
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        this.resetNodesStatistics();
+        final PredecessorGenerator predecessors = new PredecessorGenerator(codedProblem);
+        if (!predecessors.isSupported()) {
+            LOGGER.error("* bidirectional search does not support conditional effects\n");
+            this.setSearchingTime(System.currentTimeMillis() - begin);
+            return null;
+        }
+        final double currWeight = this.getWeight();
+        final State init = new State(codedProblem.getInitialState());
+        final Condition goal = codedProblem.getGoal();
+        // The forward search: the heuristic values of the successors are evaluated in batch
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final StateRegistry forward = new StateRegistry(ZobristHash.getInstance(codedProblem));
+            final IntIndexedPriorityQueue forwardOpen = new IntIndexedPriorityQueue((s1, s2) ->
+                Double.compare(forward.getValueF(s1, currWeight), forward.getValueF(s2, currWeight)));
+            final int forwardRoot = forward.insert(init);
+            forward.setPath(forwardRoot, -1, -1, 0, 0);
+            forward.setHeuristic(forwardRoot, evaluator.estimate(init, forward.getHash(forwardRoot), forwardRoot, -1));
+            forwardOpen.add(forwardRoot);
+            // The backward search: the heuristic estimates the distance from the initial state to the partial states
+            StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
+            if (!heuristic.isGoalIndependent()) {
+                LOGGER.info("* " + this.getHeuristic() + " heuristic is not goal independent, backward search uses "
+                    + BidirectionalAStar.BACKWARD_HEURISTIC + " heuristic\n");
+                heuristic = StateHeuristic.getInstance(BidirectionalAStar.BACKWARD_HEURISTIC, codedProblem);
+            }
+            long heuristicTime = 0;
+            final PartialStateRegistry backward = new PartialStateRegistry(codedProblem.getFluents().size());
+            final IntIndexedPriorityQueue backwardOpen = new IntIndexedPriorityQueue((s1, s2) ->
+                Double.compare(backward.getValueF(s1, currWeight), backward.getValueF(s2, currWeight)));
+            final int backwardRoot = backward.insert(goal);
+            backward.setPath(backwardRoot, -1, -1, 0, 0);
+            long start = System.nanoTime();
+            backward.setHeuristic(backwardRoot, heuristic.estimate(init, goal));
+            heuristicTime += System.nanoTime() - start;
+            backwardOpen.add(backwardRoot);
+
+            // The best solution found: the state of the forward search and the partial state of the backward search
+            // that it satisfies
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestForward = -1;
+            int bestBackward = -1;
+            if (init.satisfy(goal)) {
+                bestCost = 0;
+                bestForward = forwardRoot;
+                bestBackward = backwardRoot;
+            }
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            double bestHeuristic = forward.getHeuristic(forwardRoot);
+            double layer = Double.NaN;
+            // The structures used to compute the successors
+            final State current = new State();
+            final State next = new State();
+            final SuccessorGenerator successors = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final int[] actions = new int[Math.max(successors.getNumberOfActions(), 1)];
+            final State[] batch = new State[actions.length];
+            final int[] batchIds = new int[actions.length];
+            final long[] batchHashes = new long[actions.length];
+            final double[] batchValues = new double[actions.length];
+            // The partial state used to compute the predecessors
+            final Condition predecessor = new Condition();
+            while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty() && !control.isInterrupted(expanded)
+                && forward.getValueF(forwardOpen.peek(), currWeight) < bestCost
+                && backward.getValueF(backwardOpen.peek(), currWeight) < bestCost) {
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), forwardOpen.size() + backwardOpen.size(),
+                        forward.size() + backward.size() - forwardOpen.size() - backwardOpen.size(), bestHeuristic,
+                        layer, evaluator.getTime() + heuristicTime / 1000000L);
+                }
+                expanded++;
+                this.setMemoryUsed(forward.getMemoryUsed() + forwardOpen.getMemoryUsed() + backward.getMemoryUsed()
+                    + backwardOpen.getMemoryUsed());
+                if (forwardOpen.size() <= backwardOpen.size()) {
+                    // Expand the next state of the forward search
+                    final int currentId = forwardOpen.poll();
+                    forward.getState(currentId, current);
+                    layer = forward.getValueF(currentId, currWeight);
+                    bestHeuristic = Math.min(bestHeuristic, forward.getHeuristic(currentId));
+                    final double currentCost = forward.getCost(currentId);
+                    final int depth = forward.getDepth(currentId) + 1;
+                    final int first = forward.size();
+                    int count = 0;
+                    final int applicable = pruning.prune(current, actions,
+                        successors.getApplicableActions(current, actions));
+                    for (int i = 0; i < applicable; i++) {
+                        final int index = actions[i];
+                        final Action op = codedProblem.getActions().get(index);
+                        this.setCreatedNodes(this.getCreatedNodes() + 1);
+                        final long hash = successors.apply(index, current, forward.getHash(currentId), next,
+                            forward.getHashFunction());
+                        final double g = currentCost + op.getCost().getValue();
+                        int id = forward.insert(next, hash);
+                        if (id >= 0) {
+                            forward.setPath(id, currentId, index, g, depth);
+                            if (batch[count] == null) {
+                                batch[count] = new State();
+                            }
+                            batch[count].clear();
+                            batch[count].or(next);
+                            batchHashes[count] = hash;
+                            batchIds[count++] = id;
+                        } else {
+                            id = -(id + 1);
+                            if (g >= forward.getCost(id)) {
+                                continue;
+                            }
+                            forward.setPath(id, currentId, index, g, depth);
+                            if (id < first && !forwardOpen.update(id)) {
+                                forwardOpen.add(id);
+                            }
+                        }
+                        // Test whether the successor meets the backward search
+                        final int meeting = backward.findSatisfied(next);
+                        if (meeting != -1 && g + backward.getCost(meeting) < bestCost) {
+                            bestCost = g + backward.getCost(meeting);
+                            bestForward = id;
+                            bestBackward = meeting;
+                        }
+                    }
+                    evaluator.estimate(batch, batchHashes, batchIds, currentId, count, batchValues);
+                    for (int i = 0; i < count; i++) {
+                        forward.setHeuristic(batchIds[i], batchValues[i]);
+                        forwardOpen.add(batchIds[i]);
+                    }
+                } else {
+                    // Expand the next partial state of the backward search
+                    final int currentId = backwardOpen.poll();
+                    final Condition partial = backward.getState(currentId);
+                    final double currentCost = backward.getCost(currentId);
+                    final int depth = backward.getDepth(currentId) + 1;
+                    final int relevant = predecessors.getRelevantActions(partial, actions);
+                    for (int i = 0; i < relevant; i++) {
+                        final int index = actions[i];
+                        if (!predecessors.regress(index, partial, predecessor)) {
+                            continue;
+                        }
+                        this.setCreatedNodes(this.getCreatedNodes() + 1);
+                        final double g = currentCost + codedProblem.getActions().get(index).getCost().getValue();
+                        int id = backward.lookup(predecessor);
+                        if (id != -1) {
+                            if (g >= backward.getCost(id)) {
+                                continue;
+                            }
+                            backward.setPath(id, currentId, index, g, depth);
+                            if (!backwardOpen.update(id)) {
+                                backwardOpen.add(id);
+                            }
+                        } else if (backward.findSubsuming(predecessor, g) == -1) {
+                            start = System.nanoTime();
+                            final int value = heuristic.estimate(init, predecessor);
+                            heuristicTime += System.nanoTime() - start;
+                            if (value == Integer.MAX_VALUE) {
+                                continue;
+                            }
+                            id = backward.insert(predecessor);
+                            backward.setPath(id, currentId, index, g, depth);
+                            backward.setHeuristic(id, value);
+                            backwardOpen.add(id);
+                        } else {
+                            continue;
+                        }
+                        // Test whether the predecessor meets the forward search at the initial state
+                        if (init.satisfy(predecessor) && g < bestCost) {
+                            bestCost = g;
+                            bestForward = forwardRoot;
+                            bestBackward = id;
+                        }
+                    }
+                }
+            }
+
+            control.report(expanded, this.getCreatedNodes(), forwardOpen.size() + backwardOpen.size(),
+                forward.size() + backward.size() - forwardOpen.size() - backwardOpen.size(), bestHeuristic, layer,
+                evaluator.getTime() + heuristicTime / 1000000L);
+            this.setExploredNodes(forward.size() + backward.size() - forwardOpen.size() - backwardOpen.size());
+            this.setPendingNodes(forwardOpen.size() + backwardOpen.size());
+            this.setMemoryUsed(forward.getMemoryUsed() + forwardOpen.getMemoryUsed() + backward.getMemoryUsed()
+                + backwardOpen.getMemoryUsed());
+            this.debugMemoryUsed(forward, forwardOpen, backward, backwardOpen);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
+
+            // Join the path of the forward search and the path of the backward search
+            return bestForward == -1 ? null : backward.extend(bestBackward, forward.toNode(bestForward), successors);
+        }
+    }
+}
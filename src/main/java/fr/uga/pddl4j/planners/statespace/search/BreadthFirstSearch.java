@@ -15,20 +15,20 @@
 
 package fr.uga.pddl4j.planners.statespace.search;
 
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
 
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Objects;
 
 /**
- * This class implements Breadth First Search strategy.
+ * This class implements Breadth First Search strategy. The states are stored in a {@link StateRegistry}. Since the
+ * registry gives increasing identifiers to the states in the order of their generation, the queue of pending states is
+ * simply the range of identifiers between the last explored state and the last generated state.
  *
  * @author E. Hermellin
- * @version 1.0 - 22.06.2018
+ * @version 1.1 - 28.10.2021
  */
 public final class BreadthFirstSearch extends AbstractStateSpaceSearch {
 
@@ -58,69 +58,63 @@ public final class BreadthFirstSearch extends AbstractStateSpaceSearch {
     public Node search(final Problem codedProblem) {
         Objects.requireNonNull(codedProblem);
         final long begin = System.currentTimeMillis();
+        final StateRegistry registry = new StateRegistry(ZobristHash.getInstance(codedProblem));
 
-        final HashSet<Node> closeSet = new HashSet<>();
-        final LinkedList<Node> openSet = new LinkedList<>();
-        final int timeout = this.getTimeout() * 1000;
-
-        State init = new State(codedProblem.getInitialState());
-        Node root = new Node(init, null, 0, 0, 0);
-        root.setDepth(0);
-        openSet.add(root);
+        final State init = new State(codedProblem.getInitialState());
+        final int root = registry.insert(init);
+        registry.setPath(root, -1, -1, 0, 0);
 
         this.resetNodesStatistics();
-        Node solution = null;
-        long searchingTime = 0;
-        while (!openSet.isEmpty() && solution == null && searchingTime < timeout) {
-            // Pop the first node in the pending list open
-            final Node current = openSet.pollFirst();
-
+        int solution = -1;
+        // The identifier of the next state to explore
+        int head = root;
+        final SearchControl control = this.startSearchControl();
+        // The cost of the last state expanded, i.e., the current layer of the search
+        double layer = Double.NaN;
+        final State current = new State();
+        final State next = new State();
+        final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+        final StubbornSets pruning = this.getStubbornSets(codedProblem);
+        final int[] actions = new int[generator.getNumberOfActions()];
+        while (head < registry.size() && solution == -1 && !control.isInterrupted(head)) {
+            if (control.isReportDue()) {
+                control.report(head, this.getCreatedNodes(), registry.size() - head, head, Double.NaN, layer, 0);
+            }
+            this.setMemoryUsed(registry.getMemoryUsed());
+            // Pop the first state in the pending list open
+            final int currentId = head++;
+            registry.getState(currentId, current);
+            layer = registry.getCost(currentId);
             if (current.satisfy(codedProblem.getGoal())) {
-                solution = current;
+                solution = currentId;
             } else {
-                closeSet.add(current);
-                int index = 0;
-                for (Action op : codedProblem.getActions()) {
-
-                    // Test if a specified operator is applicable in the current state
-                    if (op.isApplicable(current)) {
-                        final State nextState = new State(current);
-                        //nextState.or(op.getConditionalEffects().get(0).getEffect().getPositive());
-                        //nextState.andNot(op.getConditionalEffects().get(0).getEffect().getNegative());
-
-                        // Apply the effect of the applicable operator
-                        // Test if the condition of the effect is satisfied in the current state
-                        // Apply the effect to the successor node
-                        op.getConditionalEffects().stream().filter(ce -> current.satisfy(ce.getCondition()))
-                            .forEach(ce -> nextState.apply(ce.getEffect()));
-
-                        // Apply the effect of the applicable operator
-                        final Node successor = new Node(nextState);
-                        this.setCreatedNodes(this.getCreatedNodes() + 1);
-                        successor.setCost(current.getCost() + op.getCost().getValue());
-                        successor.setHeuristic(0);
-                        successor.setParent(current);
-                        successor.setAction(index);
-                        successor.setDepth(current.getDepth() + 1);
-
-                        if (!closeSet.contains(successor) && !openSet.contains(successor)) {
-                            openSet.addLast(successor);
-                        }
+                final double currentCost = registry.getCost(currentId);
+                final int depth = registry.getDepth(currentId) + 1;
+                final int applicable = pruning.prune(current, actions,
+                    generator.getApplicableActions(current, actions));
+                for (int i = 0; i < applicable; i++) {
+                    final int index = actions[i];
+                    final Action op = codedProblem.getActions().get(index);
+                    // Apply the effect of the applicable operator to the successor state
+                    final long hash = generator.apply(index, current, registry.getHash(currentId), next,
+                        registry.getHashFunction());
+                    this.setCreatedNodes(this.getCreatedNodes() + 1);
+                    // A new state is implicitly added at the end of the pending list
+                    final int id = registry.insert(next, hash);
+                    if (id >= 0) {
+                        registry.setPath(id, currentId, index, currentCost + op.getCost().getValue(), depth);
                     }
-                    index++;
                 }
             }
-            // Take time to compute the searching time
-            long end = System.currentTimeMillis();
-            searchingTime = end - begin;
         }
 
-        this.setExploredNodes(closeSet.size());
-        this.setPendingNodes(openSet.size());
-        this.setMemoryUsed(GraphLayout.parseInstance(closeSet).totalSize()
-            + GraphLayout.parseInstance(openSet).totalSize());
-        this.setSearchingTime(searchingTime);
+        control.report(head, this.getCreatedNodes(), registry.size() - head, head, Double.NaN, layer, 0);
+        this.setExploredNodes(head);
+        this.setPendingNodes(registry.size() - head);
+        this.setMemoryUsed(registry.getMemoryUsed());
+        this.debugMemoryUsed(registry);
+        this.setSearchingTime(System.currentTimeMillis() - begin);
 
-        return solution;
+        return registry.toNode(solution);
     }
 }
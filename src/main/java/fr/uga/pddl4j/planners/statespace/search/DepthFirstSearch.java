@@ -15,10 +15,11 @@
 
 package fr.uga.pddl4j.planners.statespace.search;
 
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
+import fr.uga.pddl4j.util.MemoryEstimator;
 
 import java.util.LinkedList;
 import java.util.Objects;
@@ -60,7 +61,12 @@ public final class DepthFirstSearch extends AbstractStateSpaceSearch {
 
         final LinkedList<Node> closeSet = new LinkedList<>();
         final LinkedList<Node> openSet = new LinkedList<>();
-        final long timeout = this.getTimeout() * 1000;
+        final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+        final StubbornSets pruning = this.getStubbornSets(codedProblem);
+        final int[] actions = new int[generator.getNumberOfActions()];
+        // The memory used by a node stored in the lists
+        final long nodeBytes = MemoryEstimator.sizeOfNode(codedProblem.getFluents().size())
+            + MemoryEstimator.LINKED_LIST_ENTRY;
 
         State init = new State(codedProblem.getInitialState());
         Node root = new Node(init, null, 0, 0, 0);
@@ -69,53 +75,54 @@ public final class DepthFirstSearch extends AbstractStateSpaceSearch {
 
         this.resetNodesStatistics();
         Node solution = null;
-        long searchingTime = 0;
-        while (!openSet.isEmpty() && solution == null && searchingTime < timeout) {
+        final SearchControl control = this.startSearchControl();
+        // The cost of the last node expanded
+        double layer = Double.NaN;
+        while (!openSet.isEmpty() && solution == null && !control.isInterrupted(closeSet.size())) {
+            if (control.isReportDue()) {
+                control.report(closeSet.size(), this.getCreatedNodes(), openSet.size(), closeSet.size(), Double.NaN,
+                    layer, 0);
+            }
+            this.setMemoryUsed((closeSet.size() + openSet.size()) * nodeBytes);
             // Pop the first node in the pending list open
             final Node current = openSet.pollFirst();
+            layer = current.getCost();
 
             if (current.satisfy(codedProblem.getGoal())) {
                 solution = current;
             } else {
                 closeSet.add(current);
-                int index = 0;
-                for (Action op : codedProblem.getActions()) {
-
-                    // Test if a specified operator is applicable in the current state
-                    if (op.isApplicable(current)) {
-                        final State nextState = new State(current);
-                        //nextState.or(op.getConditionalEffects().get(0).getEffect().getPositive());
-                        //nextState.andNot(op.getConditionalEffects().get(0).getEffect().getNegative());
-
-                        op.getConditionalEffects().stream().filter(ce -> current.satisfy(ce.getCondition()))
-                            .forEach(ce -> nextState.apply(ce.getEffect()));
-
-                        // Apply the effect of the applicable operator
-                        final Node successor = new Node(nextState);
-                        this.setCreatedNodes(this.getCreatedNodes() + 1);
-                        successor.setCost(current.getCost() + op.getCost().getValue());
-                        successor.setHeuristic(0);
-                        successor.setParent(current);
-                        successor.setAction(index);
-                        successor.setDepth(current.getDepth() + 1);
-
-                        if (!closeSet.contains(successor) && !openSet.contains(successor)) {
-                            openSet.addFirst(successor);
-                        }
+                final int applicable = pruning.prune(current, actions,
+                    generator.getApplicableActions(current, actions));
+                for (int i = 0; i < applicable; i++) {
+                    final int index = actions[i];
+                    final Action op = codedProblem.getActions().get(index);
+                    final State nextState = new State();
+                    generator.apply(index, current, nextState);
+
+                    // Apply the effect of the applicable operator
+                    final Node successor = new Node(nextState);
+                    this.setCreatedNodes(this.getCreatedNodes() + 1);
+                    successor.setCost(current.getCost() + op.getCost().getValue());
+                    successor.setHeuristic(0);
+                    successor.setParent(current);
+                    successor.setAction(index);
+                    successor.setDepth(current.getDepth() + 1);
+
+                    if (!closeSet.contains(successor) && !openSet.contains(successor)) {
+                        openSet.addFirst(successor);
                     }
-                    index++;
                 }
             }
-            // Take time to compute the searching time
-            long end = System.currentTimeMillis();
-            searchingTime = end - begin;
         }
 
+        control.report(closeSet.size(), this.getCreatedNodes(), openSet.size(), closeSet.size(), Double.NaN, layer,
+            0);
         this.setExploredNodes(closeSet.size());
         this.setPendingNodes(openSet.size());
-        this.setMemoryUsed(GraphLayout.parseInstance(closeSet).totalSize()
-            + GraphLayout.parseInstance(openSet).totalSize());
-        this.setSearchingTime(searchingTime);
+        this.setMemoryUsed((closeSet.size() + openSet.size()) * nodeBytes);
+        this.debugMemoryUsed(closeSet, openSet);
+        this.setSearchingTime(System.currentTimeMillis() - begin);
 
         return solution;
     }
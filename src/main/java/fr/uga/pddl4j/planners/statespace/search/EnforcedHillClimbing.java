@@ -20,16 +20,23 @@
 package fr.uga.pddl4j.planners.statespace.search;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
+import fr.uga.pddl4j.util.MemoryEstimator;
 
 import java.util.LinkedList;
 import java.util.Objects;
 
 /**
  * This class implements Enforced Hill Climbing search strategy.
+ * <p>
+ * The search can use the helpful actions computed by the heuristic (see {@link #setHelpfulActions}). When the helpful
+ * actions are pruned, the breadth first search used to escape plateaus only applies the helpful actions of the states
+ * as in the original FF planner. When the helpful actions are preferred, the successors reached by a helpful action
+ * are explored before the other ones.
+ * </p>
  *
  * @author Samuel Aaron Boyd
  * @author E. Hermellin
@@ -66,50 +73,94 @@ public final class EnforcedHillClimbing extends AbstractStateSpaceSearch {
         Objects.requireNonNull(codedProblem);
         final long begin = System.currentTimeMillis();
 
-        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
-        final LinkedList<Node> openList = new LinkedList<>();
-        final long timeout = this.getTimeout() * 1000;
-
-        State init = new State(codedProblem.getInitialState());
-        Node root = new Node(init, null, 0, 0, heuristic.estimate(init, codedProblem.getGoal()));
-        openList.add(root);
-
-        double bestHeuristic = root.getHeuristic();
-
-        Node solution = null;
-        boolean deadEndFree = true;
-
-        this.resetNodesStatistics();
-        long searchingTime = 0;
-        while (!openList.isEmpty() && solution == null && deadEndFree && searchingTime < timeout) {
-            final Node currentState = openList.pop();
-            final LinkedList<Node> successors = getSuccessors(currentState, codedProblem, heuristic);
-            deadEndFree = !successors.isEmpty();
-
-            while (!successors.isEmpty() && solution == null) {
-                final Node successor = successors.pop();
-                this.setExploredNodes(this.getExploredNodes() + 1);
-                final double heuristicSuccessor = successor.getHeuristic();
-                if (heuristicSuccessor == 0.0) {
-                    solution = successor;
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final LinkedList<Node> openList = new LinkedList<>();
+            // The nodes reached by a helpful action when the helpful actions are preferred
+            final LinkedList<Node> preferredList = new LinkedList<>();
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final int[] actions = new int[generator.getNumberOfActions()];
+            final int[] helpfulActions = new int[actions.length];
+            final boolean[] helpful = new boolean[actions.length];
+            // The nodes stored are the nodes of the open list and the nodes of the path to the current node
+            final long nodeBytes = MemoryEstimator.sizeOfNode(codedProblem.getFluents().size());
+
+            State init = new State(codedProblem.getInitialState());
+            Node root = new Node(init, null, 0, 0, evaluator.estimate(init));
+            openList.add(root);
+
+            // The helpful actions are ignored if the heuristic does not compute them
+            HelpfulActions mode = this.getHelpfulActions();
+            if (mode != HelpfulActions.IGNORE && evaluator.getHelpfulActions(init, helpfulActions) < 0) {
+                mode = HelpfulActions.IGNORE;
+            }
+            int nbHelpful = 0;
+
+            double bestHeuristic = root.getHeuristic();
+
+            Node solution = null;
+            boolean deadEndFree = true;
+
+            this.resetNodesStatistics();
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            // The value of the evaluation function of the last node expanded
+            double layer = Double.NaN;
+            while ((!openList.isEmpty() || !preferredList.isEmpty()) && solution == null && deadEndFree
+                && !control.isInterrupted(expanded)) {
+                final int pending = openList.size() + preferredList.size();
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), pending, 0, bestHeuristic, layer,
+                        evaluator.getTime());
                 }
-                if (heuristicSuccessor < bestHeuristic) {
-                    successors.clear();
-                    openList.clear();
-                    bestHeuristic = heuristicSuccessor;
+                expanded++;
+                final Node currentState = preferredList.isEmpty() ? openList.pop() : preferredList.pop();
+                layer = currentState.getValueF(this.getWeight());
+                this.setMemoryUsed((pending - 1) * (nodeBytes + MemoryEstimator.LINKED_LIST_ENTRY)
+                    + (currentState.getDepth() + 1) * nodeBytes);
+                if (mode != HelpfulActions.IGNORE) {
+                    // Mark the helpful actions of the current node instead of those of the previous one
+                    for (int i = 0; i < nbHelpful; i++) {
+                        helpful[helpfulActions[i]] = false;
+                    }
+                    nbHelpful = Math.max(0, evaluator.getHelpfulActions(currentState, helpfulActions));
+                    for (int i = 0; i < nbHelpful; i++) {
+                        helpful[helpfulActions[i]] = true;
+                    }
+                }
+                final LinkedList<Node> successors = getSuccessors(currentState, codedProblem, evaluator, generator,
+                    pruning, mode == HelpfulActions.PRUNE ? helpful : null, actions);
+                deadEndFree = !successors.isEmpty();
+
+                while (!successors.isEmpty() && solution == null && !control.isInterrupted()) {
+                    final Node successor = successors.pop();
+                    this.setExploredNodes(this.getExploredNodes() + 1);
+                    final double heuristicSuccessor = successor.getHeuristic();
+                    if (successor.satisfy(codedProblem.getGoal())) {
+                        solution = successor;
+                    }
+                    if (heuristicSuccessor < bestHeuristic) {
+                        successors.clear();
+                        openList.clear();
+                        preferredList.clear();
+                        bestHeuristic = heuristicSuccessor;
+                    }
+                    if (mode == HelpfulActions.PREFER && helpful[successor.getAction()]) {
+                        preferredList.addLast(successor);
+                    } else {
+                        openList.addLast(successor);
+                    }
                 }
-                openList.addLast(successor);
             }
 
-            // Take time to compute the searching time
-            long end = System.currentTimeMillis();
-            searchingTime = end - begin;
-        }
-
-        this.setMemoryUsed(GraphLayout.parseInstance(openList).totalSize());
-        this.setSearchingTime(searchingTime);
+            control.report(expanded, this.getCreatedNodes(), openList.size() + preferredList.size(), 0, bestHeuristic,
+                layer, evaluator.getTime());
+            this.debugMemoryUsed(openList, preferredList);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
 
-        return solution;
+            return solution;
+        }
     }
 
     /**
@@ -117,34 +168,45 @@ public final class EnforcedHillClimbing extends AbstractStateSpaceSearch {
      *
      * @param parent    the parent node.
      * @param problem   the coded problem to solve.
-     * @param heuristic the heuristic used.
+     * @param evaluator the evaluator of the heuristic used.
+     * @param generator the successor generator of the problem.
+     * @param pruning   the pruning of the applicable actions.
+     * @param helpful   the marks of the helpful actions of the parent node or null if all the applicable actions are
+     *                  applied.
+     * @param actions   the buffer used to store the actions applicable in the parent node.
      * @return the list of successors from the parent node.
      */
-    private LinkedList<Node> getSuccessors(Node parent, Problem problem, StateHeuristic heuristic) {
+    private LinkedList<Node> getSuccessors(Node parent, Problem problem, HeuristicEvaluator evaluator,
+                                           SuccessorGenerator generator, StubbornSets pruning, boolean[] helpful,
+                                           int[] actions) {
         final LinkedList<Node> successors = new LinkedList<>();
 
-        int index = 0;
-        for (Action op : problem.getActions()) {
-            // Test if a specified operator is applicable in the current state
-            if (op.isApplicable(parent)) {
-                final State nextState = new State(parent);
-                op.getConditionalEffects().stream().filter(ce -> parent.satisfy(ce.getCondition())).forEach(ce ->
-                        // Apply the effect to the successor node
-                        nextState.apply(ce.getEffect())
-                );
-                // Apply the effect of the applicable operator
-                final Node successor = new Node(nextState);
-                this.setCreatedNodes(this.getCreatedNodes() + 1);
-                successor.setCost(parent.getCost() + op.getCost().getValue());
-                successor.setHeuristic(heuristic.estimate(nextState, problem.getGoal()));
-                successor.setParent(parent);
-                successor.setAction(index);
-                successor.setDepth(parent.getDepth() + 1);
-                successors.add(successor);
+        final int applicable = pruning.prune(parent, actions, generator.getApplicableActions(parent, actions));
+        for (int i = 0; i < applicable; i++) {
+            final int index = actions[i];
+            if (helpful != null && !helpful[index]) {
+                continue;
             }
-            index++;
+            final Action op = problem.getActions().get(index);
+            final State nextState = new State();
+            generator.apply(index, parent, nextState);
+            // Apply the effect of the applicable operator
+            final Node successor = new Node(nextState);
+            this.setCreatedNodes(this.getCreatedNodes() + 1);
+            successor.setCost(parent.getCost() + op.getCost().getValue());
+            successor.setParent(parent);
+            successor.setAction(index);
+            successor.setDepth(parent.getDepth() + 1);
+            successors.add(successor);
         }
 
+        // The heuristic values of the successors are evaluated in batch
+        final Node[] nodes = successors.toArray(new Node[0]);
+        final double[] values = new double[nodes.length];
+        evaluator.estimate(nodes, nodes.length, values);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setHeuristic(values[i]);
+        }
         return successors;
     }
 }
@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class implements an external-memory A* search strategy. The states are stored in buckets of files indexed by
+ * their cost g and their heuristic value h. The buckets are expanded by increasing value of f = g + weight * h and by
+ * increasing cost. The duplicates are removed with delayed duplicate detection (see {@link AbstractExternalSearch}):
+ * the successors written in the pending runs of a bucket are merged when the bucket is expanded and subtracted from
+ * the states already expanded with a lower or equal cost. Since the heuristic value of a state does not depend on the
+ * way it is reached, these states are all in the buckets with the same heuristic value, so that a merge only reads a
+ * single column of buckets. A bucket that receives new states after its expansion is expanded again.
+ * <p>
+ * The search requires non-negative integral action costs. The states are tested against the goal when they are
+ * expanded, so that the solution found is optimal if the heuristic is admissible and the weight is 1.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 26.11.2021
+ * @since 4.0
+ */
+public final class ExternalAStar extends AbstractExternalSearch {
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(ExternalAStar.class.getName());
+
+    /**
+     * Creates a new external-memory A* search strategy with default parameters.
+     */
+    public ExternalAStar() {
+        super();
+    }
+
+    /**
+     * Creates a new external-memory A* search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public ExternalAStar(int timeout, StateHeuristic.Name heuristic, double weight) {
+        super(timeout, heuristic, weight);
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        this.resetNodesStatistics();
+        for (Action action : codedProblem.getActions()) {
+            final double cost = action.getCost().getValue();
+            if (cost < 0 || cost != Math.rint(cost) || cost > Integer.MAX_VALUE) {
+                LOGGER.error("* external A* requires non-negative integral action costs\n");
+                return null;
+            }
+        }
+        Path working = null;
+        Node solution = null;
+        try {
+            working = this.createWorkingDirectory();
+            solution = this.search(codedProblem, working);
+        } catch (IOException e) {
+            LOGGER.error("* external A* failed: " + e.getMessage() + "\n");
+        } finally {
+            this.deleteWorkingDirectory(working);
+        }
+        this.setSearchingTime(System.currentTimeMillis() - begin);
+        return solution;
+    }
+
+    /**
+     * Searches a solution plan with the files of the search written in a specified working directory.
+     *
+     * @param problem the problem to be solved.
+     * @param working the working directory.
+     * @return a solution search or null if it does not exist.
+     * @throws IOException if a file of the search cannot be written or read.
+     */
+    private Node search(final Problem problem, final Path working) throws IOException {
+        final int words = AbstractExternalSearch.getStateWords(problem);
+        final double weight = this.getWeight();
+        final Map<Long, Bucket> buckets = new HashMap<>();
+        final Map<Integer, List<Bucket>> columns = new HashMap<>();
+        // The files of the states expanded and their cost in the order of the expansions
+        final List<StateFile> expansions = new ArrayList<>();
+        final List<Integer> costs = new ArrayList<>();
+        final TreeSet<Bucket> pending = new TreeSet<>(Comparator.comparingDouble((Bucket b) -> b.g + weight * b.h)
+            .thenComparingInt(b -> b.g).thenComparingInt(b -> b.h));
+        final RunFactory factory = key -> {
+            final int g = (int) (key >>> 32);
+            final int h = (int) key;
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(g, h);
+                buckets.put(key, bucket);
+                columns.computeIfAbsent(h, k -> new ArrayList<>()).add(bucket);
+            }
+            final StateFile run = new StateFile(working, words + 1);
+            if (bucket.pending.isEmpty()) {
+                pending.add(bucket);
+            }
+            bucket.pending.add(run);
+            return run;
+        };
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), problem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final Expander expander = new Expander(problem, words, evaluator, factory);
+            final State init = new State(problem.getInitialState());
+            final double rootHeuristic = evaluator.estimate(init);
+            if (rootHeuristic != Integer.MAX_VALUE) {
+                expander.buffer.add(ExternalAStar.key(0, (int) rootHeuristic), init, -1);
+                expander.buffer.flush(factory);
+            }
+
+            final SearchControl control = this.startSearchControl();
+            double bestHeuristic = rootHeuristic;
+            double layer = Double.NaN;
+            while (!pending.isEmpty() && expander.goal == null && !expander.interrupted) {
+                final Bucket bucket = pending.pollFirst();
+                final List<StateFile> runs = new ArrayList<>(bucket.pending);
+                bucket.pending.clear();
+                // The states already expanded are in the buckets of the same column with a lower or equal cost
+                final List<StateFile> explored = new ArrayList<>();
+                for (Bucket other : columns.get(bucket.h)) {
+                    if (other.g <= bucket.g) {
+                        explored.addAll(other.expanded);
+                    }
+                }
+                layer = bucket.g + weight * bucket.h;
+                bestHeuristic = Math.min(bestHeuristic, bucket.h);
+                final StateFile file = new StateFile(working, words + 1);
+                try (StateFile.Writer writer = file.openWriter()) {
+                    expander.start(bucket.g, writer, control);
+                    AbstractExternalSearch.merge(runs, explored, words, expander);
+                }
+                bucket.expanded.add(file);
+                expansions.add(file);
+                costs.add(bucket.g);
+                expander.buffer.flush(factory);
+                if (control.isReportDue()) {
+                    long open = 0;
+                    for (Bucket other : pending) {
+                        for (StateFile run : other.pending) {
+                            open += run.size();
+                        }
+                    }
+                    control.report(expander.explored, this.getCreatedNodes(), open, expander.explored, bestHeuristic,
+                        layer, evaluator.getTime());
+                }
+                this.setMemoryUsed(expander.buffer.getMemoryUsed());
+            }
+
+            control.report(expander.explored, this.getCreatedNodes(), 0, expander.explored, bestHeuristic, layer,
+                evaluator.getTime());
+            this.setExploredNodes((int) Math.min(Integer.MAX_VALUE, expander.explored));
+            this.setPendingNodes(0);
+            this.setMemoryUsed(expander.buffer.getMemoryUsed());
+            this.debugMemoryUsed(expander.buffer);
+            if (expander.goal == null) {
+                return null;
+            }
+
+            // Rebuild the plan backward: the predecessor of a state of cost g reached by an action of cost c was
+            // expanded in a bucket of cost g - c before the expansion where the state was expanded. Since actions of
+            // cost 0 keep the cost unchanged, only the expansions done before are searched so that the rebuild ends
+            final long[] record = new long[words + 1];
+            final List<State> states = new ArrayList<>();
+            final List<Integer> path = new ArrayList<>();
+            final Set<State> visited = new HashSet<>();
+            State target = expander.goal;
+            int action = expander.goalAction;
+            int cost = expander.goalCost;
+            int expansion = expansions.size() - 1;
+            states.add(target);
+            path.add(action);
+            while (action != -1) {
+                visited.add(target);
+                cost -= (int) problem.getActions().get(action).getCost().getValue();
+                final List<StateFile> files = new ArrayList<>();
+                final List<Integer> indexes = new ArrayList<>();
+                for (int i = 0; i < expansion; i++) {
+                    if (costs.get(i) == cost) {
+                        files.add(expansions.get(i));
+                        indexes.add(i);
+                    }
+                }
+                final State predecessor = new State();
+                final int found = AbstractExternalSearch.findPredecessor(files, target, action, problem,
+                    expander.generator, visited, predecessor, record);
+                if (found < 0) {
+                    throw new IOException("predecessor not found with cost " + cost);
+                }
+                expansion = indexes.get(found);
+                target = predecessor;
+                action = (int) record[words];
+                states.add(target);
+                path.add(action);
+            }
+            Collections.reverse(states);
+            Collections.reverse(path);
+            return AbstractExternalSearch.toNode(states, path, problem);
+        }
+    }
+
+    /**
+     * Returns the key of the bucket of a specified cost and heuristic value.
+     *
+     * @param g the cost.
+     * @param h the heuristic value.
+     * @return the key of the bucket.
+     */
+    private static long key(final int g, final int h) {
+        return ((long) g << 32) | (h & 0xFFFFFFFFL);
+    }
+
+    /**
+     * This class implements a bucket of the search, i.e., the files of the states of a specified cost and heuristic
+     * value.
+     */
+    private static final class Bucket {
+
+        /**
+         * The cost of the states of the bucket.
+         */
+        private final int g;
+
+        /**
+         * The heuristic value of the states of the bucket.
+         */
+        private final int h;
+
+        /**
+         * The sorted runs of the states waiting for the expansion of the bucket.
+         */
+        private final List<StateFile> pending;
+
+        /**
+         * The sorted files of the states expanded in the bucket.
+         */
+        private final List<StateFile> expanded;
+
+        /**
+         * Creates a new empty bucket.
+         *
+         * @param g the cost of the states of the bucket.
+         * @param h the heuristic value of the states of the bucket.
+         */
+        private Bucket(final int g, final int h) {
+            this.g = g;
+            this.h = h;
+            this.pending = new ArrayList<>();
+            this.expanded = new ArrayList<>();
+        }
+    }
+
+    /**
+     * This class implements the visitor that expands the states produced by the merge of a bucket. Each state is
+     * written in the file of the expanded states of the bucket, tested against the goal and expanded: its successors
+     * are evaluated in batch and added to the sort buffer with the key of their bucket.
+     */
+    private final class Expander implements RecordVisitor {
+
+        /**
+         * The problem to solve.
+         */
+        private final Problem problem;
+
+        /**
+         * The number of words of the packed states.
+         */
+        private final int words;
+
+        /**
+         * The successor generator of the problem.
+         */
+        private final SuccessorGenerator generator;
+
+        /**
+         * The pruning of the applicable actions.
+         */
+        private final StubbornSets pruning;
+
+        /**
+         * The heuristic evaluator.
+         */
+        private final HeuristicEvaluator evaluator;
+
+        /**
+         * The factory of the runs of the buckets.
+         */
+        private final RunFactory factory;
+
+        /**
+         * The sort buffer of the successors.
+         */
+        private final SortBuffer buffer;
+
+        /**
+         * The state expanded.
+         */
+        private final State current;
+
+        /**
+         * The applicable actions of the state expanded.
+         */
+        private final int[] actions;
+
+        /**
+         * The successors of the state expanded.
+         */
+        private final State[] batch;
+
+        /**
+         * The heuristic values of the successors of the state expanded.
+         */
+        private final double[] values;
+
+        /**
+         * The cost of the bucket expanded.
+         */
+        private int cost;
+
+        /**
+         * The writer of the file of the states expanded in the bucket.
+         */
+        private StateFile.Writer writer;
+
+        /**
+         * The control of the search.
+         */
+        private SearchControl control;
+
+        /**
+         * The number of states expanded.
+         */
+        private long explored;
+
+        /**
+         * Whether the search was interrupted.
+         */
+        private boolean interrupted;
+
+        /**
+         * The goal state found or null.
+         */
+        private State goal;
+
+        /**
+         * The index of the action that leads to the goal state found.
+         */
+        private int goalAction;
+
+        /**
+         * The cost of the goal state found.
+         */
+        private int goalCost;
+
+        /**
+         * Creates a new expander.
+         *
+         * @param problem   the problem to solve.
+         * @param words     the number of words of the packed states.
+         * @param evaluator the heuristic evaluator.
+         * @param factory   the factory of the runs of the buckets.
+         */
+        private Expander(final Problem problem, final int words, final HeuristicEvaluator evaluator,
+                         final RunFactory factory) {
+            this.problem = problem;
+            this.words = words;
+            this.generator = SuccessorGenerator.getInstance(problem);
+            this.pruning = ExternalAStar.this.getStubbornSets(problem);
+            this.evaluator = evaluator;
+            this.factory = factory;
+            this.buffer = ExternalAStar.this.createSortBuffer(words);
+            this.current = new State();
+            this.actions = new int[this.generator.getNumberOfActions()];
+            this.batch = new State[this.actions.length];
+            for (int i = 0; i < this.batch.length; i++) {
+                this.batch[i] = new State();
+            }
+            this.values = new double[this.actions.length];
+            this.explored = 0;
+            this.interrupted = false;
+            this.goal = null;
+            this.goalAction = -1;
+            this.goalCost = 0;
+        }
+
+        /**
+         * Starts the expansion of a bucket.
+         *
+         * @param g       the cost of the bucket.
+         * @param out     the writer of the file of the states expanded in the bucket.
+         * @param control the control of the search.
+         */
+        private void start(final int g, final StateFile.Writer out, final SearchControl control) {
+            this.cost = g;
+            this.writer = out;
+            this.control = control;
+        }
+
+        /**
+         * Expands the state of a record produced by the merge of the bucket.
+         *
+         * @param record the record.
+         * @return {@code false} if a goal state was found or the search was interrupted; {@code true} otherwise.
+         * @throws IOException if the record cannot be written.
+         */
+        @Override
+        public boolean visit(final long[] record) throws IOException {
+            this.writer.write(record, 0);
+            this.current.setWords(record, 0, this.words);
+            if (this.current.satisfy(this.problem.getGoal())) {
+                this.goal = new State(this.current);
+                this.goalAction = (int) record[this.words];
+                this.goalCost = this.cost;
+                return false;
+            }
+            if (this.control.isInterrupted(this.explored)) {
+                this.interrupted = true;
+                return false;
+            }
+            this.explored++;
+            final int applicable = this.pruning.prune(this.current, this.actions,
+                this.generator.getApplicableActions(this.current, this.actions));
+            for (int i = 0; i < applicable; i++) {
+                this.generator.apply(this.actions[i], this.current, this.batch[i]);
+            }
+            ExternalAStar.this.setCreatedNodes(ExternalAStar.this.getCreatedNodes() + applicable);
+            this.evaluator.estimate(this.batch, applicable, this.values);
+            for (int i = 0; i < applicable; i++) {
+                if (this.values[i] != Integer.MAX_VALUE) {
+                    final int g = this.cost + (int) this.problem.getActions().get(this.actions[i]).getCost()
+                        .getValue();
+                    if (this.buffer.isFull()) {
+                        this.buffer.flush(this.factory);
+                    }
+                    this.buffer.add(ExternalAStar.key(g, (int) this.values[i]), this.batch[i], this.actions[i]);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class implements an external-memory Breadth First Search strategy. The layers of the search are stored in
+ * sorted files of packed states and the duplicates are removed with delayed duplicate detection (see
+ * {@link AbstractExternalSearch}): the successors of a layer are collected in sorted runs, which are merged and
+ * subtracted from all the previous layers to produce the next layer. Since the previous layers are all subtracted, the
+ * search is complete on directed state spaces. The states of a layer are tested against the goal when they are
+ * generated.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 26.11.2021
+ * @since 4.0
+ */
+public final class ExternalBreadthFirstSearch extends AbstractExternalSearch {
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(ExternalBreadthFirstSearch.class.getName());
+
+    /**
+     * Creates a new external-memory Breadth First Search strategy with default parameters.
+     */
+    public ExternalBreadthFirstSearch() {
+        super();
+    }
+
+    /**
+     * Creates a new external-memory Breadth First Search strategy.
+     *
+     * @param timeout the time out of the planner.
+     */
+    public ExternalBreadthFirstSearch(int timeout) {
+        super(timeout);
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        this.resetNodesStatistics();
+        Path working = null;
+        Node solution = null;
+        try {
+            working = this.createWorkingDirectory();
+            solution = this.search(codedProblem, working);
+        } catch (IOException e) {
+            LOGGER.error("* external breadth first search failed: " + e.getMessage() + "\n");
+        } finally {
+            this.deleteWorkingDirectory(working);
+        }
+        this.setSearchingTime(System.currentTimeMillis() - begin);
+        return solution;
+    }
+
+    /**
+     * Searches a solution plan with the files of the search written in a specified working directory.
+     *
+     * @param problem the problem to be solved.
+     * @param working the working directory.
+     * @return a solution search or null if it does not exist.
+     * @throws IOException if a file of the search cannot be written or read.
+     */
+    private Node search(final Problem problem, final Path working) throws IOException {
+        final int words = AbstractExternalSearch.getStateWords(problem);
+        final SuccessorGenerator generator = SuccessorGenerator.getInstance(problem);
+        final StubbornSets pruning = this.getStubbornSets(problem);
+        final SortBuffer buffer = this.createSortBuffer(words);
+        final List<StateFile> layers = new ArrayList<>();
+        final List<StateFile> runs = new ArrayList<>();
+        final RunFactory factory = key -> {
+            final StateFile run = new StateFile(working, words + 1);
+            runs.add(run);
+            return run;
+        };
+        final long[] record = new long[words + 1];
+
+        final State init = new State(problem.getInitialState());
+        final StateFile root = new StateFile(working, words + 1);
+        init.toLongArray(record, 0, words);
+        record[words] = -1;
+        try (StateFile.Writer writer = root.openWriter()) {
+            writer.write(record, 0);
+        }
+        layers.add(root);
+
+        final SearchControl control = this.startSearchControl();
+        final State current = new State();
+        final State next = new State();
+        final int[] actions = new int[generator.getNumberOfActions()];
+        State goal = init.satisfy(problem.getGoal()) ? init : null;
+        int goalAction = -1;
+        long explored = 0;
+        long closed = 0;
+        boolean interrupted = false;
+        while (goal == null && !interrupted) {
+            final StateFile layer = layers.get(layers.size() - 1);
+            try (StateFile.Reader reader = layer.openReader()) {
+                while (goal == null && !interrupted && reader.next()) {
+                    interrupted = control.isInterrupted(explored);
+                    if (control.isReportDue()) {
+                        control.report(explored, this.getCreatedNodes(), layer.size() + buffer.size(), closed,
+                            Double.NaN, layers.size() - 1, 0);
+                    }
+                    current.setWords(reader.getCurrent(), 0, words);
+                    explored++;
+                    final int applicable = pruning.prune(current, actions,
+                        generator.getApplicableActions(current, actions));
+                    for (int i = 0; i < applicable && goal == null && !interrupted; i++) {
+                        generator.apply(actions[i], current, next);
+                        this.setCreatedNodes(this.getCreatedNodes() + 1);
+                        if (next.satisfy(problem.getGoal())) {
+                            goal = new State(next);
+                            goalAction = actions[i];
+                        } else {
+                            if (buffer.isFull()) {
+                                buffer.flush(factory);
+                            }
+                            buffer.add(0, next, actions[i]);
+                        }
+                    }
+                }
+            }
+            if (goal == null && !interrupted) {
+                // Merge the successors of the layer and subtract the previous layers to get the next layer
+                buffer.flush(factory);
+                closed += layer.size();
+                final StateFile successors = new StateFile(working, words + 1);
+                try (StateFile.Writer writer = successors.openWriter()) {
+                    AbstractExternalSearch.merge(runs, layers, words, r -> {
+                        writer.write(r, 0);
+                        return true;
+                    });
+                }
+                runs.clear();
+                if (successors.size() == 0) {
+                    break;
+                }
+                layers.add(successors);
+            }
+        }
+        control.report(explored, this.getCreatedNodes(), 0, closed, Double.NaN, layers.size() - 1, 0);
+        this.setExploredNodes((int) Math.min(Integer.MAX_VALUE, explored));
+        this.setPendingNodes(0);
+        this.setMemoryUsed(buffer.getMemoryUsed());
+        this.debugMemoryUsed(buffer);
+        if (goal == null) {
+            return null;
+        }
+
+        // Rebuild the plan backward: the predecessor of a state of layer d + 1 is in layer d
+        final List<State> states = new ArrayList<>();
+        final List<Integer> path = new ArrayList<>();
+        final Set<State> visited = new HashSet<>();
+        State target = goal;
+        int action = goalAction;
+        int depth = layers.size() - 1;
+        states.add(target);
+        path.add(action);
+        while (action != -1) {
+            visited.add(target);
+            final State predecessor = new State();
+            if (AbstractExternalSearch.findPredecessor(Collections.singletonList(layers.get(depth)), target,
+                action, problem, generator, visited, predecessor, record) < 0) {
+                throw new IOException("predecessor not found in layer " + depth);
+            }
+            target = predecessor;
+            action = (int) record[words];
+            depth--;
+            states.add(target);
+            path.add(action);
+        }
+        Collections.reverse(states);
+        Collections.reverse(path);
+        return AbstractExternalSearch.toNode(states, path, problem);
+    }
+}
@@ -16,31 +16,69 @@
 package fr.uga.pddl4j.planners.statespace.search;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Objects;
-import java.util.Set;
 
 /**
- * This class implements Greedy Best First Search strategy.
+ * This class implements Greedy Best First Search strategy. The pending nodes are stored in an indexed priority queue
+ * ordered by heuristic value. Nodes with the same heuristic value are ordered according to the tie-breaking policy of
+ * the search (lowest cost first by default) and then by insertion order. The states explored and pending are stored in
+ * a {@link StateRegistry} and the search manipulates their integer identifiers instead of node objects.
+ * <p>
+ * The search can use the helpful actions computed by the heuristic (see {@link #setHelpfulActions}). When the helpful
+ * actions are pruned, only the successors reached by a helpful action are generated. When the helpful actions are
+ * preferred, the successors reached by a helpful action are also stored in a second pending list. The search
+ * alternates between the two pending lists and the preferred one is boosted each time the best heuristic value
+ * reached decreases as in the Fast Downward planner.
+ * </p>
  *
  * @author E. Hermellin
- * @version 1.0 - 01.06.2018
+ * @version 1.2 - 28.10.2021
  */
 public final class GreedyBestFirstSearch extends AbstractStateSpaceSearch {
 
+    /**
+     * The tie-breaking policies used to order nodes with the same heuristic value.
+     */
+    public enum TieBreaking {
+        /**
+         * The node with the lowest cost is expanded first. Nodes with the same cost are expanded in insertion order.
+         */
+        LOWEST_COST,
+        /**
+         * The nodes are expanded in insertion order.
+         */
+        INSERTION_ORDER,
+    }
+
+    /**
+     * The default tie-breaking policy.
+     */
+    public static final TieBreaking DEFAULT_TIE_BREAKING = TieBreaking.LOWEST_COST;
+
+    /**
+     * The priority boost given to the pending list of the preferred successors when the best heuristic value reached
+     * decreases.
+     */
+    private static final int PREFERRED_BOOST = 1000;
+
+    /**
+     * The tie-breaking policy of the search.
+     */
+    private TieBreaking tieBreaking;
+
     /**
      * Creates a new Greedy best First Search search strategy with default parameters.
      *
      */
     public GreedyBestFirstSearch() {
         super();
+        this.tieBreaking = GreedyBestFirstSearch.DEFAULT_TIE_BREAKING;
     }
 
     /**
@@ -52,11 +90,31 @@ public final class GreedyBestFirstSearch extends AbstractStateSpaceSearch {
      */
     public GreedyBestFirstSearch(int timeout, StateHeuristic.Name heuristic, double weight) {
         super(timeout, heuristic, weight);
+        this.tieBreaking = GreedyBestFirstSearch.DEFAULT_TIE_BREAKING;
+    }
+
+    /**
+     * Returns the tie-breaking policy of the search.
+     *
+     * @return the tie-breaking policy of the search.
+     */
+    public final TieBreaking getTieBreaking() {
+        return this.tieBreaking;
+    }
+
+    /**
+     * Sets the tie-breaking policy of the search.
+     *
+     * @param tieBreaking the tie-breaking policy. The tie-breaking policy cannot be null.
+     */
+    public final void setTieBreaking(final TieBreaking tieBreaking) {
+        Objects.requireNonNull(tieBreaking);
+        this.tieBreaking = tieBreaking;
     }
 
     /**
      * The greedy best first search algorithm. Solves the planning problem and returns the first solution plan found.
-     * This method must be completed.
+     * A successor already closed is pruned. A successor already pending is updated if a cheaper path to it is found.
      *
      * @param codedProblem the problem to be solved. The problem cannot be null.
      * @return a solution plan or null if it does not exist.
@@ -65,81 +123,170 @@ public final class GreedyBestFirstSearch extends AbstractStateSpaceSearch {
         Objects.requireNonNull(codedProblem);
         final long begin = System.currentTimeMillis();
 
-        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
-        final Set<Node> closeSet = new HashSet<>();
-        final Set<Node> openSet = new HashSet<>();
-        final long timeout = this.getTimeout() * 1000;
-
-        State init = new State(codedProblem.getInitialState());
-        Node root = new Node(init, null, 0, 0, heuristic.estimate(init, codedProblem.getGoal()));
-        root.setDepth(0);
-        openSet.add(root);
-
-        this.resetNodesStatistics();
-        Node solution = null;
-        long searchingTime = 0;
-        while (!openSet.isEmpty() && solution == null && searchingTime < timeout) {
-            // Pop the first node in the pending list open
-            final Node current = popPriorityNode(openSet);
-
-            if (current.satisfy(codedProblem.getGoal())) {
-                solution = current;
-            } else {
-                closeSet.add(current);
-                int index = 0;
-                for (Action op : codedProblem.getActions()) {
-
-                    // Test if a specified operator is applicable in the current state
-                    if (op.isApplicable(current)) {
-                        final State nextState = new State(current);
-                        op.getConditionalEffects().stream().filter(ce -> current.satisfy(ce.getCondition()))
-                            .forEach(ce -> nextState.apply(ce.getEffect()));
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final StateRegistry registry = new StateRegistry(ZobristHash.getInstance(codedProblem));
+            final IntIndexedPriorityQueue open = new IntIndexedPriorityQueue(this.getComparator(registry));
+            // The pending states reached by a helpful action when the helpful actions are preferred. Each of them is
+            // also stored in the pending list open.
+            final IntIndexedPriorityQueue preferred = new IntIndexedPriorityQueue(this.getComparator(registry));
+
+            final State init = new State(codedProblem.getInitialState());
+            final int root = registry.insert(init);
+            registry.setPath(root, -1, -1, 0, 0);
+            registry.setHeuristic(root, evaluator.estimate(init, registry.getHash(root), root, -1));
+            open.add(root);
+
+            this.resetNodesStatistics();
+            int solution = -1;
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            // The best heuristic value reached and the value of the evaluation function of the last state expanded
+            double bestHeuristic = registry.getHeuristic(root);
+            double layer = Double.NaN;
+            final State current = new State();
+            final State next = new State();
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final int[] actions = new int[generator.getNumberOfActions()];
+            final State[] batch = new State[actions.length];
+            final int[] batchIds = new int[actions.length];
+            final long[] batchHashes = new long[actions.length];
+            final double[] batchValues = new double[actions.length];
+            final boolean[] batchPreferred = new boolean[actions.length];
+            final int[] helpfulActions = new int[actions.length];
+            final boolean[] helpful = new boolean[actions.length];
+            // The helpful actions are ignored if the heuristic does not compute them
+            HelpfulActions mode = this.getHelpfulActions();
+            if (mode != HelpfulActions.IGNORE && evaluator.getHelpfulActions(init, helpfulActions) < 0) {
+                mode = HelpfulActions.IGNORE;
+            }
+            int nbHelpful = 0;
+            // The priorities of the pending lists: the list with the lowest priority is polled first
+            int openPriority = 0;
+            int preferredPriority = 0;
+            while (!open.isEmpty() && solution == -1 && !control.isInterrupted(expanded)) {
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(),
+                        bestHeuristic, layer, evaluator.getTime());
+                }
+                expanded++;
+                this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed() + preferred.getMemoryUsed());
+                // Pop the first state of the pending list with the lowest priority
+                final int currentId;
+                if (!preferred.isEmpty() && preferredPriority <= openPriority) {
+                    currentId = preferred.poll();
+                    open.remove(currentId);
+                    preferredPriority++;
+                } else {
+                    currentId = open.poll();
+                    preferred.remove(currentId);
+                    openPriority++;
+                }
+                registry.getState(currentId, current);
+                layer = registry.getValueF(currentId, this.getWeight());
+                if (registry.getHeuristic(currentId) < bestHeuristic) {
+                    bestHeuristic = registry.getHeuristic(currentId);
+                    preferredPriority -= GreedyBestFirstSearch.PREFERRED_BOOST;
+                }
+
+                if (current.satisfy(codedProblem.getGoal())) {
+                    solution = currentId;
+                } else {
+                    final double currentCost = registry.getCost(currentId);
+                    final int depth = registry.getDepth(currentId) + 1;
+                    // The new successors are evaluated in batch once all the successors are generated
+                    final int first = registry.size();
+                    int count = 0;
+                    if (mode != HelpfulActions.IGNORE) {
+                        // Mark the helpful actions of the current state instead of those of the previous one
+                        for (int i = 0; i < nbHelpful; i++) {
+                            helpful[helpfulActions[i]] = false;
+                        }
+                        nbHelpful = Math.max(0, evaluator.getHelpfulActions(current, helpfulActions));
+                        for (int i = 0; i < nbHelpful; i++) {
+                            helpful[helpfulActions[i]] = true;
+                        }
+                    }
+                    final int applicable = pruning.prune(current, actions,
+                        generator.getApplicableActions(current, actions));
+                    for (int i = 0; i < applicable; i++) {
+                        final int index = actions[i];
+                        if (mode == HelpfulActions.PRUNE && !helpful[index]) {
+                            continue;
+                        }
+                        final boolean isPreferred = mode == HelpfulActions.PREFER && helpful[index];
+                        final Action op = codedProblem.getActions().get(index);
                         // Apply the effect of the applicable operator
-                        final Node successor = new Node(nextState);
+                        final long hash = generator.apply(index, current, registry.getHash(currentId), next,
+                            registry.getHashFunction());
                         this.setCreatedNodes(this.getCreatedNodes() + 1);
-                        successor.setCost(current.getCost() + op.getCost().getValue());
-                        successor.setHeuristic(heuristic.estimate(nextState, codedProblem.getGoal()));
-                        successor.setParent(current);
-                        successor.setAction(index);
-                        successor.setDepth(current.getDepth() + 1);
-                        openSet.add(successor);
+                        final double g = currentCost + op.getCost().getValue();
+                        final int id = registry.insert(next, hash);
+                        if (id >= 0) {
+                            registry.setPath(id, currentId, index, g, depth);
+                            if (batch[count] == null) {
+                                batch[count] = new State();
+                            }
+                            batch[count].clear();
+                            batch[count].or(next);
+                            batchPreferred[count] = isPreferred;
+                            batchHashes[count] = hash;
+                            batchIds[count++] = id;
+                        } else {
+                            // Duplicate detection: closed states are never reopened
+                            final int known = -(id + 1);
+                            if ((known >= first || open.contains(known)) && g < registry.getCost(known)) {
+                                registry.setPath(known, currentId, index, g, depth);
+                                open.update(known);
+                                if (preferred.contains(known)) {
+                                    preferred.update(known);
+                                } else if (isPreferred && open.contains(known)) {
+                                    preferred.add(known);
+                                }
+                            }
+                        }
+                    }
+                    evaluator.estimate(batch, batchHashes, batchIds, currentId, count, batchValues);
+                    for (int i = 0; i < count; i++) {
+                        registry.setHeuristic(batchIds[i], batchValues[i]);
+                        open.add(batchIds[i]);
+                        if (batchPreferred[i]) {
+                            preferred.add(batchIds[i]);
+                        }
                     }
-                    index++;
                 }
             }
-            // Take time to compute the searching time
-            long end = System.currentTimeMillis();
-            searchingTime = end - begin;
-        }
 
-        this.setExploredNodes(closeSet.size());
-        this.setPendingNodes(openSet.size());
-        this.setMemoryUsed(GraphLayout.parseInstance(closeSet).totalSize()
-            + GraphLayout.parseInstance(openSet).totalSize());
-        this.setSearchingTime(searchingTime);
+            control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(), bestHeuristic,
+                layer, evaluator.getTime());
+            this.setExploredNodes(registry.size() - open.size());
+            this.setPendingNodes(open.size());
+            this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed() + preferred.getMemoryUsed());
+            this.debugMemoryUsed(registry, open, preferred);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
 
-        return solution;
+            return registry.toNode(solution);
+        }
     }
 
     /**
-     * Get a node from a list of nodes.
+     * Returns the comparator used to order the pending states according to the heuristic value and the tie-breaking
+     * policy of the search.
      *
-     * @param states the list of nodes (successors).
-     * @return the node from the list.
+     * @param registry the registry that stores the states.
+     * @return the comparator used to order the pending states.
      */
-    private Node popPriorityNode(Collection<Node> states) {
-        Node state = null;
-        if (!states.isEmpty()) {
-            final Iterator<Node> i = states.iterator();
-            state = i.next();
-            while (i.hasNext()) {
-                final Node next = i.next();
-                if (next.getHeuristic() < state.getHeuristic()) {
-                    state = next;
-                }
-            }
-            states.remove(state);
+    private IntIndexedPriorityQueue.IntComparator getComparator(final StateRegistry registry) {
+        switch (this.tieBreaking) {
+            case LOWEST_COST:
+                return (s1, s2) -> {
+                    final int cmp = Double.compare(registry.getHeuristic(s1), registry.getHeuristic(s2));
+                    return cmp != 0 ? cmp : Double.compare(registry.getCost(s1), registry.getCost(s2));
+                };
+            case INSERTION_ORDER:
+            default:
+                return (s1, s2) -> Double.compare(registry.getHeuristic(s1), registry.getHeuristic(s2));
         }
-        return state;
     }
 }
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.CachedStateHeuristic;
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
+import fr.uga.pddl4j.util.MemoryEstimator;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class implements a shared memory version of the Hash Distributed A* search strategy (HDA*) as described in A.
+ * Kishimoto, A. Fukunaga and A. Botea, Evaluation of a simple, scalable, parallel best-first search strategy,
+ * Artificial Intelligence, 195:222-248, 2013.
+ * <p>
+ * The state space is partitioned between several worker threads according to the {@link ZobristHash} of the states.
+ * Each worker owns the states of its partition: it stores them in its own {@link StateRegistry}, keeps its own open
+ * list and is the only one to evaluate their heuristic value. The successors of a state that belong to another
+ * partition are sent to their owner through a lock-free mailbox. When a worker expands a goal state, the cost of the
+ * state becomes the new incumbent cost if it is lower than the previous one. The workers only expand the states whose
+ * value f is lower than the incumbent cost. Thus, the plan returned is optimal if the heuristic is admissible and the
+ * weight is 1.0.
+ * </p>
+ * <p>
+ * The termination is detected with a single counter that sums the number of busy workers and the number of messages
+ * sent but not yet processed. A message is counted before being sent and a worker becomes busy before a received
+ * message is uncounted. Thus, the counter can only reach zero when no worker has any state to expand and no message is
+ * in transit, and it never leaves zero afterwards.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.11.2021
+ */
+public final class HDAStar extends AbstractStateSpaceSearch {
+
+    /**
+     * The initial number of states of a worker for which the owner of the parent can be stored.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The number of states explored by each thread during the last search.
+     */
+    private int[] exploredNodesPerThread;
+
+    /**
+     * The workers of the current search.
+     */
+    private Worker[] workers;
+
+    /**
+     * The counter used to detect the termination of the current search.
+     */
+    private AtomicInteger work;
+
+    /**
+     * The flag used to stop the workers of the current search.
+     */
+    private volatile boolean stop;
+
+    /**
+     * The cost of the best solution found so far.
+     */
+    private volatile double incumbent;
+
+    /**
+     * The worker that owns the best solution found so far or -1 if no solution was found.
+     */
+    private int solutionWorker;
+
+    /**
+     * The identifier of the best solution found so far in the registry of its owner.
+     */
+    private int solutionState;
+
+    /**
+     * Creates a new HDA* search strategy with default parameters. The search uses one thread per available processor.
+     */
+    public HDAStar() {
+        super();
+        this.setNumberOfThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new HDA* search strategy. The search uses one thread per available processor.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public HDAStar(int timeout, StateHeuristic.Name heuristic, double weight) {
+        this(timeout, heuristic, weight, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new HDA* search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     * @param threads   the number of threads used by the search.
+     */
+    public HDAStar(int timeout, StateHeuristic.Name heuristic, double weight, int threads) {
+        super(timeout, heuristic, weight);
+        this.setNumberOfThreads(threads);
+    }
+
+    /**
+     * Returns the number of states explored by each thread during the last search.
+     *
+     * @return the number of states explored by each thread during the last search.
+     */
+    @Override
+    public int[] getExploredNodesPerThread() {
+        return this.exploredNodesPerThread == null ? super.getExploredNodesPerThread()
+            : this.exploredNodesPerThread.clone();
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        final int n = this.getNumberOfThreads();
+        final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+        final ZobristHash zobrist = ZobristHash.getInstance(codedProblem);
+        this.work = new AtomicInteger(n);
+        this.stop = false;
+        this.incumbent = Double.POSITIVE_INFINITY;
+        this.solutionWorker = -1;
+        this.solutionState = -1;
+        // The heuristics are not thread safe: each worker uses its own instance
+        this.workers = new Worker[n];
+        final HeuristicCache cache = this.getHeuristicCache();
+        for (int i = 0; i < n; i++) {
+            final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
+            this.workers[i] = new Worker(i, codedProblem, generator, zobrist,
+                cache == null ? heuristic : new CachedStateHeuristic(heuristic, cache));
+        }
+        this.resetNodesStatistics();
+        // Register the initial state in the partition of its owner
+        final State init = new State(codedProblem.getInitialState());
+        final long hash = zobrist.hash(init);
+        this.workers[this.getOwner(hash)].register(init, hash, 0.0, -1, -1, -1, 0);
+        // Start of the search
+        final SearchControl control = this.startSearchControl();
+        final Thread[] threads = new Thread[n];
+        final Throwable[] errors = new Throwable[n];
+        for (int i = 0; i < n; i++) {
+            final Worker worker = this.workers[i];
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    worker.run(control);
+                } catch (Throwable e) {
+                    errors[index] = e;
+                    this.stop = true;
+                }
+            }, "HDA*-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                this.stop = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Throwable error : errors) {
+            if (error != null) {
+                throw new IllegalStateException("HDA* worker failure", error);
+            }
+        }
+
+        // Collect the statistics of the workers
+        this.exploredNodesPerThread = new int[n];
+        int explored = 0;
+        int pending = 0;
+        int created = 0;
+        long memory = 0;
+        final Object[] structures = new Object[2 * n];
+        for (int i = 0; i < n; i++) {
+            final Worker worker = this.workers[i];
+            this.exploredNodesPerThread[i] = worker.explored;
+            explored += worker.explored;
+            pending += worker.open.size();
+            created += worker.created;
+            memory += worker.registry.getMemoryUsed() + worker.open.getMemoryUsed()
+                + MemoryEstimator.sizeOfArray(worker.parentWorkers.length, Integer.BYTES);
+            structures[2 * i] = worker.registry;
+            structures[2 * i + 1] = worker.open;
+        }
+        this.setExploredNodes(explored);
+        this.setPendingNodes(pending);
+        this.setCreatedNodes(created);
+        this.setMemoryUsed(memory);
+        this.debugMemoryUsed(structures);
+        this.report(control);
+        this.setSearchingTime(System.currentTimeMillis() - begin);
+
+        final Node solution = this.solutionWorker == -1 ? null : this.toNode(this.solutionWorker, this.solutionState);
+        this.workers = null;
+        return solution;
+    }
+
+    /**
+     * Reports the progress of the search to a control. The counters of the workers are summed without
+     * synchronization: while the search is running, they may be slightly out of date. The heuristic time reported is
+     * the average time spent by a worker.
+     *
+     * @param control the control of the search.
+     */
+    private void report(final SearchControl control) {
+        long explored = 0;
+        long created = 0;
+        long pending = 0;
+        long heuristicTime = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (Worker worker : this.workers) {
+            explored += worker.explored;
+            created += worker.created;
+            pending += worker.open.size();
+            heuristicTime += worker.heuristicTime;
+            best = Math.min(best, worker.bestHeuristic);
+        }
+        control.report(explored, created, pending, explored, best, this.workers[0].layer,
+            heuristicTime / (this.workers.length * 1000000L));
+    }
+
+    /**
+     * Returns the worker that owns a state.
+     *
+     * @param hash the hash of the state.
+     * @return the worker that owns a state.
+     */
+    private int getOwner(final long hash) {
+        // The high bits of the hash are used because the low bits are used by the hash tables of the registries
+        return (int) (((hash >>> 32) * this.workers.length) >>> 32);
+    }
+
+    /**
+     * Records a new solution if its cost is lower than the cost of the best solution found so far.
+     *
+     * @param cost   the cost of the solution.
+     * @param worker the worker that owns the solution.
+     * @param state  the identifier of the solution in the registry of its owner.
+     */
+    private synchronized void setSolution(final double cost, final int worker, final int state) {
+        if (cost < this.incumbent) {
+            this.incumbent = cost;
+            this.solutionWorker = worker;
+            this.solutionState = state;
+        }
+    }
+
+    /**
+     * Builds the search node of a state. The parents of the state are followed across the registries of the workers.
+     *
+     * @param worker the worker that owns the state.
+     * @param state  the identifier of the state in the registry of its owner.
+     * @return the search node of the state.
+     */
+    private Node toNode(final int worker, final int state) {
+        int length = 0;
+        for (int w = worker, s = state; s != -1; length++) {
+            final Worker owner = this.workers[w];
+            w = owner.parentWorkers[s];
+            s = owner.registry.getParent(s);
+        }
+        final int[] pathWorkers = new int[length];
+        final int[] pathStates = new int[length];
+        for (int i = length - 1, w = worker, s = state; i >= 0; i--) {
+            pathWorkers[i] = w;
+            pathStates[i] = s;
+            final Worker owner = this.workers[w];
+            w = owner.parentWorkers[s];
+            s = owner.registry.getParent(s);
+        }
+        Node node = null;
+        for (int i = 0; i < length; i++) {
+            final StateRegistry registry = this.workers[pathWorkers[i]].registry;
+            final int s = pathStates[i];
+            node = new Node(registry.getState(s), node, registry.getAction(s), registry.getCost(s),
+                registry.getDepth(s), registry.getHeuristic(s));
+        }
+        return node;
+    }
+
+    /**
+     * This class implements a message used to send a state to its owner.
+     */
+    private static final class Message {
+
+        /**
+         * The packed words of the state.
+         */
+        private final long[] state;
+
+        /**
+         * The hash of the state.
+         */
+        private final long hash;
+
+        /**
+         * The cost of the state.
+         */
+        private final double cost;
+
+        /**
+         * The identifier of the parent of the state in the registry of its owner.
+         */
+        private final int parent;
+
+        /**
+         * The worker that owns the parent of the state.
+         */
+        private final int parentWorker;
+
+        /**
+         * The action used to reach the state from its parent.
+         */
+        private final int action;
+
+        /**
+         * The depth of the state.
+         */
+        private final int depth;
+
+        /**
+         * Creates a new message.
+         *
+         * @param state  the packed words of the state.
+         * @param hash   the hash of the state.
+         * @param cost   the cost of the state.
+         * @param parent       the identifier of the parent of the state in the registry of its owner.
+         * @param parentWorker the worker that owns the parent of the state.
+         * @param action       the action used to reach the state from its parent.
+         * @param depth        the depth of the state.
+         */
+        private Message(final long[] state, final long hash, final double cost, final int parent,
+                        final int parentWorker, final int action, final int depth) {
+            this.state = state;
+            this.hash = hash;
+            this.cost = cost;
+            this.parent = parent;
+            this.parentWorker = parentWorker;
+            this.action = action;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * This class implements a worker of the search. The parent of a state is identified by the worker that owns it and
+     * by its identifier in the registry of this worker. The identifier is stored in the registry of the worker and the
+     * owner in a parallel array, so the identifiers of the states of a worker can use the whole range of integers.
+     */
+    private final class Worker {
+
+        /**
+         * The index of the worker.
+         */
+        private final int index;
+
+        /**
+         * The problem to solve.
+         */
+        private final Problem problem;
+
+        /**
+         * The goal of the problem.
+         */
+        private final Condition goal;
+
+        /**
+         * The successor generator of the problem.
+         */
+        private final SuccessorGenerator generator;
+
+        /**
+         * The pruning of the applicable actions.
+         */
+        private final StubbornSets pruning;
+
+        /**
+         * The hash function of the states.
+         */
+        private final ZobristHash zobrist;
+
+        /**
+         * The heuristic of the worker.
+         */
+        private final StateHeuristic heuristic;
+
+        /**
+         * The registry of the states owned by the worker.
+         */
+        private final StateRegistry registry;
+
+        /**
+         * The worker that owns the parent of each state of the registry or -1 if the state has no parent.
+         */
+        private int[] parentWorkers;
+
+        /**
+         * The open list of the worker.
+         */
+        private final IntIndexedPriorityQueue open;
+
+        /**
+         * The mailbox of the worker.
+         */
+        private final ConcurrentLinkedQueue<Message> mailbox;
+
+        /**
+         * The state used to decode the state expanded.
+         */
+        private final State current;
+
+        /**
+         * The state used to compute the successors and to decode the states received.
+         */
+        private final State next;
+
+        /**
+         * The buffer used to store the actions applicable in the state expanded.
+         */
+        private final int[] actions;
+
+        /**
+         * The number of states explored by the worker.
+         */
+        private int explored;
+
+        /**
+         * The number of states created by the worker.
+         */
+        private int created;
+
+        /**
+         * The best heuristic value of the states expanded by the worker.
+         */
+        private double bestHeuristic;
+
+        /**
+         * The value of the evaluation function of the last state expanded by the worker.
+         */
+        private double layer;
+
+        /**
+         * The time spent by the worker to compute the heuristic in nanoseconds.
+         */
+        private long heuristicTime;
+
+        /**
+         * Creates a new worker.
+         *
+         * @param index     the index of the worker.
+         * @param problem   the problem to solve.
+         * @param generator the successor generator of the problem.
+         * @param zobrist   the hash function of the states.
+         * @param heuristic the heuristic of the worker.
+         */
+        private Worker(final int index, final Problem problem, final SuccessorGenerator generator,
+                       final ZobristHash zobrist, final StateHeuristic heuristic) {
+            this.index = index;
+            this.problem = problem;
+            this.goal = problem.getGoal();
+            this.generator = generator;
+            this.pruning = HDAStar.this.getStubbornSets(problem);
+            this.zobrist = zobrist;
+            this.heuristic = heuristic;
+            this.registry = new StateRegistry(zobrist);
+            this.parentWorkers = new int[HDAStar.INITIAL_CAPACITY];
+            final double weight = HDAStar.this.getWeight();
+            this.open = new IntIndexedPriorityQueue((s1, s2) ->
+                Double.compare(this.registry.getValueF(s1, weight), this.registry.getValueF(s2, weight)));
+            this.mailbox = new ConcurrentLinkedQueue<>();
+            this.current = new State();
+            this.next = new State();
+            this.actions = new int[generator.getNumberOfActions()];
+            this.explored = 0;
+            this.created = 0;
+            this.bestHeuristic = Double.POSITIVE_INFINITY;
+            this.layer = Double.NaN;
+            this.heuristicTime = 0;
+        }
+
+        /**
+         * Runs the worker until the termination of the search, the interruption of the search by its control or the
+         * stop of the search.
+         *
+         * @param control the control of the search.
+         */
+        private void run(final SearchControl control) {
+            final HDAStar search = HDAStar.this;
+            final double weight = search.getWeight();
+            // A worker is counted busy when it starts
+            boolean busy = true;
+            while (!search.stop) {
+                Message message;
+                while ((message = this.mailbox.poll()) != null) {
+                    if (!busy) {
+                        busy = true;
+                        search.work.incrementAndGet();
+                    }
+                    this.next.setWords(message.state, 0, message.state.length);
+                    this.register(this.next, message.hash, message.cost, message.parent, message.parentWorker,
+                        message.action, message.depth);
+                    search.work.decrementAndGet();
+                }
+                final int head = this.open.peek();
+                if (head != -1 && this.registry.getValueF(head, weight) < search.incumbent) {
+                    if (!busy) {
+                        busy = true;
+                        search.work.incrementAndGet();
+                    }
+                    this.expand(this.open.poll());
+                } else {
+                    if (busy) {
+                        busy = false;
+                        search.work.decrementAndGet();
+                    }
+                    if (search.work.get() == 0) {
+                        break;
+                    }
+                    Thread.yield();
+                }
+                // The workers are balanced by the hash of the states: the number of nodes expanded by the search is
+                // estimated from the nodes expanded by this worker
+                if (control.isInterrupted((long) this.explored * search.workers.length)) {
+                    search.stop = true;
+                }
+                // The progress of the search is reported by the first worker
+                if (this.index == 0 && control.isReportDue()) {
+                    search.report(control);
+                }
+            }
+        }
+
+        /**
+         * Expands a state of the worker.
+         *
+         * @param id the identifier of the state.
+         */
+        private void expand(final int id) {
+            this.explored++;
+            this.registry.getState(id, this.current);
+            this.layer = this.registry.getValueF(id, HDAStar.this.getWeight());
+            this.bestHeuristic = Math.min(this.bestHeuristic, this.registry.getHeuristic(id));
+            final double cost = this.registry.getCost(id);
+            if (this.current.satisfy(this.goal)) {
+                HDAStar.this.setSolution(cost, this.index, id);
+                return;
+            }
+            final Worker[] workers = HDAStar.this.workers;
+            final int depth = this.registry.getDepth(id) + 1;
+            final long hash = this.registry.getHash(id);
+            final int applicable = this.pruning.prune(this.current, this.actions,
+                this.generator.getApplicableActions(this.current, this.actions));
+            for (int i = 0; i < applicable; i++) {
+                final int action = this.actions[i];
+                final long successor = this.generator.apply(action, this.current, hash, this.next, this.zobrist);
+                this.created++;
+                final double g = cost + this.problem.getActions().get(action).getCost().getValue();
+                // The heuristic is positive so a successor cannot improve the incumbent if its cost is greater
+                if (g >= HDAStar.this.incumbent) {
+                    continue;
+                }
+                final int owner = HDAStar.this.getOwner(successor);
+                if (owner == this.index) {
+                    this.register(this.next, successor, g, id, this.index, action, depth);
+                } else {
+                    final long[] words = new long[this.registry.getWordsPerState()];
+                    this.next.toLongArray(words, 0, words.length);
+                    // The message is counted before being sent to prevent a premature termination
+                    HDAStar.this.work.incrementAndGet();
+                    workers[owner].mailbox.offer(new Message(words, successor, g, id, this.index, action, depth));
+                }
+            }
+        }
+
+        /**
+         * Registers a state owned by the worker reached with a specified cost. The state is added to the open list if
+         * it is new or if its cost is improved.
+         *
+         * @param state  the state.
+         * @param hash   the hash of the state.
+         * @param cost   the cost of the state.
+         * @param parent       the identifier of the parent of the state in the registry of its owner or -1 if the
+         *                     state has no parent.
+         * @param parentWorker the worker that owns the parent of the state or -1 if the state has no parent.
+         * @param action       the action used to reach the state from its parent.
+         * @param depth        the depth of the state.
+         */
+        private void register(final State state, final long hash, final double cost, final int parent,
+                              final int parentWorker, final int action, final int depth) {
+            final int id = this.registry.insert(state, hash);
+            if (id >= 0) {
+                if (id == this.parentWorkers.length) {
+                    this.parentWorkers = Arrays.copyOf(this.parentWorkers, id + (id >> 1) + 1);
+                }
+                this.parentWorkers[id] = parentWorker;
+                this.registry.setPath(id, parent, action, cost, depth);
+                final long begin = System.nanoTime();
+                // The cached values are looked up with the hash of the state already computed
+                this.registry.setHeuristic(id, this.heuristic instanceof CachedStateHeuristic
+                    ? ((CachedStateHeuristic) this.heuristic).estimateCost(state, hash, this.goal)
+                    : this.heuristic.estimateCost(state, this.goal));
+                this.heuristicTime += System.nanoTime() - begin;
+                this.open.add(id);
+            } else {
+                final int known = -(id + 1);
+                if (cost < this.registry.getCost(known)) {
+                    this.parentWorkers[known] = parentWorker;
+                    this.registry.setPath(known, parent, action, cost, depth);
+                    // Update the state if it is pending or reopen it if it was explored
+                    if (!this.open.update(known)) {
+                        this.open.add(known);
+                    }
+                }
+            }
+        }
+    }
+}
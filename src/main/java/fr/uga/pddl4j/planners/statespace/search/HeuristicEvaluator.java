@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.CachedStateHeuristic;
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements a batched evaluator of heuristic values. The states of a batch, typically the successors of
+ * an expanded node, are evaluated in parallel on a fork/join pool. The heuristics hold mutable scratch arrays and are
+ * not thread safe, so each thread of the pool uses its own heuristic instance. When the evaluator uses a single
+ * thread, the states are evaluated in the calling thread and no pool is created.
+ * <p>
+ * The states are evaluated with {@link StateHeuristic#estimateCost(State, Condition)} so that the heuristics that take
+ * into account the costs of the actions return real values. The nodes are evaluated with
+ * {@link StateHeuristic#estimate(Node, Condition)} so that the heuristics that track information along the path of
+ * a node, e.g., the landmarks accepted, can use the parent of the node. The states registered by a search can be
+ * evaluated with their index in the registry and the index of their parent with
+ * {@link StateHeuristic#estimateCost(State, int, int, Condition)} so that these heuristics can use the parent of the
+ * states too. The heuristic instances of the threads are shared with {@link StateHeuristic#share()} and thus share the
+ * information stored per state.
+ * </p>
+ * <p>
+ * When the heuristic values are cached, the states can be evaluated with their Zobrist hash, e.g., the hash of the
+ * states in the registry of the search, so that the cache does not compute the hash of the states again.
+ * </p>
+ * <p>
+ * The evaluator must be closed at the end of the search to release the threads of the pool.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 12.11.2021
+ */
+public final class HeuristicEvaluator implements AutoCloseable {
+
+    /**
+     * The goal of the problem.
+     */
+    private final Condition goal;
+
+    /**
+     * The number of threads of the evaluator.
+     */
+    private final int threads;
+
+    /**
+     * The heuristic used when the evaluator is single-threaded.
+     */
+    private final StateHeuristic heuristic;
+
+    /**
+     * The heuristic instance from which the instances of the threads of the pool are shared or null if the evaluator
+     * is single-threaded.
+     */
+    private final StateHeuristic shared;
+
+    /**
+     * The pool used to evaluate the batches or null if the evaluator is single-threaded.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The heuristic instances built in advance and not yet taken by a thread of the pool.
+     */
+    private final ConcurrentLinkedQueue<StateHeuristic> instances;
+
+    /**
+     * The heuristic instance of each thread of the pool.
+     */
+    private final ThreadLocal<StateHeuristic> local;
+
+    /**
+     * The time spent to evaluate the states in nanoseconds.
+     */
+    private long time;
+
+    /**
+     * Creates a new evaluator.
+     *
+     * @param name    the name of the heuristic.
+     * @param problem the problem to solve.
+     * @param threads the number of threads of the evaluator.
+     * @throws NullPointerException if <code>name == null</code> or <code>problem == null</code>.
+     * @throws IllegalArgumentException if <code>threads &lt; 1</code>.
+     */
+    public HeuristicEvaluator(final StateHeuristic.Name name, final Problem problem, final int threads) {
+        this(name, problem, threads, null);
+    }
+
+    /**
+     * Creates a new evaluator whose heuristic values are stored in a cache. The cache is shared by the threads of the
+     * evaluator.
+     *
+     * @param name    the name of the heuristic.
+     * @param problem the problem to solve.
+     * @param threads the number of threads of the evaluator.
+     * @param cache   the cache of the heuristic values or null if the values are not cached.
+     * @throws NullPointerException if <code>name == null</code> or <code>problem == null</code>.
+     * @throws IllegalArgumentException if <code>threads &lt; 1</code>.
+     * @see CachedStateHeuristic
+     */
+    public HeuristicEvaluator(final StateHeuristic.Name name, final Problem problem, final int threads,
+                              final HeuristicCache cache) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(problem);
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1");
+        }
+        this.goal = problem.getGoal();
+        this.threads = threads;
+        this.instances = new ConcurrentLinkedQueue<>();
+        if (threads == 1) {
+            this.heuristic = HeuristicEvaluator.newInstance(name, problem, cache);
+            this.shared = null;
+            this.pool = null;
+            this.local = null;
+        } else {
+            // The instances are copies sharing the graph precomputed for the problem and the information stored per
+            // state
+            this.shared = HeuristicEvaluator.newInstance(name, problem, cache);
+            this.instances.add(this.shared);
+            for (int i = 1; i < threads; i++) {
+                this.instances.add(this.shared.share());
+            }
+            this.heuristic = null;
+            this.pool = new ForkJoinPool(threads);
+            this.local = ThreadLocal.withInitial(this::takeInstance);
+        }
+        this.time = 0;
+    }
+
+    /**
+     * Creates a heuristic instance whose values are stored in a cache.
+     *
+     * @param name    the name of the heuristic.
+     * @param problem the problem to solve.
+     * @param cache   the cache of the heuristic values or null if the values are not cached.
+     * @return the heuristic instance.
+     */
+    private static StateHeuristic newInstance(final StateHeuristic.Name name, final Problem problem,
+                                              final HeuristicCache cache) {
+        final StateHeuristic heuristic = StateHeuristic.getInstance(name, problem);
+        return cache == null ? heuristic : new CachedStateHeuristic(heuristic, cache);
+    }
+
+    /**
+     * Returns the number of threads of the evaluator.
+     *
+     * @return the number of threads of the evaluator.
+     */
+    public int getNumberOfThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Returns the time spent to evaluate the states in milliseconds, i.e., the wall-clock time of the calls to the
+     * evaluation methods.
+     *
+     * @return the time spent to evaluate the states.
+     */
+    public long getTime() {
+        return this.time / 1000000L;
+    }
+
+    /**
+     * Returns the heuristic value of a single state. The state is evaluated in the calling thread.
+     *
+     * @param state the state.
+     * @return the heuristic value of the state.
+     */
+    public double estimate(final State state) {
+        return this.estimate(state, -1, -1);
+    }
+
+    /**
+     * Returns the heuristic value of a single state registered by a search. The state is evaluated in the calling
+     * thread.
+     *
+     * @param state  the state.
+     * @param id     the index of the state in the registry of the search.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @return the heuristic value of the state.
+     * @see StateHeuristic#estimateCost(State, int, int, Condition)
+     */
+    public double estimate(final State state, final int id, final int parent) {
+        return this.estimate(state, false, 0L, id, parent);
+    }
+
+    /**
+     * Returns the heuristic value of a single state registered by a search whose Zobrist hash is known. The state is
+     * evaluated in the calling thread.
+     *
+     * @param state  the state.
+     * @param hash   the Zobrist hash of the state, i.e., the hash of the state in the registry of the search.
+     * @param id     the index of the state in the registry of the search.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @return the heuristic value of the state.
+     * @see StateHeuristic#estimateCost(State, int, int, Condition)
+     */
+    public double estimate(final State state, final long hash, final int id, final int parent) {
+        return this.estimate(state, true, hash, id, parent);
+    }
+
+    /**
+     * Returns the heuristic value of a single state evaluated in the calling thread.
+     *
+     * @param state  the state.
+     * @param hashed the flag set if the Zobrist hash of the state is known.
+     * @param hash   the Zobrist hash of the state if it is known.
+     * @param id     the index of the state in the registry of the search or -1 if the state is not registered.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @return the heuristic value of the state.
+     */
+    private double estimate(final State state, final boolean hashed, final long hash, final int id,
+                            final int parent) {
+        final long begin = System.nanoTime();
+        final StateHeuristic h = this.heuristic != null ? this.heuristic : this.takeInstance();
+        try {
+            return this.evaluate(h, state, hashed, hash, id, parent);
+        } finally {
+            if (this.heuristic == null) {
+                this.instances.add(h);
+            }
+            this.time += System.nanoTime() - begin;
+        }
+    }
+
+    /**
+     * Returns the heuristic value of a state computed by a specified heuristic. A node is evaluated with
+     * {@link StateHeuristic#estimate(Node, Condition)}, a state registered by a search with
+     * {@link StateHeuristic#estimateCost(State, int, int, Condition)} and an other state with
+     * {@link StateHeuristic#estimateCost(State, Condition)}. If the heuristic values are cached and the Zobrist hash of
+     * the state is known, the state is looked up in the cache with its hash.
+     *
+     * @param h      the heuristic.
+     * @param state  the state.
+     * @param hashed the flag set if the Zobrist hash of the state is known.
+     * @param hash   the Zobrist hash of the state if it is known.
+     * @param id     the index of the state in the registry of the search or -1 if the state is not registered.
+     * @param parent the index of the parent of the state in the registry of the search or -1 if the state is the root
+     *               of the search.
+     * @return the heuristic value of the state.
+     */
+    private double evaluate(final StateHeuristic h, final State state, final boolean hashed, final long hash,
+                            final int id, final int parent) {
+        if (hashed && h instanceof CachedStateHeuristic) {
+            final CachedStateHeuristic cached = (CachedStateHeuristic) h;
+            if (state instanceof Node) {
+                return cached.estimate((Node) state, hash, this.goal);
+            }
+            return id < 0 ? cached.estimateCost(state, hash, this.goal)
+                : cached.estimateCost(state, hash, id, parent, this.goal);
+        }
+        if (state instanceof Node) {
+            return h.estimate((Node) state, this.goal);
+        }
+        return id < 0 ? h.estimateCost(state, this.goal) : h.estimateCost(state, id, parent, this.goal);
+    }
+
+    /**
+     * Computes the helpful actions of a single state. The state is evaluated in the calling thread and the helpful
+     * actions computed by the heuristic are written in ascending order at the beginning of the array.
+     *
+     * @param state   the state.
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least the
+     *                number of actions of the problem.
+     * @return the number of helpful actions or -1 if the heuristic does not compute helpful actions.
+     * @see StateHeuristic#getHelpfulActions(int[])
+     */
+    public int getHelpfulActions(final State state, final int[] actions) {
+        final int[] count = new int[1];
+        this.estimate(state, actions, count);
+        return count[0];
+    }
+
+    /**
+     * Returns the heuristic value of a single state and computes its helpful actions with the same evaluation. The
+     * state is evaluated in the calling thread and the helpful actions computed by the heuristic are written in
+     * ascending order at the beginning of the array.
+     *
+     * @param state   the state.
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least the
+     *                number of actions of the problem.
+     * @param count   the array where the number of helpful actions is written at index 0, or -1 if the heuristic does
+     *                not compute helpful actions.
+     * @return the heuristic value of the state.
+     * @see StateHeuristic#getHelpfulActions(int[])
+     */
+    public double estimate(final State state, final int[] actions, final int[] count) {
+        return this.estimate(state, -1, -1, actions, count);
+    }
+
+    /**
+     * Returns the heuristic value of a single state registered by a search and computes its helpful actions with the
+     * same evaluation. The state is evaluated in the calling thread and the helpful actions computed by the heuristic
+     * are written in ascending order at the beginning of the array.
+     *
+     * @param state   the state.
+     * @param id      the index of the state in the registry of the search.
+     * @param parent  the index of the parent of the state in the registry of the search or -1 if the state is the
+     *                root of the search.
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least the
+     *                number of actions of the problem.
+     * @param count   the array where the number of helpful actions is written at index 0, or -1 if the heuristic does
+     *                not compute helpful actions.
+     * @return the heuristic value of the state.
+     * @see StateHeuristic#estimateCost(State, int, int, Condition)
+     * @see StateHeuristic#getHelpfulActions(int[])
+     */
+    public double estimate(final State state, final int id, final int parent, final int[] actions,
+                           final int[] count) {
+        return this.estimate(state, false, 0L, id, parent, actions, count);
+    }
+
+    /**
+     * Returns the heuristic value of a single state registered by a search whose Zobrist hash is known and computes
+     * its helpful actions with the same evaluation. The state is evaluated in the calling thread and the helpful
+     * actions computed by the heuristic are written in ascending order at the beginning of the array.
+     *
+     * @param state   the state.
+     * @param hash    the Zobrist hash of the state, i.e., the hash of the state in the registry of the search.
+     * @param id      the index of the state in the registry of the search.
+     * @param parent  the index of the parent of the state in the registry of the search or -1 if the state is the
+     *                root of the search.
+     * @param actions the array where the indexes of the helpful actions are written. Its length must be at least the
+     *                number of actions of the problem.
+     * @param count   the array where the number of helpful actions is written at index 0, or -1 if the heuristic does
+     *                not compute helpful actions.
+     * @return the heuristic value of the state.
+     * @see StateHeuristic#estimateCost(State, int, int, Condition)
+     * @see StateHeuristic#getHelpfulActions(int[])
+     */
+    public double estimate(final State state, final long hash, final int id, final int parent, final int[] actions,
+                           final int[] count) {
+        return this.estimate(state, true, hash, id, parent, actions, count);
+    }
+
+    /**
+     * Returns the heuristic value of a single state and computes its helpful actions with the same evaluation. The
+     * state is evaluated in the calling thread.
+     *
+     * @param state   the state.
+     * @param hashed  the flag set if the Zobrist hash of the state is known.
+     * @param hash    the Zobrist hash of the state if it is known.
+     * @param id      the index of the state in the registry of the search or -1 if the state is not registered.
+     * @param parent  the index of the parent of the state in the registry of the search or -1 if the state is the
+     *                root of the search.
+     * @param actions the array where the indexes of the helpful actions are written.
+     * @param count   the array where the number of helpful actions is written at index 0.
+     * @return the heuristic value of the state.
+     */
+    private double estimate(final State state, final boolean hashed, final long hash, final int id,
+                            final int parent, final int[] actions, final int[] count) {
+        final long begin = System.nanoTime();
+        final StateHeuristic h = this.heuristic != null ? this.heuristic : this.takeInstance();
+        try {
+            final double value = this.evaluate(h, state, hashed, hash, id, parent);
+            count[0] = h.getHelpfulActions(actions);
+            return value;
+        } finally {
+            if (this.heuristic == null) {
+                this.instances.add(h);
+            }
+            this.time += System.nanoTime() - begin;
+        }
+    }
+
+    /**
+     * Computes the heuristic values of a batch of states.
+     *
+     * @param states the states to evaluate.
+     * @param count  the number of states of the batch, i.e., the states <code>states[0..count-1]</code> are
+     *               evaluated.
+     * @param values the array where the heuristic value of <code>states[i]</code> is written at index
+     *               <code>i</code>.
+     */
+    public void estimate(final State[] states, final int count, final double[] values) {
+        this.estimate(states, null, null, -1, count, values);
+    }
+
+    /**
+     * Computes the heuristic values of a batch of states registered by a search with the same parent, typically the
+     * successors of an expanded state. The parent must be evaluated before the batch.
+     *
+     * @param states the states to evaluate.
+     * @param ids    the indexes of the states in the registry of the search, i.e., <code>ids[i]</code> is the index
+     *               of <code>states[i]</code>, or null if the states are not registered.
+     * @param parent the index of the parent of the states in the registry of the search.
+     * @param count  the number of states of the batch, i.e., the states <code>states[0..count-1]</code> are
+     *               evaluated.
+     * @param values the array where the heuristic value of <code>states[i]</code> is written at index
+     *               <code>i</code>.
+     * @see StateHeuristic#estimateCost(State, int, int, Condition)
+     */
+    public void estimate(final State[] states, final int[] ids, final int parent, final int count,
+                         final double[] values) {
+        this.estimate(states, null, ids, parent, count, values);
+    }
+
+    /**
+     * Computes the heuristic values of a batch of states registered by a search with the same parent whose Zobrist
+     * hashes are known, typically the successors of an expanded state. The parent must be evaluated before the batch.
+     *
+     * @param states the states to evaluate.
+     * @param hashes the Zobrist hashes of the states, i.e., <code>hashes[i]</code> is the hash of
+     *               <code>states[i]</code> in the registry of the search, or null if the hashes are not known.
+     * @param ids    the indexes of the states in the registry of the search, i.e., <code>ids[i]</code> is the index
+     *               of <code>states[i]</code>, or null if the states are not registered.
+     * @param parent the index of the parent of the states in the registry of the search.
+     * @param count  the number of states of the batch, i.e., the states <code>states[0..count-1]</code> are
+     *               evaluated.
+     * @param values the array where the heuristic value of <code>states[i]</code> is written at index
+     *               <code>i</code>.
+     * @see StateHeuristic#estimateCost(State, int, int, Condition)
+     */
+    public void estimate(final State[] states, final long[] hashes, final int[] ids, final int parent,
+                         final int count, final double[] values) {
+        if (this.pool == null || count < 2) {
+            for (int i = 0; i < count; i++) {
+                values[i] = this.estimate(states[i], hashes != null, hashes == null ? 0L : hashes[i],
+                    ids == null ? -1 : ids[i], parent);
+            }
+        } else {
+            final long begin = System.nanoTime();
+            final int threshold = Math.max(1, count / (this.threads << 2));
+            this.pool.invoke(new Batch(states, hashes, ids, parent, values, 0, count, threshold));
+            this.time += System.nanoTime() - begin;
+        }
+    }
+
+    /**
+     * Releases the threads of the evaluator.
+     */
+    @Override
+    public void close() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Takes a heuristic instance built in advance or shares a new one if all of them are already taken. The new
+     * instance is shared with the first instance built, so it stores its values in the same cache and shares the
+     * information stored per state.
+     *
+     * @return a heuristic instance that is not used by another thread.
+     */
+    private StateHeuristic takeInstance() {
+        final StateHeuristic h = this.instances.poll();
+        return h != null ? h : this.shared.share();
+    }
+
+    /**
+     * This class implements the task that evaluates a range of states of a batch.
+     */
+    private final class Batch extends RecursiveAction {
+
+        /**
+         * The states of the batch.
+         */
+        private final State[] states;
+
+        /**
+         * The Zobrist hashes of the states or null if the hashes are not known.
+         */
+        private final long[] hashes;
+
+        /**
+         * The indexes of the states in the registry of the search or null if the states are not registered.
+         */
+        private final int[] ids;
+
+        /**
+         * The index of the parent of the states in the registry of the search.
+         */
+        private final int parent;
+
+        /**
+         * The heuristic values of the states.
+         */
+        private final double[] values;
+
+        /**
+         * The first state of the range.
+         */
+        private final int from;
+
+        /**
+         * The state after the last state of the range.
+         */
+        private final int to;
+
+        /**
+         * The number of states under which the range is evaluated sequentially.
+         */
+        private final int threshold;
+
+        /**
+         * Creates a new task.
+         *
+         * @param states    the states of the batch.
+         * @param hashes    the Zobrist hashes of the states or null if the hashes are not known.
+         * @param ids       the indexes of the states in the registry of the search or null if the states are not
+         *                  registered.
+         * @param parent    the index of the parent of the states in the registry of the search.
+         * @param values    the heuristic values of the states.
+         * @param from      the first state of the range.
+         * @param to        the state after the last state of the range.
+         * @param threshold the number of states under which the range is evaluated sequentially.
+         */
+        private Batch(final State[] states, final long[] hashes, final int[] ids, final int parent,
+                      final double[] values, final int from, final int to, final int threshold) {
+            this.states = states;
+            this.hashes = hashes;
+            this.ids = ids;
+            this.parent = parent;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Evaluates the range of states.
+         */
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.threshold) {
+                final StateHeuristic h = HeuristicEvaluator.this.local.get();
+                for (int i = this.from; i < this.to; i++) {
+                    this.values[i] = HeuristicEvaluator.this.evaluate(h, this.states[i], this.hashes != null,
+                        this.hashes == null ? 0L : this.hashes[i], this.ids == null ? -1 : this.ids[i], this.parent);
+                }
+            } else {
+                final int middle = (this.from + this.to) >>> 1;
+                RecursiveAction.invokeAll(
+                    new Batch(this.states, this.hashes, this.ids, this.parent, this.values, this.from, middle,
+                        this.threshold),
+                    new Batch(this.states, this.hashes, this.ids, this.parent, this.values, middle, this.to,
+                        this.threshold));
+            }
+        }
+    }
+}
@@ -16,10 +16,11 @@
 package fr.uga.pddl4j.planners.statespace.search;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
+import fr.uga.pddl4j.util.MemoryEstimator;
 
 import java.util.Collection;
 import java.util.Iterator;
@@ -62,46 +63,63 @@ public final class HillClimbing extends AbstractStateSpaceSearch {
     public Node search(final Problem codedProblem) {
         Objects.requireNonNull(codedProblem);
         final LinkedList<Node> openList = new LinkedList<>();
-        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
-
-        State init = new State(codedProblem.getInitialState());
-        Node root = new Node(init, null, 0, 0, heuristic.estimate(init, codedProblem.getGoal()));
-        openList.add(root);
-
-        Node solution = null;
-        boolean deadEndFree = true;
-
-        this.resetNodesStatistics();
-        final long timeout = this.getTimeout() * 1000;
-        final long begin = System.currentTimeMillis();
-        long searchingTime = 0;
-        while (!openList.isEmpty() && solution == null
-            && deadEndFree && searchingTime < timeout) {
-
-            final Node currentState = openList.pop();
-            final LinkedList<Node> successors = getSuccessors(currentState, codedProblem, heuristic);
-            deadEndFree = !successors.isEmpty();
-
-            if (deadEndFree) {
-                final Node successor = popBestNode(successors);
-                this.setExploredNodes(this.getExploredNodes() + 1);
-                if (successor.satisfy(codedProblem.getGoal())) {
-                    solution = successor;
-                } else {
-                    successors.clear();
-                    openList.clear();
-                    openList.addLast(successor);
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+
+            State init = new State(codedProblem.getInitialState());
+            Node root = new Node(init, null, 0, 0, evaluator.estimate(init));
+            openList.add(root);
+
+            Node solution = null;
+            boolean deadEndFree = true;
+
+            this.resetNodesStatistics();
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final int[] actions = new int[generator.getNumberOfActions()];
+            // The nodes stored are the nodes of the open list and the nodes of the path to the current node
+            final long nodeBytes = MemoryEstimator.sizeOfNode(codedProblem.getFluents().size());
+            final long begin = System.currentTimeMillis();
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            // The best heuristic value reached and the value of the evaluation function of the last node expanded
+            double bestHeuristic = root.getHeuristic();
+            double layer = Double.NaN;
+            while (!openList.isEmpty() && solution == null && deadEndFree && !control.isInterrupted(expanded)) {
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), openList.size(), 0, bestHeuristic, layer,
+                        evaluator.getTime());
+                }
+                expanded++;
+                final Node currentState = openList.pop();
+                layer = currentState.getValueF(this.getWeight());
+                this.setMemoryUsed(openList.size() * (nodeBytes + MemoryEstimator.LINKED_LIST_ENTRY)
+                    + (currentState.getDepth() + 1) * nodeBytes);
+                final LinkedList<Node> successors = getSuccessors(currentState, codedProblem, evaluator, generator,
+                    pruning, actions);
+                deadEndFree = !successors.isEmpty();
+
+                if (deadEndFree) {
+                    final Node successor = popBestNode(successors);
+                    bestHeuristic = Math.min(bestHeuristic, successor.getHeuristic());
+                    this.setExploredNodes(this.getExploredNodes() + 1);
+                    if (successor.satisfy(codedProblem.getGoal())) {
+                        solution = successor;
+                    } else {
+                        successors.clear();
+                        openList.clear();
+                        openList.addLast(successor);
+                    }
                 }
             }
 
-            long end = System.currentTimeMillis();
-            searchingTime = end - begin;
-        }
-
-        this.setMemoryUsed(GraphLayout.parseInstance(openList).totalSize());
-        this.setSearchingTime(searchingTime);
+            control.report(expanded, this.getCreatedNodes(), openList.size(), 0, bestHeuristic, layer,
+                evaluator.getTime());
+            this.debugMemoryUsed(openList);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
 
-        return solution;
+            return solution;
+        }
     }
 
     /**
@@ -109,32 +127,40 @@ public final class HillClimbing extends AbstractStateSpaceSearch {
      *
      * @param parent    the parent node.
      * @param problem   the coded problem to solve.
-     * @param heuristic the heuristic used.
+     * @param evaluator the evaluator of the heuristic used.
+     * @param generator the successor generator of the problem.
+     * @param pruning   the pruning of the applicable actions.
+     * @param actions   the buffer used to store the actions applicable in the parent node.
      * @return the list of successors from the parent node.
      */
     private LinkedList<Node> getSuccessors(final Node parent, final Problem problem,
-                                           final StateHeuristic heuristic) {
+                                           final HeuristicEvaluator evaluator, final SuccessorGenerator generator,
+                                           final StubbornSets pruning, final int[] actions) {
         final LinkedList<Node> successors = new LinkedList<>();
 
-        int index = 0;
-        for (Action op : problem.getActions()) {
-            if (op.isApplicable(parent)) {
-                final State nextState = new State(parent);
-                op.getConditionalEffects().stream().filter(ce -> parent.satisfy(ce.getCondition()))
-                    .forEach(ce -> nextState.apply(ce.getEffect()));
-                // Apply the effect of the applicable operator
-                final Node successor = new Node(nextState);
-                this.setCreatedNodes(this.getCreatedNodes() + 1);
-                successor.setCost(parent.getCost() + op.getCost().getValue());
-                successor.setHeuristic(heuristic.estimate(nextState, problem.getGoal()));
-                successor.setParent(parent);
-                successor.setAction(index);
-                successor.setDepth(parent.getDepth() + 1);
-                successors.add(successor);
-            }
-            index++;
+        final int applicable = pruning.prune(parent, actions, generator.getApplicableActions(parent, actions));
+        for (int i = 0; i < applicable; i++) {
+            final int index = actions[i];
+            final Action op = problem.getActions().get(index);
+            final State nextState = new State();
+            generator.apply(index, parent, nextState);
+            // Apply the effect of the applicable operator
+            final Node successor = new Node(nextState);
+            this.setCreatedNodes(this.getCreatedNodes() + 1);
+            successor.setCost(parent.getCost() + op.getCost().getValue());
+            successor.setParent(parent);
+            successor.setAction(index);
+            successor.setDepth(parent.getDepth() + 1);
+            successors.add(successor);
         }
 
+        // The heuristic values of the successors are evaluated in batch
+        final Node[] nodes = successors.toArray(new Node[0]);
+        final double[] values = new double[nodes.length];
+        evaluator.estimate(nodes, nodes.length, values);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setHeuristic(values[i]);
+        }
         return successors;
     }
 
@@ -0,0 +1,641 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.util.MemoryEstimator;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class implements the IDA* search strategy. The search runs successive depth-first searches bounded by the value
+ * of the evaluation function f = g + weight * h. The bound of an iteration is the smallest value of f that exceeded the
+ * bound of the previous iteration. The memory used by the search is linear in the depth of the search plus the size of
+ * a {@link TranspositionTable} of fixed size.
+ * <p>
+ * The transposition table stores the lowest cost with which each state was reached during the current iteration: a
+ * state reached again with a higher or equal cost in the same iteration is pruned. It also stores the heuristic value
+ * of the states. When the subtree of a state is exhausted, its heuristic value is raised to a lower bound of the value
+ * of f of the solutions in the subtree minus its cost, so that the next iterations start from a better estimate and
+ * do not recompute the heuristic of the states still in the table. The lower bound is the smallest value of f that
+ * exceeded the bound in the subtree and of f = g + weight * h of the successors pruned in the subtree, either because
+ * they were already reached with a lower cost or because they are on the current path: the solutions through these
+ * successors were not searched in the subtree. The successors of a state are explored by increasing heuristic value.
+ * The states of the current path are never expanded twice, even if their entry was replaced in the table.
+ * </p>
+ * <p>
+ * The solution found is optimal if the heuristic is admissible and the weight is 1.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.11.2021
+ * @since 4.0
+ */
+public final class IDAStar extends AbstractStateSpaceSearch {
+
+    /**
+     * The default number of entries of the transposition table (2^20).
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+    /**
+     * The number of entries of the transposition table.
+     */
+    private int tableSize;
+
+    /**
+     * Creates a new IDA* search strategy with default parameters.
+     */
+    public IDAStar() {
+        super();
+        this.tableSize = IDAStar.DEFAULT_TABLE_SIZE;
+    }
+
+    /**
+     * Creates a new IDA* search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public IDAStar(int timeout, StateHeuristic.Name heuristic, double weight) {
+        super(timeout, heuristic, weight);
+        this.tableSize = IDAStar.DEFAULT_TABLE_SIZE;
+    }
+
+    /**
+     * Returns the number of entries of the transposition table of the search.
+     *
+     * @return the number of entries of the transposition table of the search.
+     */
+    public final int getTableSize() {
+        return this.tableSize;
+    }
+
+    /**
+     * Sets the number of entries of the transposition table of the search. The number of entries is rounded up to a
+     * power of two.
+     *
+     * @param size the number of entries of the transposition table. The size must be greater than 0.
+     * @throws IllegalArgumentException if <code>size &lt; 1</code>.
+     */
+    public final void setTableSize(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
+        }
+        this.tableSize = size;
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        this.resetNodesStatistics();
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final ZobristHash zobrist = ZobristHash.getInstance(codedProblem);
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final TranspositionTable table = new TranspositionTable(this.tableSize);
+            final Path path = new Path(generator.getNumberOfActions());
+            final double weight = this.getWeight();
+            // The batch of successors waiting for their heuristic value
+            final State[] batch = new State[generator.getNumberOfActions()];
+            final int[] batchIds = new int[batch.length];
+            final long[] batchHashes = new long[batch.length];
+            final double[] batchValues = new double[batch.length];
+            final int fluents = codedProblem.getFluents().size();
+
+            final State init = new State(codedProblem.getInitialState());
+            final long rootHash = zobrist.hash(init);
+            final double rootHeuristic = evaluator.estimate(init);
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            int solution = -1;
+            int iteration = 0;
+            double bound = rootHeuristic == Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : weight * rootHeuristic;
+            double bestHeuristic = rootHeuristic;
+            while (solution == -1 && bound != Double.POSITIVE_INFINITY && !control.isInterrupted(expanded)) {
+                iteration++;
+                path.push(0, init, rootHash, -1, 0, rootHeuristic);
+                table.store(rootHash, 0, rootHeuristic, iteration);
+                if (init.satisfy(codedProblem.getGoal())) {
+                    solution = 0;
+                    break;
+                }
+                expanded++;
+                this.expand(path, 0, codedProblem, generator, pruning, zobrist, table, iteration, evaluator, batch,
+                    batchIds, batchHashes, batchValues);
+                int depth = 0;
+                while (depth >= 0 && solution == -1 && !control.isInterrupted(expanded)) {
+                    if (control.isReportDue()) {
+                        control.report(expanded, this.getCreatedNodes(), depth + 1, expanded, bestHeuristic, bound,
+                            evaluator.getTime());
+                    }
+                    this.setMemoryUsed(table.getMemoryUsed() + path.getMemoryUsed(fluents));
+                    if (path.hasNextChild(depth)) {
+                        final int k = path.nextChild(depth);
+                        final int action = path.getChild(depth, k);
+                        final double h = path.getChildHeuristic(depth, k);
+                        final double g = path.getCost(depth)
+                            + codedProblem.getActions().get(action).getCost().getValue();
+                        final double f = g + weight * h;
+                        if (f > bound) {
+                            path.updateMinimum(depth, f);
+                            continue;
+                        }
+                        final State next = path.getState(depth + 1);
+                        final long hash = generator.apply(action, path.getState(depth), path.getHash(depth), next,
+                            zobrist);
+                        // The successor may have been reached by a sibling subtree since its parent was expanded
+                        final int slot = table.lookup(hash);
+                        if (slot != -1 && table.getIteration(slot) == iteration && table.getCost(slot) <= g
+                            || path.contains(depth, next, hash)) {
+                            path.updateLowerBound(depth, f);
+                            continue;
+                        }
+                        table.store(hash, g, h, iteration);
+                        depth++;
+                        path.push(depth, next, hash, action, g, h);
+                        bestHeuristic = Math.min(bestHeuristic, h);
+                        if (next.satisfy(codedProblem.getGoal())) {
+                            solution = depth;
+                        } else {
+                            expanded++;
+                            this.expand(path, depth, codedProblem, generator, pruning, zobrist, table, iteration,
+                                evaluator, batch, batchIds, batchHashes, batchValues);
+                        }
+                    } else {
+                        // The subtree is exhausted: learn the heuristic value of the state from the lower bound of the
+                        // subtree and back up the minimum and the lower bound
+                        final double lowerBound = path.getLowerBound(depth);
+                        if (lowerBound != Double.POSITIVE_INFINITY) {
+                            final double learned = (lowerBound - path.getCost(depth)) / weight;
+                            final int slot = table.lookup(path.getHash(depth));
+                            if (slot != -1 && learned > table.getHeuristic(slot)) {
+                                table.setHeuristic(slot, learned);
+                            }
+                            if (depth > 0) {
+                                path.updateLowerBound(depth - 1, lowerBound);
+                            }
+                        }
+                        final double minimum = path.getMinimum(depth);
+                        if (minimum != Double.POSITIVE_INFINITY && depth > 0) {
+                            path.updateMinimum(depth - 1, minimum);
+                        }
+                        depth--;
+                    }
+                }
+                if (solution == -1) {
+                    bound = path.getMinimum(0);
+                }
+            }
+
+            control.report(expanded, this.getCreatedNodes(), 0, expanded, bestHeuristic, bound, evaluator.getTime());
+            this.setExploredNodes(expanded);
+            this.setPendingNodes(0);
+            this.setMemoryUsed(table.getMemoryUsed() + path.getMemoryUsed(fluents));
+            this.debugMemoryUsed(table, path);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
+
+            return solution == -1 ? null : path.toNode(solution);
+        }
+    }
+
+    /**
+     * Expands the state at a specified depth of the path. The successors pruned by the transposition table are
+     * discarded, their value of f only updates the lower bound of the state, and the heuristic value of the others is
+     * taken from the table or computed in batch. The successors are sorted by increasing heuristic value.
+     *
+     * @param path        the path.
+     * @param depth       the depth of the state to expand.
+     * @param problem     the problem to solve.
+     * @param generator   the successor generator.
+     * @param pruning     the pruning of the applicable actions.
+     * @param zobrist     the hash function of the states.
+     * @param table       the transposition table.
+     * @param iteration   the current iteration.
+     * @param evaluator   the heuristic evaluator.
+     * @param batch       the batch of successors to evaluate.
+     * @param batchIds    the index of the successors of the batch in the path.
+     * @param batchHashes the hashes of the successors of the batch.
+     * @param batchValues the heuristic values of the successors of the batch.
+     */
+    private void expand(final Path path, final int depth, final Problem problem, final SuccessorGenerator generator,
+                        final StubbornSets pruning, final ZobristHash zobrist, final TranspositionTable table,
+                        final int iteration, final HeuristicEvaluator evaluator, final State[] batch,
+                        final int[] batchIds, final long[] batchHashes, final double[] batchValues) {
+        final int[] children = path.getChildren(depth);
+        final double[] values = path.getChildHeuristics(depth);
+        final State current = path.getState(depth);
+        final long hash = path.getHash(depth);
+        final double cost = path.getCost(depth);
+        final int applicable = pruning.prune(current, children, generator.getApplicableActions(current, children));
+        int count = 0;
+        int pending = 0;
+        for (int i = 0; i < applicable; i++) {
+            final int action = children[i];
+            if (batch[pending] == null) {
+                batch[pending] = new State();
+            }
+            final long h = generator.apply(action, current, hash, batch[pending], zobrist);
+            this.setCreatedNodes(this.getCreatedNodes() + 1);
+            final double g = cost + problem.getActions().get(action).getCost().getValue();
+            final int slot = table.lookup(h);
+            if (slot != -1 && table.getIteration(slot) == iteration && table.getCost(slot) <= g) {
+                path.updateLowerBound(depth, g + this.getWeight() * table.getHeuristic(slot));
+                continue;
+            }
+            children[count] = action;
+            if (slot != -1) {
+                values[count] = table.getHeuristic(slot);
+            } else {
+                batchHashes[pending] = h;
+                batchIds[pending++] = count;
+            }
+            count++;
+        }
+        evaluator.estimate(batch, batchHashes, null, -1, pending, batchValues);
+        for (int i = 0; i < pending; i++) {
+            values[batchIds[i]] = batchValues[i] == Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : batchValues[i];
+        }
+        // Sort the successors by increasing heuristic value
+        for (int i = 1; i < count; i++) {
+            final int action = children[i];
+            final double value = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] > value) {
+                children[j + 1] = children[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            children[j + 1] = action;
+            values[j + 1] = value;
+        }
+        path.setChildren(depth, count);
+    }
+
+    /**
+     * This class implements the path of the depth-first search. Each depth of the path stores a state, its hash, the
+     * action used to reach it, its cost and heuristic value, its successors not yet explored, the smallest value of f
+     * that exceeded the bound in its subtree and the lower bound of the value of f of the solutions in its subtree.
+     * The arrays of a depth are reused from one iteration to the next.
+     */
+    private static final class Path {
+
+        /**
+         * The number of actions of the problem.
+         */
+        private final int actions;
+
+        /**
+         * The states of the path.
+         */
+        private State[] states;
+
+        /**
+         * The hash of the states.
+         */
+        private long[] hashes;
+
+        /**
+         * The action used to reach each state.
+         */
+        private int[] incoming;
+
+        /**
+         * The cost of the states.
+         */
+        private double[] costs;
+
+        /**
+         * The heuristic value of the states.
+         */
+        private double[] heuristics;
+
+        /**
+         * The actions applicable in each state.
+         */
+        private int[][] children;
+
+        /**
+         * The heuristic values of the successors of each state.
+         */
+        private double[][] childHeuristics;
+
+        /**
+         * The number of successors of each state.
+         */
+        private int[] childCounts;
+
+        /**
+         * The index of the next successor to explore of each state.
+         */
+        private int[] cursors;
+
+        /**
+         * The smallest value of f that exceeded the bound in the subtree of each state.
+         */
+        private double[] minima;
+
+        /**
+         * The lower bound of the value of f of the solutions in the subtree of each state.
+         */
+        private double[] lowerBounds;
+
+        /**
+         * Creates a new empty path.
+         *
+         * @param actions the number of actions of the problem.
+         */
+        Path(final int actions) {
+            this.actions = Math.max(actions, 1);
+            this.states = new State[0];
+            this.hashes = new long[0];
+            this.incoming = new int[0];
+            this.costs = new double[0];
+            this.heuristics = new double[0];
+            this.children = new int[0][];
+            this.childHeuristics = new double[0][];
+            this.childCounts = new int[0];
+            this.cursors = new int[0];
+            this.minima = new double[0];
+            this.lowerBounds = new double[0];
+        }
+
+        /**
+         * Sets the state at a specified depth of the path.
+         *
+         * @param depth     the depth.
+         * @param state     the state.
+         * @param hash      the hash of the state.
+         * @param action    the action used to reach the state.
+         * @param cost      the cost of the state.
+         * @param heuristic the heuristic value of the state.
+         */
+        void push(final int depth, final State state, final long hash, final int action, final double cost,
+                  final double heuristic) {
+            this.ensureCapacity(depth + 2);
+            if (this.states[depth] != state) {
+                this.states[depth].clear();
+                this.states[depth].or(state);
+            }
+            this.hashes[depth] = hash;
+            this.incoming[depth] = action;
+            this.costs[depth] = cost;
+            this.heuristics[depth] = heuristic;
+            this.childCounts[depth] = 0;
+            this.cursors[depth] = 0;
+            this.minima[depth] = Double.POSITIVE_INFINITY;
+            this.lowerBounds[depth] = Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Returns the state at a specified depth. The state of the depth following the last depth of the path can be
+         * used to compute a successor.
+         *
+         * @param depth the depth.
+         * @return the state at the depth.
+         */
+        State getState(final int depth) {
+            this.ensureCapacity(depth + 1);
+            return this.states[depth];
+        }
+
+        /**
+         * Returns the hash of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @return the hash of the state.
+         */
+        long getHash(final int depth) {
+            return this.hashes[depth];
+        }
+
+        /**
+         * Returns the cost of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @return the cost of the state.
+         */
+        double getCost(final int depth) {
+            return this.costs[depth];
+        }
+
+        /**
+         * Returns the array where the successors of the state at a specified depth are stored.
+         *
+         * @param depth the depth.
+         * @return the array of the successors.
+         */
+        int[] getChildren(final int depth) {
+            return this.children[depth];
+        }
+
+        /**
+         * Returns the array where the heuristic values of the successors of the state at a specified depth are
+         * stored.
+         *
+         * @param depth the depth.
+         * @return the array of the heuristic values of the successors.
+         */
+        double[] getChildHeuristics(final int depth) {
+            return this.childHeuristics[depth];
+        }
+
+        /**
+         * Sets the number of successors of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @param count the number of successors.
+         */
+        void setChildren(final int depth, final int count) {
+            this.childCounts[depth] = count;
+            this.cursors[depth] = 0;
+        }
+
+        /**
+         * Returns <code>true</code> if the state at a specified depth has successors not yet explored.
+         *
+         * @param depth the depth.
+         * @return <code>true</code> if the state has successors not yet explored; <code>false</code> otherwise.
+         */
+        boolean hasNextChild(final int depth) {
+            return this.cursors[depth] < this.childCounts[depth];
+        }
+
+        /**
+         * Returns the index of the next successor to explore of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @return the index of the successor.
+         */
+        int nextChild(final int depth) {
+            return this.cursors[depth]++;
+        }
+
+        /**
+         * Returns the action that leads to a successor of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @param k     the index of the successor.
+         * @return the action that leads to the successor.
+         */
+        int getChild(final int depth, final int k) {
+            return this.children[depth][k];
+        }
+
+        /**
+         * Returns the heuristic value of a successor of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @param k     the index of the successor.
+         * @return the heuristic value of the successor.
+         */
+        double getChildHeuristic(final int depth, final int k) {
+            return this.childHeuristics[depth][k];
+        }
+
+        /**
+         * Returns the smallest value of f that exceeded the bound in the subtree of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @return the smallest value of f that exceeded the bound.
+         */
+        double getMinimum(final int depth) {
+            return this.minima[depth];
+        }
+
+        /**
+         * Updates the smallest value of f that exceeded the bound in the subtree of the state at a specified depth.
+         * The value also updates the lower bound of the subtree.
+         *
+         * @param depth the depth.
+         * @param value the value of f that exceeded the bound.
+         */
+        void updateMinimum(final int depth, final double value) {
+            if (value < this.minima[depth]) {
+                this.minima[depth] = value;
+            }
+            this.updateLowerBound(depth, value);
+        }
+
+        /**
+         * Returns the lower bound of the value of f of the solutions in the subtree of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @return the lower bound of the value of f of the solutions in the subtree.
+         */
+        double getLowerBound(final int depth) {
+            return this.lowerBounds[depth];
+        }
+
+        /**
+         * Updates the lower bound of the value of f of the solutions in the subtree of the state at a specified depth.
+         *
+         * @param depth the depth.
+         * @param value the value of f of a successor that was not searched in the subtree.
+         */
+        void updateLowerBound(final int depth, final double value) {
+            if (value < this.lowerBounds[depth]) {
+                this.lowerBounds[depth] = value;
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if a state is on the path up to a specified depth.
+         *
+         * @param depth the last depth of the path.
+         * @param state the state.
+         * @param hash  the hash of the state.
+         * @return <code>true</code> if the state is on the path; <code>false</code> otherwise.
+         */
+        boolean contains(final int depth, final State state, final long hash) {
+            for (int i = depth; i >= 0; i--) {
+                if (this.hashes[i] == hash && this.states[i].equals(state)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Builds the search node of the state at a specified depth. The parents of the node are the states of the path.
+         *
+         * @param depth the depth.
+         * @return the search node.
+         */
+        Node toNode(final int depth) {
+            Node node = null;
+            for (int i = 0; i <= depth; i++) {
+                node = new Node(this.states[i], node, this.incoming[i], this.costs[i], i, this.heuristics[i]);
+            }
+            return node;
+        }
+
+        /**
+         * Returns an estimation of the amount of memory in bytes used by the path.
+         *
+         * @param fluents the number of fluents of the problem.
+         * @return an estimation of the amount of memory in bytes used by the path.
+         */
+        long getMemoryUsed(final int fluents) {
+            final int length = this.states.length;
+            return length * (MemoryEstimator.sizeOfState(fluents) + MemoryEstimator.sizeOfArray(this.actions,
+                Integer.BYTES) + MemoryEstimator.sizeOfArray(this.actions, Double.BYTES))
+                + 2 * MemoryEstimator.sizeOfArray(length, MemoryEstimator.REFERENCE)
+                + 4 * MemoryEstimator.sizeOfArray(length, Integer.BYTES)
+                + 5 * MemoryEstimator.sizeOfArray(length, Double.BYTES);
+        }
+
+        /**
+         * Ensures that the path can store a specified number of states.
+         *
+         * @param capacity the number of states.
+         */
+        private void ensureCapacity(final int capacity) {
+            final int length = this.states.length;
+            if (capacity > length) {
+                final int newCapacity = Math.max(capacity, Math.max(16, length + (length >> 1)));
+                this.states = Arrays.copyOf(this.states, newCapacity);
+                this.hashes = Arrays.copyOf(this.hashes, newCapacity);
+                this.incoming = Arrays.copyOf(this.incoming, newCapacity);
+                this.costs = Arrays.copyOf(this.costs, newCapacity);
+                this.heuristics = Arrays.copyOf(this.heuristics, newCapacity);
+                this.children = Arrays.copyOf(this.children, newCapacity);
+                this.childHeuristics = Arrays.copyOf(this.childHeuristics, newCapacity);
+                this.childCounts = Arrays.copyOf(this.childCounts, newCapacity);
+                this.cursors = Arrays.copyOf(this.cursors, newCapacity);
+                this.minima = Arrays.copyOf(this.minima, newCapacity);
+                this.lowerBounds = Arrays.copyOf(this.lowerBounds, newCapacity);
+                for (int i = length; i < newCapacity; i++) {
+                    this.states[i] = new State();
+                    this.children[i] = new int[this.actions];
+                    this.childHeuristics[i] = new double[this.actions];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
+
+import java.util.Objects;
+
+/**
+ * This class implements the Lazy Greedy Best First Search strategy, also known as greedy best first search with
+ * deferred evaluation. Contrary to the {@link GreedyBestFirstSearch}, the successors of an expanded state are not
+ * evaluated when they are generated. They are stored in the pending list with the heuristic value of their parent and
+ * are evaluated only when they are selected for expansion. Nodes with the same heuristic value are ordered by cost
+ * and then by insertion order. As most of the states generated are never expanded, the search computes far fewer
+ * heuristic values than the greedy best first search at the price of a less informed order of the pending states. A
+ * state whose heuristic value is infinite is never expanded.
+ * <p>
+ * The search can use the helpful actions computed by the heuristic (see {@link #setHelpfulActions}). The helpful
+ * actions of a state are computed by the evaluation of the state when it is selected. When the helpful actions are
+ * pruned, only the successors reached by a helpful action are generated. When the helpful actions are preferred, the
+ * successors reached by a helpful action are also stored in a second pending list. The search alternates between the
+ * two pending lists and the preferred one is boosted each time the best heuristic value reached decreases as in the
+ * Fast Downward planner.
+ * </p>
+ * <p>
+ * The states explored and pending are stored in a {@link StateRegistry} and the search manipulates their integer
+ * identifiers instead of node objects.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 29.11.2021
+ * @since 4.0
+ */
+public final class LazyGreedyBestFirstSearch extends AbstractStateSpaceSearch {
+
+    /**
+     * The priority boost given to the pending list of the preferred successors when the best heuristic value reached
+     * decreases.
+     */
+    private static final int PREFERRED_BOOST = 1000;
+
+    /**
+     * Creates a new Lazy Greedy Best First Search strategy with default parameters.
+     */
+    public LazyGreedyBestFirstSearch() {
+        super();
+    }
+
+    /**
+     * Creates a new Lazy Greedy Best First Search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public LazyGreedyBestFirstSearch(final int timeout, final StateHeuristic.Name heuristic, final double weight) {
+        super(timeout, heuristic, weight);
+    }
+
+    /**
+     * The lazy greedy best first search algorithm. Solves the planning problem and returns the first solution plan
+     * found. A successor already closed is pruned. A successor already pending is updated if a cheaper path to it is
+     * found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution plan or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final StateRegistry registry = new StateRegistry(ZobristHash.getInstance(codedProblem));
+            // The pending states are ordered by the heuristic value of their parent until they are evaluated
+            final IntIndexedPriorityQueue.IntComparator comparator = (s1, s2) -> {
+                final int cmp = Double.compare(registry.getHeuristic(s1), registry.getHeuristic(s2));
+                return cmp != 0 ? cmp : Double.compare(registry.getCost(s1), registry.getCost(s2));
+            };
+            final IntIndexedPriorityQueue open = new IntIndexedPriorityQueue(comparator);
+            // The pending states reached by a helpful action when the helpful actions are preferred. Each of them is
+            // also stored in the pending list open.
+            final IntIndexedPriorityQueue preferred = new IntIndexedPriorityQueue(comparator);
+
+            final State init = new State(codedProblem.getInitialState());
+            final int root = registry.insert(init);
+            registry.setPath(root, -1, -1, 0, 0);
+            registry.setHeuristic(root, 0);
+            open.add(root);
+
+            this.resetNodesStatistics();
+            int solution = -1;
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            // The best heuristic value reached and the value of the evaluation function of the last state expanded
+            double bestHeuristic = Double.POSITIVE_INFINITY;
+            double layer = Double.NaN;
+            final State current = new State();
+            final State next = new State();
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final int[] actions = new int[generator.getNumberOfActions()];
+            final int[] helpfulActions = new int[actions.length];
+            final boolean[] helpful = new boolean[actions.length];
+            final int[] count = new int[1];
+            HelpfulActions mode = this.getHelpfulActions();
+            int nbHelpful = 0;
+            // The priorities of the pending lists: the list with the lowest priority is polled first
+            int openPriority = 0;
+            int preferredPriority = 0;
+            while (!open.isEmpty() && solution == -1 && !control.isInterrupted(expanded)) {
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(),
+                        bestHeuristic, layer, evaluator.getTime());
+                }
+                this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed() + preferred.getMemoryUsed());
+                // Pop the first state of the pending list with the lowest priority
+                final int currentId;
+                if (!preferred.isEmpty() && preferredPriority <= openPriority) {
+                    currentId = preferred.poll();
+                    open.remove(currentId);
+                    preferredPriority++;
+                } else {
+                    currentId = open.poll();
+                    preferred.remove(currentId);
+                    openPriority++;
+                }
+                registry.getState(currentId, current);
+
+                if (current.satisfy(codedProblem.getGoal())) {
+                    solution = currentId;
+                } else {
+                    // The state is evaluated only now that it is selected for expansion, after its parent
+                    final int parent = registry.getParent(currentId);
+                    if (mode != HelpfulActions.IGNORE) {
+                        for (int i = 0; i < nbHelpful; i++) {
+                            helpful[helpfulActions[i]] = false;
+                        }
+                        registry.setHeuristic(currentId, evaluator.estimate(current, registry.getHash(currentId),
+                            currentId, parent, helpfulActions, count));
+                        // The helpful actions are ignored if the heuristic does not compute them
+                        if (count[0] < 0) {
+                            mode = HelpfulActions.IGNORE;
+                        }
+                        nbHelpful = Math.max(0, count[0]);
+                        for (int i = 0; i < nbHelpful; i++) {
+                            helpful[helpfulActions[i]] = true;
+                        }
+                    } else {
+                        registry.setHeuristic(currentId, evaluator.estimate(current, registry.getHash(currentId),
+                            currentId, parent));
+                    }
+                    final double currentHeuristic = registry.getHeuristic(currentId);
+                    if (currentHeuristic == Integer.MAX_VALUE) {
+                        // A dead end is never expanded
+                        continue;
+                    }
+                    expanded++;
+                    layer = registry.getValueF(currentId, this.getWeight());
+                    if (currentHeuristic < bestHeuristic) {
+                        bestHeuristic = currentHeuristic;
+                        preferredPriority -= LazyGreedyBestFirstSearch.PREFERRED_BOOST;
+                    }
+                    final double currentCost = registry.getCost(currentId);
+                    final int depth = registry.getDepth(currentId) + 1;
+                    final int applicable = pruning.prune(current, actions,
+                        generator.getApplicableActions(current, actions));
+                    for (int i = 0; i < applicable; i++) {
+                        final int index = actions[i];
+                        if (mode == HelpfulActions.PRUNE && !helpful[index]) {
+                            continue;
+                        }
+                        final boolean isPreferred = mode == HelpfulActions.PREFER && helpful[index];
+                        final Action op = codedProblem.getActions().get(index);
+                        // Apply the effect of the applicable operator
+                        final long hash = generator.apply(index, current, registry.getHash(currentId), next,
+                            registry.getHashFunction());
+                        this.setCreatedNodes(this.getCreatedNodes() + 1);
+                        final double g = currentCost + op.getCost().getValue();
+                        final int id = registry.insert(next, hash);
+                        if (id >= 0) {
+                            // The successor is not evaluated: it is pending with the heuristic value of its parent
+                            registry.setPath(id, currentId, index, g, depth);
+                            registry.setHeuristic(id, currentHeuristic);
+                            open.add(id);
+                            if (isPreferred) {
+                                preferred.add(id);
+                            }
+                        } else {
+                            // Duplicate detection: closed states are never reopened
+                            final int known = -(id + 1);
+                            if (open.contains(known) && g < registry.getCost(known)) {
+                                registry.setPath(known, currentId, index, g, depth);
+                                open.update(known);
+                                if (preferred.contains(known)) {
+                                    preferred.update(known);
+                                } else if (isPreferred) {
+                                    preferred.add(known);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(), bestHeuristic,
+                layer, evaluator.getTime());
+            this.setExploredNodes(registry.size() - open.size());
+            this.setPendingNodes(open.size());
+            this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed() + preferred.getMemoryUsed());
+            this.debugMemoryUsed(registry, open, preferred);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
+
+            return registry.toNode(solution);
+        }
+    }
+}
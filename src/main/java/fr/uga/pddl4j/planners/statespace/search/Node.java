@@ -20,6 +20,7 @@
 package fr.uga.pddl4j.planners.statespace.search;
 
 import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.util.BitVector;
 
 /**
  * This class implements a node of the tree search.
@@ -54,6 +55,11 @@ public final class Node extends State {
      */
     private int depth;
 
+    /**
+     * The landmarks accepted on the path from the root node to this node or null if they were not computed.
+     */
+    private BitVector acceptedLandmarks;
+
     /**
      * Creates a new node from a specified state.
      *
@@ -191,6 +197,25 @@ public final class Node extends State {
         this.depth = depth;
     }
 
+    /**
+     * Returns the landmarks accepted on the path from the root node to this node. The landmarks are set by the
+     * heuristics that track the landmarks along the parents of the nodes.
+     *
+     * @return the landmarks accepted or null if they were not computed.
+     */
+    public final BitVector getAcceptedLandmarks() {
+        return this.acceptedLandmarks;
+    }
+
+    /**
+     * Sets the landmarks accepted on the path from the root node to this node.
+     *
+     * @param landmarks the landmarks accepted.
+     */
+    public final void setAcceptedLandmarks(final BitVector landmarks) {
+        this.acceptedLandmarks = landmarks;
+    }
+
     /**
      * Returns the value of the heuristic function, i.e.,
      * <code>this.node.getCost() + this.node.getHeuristic()</code>.
@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitSet;
+import fr.uga.pddl4j.util.BitVector;
+import fr.uga.pddl4j.util.MemoryEstimator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class implements a registry of the partial states generated by a regression search. A partial state is a
+ * {@link Condition} and receives a dense integer identifier starting from 0. As in {@link StateRegistry}, the search
+ * information of a partial state (parent, action, cost, heuristic value and depth) is stored in parallel primitive
+ * arrays indexed by its identifier. The parent of a partial state is the partial state it was regressed from.
+ * <p>
+ * Besides the exact duplicate detection, the registry answers two queries over the registered partial states: the
+ * partial states that subsume a partial state, i.e., whose fluents are a subset of its fluents, and the partial states
+ * satisfied by a complete state. The partial states are indexed by their smallest positive fluent, so that both queries
+ * only visit the partial states whose smallest positive fluent belongs to the partial or complete state queried. The
+ * partial states without positive fluent are stored in a single extra bucket visited by all the queries.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ */
+public final class PartialStateRegistry {
+
+    /**
+     * The default initial number of partial states that can be stored before the registry grows.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The number of fluents of the problem.
+     */
+    private final int fluents;
+
+    /**
+     * The partial states.
+     */
+    private Condition[] states;
+
+    /**
+     * The parent of the partial states.
+     */
+    private int[] parents;
+
+    /**
+     * The action regressed to reach the partial states from their parent.
+     */
+    private int[] actions;
+
+    /**
+     * The cost of the partial states, i.e., the cost of the path from the partial states to the root.
+     */
+    private double[] costs;
+
+    /**
+     * The heuristic value of the partial states.
+     */
+    private double[] heuristics;
+
+    /**
+     * The depth of the partial states.
+     */
+    private int[] depths;
+
+    /**
+     * The map used to detect the exact duplicates.
+     */
+    private final Map<Condition, Integer> ids;
+
+    /**
+     * The identifiers of the partial states indexed by their smallest positive fluent. The last bucket contains the
+     * partial states without positive fluent.
+     */
+    private final int[][] buckets;
+
+    /**
+     * The number of identifiers of each bucket.
+     */
+    private final int[] bucketSizes;
+
+    /**
+     * The number of partial states in the registry.
+     */
+    private int size;
+
+    /**
+     * Creates a new empty registry for partial states defined over a specified number of fluents.
+     *
+     * @param fluents the number of fluents of the problem.
+     */
+    public PartialStateRegistry(final int fluents) {
+        this.fluents = fluents;
+        final int capacity = PartialStateRegistry.DEFAULT_INITIAL_CAPACITY;
+        this.states = new Condition[capacity];
+        this.parents = new int[capacity];
+        this.actions = new int[capacity];
+        this.costs = new double[capacity];
+        this.heuristics = new double[capacity];
+        this.depths = new int[capacity];
+        this.ids = new HashMap<>();
+        this.buckets = new int[fluents + 1][];
+        this.bucketSizes = new int[fluents + 1];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of partial states in the registry.
+     *
+     * @return the number of partial states in the registry.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the identifier of a partial state or -1 if the partial state is not registered.
+     *
+     * @param state the partial state.
+     * @return the identifier of the partial state or -1 if the partial state is not registered.
+     */
+    public int lookup(final Condition state) {
+        final Integer id = this.ids.get(state);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Inserts a partial state in the registry. The partial state is copied. If the partial state is new, the search
+     * information of the partial state is initialized with no parent, no action, an infinite cost, an heuristic value
+     * of 0 and a depth of -1.
+     *
+     * @param state the partial state to insert.
+     * @return the identifier of the partial state if the partial state is new or <code>-(id + 1)</code> where
+     *      <code>id</code> is the identifier of the partial state already registered otherwise.
+     */
+    public int insert(final Condition state) {
+        final int known = this.lookup(state);
+        if (known != -1) {
+            return -(known + 1);
+        }
+        final int id = this.size;
+        this.ensureCapacity(id + 1);
+        final Condition copy = new Condition(state);
+        this.states[id] = copy;
+        this.parents[id] = -1;
+        this.actions[id] = -1;
+        this.costs[id] = Double.POSITIVE_INFINITY;
+        this.heuristics[id] = 0.0;
+        this.depths[id] = -1;
+        this.ids.put(copy, id);
+        final int first = copy.getPositiveFluents().nextSetBit(0);
+        final int bucket = first == -1 ? this.fluents : first;
+        int[] members = this.buckets[bucket];
+        if (members == null) {
+            members = new int[4];
+        } else if (this.bucketSizes[bucket] == members.length) {
+            members = Arrays.copyOf(members, members.length << 1);
+        }
+        members[this.bucketSizes[bucket]++] = id;
+        this.buckets[bucket] = members;
+        this.size++;
+        return id;
+    }
+
+    /**
+     * Returns a registered partial state. The partial state returned must not be modified.
+     *
+     * @param id the identifier of the partial state.
+     * @return the partial state.
+     */
+    public Condition getState(final int id) {
+        return this.states[id];
+    }
+
+    /**
+     * Returns the parent of a partial state.
+     *
+     * @param id the identifier of the partial state.
+     * @return the identifier of the parent or -1 if the partial state has no parent.
+     */
+    public int getParent(final int id) {
+        return this.parents[id];
+    }
+
+    /**
+     * Returns the action regressed to reach a partial state from its parent.
+     *
+     * @param id the identifier of the partial state.
+     * @return the index of the action or -1 if the partial state has no parent.
+     */
+    public int getAction(final int id) {
+        return this.actions[id];
+    }
+
+    /**
+     * Returns the cost of a partial state.
+     *
+     * @param id the identifier of the partial state.
+     * @return the cost of the partial state.
+     */
+    public double getCost(final int id) {
+        return this.costs[id];
+    }
+
+    /**
+     * Returns the heuristic value of a partial state.
+     *
+     * @param id the identifier of the partial state.
+     * @return the heuristic value of the partial state.
+     */
+    public double getHeuristic(final int id) {
+        return this.heuristics[id];
+    }
+
+    /**
+     * Sets the heuristic value of a partial state.
+     *
+     * @param id        the identifier of the partial state.
+     * @param heuristic the heuristic value of the partial state.
+     */
+    public void setHeuristic(final int id, final double heuristic) {
+        this.heuristics[id] = heuristic;
+    }
+
+    /**
+     * Returns the depth of a partial state.
+     *
+     * @param id the identifier of the partial state.
+     * @return the depth of the partial state.
+     */
+    public int getDepth(final int id) {
+        return this.depths[id];
+    }
+
+    /**
+     * Sets the search information of a partial state.
+     *
+     * @param id     the identifier of the partial state.
+     * @param parent the identifier of the parent or -1 if the partial state has no parent.
+     * @param action the index of the action regressed to reach the partial state from its parent.
+     * @param cost   the cost of the partial state.
+     * @param depth  the depth of the partial state.
+     */
+    public void setPath(final int id, final int parent, final int action, final double cost, final int depth) {
+        this.parents[id] = parent;
+        this.actions[id] = action;
+        this.costs[id] = cost;
+        this.depths[id] = depth;
+    }
+
+    /**
+     * Returns the value of the function f = g + weight * h of a partial state.
+     *
+     * @param id     the identifier of the partial state.
+     * @param weight the weight of the heuristic.
+     * @return the value of the function f of the partial state.
+     */
+    public double getValueF(final int id, final double weight) {
+        return weight * this.heuristics[id] + this.costs[id];
+    }
+
+    /**
+     * Returns a registered partial state that subsumes a specified partial state with a cost lower or equal to a
+     * specified cost. A partial state subsumes an other partial state if its positive and negative fluents are
+     * subsets of the positive and negative fluents of the other one. A plan from the initial state to the subsuming
+     * partial state is thus also a plan to the subsumed partial state. This method does not allocate memory.
+     *
+     * @param state the partial state.
+     * @param cost  the cost of the partial state.
+     * @return the identifier of a subsuming partial state or -1 if there is none.
+     */
+    public int findSubsuming(final Condition state, final double cost) {
+        final BitVector positive = state.getPositiveFluents();
+        final BitVector negative = state.getNegativeFluents();
+        for (int f = positive.nextSetBit(0); f >= 0; f = positive.nextSetBit(f + 1)) {
+            final int id = this.findSubsuming(f, positive, negative, cost);
+            if (id != -1) {
+                return id;
+            }
+        }
+        return this.findSubsuming(this.fluents, positive, negative, cost);
+    }
+
+    /**
+     * Returns the registered partial state with the lowest cost satisfied by a specified state. This method does not
+     * allocate memory.
+     *
+     * @param state the state.
+     * @return the identifier of the partial state or -1 if the state satisfies no registered partial state.
+     */
+    public int findSatisfied(final BitSet state) {
+        int best = this.findSatisfied(this.fluents, state, -1);
+        for (int f = state.nextSetBit(0); f >= 0 && f < this.fluents; f = state.nextSetBit(f + 1)) {
+            best = this.findSatisfied(f, state, best);
+        }
+        return best;
+    }
+
+    /**
+     * Extends a search node with the actions regressed from a partial state to the root of the registry. The actions
+     * are applied in the order they were regressed backward, i.e., from the partial state to the root. The state of
+     * the search node must satisfy the partial state.
+     *
+     * @param id        the identifier of the partial state.
+     * @param node      the search node to extend.
+     * @param generator the generator used to apply the actions.
+     * @return the last search node of the path or null if <code>node == null</code>.
+     */
+    public Node extend(final int id, final Node node, final SuccessorGenerator generator) {
+        if (node == null) {
+            return null;
+        }
+        Node current = node;
+        final State next = new State();
+        for (int s = id; this.parents[s] != -1; s = this.parents[s]) {
+            generator.apply(this.actions[s], current, next);
+            final double cost = current.getCost() + this.costs[s] - this.costs[this.parents[s]];
+            current = new Node(next, current, this.actions[s], cost, current.getDepth() + 1, 0.0);
+        }
+        return current;
+    }
+
+    /**
+     * Returns an estimation of the amount of memory in bytes used by the registry. The estimation is computed in
+     * constant time from the capacity of the arrays and the number of partial states of the registry.
+     *
+     * @return an estimation of the amount of memory in bytes used by the registry.
+     */
+    public long getMemoryUsed() {
+        final int capacity = this.states.length;
+        // A partial state is a condition with two bit vectors and an empty list of numeric constraints. It is
+        // referenced by a map entry and an integer
+        final long state = MemoryEstimator.sizeOfObject(3 * MemoryEstimator.REFERENCE)
+            + 2 * MemoryEstimator.sizeOfState(this.fluents)
+            + MemoryEstimator.sizeOfObject(2 * MemoryEstimator.REFERENCE + Integer.BYTES)
+            + MemoryEstimator.sizeOfObject(3 * MemoryEstimator.REFERENCE + Integer.BYTES)
+            + MemoryEstimator.sizeOfObject(Integer.BYTES);
+        return MemoryEstimator.sizeOfArray(capacity, MemoryEstimator.REFERENCE)
+            + 3 * MemoryEstimator.sizeOfArray(capacity, Integer.BYTES)
+            + 2 * MemoryEstimator.sizeOfArray(capacity, Double.BYTES)
+            + (long) this.size * (state + Integer.BYTES)
+            + MemoryEstimator.sizeOfArray(this.buckets.length, MemoryEstimator.REFERENCE)
+            + MemoryEstimator.sizeOfArray(this.ids.size() << 1, MemoryEstimator.REFERENCE);
+    }
+
+    /**
+     * Returns a partial state of a bucket that subsumes a specified partial state with a cost lower or equal to a
+     * specified cost.
+     *
+     * @param bucket   the bucket.
+     * @param positive the positive fluents of the partial state.
+     * @param negative the negative fluents of the partial state.
+     * @param cost     the cost of the partial state.
+     * @return the identifier of a subsuming partial state or -1 if there is none.
+     */
+    private int findSubsuming(final int bucket, final BitVector positive, final BitVector negative,
+                              final double cost) {
+        final int[] members = this.buckets[bucket];
+        for (int i = 0; i < this.bucketSizes[bucket]; i++) {
+            final int id = members[i];
+            final Condition other = this.states[id];
+            if (this.costs[id] <= cost && positive.contains(other.getPositiveFluents())
+                && negative.contains(other.getNegativeFluents())) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the partial state with the lowest cost of a bucket satisfied by a specified state if its cost is lower
+     * than the cost of a specified partial state.
+     *
+     * @param bucket the bucket.
+     * @param state  the state.
+     * @param best   the identifier of the best partial state already found or -1.
+     * @return the identifier of the best partial state satisfied by the state or -1 if there is none.
+     */
+    private int findSatisfied(final int bucket, final BitSet state, int best) {
+        final int[] members = this.buckets[bucket];
+        for (int i = 0; i < this.bucketSizes[bucket]; i++) {
+            final int id = members[i];
+            final Condition other = this.states[id];
+            if ((best == -1 || this.costs[id] < this.costs[best]) && state.contains(other.getPositiveFluents())
+                && !state.intersects(other.getNegativeFluents())) {
+                best = id;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Ensures that the parallel arrays can store the search information of a specified number of partial states.
+     *
+     * @param capacity the number of partial states.
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > this.states.length) {
+            final int newCapacity = Math.max(capacity, this.states.length + (this.states.length >> 1));
+            this.states = Arrays.copyOf(this.states, newCapacity);
+            this.parents = Arrays.copyOf(this.parents, newCapacity);
+            this.actions = Arrays.copyOf(this.actions, newCapacity);
+            this.costs = Arrays.copyOf(this.costs, newCapacity);
+            this.heuristics = Arrays.copyOf(this.heuristics, newCapacity);
+            this.depths = Arrays.copyOf(this.depths, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements a predecessor generator, i.e., a structure that returns the actions relevant to a partial
+ * state and computes the regression of a partial state by an action. A partial state is a {@link Condition}: its
+ * positive fluents must hold and its negative fluents must not hold. The regression reuses the bit sets of the
+ * preconditions and the effects of the actions of the problem.
+ * <p>
+ * An action is relevant to a partial state if it adds one of its positive fluents or deletes one of its negative
+ * fluents. The relevant actions are found from the lists of the actions that add and delete each fluent without
+ * testing all the actions of the problem. The regression of a partial state <code>(P, N)</code> by a relevant action
+ * <code>a</code> is defined iff <code>a</code> deletes no fluent of <code>P</code> and adds no fluent of
+ * <code>N</code>. It is the partial state <code>((P \ add(a)) &cup; pre+(a), (N \ del(a)) &cup; pre-(a))</code> if
+ * its positive and negative fluents are disjoint. As in {@link fr.uga.pddl4j.problem.State#apply}, a fluent both added
+ * and deleted by an action is added.
+ * </p>
+ * <p>
+ * The regression is only defined for the problems whose actions have unconditional effects (see
+ * {@link #isSupported()}). The generator marks the relevant actions already collected in a private array. Thus, it is
+ * not thread-safe and must not be shared between searches.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ */
+public final class PredecessorGenerator {
+
+    /**
+     * The positive preconditions of each action.
+     */
+    private final BitVector[] positivePreconditions;
+
+    /**
+     * The negative preconditions of each action.
+     */
+    private final BitVector[] negativePreconditions;
+
+    /**
+     * The fluents added by each action.
+     */
+    private final BitVector[] addEffects;
+
+    /**
+     * The fluents deleted and not added by each action.
+     */
+    private final BitVector[] deleteEffects;
+
+    /**
+     * The actions that add each fluent.
+     */
+    private final int[][] adders;
+
+    /**
+     * The actions that delete each fluent.
+     */
+    private final int[][] deleters;
+
+    /**
+     * The stamp of the last call to {@link #getRelevantActions(Condition, int[])} that collected each action.
+     */
+    private final int[] marks;
+
+    /**
+     * The stamp of the current call to {@link #getRelevantActions(Condition, int[])}.
+     */
+    private int stamp;
+
+    /**
+     * The flag set if all the effects of the actions are unconditional.
+     */
+    private final boolean supported;
+
+    /**
+     * Creates a new predecessor generator for a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public PredecessorGenerator(final Problem problem) {
+        final List<Action> actions = problem.getActions();
+        final int fluents = problem.getFluents().size();
+        this.positivePreconditions = new BitVector[actions.size()];
+        this.negativePreconditions = new BitVector[actions.size()];
+        this.addEffects = new BitVector[actions.size()];
+        this.deleteEffects = new BitVector[actions.size()];
+        boolean unconditional = true;
+        final int[] addCounts = new int[fluents];
+        final int[] deleteCounts = new int[fluents];
+        for (int i = 0; i < actions.size(); i++) {
+            final Action a = actions.get(i);
+            this.positivePreconditions[i] = a.getPrecondition().getPositiveFluents();
+            this.negativePreconditions[i] = a.getPrecondition().getNegativeFluents();
+            final BitVector add = new BitVector();
+            final BitVector del = new BitVector();
+            for (ConditionalEffect ce : a.getConditionalEffects()) {
+                if (ce.getCondition().isEmpty()) {
+                    add.or(ce.getEffect().getPositiveFluents());
+                    del.or(ce.getEffect().getNegativeFluents());
+                } else {
+                    unconditional = false;
+                }
+            }
+            del.andNot(add);
+            this.addEffects[i] = add;
+            this.deleteEffects[i] = del;
+            for (int f = add.nextSetBit(0); f >= 0; f = add.nextSetBit(f + 1)) {
+                addCounts[f]++;
+            }
+            for (int f = del.nextSetBit(0); f >= 0; f = del.nextSetBit(f + 1)) {
+                deleteCounts[f]++;
+            }
+        }
+        this.supported = unconditional;
+        this.adders = new int[fluents][];
+        this.deleters = new int[fluents][];
+        for (int f = 0; f < fluents; f++) {
+            this.adders[f] = new int[addCounts[f]];
+            this.deleters[f] = new int[deleteCounts[f]];
+        }
+        Arrays.fill(addCounts, 0);
+        Arrays.fill(deleteCounts, 0);
+        for (int i = 0; i < actions.size(); i++) {
+            final BitVector add = this.addEffects[i];
+            for (int f = add.nextSetBit(0); f >= 0; f = add.nextSetBit(f + 1)) {
+                this.adders[f][addCounts[f]++] = i;
+            }
+            final BitVector del = this.deleteEffects[i];
+            for (int f = del.nextSetBit(0); f >= 0; f = del.nextSetBit(f + 1)) {
+                this.deleters[f][deleteCounts[f]++] = i;
+            }
+        }
+        this.marks = new int[actions.size()];
+        this.stamp = 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the regression is defined for the problem, i.e., if all the effects of its actions
+     * are unconditional.
+     *
+     * @return <code>true</code> if the regression is defined for the problem; <code>false</code> otherwise.
+     */
+    public boolean isSupported() {
+        return this.supported;
+    }
+
+    /**
+     * Returns the number of actions of the problem.
+     *
+     * @return the number of actions of the problem.
+     */
+    public int getNumberOfActions() {
+        return this.marks.length;
+    }
+
+    /**
+     * Computes the actions relevant to a partial state. The indexes of the relevant actions are written in the
+     * specified array. This method does not allocate memory.
+     *
+     * @param state  the partial state.
+     * @param buffer the array where the indexes of the relevant actions are written. The length of the array must be
+     *               greater or equal to the number of actions of the problem.
+     * @return the number of actions relevant to the partial state.
+     */
+    public int getRelevantActions(final Condition state, final int[] buffer) {
+        if (++this.stamp == 0) {
+            Arrays.fill(this.marks, 0);
+            this.stamp = 1;
+        }
+        int n = this.collect(state.getPositiveFluents(), this.adders, buffer, 0);
+        n = this.collect(state.getNegativeFluents(), this.deleters, buffer, n);
+        return n;
+    }
+
+    /**
+     * Computes the regression of a partial state by an action relevant to the partial state. This method does not
+     * allocate memory.
+     *
+     * @param action      the index of the action.
+     * @param state       the partial state.
+     * @param predecessor the partial state where the regression is written. The predecessor must not be the partial
+     *                    state itself.
+     * @return <code>true</code> if the regression is defined; <code>false</code> otherwise. The content of the
+     *      predecessor is undefined when the regression is not defined.
+     */
+    public boolean regress(final int action, final Condition state, final Condition predecessor) {
+        final BitVector positive = state.getPositiveFluents();
+        final BitVector negative = state.getNegativeFluents();
+        if (this.addEffects[action].intersects(negative) || this.deleteEffects[action].intersects(positive)) {
+            return false;
+        }
+        final BitVector p = predecessor.getPositiveFluents();
+        p.clear();
+        p.or(positive);
+        p.andNotOr(this.addEffects[action], this.positivePreconditions[action]);
+        final BitVector n = predecessor.getNegativeFluents();
+        n.clear();
+        n.or(negative);
+        n.andNotOr(this.deleteEffects[action], this.negativePreconditions[action]);
+        return !p.intersects(n);
+    }
+
+    /**
+     * Collects the actions that add or delete the fluents of a set and that were not already collected.
+     *
+     * @param fluents the set of fluents.
+     * @param lists   the actions that add or delete each fluent.
+     * @param buffer  the array where the indexes of the actions are written.
+     * @param n       the number of actions already written in the array.
+     * @return the number of actions written in the array.
+     */
+    private int collect(final BitVector fluents, final int[][] lists, final int[] buffer, int n) {
+        for (int f = fluents.nextSetBit(0); f >= 0; f = fluents.nextSetBit(f + 1)) {
+            for (int a : lists[f]) {
+                if (this.marks[a] != this.stamp) {
+                    this.marks[a] = this.stamp;
+                    buffer[n++] = a;
+                }
+            }
+        }
+        return n;
+    }
+}
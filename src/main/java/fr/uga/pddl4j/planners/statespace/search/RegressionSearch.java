@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+
+/**
+ * This class implements a regression search strategy. The search starts from the goal of the problem and regresses
+ * partial states by the relevant actions until it reaches a partial state satisfied by the initial state. The partial
+ * states are expanded in the A* order, and the heuristic value of a partial state is the estimated distance from the
+ * initial state to the partial state. The partial states whose heuristic value is infinite are not reachable from the
+ * initial state and are pruned.
+ * <p>
+ * The partial states explored and pending are stored in a {@link PartialStateRegistry}. A new partial state is pruned
+ * if a partial state already registered with a lower or equal cost subsumes it, i.e., requires a subset of its fluents.
+ * The regression is computed by the {@link PredecessorGenerator} from the bit sets of the preconditions and the
+ * effects of the actions. It is only defined for the problems whose actions have unconditional effects; the search
+ * returns null for the other problems. The solution returned is a search node built forward from the initial state, so
+ * that the plan is extracted as for the forward searches.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.11.2021
+ * @since 4.0
+ */
+public final class RegressionSearch extends AbstractStateSpaceSearch {
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(RegressionSearch.class.getName());
+
+    /**
+     * Creates a new regression search strategy with default parameters.
+     */
+    public RegressionSearch() {
+        super();
+    }
+
+    /**
+     * Creates a new regression search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public RegressionSearch(int timeout, StateHeuristic.Name heuristic, double weight) {
+        super(timeout, heuristic, weight);
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        this.resetNodesStatistics();
+        final PredecessorGenerator generator = new PredecessorGenerator(codedProblem);
+        if (!generator.isSupported()) {
+            LOGGER.error("* regression search does not support conditional effects\n");
+            this.setSearchingTime(System.currentTimeMillis() - begin);
+            return null;
+        }
+        // The heuristic estimates the distance from the initial state to the partial states
+        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
+        long heuristicTime = 0;
+        final State init = new State(codedProblem.getInitialState());
+        final PartialStateRegistry registry = new PartialStateRegistry(codedProblem.getFluents().size());
+        final double currWeight = this.getWeight();
+        final IntIndexedPriorityQueue open = new IntIndexedPriorityQueue((s1, s2) ->
+            Double.compare(registry.getValueF(s1, currWeight), registry.getValueF(s2, currWeight)));
+        // Creates the root of the search from the goal and adds it to the list of pending partial states
+        final Condition goal = codedProblem.getGoal();
+        long start = System.nanoTime();
+        final int h = heuristic.estimate(init, goal);
+        heuristicTime += System.nanoTime() - start;
+        int solution = -1;
+        int expanded = 0;
+        final SearchControl control = this.startSearchControl();
+        double bestHeuristic = h;
+        double layer = Double.NaN;
+        if (h != Integer.MAX_VALUE) {
+            final int root = registry.insert(goal);
+            registry.setPath(root, -1, -1, 0, 0);
+            registry.setHeuristic(root, h);
+            open.add(root);
+        }
+        // The partial state used to compute the predecessors and the buffer of the relevant actions
+        final Condition next = new Condition();
+        final int[] actions = new int[generator.getNumberOfActions()];
+        while (!open.isEmpty() && solution == -1 && !control.isInterrupted(expanded)) {
+            if (control.isReportDue()) {
+                control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(),
+                    bestHeuristic, layer, heuristicTime / 1000000L);
+            }
+            expanded++;
+            this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed());
+            final int currentId = open.poll();
+            final Condition current = registry.getState(currentId);
+            layer = registry.getValueF(currentId, currWeight);
+            bestHeuristic = Math.min(bestHeuristic, registry.getHeuristic(currentId));
+            // If the initial state satisfies the current partial state, the path to the root is a solution
+            if (init.satisfy(current)) {
+                solution = currentId;
+            } else {
+                final double currentCost = registry.getCost(currentId);
+                final int depth = registry.getDepth(currentId) + 1;
+                final int relevant = generator.getRelevantActions(current, actions);
+                for (int i = 0; i < relevant; i++) {
+                    final int index = actions[i];
+                    if (!generator.regress(index, current, next)) {
+                        continue;
+                    }
+                    this.setCreatedNodes(this.getCreatedNodes() + 1);
+                    final double g = currentCost + codedProblem.getActions().get(index).getCost().getValue();
+                    final int known = registry.lookup(next);
+                    if (known != -1) {
+                        if (g < registry.getCost(known)) {
+                            registry.setPath(known, currentId, index, g, depth);
+                            if (!open.update(known)) {
+                                open.add(known);
+                            }
+                        }
+                    } else if (registry.findSubsuming(next, g) == -1) {
+                        start = System.nanoTime();
+                        final int value = heuristic.estimate(init, next);
+                        heuristicTime += System.nanoTime() - start;
+                        // The partial states not reachable from the initial state are pruned
+                        if (value != Integer.MAX_VALUE) {
+                            final int id = registry.insert(next);
+                            registry.setPath(id, currentId, index, g, depth);
+                            registry.setHeuristic(id, value);
+                            open.add(id);
+                        }
+                    }
+                }
+            }
+        }
+
+        control.report(expanded, this.getCreatedNodes(), open.size(), registry.size() - open.size(), bestHeuristic,
+            layer, heuristicTime / 1000000L);
+        this.setExploredNodes(registry.size() - open.size());
+        this.setPendingNodes(open.size());
+        this.setMemoryUsed(registry.getMemoryUsed() + open.getMemoryUsed());
+        this.debugMemoryUsed(registry, open);
+        this.setSearchingTime(System.currentTimeMillis() - begin);
+
+        // Build the solution forward from the initial state or return null if no solution was found
+        if (solution == -1) {
+            return null;
+        }
+        final Node root = new Node(init, null, -1, 0, 0, registry.getHeuristic(solution));
+        return registry.extend(solution, root, SuccessorGenerator.getInstance(codedProblem));
+    }
+}
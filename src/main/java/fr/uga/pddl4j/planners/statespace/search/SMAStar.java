@@ -0,0 +1,565 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
+import fr.uga.pddl4j.util.MemoryEstimator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class implements the SMA* (simplified memory-bounded A*) search strategy. The search behaves as A* until the
+ * number of nodes in memory reaches a limit. Then, the leaf with the highest value of the evaluation function f = g +
+ * weight * h, the shallowest one in case of tie, is dropped to make room for the successors of the leaf expanded, the
+ * lowest one, the deepest one in case of tie. The value of f of a dropped node is backed up in its parent: when all
+ * the successors of a node are dropped, the node becomes a leaf again with the smallest value of f of its forgotten
+ * successors and is expanded again later if it is still promising. A node with successors in memory and forgotten
+ * successors stays pending with the smallest value of f of its forgotten successors: its expansion generates again
+ * the successors not in memory. The value of f of a successor is never lower than the value of f of its parent.
+ * <p>
+ * A successor reached with a cost higher or equal to the cost of the same state in memory is pruned. If a path does
+ * not fit in memory, its leaf is considered as a dead end. The solution found is optimal if the heuristic is
+ * admissible, the weight is 1 and the optimal path fits in memory.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.11.2021
+ * @since 4.0
+ */
+public final class SMAStar extends AbstractStateSpaceSearch {
+
+    /**
+     * The default maximum number of nodes in memory (2^20).
+     */
+    public static final int DEFAULT_NODE_LIMIT = 1 << 20;
+
+    /**
+     * The maximum number of nodes in memory.
+     */
+    private int nodeLimit;
+
+    /**
+     * Creates a new SMA* search strategy with default parameters.
+     */
+    public SMAStar() {
+        super();
+        this.nodeLimit = SMAStar.DEFAULT_NODE_LIMIT;
+    }
+
+    /**
+     * Creates a new SMA* search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem.
+     * @param weight    the weight set to the heuristic.
+     */
+    public SMAStar(int timeout, StateHeuristic.Name heuristic, double weight) {
+        super(timeout, heuristic, weight);
+        this.nodeLimit = SMAStar.DEFAULT_NODE_LIMIT;
+    }
+
+    /**
+     * Returns the maximum number of nodes in memory.
+     *
+     * @return the maximum number of nodes in memory.
+     */
+    public final int getNodeLimit() {
+        return this.nodeLimit;
+    }
+
+    /**
+     * Sets the maximum number of nodes in memory.
+     *
+     * @param limit the maximum number of nodes in memory. The limit must be greater than 0.
+     * @throws IllegalArgumentException if <code>limit &lt; 1</code>.
+     */
+    public final void setNodeLimit(final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit < 1");
+        }
+        this.nodeLimit = limit;
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution search found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution search or null if it does not exist.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        this.resetNodesStatistics();
+        try (HeuristicEvaluator evaluator = new HeuristicEvaluator(this.getHeuristic(), codedProblem,
+            this.getNumberOfThreads(), this.getHeuristicCache())) {
+            final SuccessorGenerator generator = SuccessorGenerator.getInstance(codedProblem);
+            final StubbornSets pruning = this.getStubbornSets(codedProblem);
+            final double weight = this.getWeight();
+            final Tree tree = new Tree(this.nodeLimit, codedProblem.getFluents().size());
+            // The leaves of the tree ordered by increasing value of f and decreasing depth
+            final IntIndexedPriorityQueue open = new IntIndexedPriorityQueue((n1, n2) -> {
+                final int cmp = Double.compare(tree.getKey(n1), tree.getKey(n2));
+                return cmp != 0 ? cmp : Integer.compare(tree.depths[n2], tree.depths[n1]);
+            });
+            // The leaves of the tree ordered by decreasing value of f and increasing depth
+            final IntIndexedPriorityQueue worst = new IntIndexedPriorityQueue((n1, n2) -> {
+                final int cmp = Double.compare(tree.values[n2], tree.values[n1]);
+                return cmp != 0 ? cmp : Integer.compare(tree.depths[n1], tree.depths[n2]);
+            });
+
+            final State init = new State(codedProblem.getInitialState());
+            final double initHeuristic = evaluator.estimate(init);
+            if (initHeuristic != Integer.MAX_VALUE) {
+                final int root = tree.allocate(init, -1, -1, 0, 0, weight * initHeuristic);
+                tree.register(root);
+                open.add(root);
+                worst.add(root);
+            }
+            final SearchControl control = this.startSearchControl();
+            int expanded = 0;
+            int solution = -1;
+            double bestHeuristic = initHeuristic;
+            double layer = Double.NaN;
+            // The successors of the node expanded waiting for their heuristic value
+            final int[] actions = new int[Math.max(generator.getNumberOfActions(), 1)];
+            final State[] batch = new State[actions.length];
+            final int[] batchActions = new int[actions.length];
+            final double[] batchCosts = new double[actions.length];
+            final double[] batchValues = new double[actions.length];
+            final int[] order = new int[actions.length];
+            while (!open.isEmpty() && solution == -1 && !control.isInterrupted(expanded)) {
+                if (control.isReportDue()) {
+                    control.report(expanded, this.getCreatedNodes(), open.size(), tree.size() - worst.size(),
+                        bestHeuristic, layer, evaluator.getTime());
+                }
+                this.setMemoryUsed(tree.getMemoryUsed() + open.getMemoryUsed() + worst.getMemoryUsed());
+                // The node polled is either a leaf or a node with forgotten successors
+                final int current = open.poll();
+                final boolean leaf = tree.children[current] == 0;
+                layer = tree.getKey(current);
+                if (layer == Double.POSITIVE_INFINITY) {
+                    // All the pending nodes are dead ends
+                    break;
+                }
+                final State state = tree.states[current];
+                if (leaf) {
+                    worst.remove(current);
+                    if (state.satisfy(codedProblem.getGoal())) {
+                        solution = current;
+                        break;
+                    }
+                }
+                expanded++;
+                // Generate the successors not already in memory with a lower or equal cost. The successors of the node
+                // still in memory are thus generated again only if the node is a leaf
+                int count = 0;
+                final int applicable = pruning.prune(state, actions, generator.getApplicableActions(state, actions));
+                for (int i = 0; i < applicable; i++) {
+                    final int action = actions[i];
+                    if (batch[count] == null) {
+                        batch[count] = new State();
+                    }
+                    generator.apply(action, state, batch[count]);
+                    this.setCreatedNodes(this.getCreatedNodes() + 1);
+                    final double g = tree.costs[current] + codedProblem.getActions().get(action).getCost().getValue();
+                    final int known = tree.lookup(batch[count]);
+                    if (known == -1 || g < tree.costs[known]) {
+                        batchActions[count] = action;
+                        batchCosts[count] = g;
+                        order[count] = count;
+                        count++;
+                    }
+                }
+                evaluator.estimate(batch, count, batchValues);
+                for (int i = 0; i < count; i++) {
+                    if (batchValues[i] == Integer.MAX_VALUE) {
+                        batchValues[i] = Double.POSITIVE_INFINITY;
+                    } else {
+                        bestHeuristic = Math.min(bestHeuristic, batchValues[i]);
+                        batchValues[i] = Math.max(layer, batchCosts[i] + weight * batchValues[i]);
+                    }
+                }
+                // Store the successors by increasing value of f while there is room or a worse leaf to drop
+                SMAStar.sort(order, count, batchValues);
+                tree.forgotten[current] = Double.POSITIVE_INFINITY;
+                boolean fits = true;
+                for (int k = 0; k < count && batchValues[order[k]] != Double.POSITIVE_INFINITY; k++) {
+                    final int i = order[k];
+                    final double f = batchValues[i];
+                    if (tree.size() == this.nodeLimit) {
+                        final int candidate = worst.peek();
+                        if (candidate == -1) {
+                            fits = false;
+                        }
+                        if (candidate == -1 || tree.values[candidate] < f
+                            || tree.values[candidate] == f && tree.depths[candidate] > tree.depths[current]) {
+                            tree.forgotten[current] = Math.min(tree.forgotten[current], f);
+                            break;
+                        }
+                        this.drop(tree, candidate, current, open, worst);
+                    }
+                    final int id = tree.allocate(batch[i], current, batchActions[i], batchCosts[i],
+                        tree.depths[current] + 1, f);
+                    tree.register(id);
+                    tree.children[current]++;
+                    open.add(id);
+                    worst.add(id);
+                }
+                if (tree.children[current] == 0) {
+                    // The node becomes a leaf again with the backed up value of its forgotten successors or is dropped
+                    // if it is a dead end or if its successors do not fit in memory
+                    tree.values[current] = fits ? Math.max(tree.values[current], tree.forgotten[current])
+                        : Double.POSITIVE_INFINITY;
+                    tree.forgotten[current] = Double.POSITIVE_INFINITY;
+                    if (tree.values[current] == Double.POSITIVE_INFINITY) {
+                        this.drop(tree, current, -1, open, worst);
+                    } else {
+                        open.add(current);
+                        worst.add(current);
+                    }
+                } else if (tree.forgotten[current] != Double.POSITIVE_INFINITY) {
+                    open.add(current);
+                }
+            }
+
+            control.report(expanded, this.getCreatedNodes(), open.size(), tree.size() - open.size(), bestHeuristic,
+                layer, evaluator.getTime());
+            this.setExploredNodes(expanded);
+            this.setPendingNodes(open.size());
+            this.setMemoryUsed(tree.getMemoryUsed() + open.getMemoryUsed() + worst.getMemoryUsed());
+            this.debugMemoryUsed(tree, open, worst);
+            this.setSearchingTime(System.currentTimeMillis() - begin);
+
+            return solution == -1 ? null : tree.toNode(solution);
+        }
+    }
+
+    /**
+     * Drops a leaf of the tree and backs up its value of f in its parent. A parent with forgotten successors is pending
+     * again. A parent without successor left becomes a leaf again or is dropped in turn if all its successors are dead
+     * ends.
+     *
+     * @param tree      the tree.
+     * @param leaf      the leaf to drop.
+     * @param expanding the node being expanded or -1. The node being expanded is not pending.
+     * @param open      the pending nodes.
+     * @param worst     the leaves ordered by decreasing value of f.
+     */
+    private void drop(final Tree tree, int leaf, final int expanding, final IntIndexedPriorityQueue open,
+                      final IntIndexedPriorityQueue worst) {
+        while (leaf != -1) {
+            final int parent = tree.parents[leaf];
+            final double value = tree.values[leaf];
+            open.remove(leaf);
+            worst.remove(leaf);
+            tree.free(leaf);
+            leaf = -1;
+            if (parent != -1) {
+                tree.forgotten[parent] = Math.min(tree.forgotten[parent], value);
+                tree.children[parent]--;
+                if (parent == expanding) {
+                    break;
+                }
+                if (tree.children[parent] == 0) {
+                    tree.values[parent] = Math.max(tree.values[parent], tree.forgotten[parent]);
+                    tree.forgotten[parent] = Double.POSITIVE_INFINITY;
+                    if (tree.values[parent] == Double.POSITIVE_INFINITY) {
+                        leaf = parent;
+                    } else {
+                        if (!open.update(parent)) {
+                            open.add(parent);
+                        }
+                        worst.add(parent);
+                    }
+                } else if (tree.forgotten[parent] != Double.POSITIVE_INFINITY && !open.update(parent)) {
+                    open.add(parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the first indexes of an array by increasing value.
+     *
+     * @param order  the indexes to sort.
+     * @param count  the number of indexes to sort.
+     * @param values the values of the indexes.
+     */
+    private static void sort(final int[] order, final int count, final double[] values) {
+        for (int i = 1; i < count; i++) {
+            final int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && values[order[j]] > values[index]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * This class implements the search tree kept in memory. The nodes are identified by the slot where they are
+     * stored. The slots of the dropped nodes are reused, so that the number of slots never exceeds the limit of nodes
+     * in memory.
+     */
+    private static final class Tree {
+
+        /**
+         * The number of fluents of the problem.
+         */
+        private final int fluents;
+
+        /**
+         * The state of the nodes.
+         */
+        private State[] states;
+
+        /**
+         * The parent of the nodes.
+         */
+        private int[] parents;
+
+        /**
+         * The action used to reach the nodes from their parent.
+         */
+        private int[] actions;
+
+        /**
+         * The cost of the nodes.
+         */
+        private double[] costs;
+
+        /**
+         * The depth of the nodes.
+         */
+        private int[] depths;
+
+        /**
+         * The value of f of the nodes.
+         */
+        private double[] values;
+
+        /**
+         * The smallest value of f of the forgotten successors of the nodes.
+         */
+        private double[] forgotten;
+
+        /**
+         * The number of successors in memory of the nodes.
+         */
+        private int[] children;
+
+        /**
+         * The next free slot of each free slot.
+         */
+        private int[] free;
+
+        /**
+         * The first free slot or -1 if there is none.
+         */
+        private int firstFree;
+
+        /**
+         * The number of slots used at least once.
+         */
+        private int used;
+
+        /**
+         * The number of nodes in memory.
+         */
+        private int size;
+
+        /**
+         * The map used to find the node of a state in memory.
+         */
+        private final Map<State, Integer> index;
+
+        /**
+         * Creates a new empty tree.
+         *
+         * @param limit   the maximum number of nodes of the tree.
+         * @param fluents the number of fluents of the problem.
+         */
+        Tree(final int limit, final int fluents) {
+            this.fluents = fluents;
+            final int capacity = Math.min(limit, 1024);
+            this.states = new State[capacity];
+            this.parents = new int[capacity];
+            this.actions = new int[capacity];
+            this.costs = new double[capacity];
+            this.depths = new int[capacity];
+            this.values = new double[capacity];
+            this.forgotten = new double[capacity];
+            this.children = new int[capacity];
+            this.free = new int[capacity];
+            this.firstFree = -1;
+            this.used = 0;
+            this.size = 0;
+            this.index = new HashMap<>();
+        }
+
+        /**
+         * Returns the number of nodes in memory.
+         *
+         * @return the number of nodes in memory.
+         */
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * Returns the priority of a pending node: the value of f of a leaf or the smallest value of f of the forgotten
+         * successors of a node with successors in memory.
+         *
+         * @param id the slot of the node.
+         * @return the priority of the node.
+         */
+        double getKey(final int id) {
+            return this.children[id] == 0 ? this.values[id] : this.forgotten[id];
+        }
+
+        /**
+         * Creates a new node.
+         *
+         * @param state  the state of the node. The state is copied.
+         * @param parent the parent of the node or -1.
+         * @param action the action used to reach the node from its parent.
+         * @param cost   the cost of the node.
+         * @param depth  the depth of the node.
+         * @param value  the value of f of the node.
+         * @return the slot of the node.
+         */
+        int allocate(final State state, final int parent, final int action, final double cost, final int depth,
+                     final double value) {
+            final int id;
+            if (this.firstFree != -1) {
+                id = this.firstFree;
+                this.firstFree = this.free[id];
+            } else {
+                id = this.used++;
+                if (id == this.states.length) {
+                    final int capacity = this.states.length << 1;
+                    this.states = Arrays.copyOf(this.states, capacity);
+                    this.parents = Arrays.copyOf(this.parents, capacity);
+                    this.actions = Arrays.copyOf(this.actions, capacity);
+                    this.costs = Arrays.copyOf(this.costs, capacity);
+                    this.depths = Arrays.copyOf(this.depths, capacity);
+                    this.values = Arrays.copyOf(this.values, capacity);
+                    this.forgotten = Arrays.copyOf(this.forgotten, capacity);
+                    this.children = Arrays.copyOf(this.children, capacity);
+                    this.free = Arrays.copyOf(this.free, capacity);
+                }
+                this.states[id] = new State();
+            }
+            this.states[id].clear();
+            this.states[id].or(state);
+            this.parents[id] = parent;
+            this.actions[id] = action;
+            this.costs[id] = cost;
+            this.depths[id] = depth;
+            this.values[id] = value;
+            this.forgotten[id] = Double.POSITIVE_INFINITY;
+            this.children[id] = 0;
+            this.size++;
+            return id;
+        }
+
+        /**
+         * Registers a node in the index of the states unless a node of the same state with a lower cost is already
+         * registered.
+         *
+         * @param id the slot of the node.
+         */
+        void register(final int id) {
+            final Integer known = this.index.get(this.states[id]);
+            if (known == null || this.costs[known] > this.costs[id]) {
+                this.index.put(this.states[id], id);
+            }
+        }
+
+        /**
+         * Returns the node of a state in memory or -1 if the state is not in memory.
+         *
+         * @param state the state.
+         * @return the slot of the node of the state or -1 if the state is not in memory.
+         */
+        int lookup(final State state) {
+            final Integer id = this.index.get(state);
+            return id == null ? -1 : id;
+        }
+
+        /**
+         * Frees the slot of a node.
+         *
+         * @param id the slot of the node.
+         */
+        void free(final int id) {
+            final Integer known = this.index.get(this.states[id]);
+            if (known != null && known == id) {
+                this.index.remove(this.states[id]);
+            }
+            this.free[id] = this.firstFree;
+            this.firstFree = id;
+            this.size--;
+        }
+
+        /**
+         * Builds the search node of a node of the tree. The parents of the search node are the ancestors of the node.
+         *
+         * @param id the slot of the node.
+         * @return the search node.
+         */
+        Node toNode(final int id) {
+            int length = 0;
+            for (int n = id; n != -1; n = this.parents[n]) {
+                length++;
+            }
+            final int[] path = new int[length];
+            for (int n = id, i = length - 1; n != -1; n = this.parents[n], i--) {
+                path[i] = n;
+            }
+            Node node = null;
+            for (int n : path) {
+                node = new Node(this.states[n], node, this.actions[n], this.costs[n], this.depths[n],
+                    this.values[n] - this.costs[n]);
+            }
+            return node;
+        }
+
+        /**
+         * Returns an estimation of the amount of memory in bytes used by the tree.
+         *
+         * @return an estimation of the amount of memory in bytes used by the tree.
+         */
+        long getMemoryUsed() {
+            final int capacity = this.states.length;
+            // Each state in memory is referenced by an entry of the index and a boxed integer
+            return this.used * MemoryEstimator.sizeOfState(this.fluents)
+                + (long) this.size * (MemoryEstimator.sizeOfObject(3 * MemoryEstimator.REFERENCE + Integer.BYTES)
+                    + MemoryEstimator.sizeOfObject(Integer.BYTES))
+                + MemoryEstimator.sizeOfArray(capacity, MemoryEstimator.REFERENCE)
+                + 5 * MemoryEstimator.sizeOfArray(capacity, Integer.BYTES)
+                + 3 * MemoryEstimator.sizeOfArray(capacity, Double.BYTES);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class implements a file of fixed-size records of long words used by the external-memory searches to store
+ * states out of the heap. A record is made of the words of a packed state (see
+ * {@link fr.uga.pddl4j.util.BitSet#toLongArray(long[], int, int)}) followed by some words of metadata. The file is
+ * written and read sequentially with NIO through a direct buffer of a few records, so that only the buffer is resident
+ * in memory. The file is never memory-mapped: a mapped file cannot be truncated or deleted on some systems until its
+ * mapping is garbage collected.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 26.11.2021
+ * @since 4.0
+ */
+public final class StateFile {
+
+    /**
+     * The size in bytes of the buffer of a writer or a reader (64 KBytes).
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * The path of the file.
+     */
+    private final Path path;
+
+    /**
+     * The number of words of a record.
+     */
+    private final int recordWords;
+
+    /**
+     * The number of records of the file.
+     */
+    private long records;
+
+    /**
+     * Creates a new empty file of records in a specified directory.
+     *
+     * @param directory   the directory of the file.
+     * @param recordWords the number of words of a record.
+     * @throws IOException if the file cannot be created.
+     * @throws IllegalArgumentException if <code>recordWords &lt; 1</code>.
+     */
+    public StateFile(final Path directory, final int recordWords) throws IOException {
+        if (recordWords < 1) {
+            throw new IllegalArgumentException("recordWords < 1");
+        }
+        this.path = Files.createTempFile(directory, "states-", ".bin");
+        this.recordWords = recordWords;
+        this.records = 0;
+    }
+
+    /**
+     * Returns the path of the file.
+     *
+     * @return the path of the file.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Returns the number of words of a record.
+     *
+     * @return the number of words of a record.
+     */
+    public int getRecordWords() {
+        return this.recordWords;
+    }
+
+    /**
+     * Returns the number of records of the file.
+     *
+     * @return the number of records of the file.
+     */
+    public long size() {
+        return this.records;
+    }
+
+    /**
+     * Allocates the direct buffer of a writer or a reader. The buffer holds a whole number of records.
+     *
+     * @return the buffer allocated.
+     */
+    private ByteBuffer allocate() {
+        final int count = Math.max(1, StateFile.BUFFER / (8 * this.recordWords));
+        return ByteBuffer.allocateDirect(count * this.recordWords * 8).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Opens a writer that appends records at the end of the file.
+     *
+     * @return the writer.
+     * @throws IOException if the file cannot be opened.
+     */
+    public Writer openWriter() throws IOException {
+        return new Writer();
+    }
+
+    /**
+     * Opens a reader that reads the records of the file from the first one.
+     *
+     * @return the reader.
+     * @throws IOException if the file cannot be opened.
+     */
+    public Reader openReader() throws IOException {
+        return new Reader();
+    }
+
+    /**
+     * Deletes the file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(this.path);
+        this.records = 0;
+    }
+
+    /**
+     * This class implements a writer that appends records at the end of a file. The records are put in a direct buffer
+     * that is written in the file when it is full and when the writer is closed.
+     */
+    public final class Writer implements Closeable {
+
+        /**
+         * The channel of the file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The buffer of the records not yet written.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The view of the buffer as long words.
+         */
+        private final LongBuffer words;
+
+        /**
+         * Creates a new writer.
+         *
+         * @throws IOException if the file cannot be opened.
+         */
+        private Writer() throws IOException {
+            this.channel = FileChannel.open(StateFile.this.path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.buffer = StateFile.this.allocate();
+            this.words = this.buffer.asLongBuffer();
+        }
+
+        /**
+         * Appends a record at the end of the file.
+         *
+         * @param src    the array that contains the record.
+         * @param offset the index of the first word of the record in the array.
+         * @throws IOException if the record cannot be written.
+         */
+        public void write(final long[] src, final int offset) throws IOException {
+            if (!this.words.hasRemaining()) {
+                this.flush();
+            }
+            this.words.put(src, offset, StateFile.this.recordWords);
+            StateFile.this.records++;
+        }
+
+        /**
+         * Writes the records of the buffer in the file and clears the buffer.
+         *
+         * @throws IOException if the records cannot be written.
+         */
+        private void flush() throws IOException {
+            this.buffer.clear();
+            this.buffer.limit(this.words.position() * 8);
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.words.clear();
+        }
+
+        /**
+         * Writes the records of the buffer in the file and closes the writer.
+         *
+         * @throws IOException if the records cannot be written.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                this.flush();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * This class implements a reader that reads the records of a file sequentially. The reader keeps the last record
+     * read, so that several sorted files can be merged by comparing the current records of their readers.
+     */
+    public final class Reader implements Closeable {
+
+        /**
+         * The channel of the file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The buffer of the records read from the file.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The view of the buffer as long words.
+         */
+        private final LongBuffer words;
+
+        /**
+         * The index of the next record to read.
+         */
+        private long next;
+
+        /**
+         * The last record read.
+         */
+        private final long[] current;
+
+        /**
+         * Creates a new reader.
+         *
+         * @throws IOException if the file cannot be opened.
+         */
+        private Reader() throws IOException {
+            this.channel = FileChannel.open(StateFile.this.path, StandardOpenOption.READ);
+            this.buffer = StateFile.this.allocate();
+            this.words = this.buffer.asLongBuffer();
+            this.words.limit(0);
+            this.next = 0;
+            this.current = new long[StateFile.this.recordWords];
+        }
+
+        /**
+         * Reads the next record of the file. The record read is returned by {@link #getCurrent()}.
+         *
+         * @return {@code true} if a record was read; {@code false} if the end of the file was reached.
+         * @throws IOException if the record cannot be read.
+         */
+        public boolean next() throws IOException {
+            if (this.next >= StateFile.this.records) {
+                return false;
+            }
+            if (!this.words.hasRemaining()) {
+                this.fill();
+            }
+            this.words.get(this.current, 0, StateFile.this.recordWords);
+            this.next++;
+            return true;
+        }
+
+        /**
+         * Fills the buffer with the next records of the file.
+         *
+         * @throws IOException if the records cannot be read or if the end of the file is reached before the last
+         *      record.
+         */
+        private void fill() throws IOException {
+            final long count = Math.min(this.buffer.capacity() / (8L * StateFile.this.recordWords),
+                StateFile.this.records - this.next);
+            this.buffer.clear();
+            this.buffer.limit((int) (count * StateFile.this.recordWords * 8));
+            while (this.buffer.hasRemaining()) {
+                if (this.channel.read(this.buffer) < 0) {
+                    throw new IOException("unexpected end of file " + StateFile.this.path);
+                }
+            }
+            this.words.clear();
+            this.words.limit((int) (count * StateFile.this.recordWords));
+        }
+
+        /**
+         * Returns the last record read. The array returned is reused by the reader.
+         *
+         * @return the last record read.
+         */
+        public long[] getCurrent() {
+            return this.current;
+        }
+
+        /**
+         * Closes the reader.
+         *
+         * @throws IOException if the file cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
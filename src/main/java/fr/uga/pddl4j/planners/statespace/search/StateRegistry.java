@@ -0,0 +1,559 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.util.BitSet;
+import fr.uga.pddl4j.util.MemoryEstimator;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class implements a compact registry of the states generated during a search. Each state is stored only once as
+ * a fixed number of packed <code>long</code> words in large contiguous pages and receives a dense integer identifier
+ * starting from 0. The search information of a state (parent, action, cost, heuristic value and depth) is stored in
+ * parallel primitive arrays indexed by the identifier of the state. The duplicate detection is done by an open
+ * addressing hash table indexed by the {@link ZobristHash} of the states. The packed words of two states are only
+ * compared when their 64 bits hashes are equal, and the hash of a successor can be computed incrementally from the hash
+ * of its parent and given to the registry.
+ * <p>
+ * Compared to a <code>Map&lt;State, Node&gt;</code>, the registry does not allocate any object per state. The memory
+ * used per state is the size of the packed state plus 36 bytes of search information and a few bytes of hash table.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.1 - 08.11.2021
+ */
+public final class StateRegistry implements Serializable {
+
+    /**
+     * The value used to mark an empty slot of the hash table.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * The default initial number of states that can be stored before the registry grows.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The maximal number of words of a page.
+     */
+    private static final int MAX_WORDS_PER_PAGE = 1 << 20;
+
+    /**
+     * The number of words used to store a state.
+     */
+    private final int wordsPerState;
+
+    /**
+     * The shift used to compute the page of a state from its identifier.
+     */
+    private final int pageShift;
+
+    /**
+     * The mask used to compute the position of a state in its page from its identifier.
+     */
+    private final int pageMask;
+
+    /**
+     * The pages of packed states.
+     */
+    private long[][] pages;
+
+    /**
+     * The hash function of the states.
+     */
+    private final ZobristHash zobrist;
+
+    /**
+     * The hash of the states.
+     */
+    private long[] hashes;
+
+    /**
+     * The parent of the states.
+     */
+    private int[] parents;
+
+    /**
+     * The action used to reach the states from their parent.
+     */
+    private int[] actions;
+
+    /**
+     * The cost of the states, i.e., the cost of the path from the root to the states.
+     */
+    private double[] costs;
+
+    /**
+     * The heuristic value of the states.
+     */
+    private double[] heuristics;
+
+    /**
+     * The depth of the states.
+     */
+    private int[] depths;
+
+    /**
+     * The open addressing hash table that contains the identifier of the states.
+     */
+    private int[] table;
+
+    /**
+     * The number of states in the registry.
+     */
+    private int size;
+
+    /**
+     * Creates a new empty registry for states defined over a specified number of fluents.
+     *
+     * @param fluents the number of fluents of the problem.
+     */
+    public StateRegistry(final int fluents) {
+        this(new ZobristHash(fluents));
+    }
+
+    /**
+     * Creates a new empty registry for states defined over a specified number of fluents.
+     *
+     * @param fluents  the number of fluents of the problem.
+     * @param capacity the initial number of states that can be stored before the registry grows.
+     * @throws IllegalArgumentException if <code>fluents &lt; 0</code> or <code>capacity &lt; 1</code>.
+     */
+    public StateRegistry(final int fluents, final int capacity) {
+        this(new ZobristHash(fluents), capacity);
+    }
+
+    /**
+     * Creates a new empty registry for states hashed with a specified hash function.
+     *
+     * @param zobrist the hash function of the states.
+     */
+    public StateRegistry(final ZobristHash zobrist) {
+        this(zobrist, StateRegistry.DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty registry for states hashed with a specified hash function.
+     *
+     * @param zobrist  the hash function of the states.
+     * @param capacity the initial number of states that can be stored before the registry grows.
+     * @throws NullPointerException if <code>zobrist == null</code>.
+     * @throws IllegalArgumentException if <code>capacity &lt; 1</code>.
+     */
+    public StateRegistry(final ZobristHash zobrist, final int capacity) {
+        Objects.requireNonNull(zobrist);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        this.zobrist = zobrist;
+        this.wordsPerState = Math.max(1, (zobrist.size() + 63) >>> 6);
+        final int statesPerPage = Integer.highestOneBit(Math.max(1,
+            StateRegistry.MAX_WORDS_PER_PAGE / this.wordsPerState));
+        this.pageShift = Integer.numberOfTrailingZeros(statesPerPage);
+        this.pageMask = statesPerPage - 1;
+        this.pages = new long[0][];
+        this.hashes = new long[capacity];
+        this.parents = new int[capacity];
+        this.actions = new int[capacity];
+        this.costs = new double[capacity];
+        this.heuristics = new double[capacity];
+        this.depths = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity) << 2];
+        Arrays.fill(this.table, StateRegistry.EMPTY);
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of states in the registry.
+     *
+     * @return the number of states in the registry.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of words used to store a state.
+     *
+     * @return the number of words used to store a state.
+     */
+    public int getWordsPerState() {
+        return this.wordsPerState;
+    }
+
+    /**
+     * Returns the hash function of the states of the registry.
+     *
+     * @return the hash function of the states of the registry.
+     */
+    public ZobristHash getHashFunction() {
+        return this.zobrist;
+    }
+
+    /**
+     * Returns the identifier of a specified state or -1 if the state is not in the registry.
+     *
+     * @param state the state.
+     * @return the identifier of a specified state or -1 if the state is not in the registry.
+     */
+    public int lookup(final BitSet state) {
+        return this.lookup(state, this.zobrist.hash(state));
+    }
+
+    /**
+     * Returns the identifier of a specified state or -1 if the state is not in the registry.
+     *
+     * @param state the state.
+     * @param hash  the hash of the state computed with the hash function of the registry.
+     * @return the identifier of a specified state or -1 if the state is not in the registry.
+     */
+    public int lookup(final BitSet state, final long hash) {
+        final int mask = this.table.length - 1;
+        int slot = StateRegistry.mix(hash) & mask;
+        int id;
+        while ((id = this.table[slot]) != StateRegistry.EMPTY) {
+            if (this.hashes[id] == hash && this.equals(id, state)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts a state in the registry. If the state is new, the search information of the state is initialized with
+     * no parent, no action, an infinite cost, an heuristic value of 0 and a depth of -1.
+     *
+     * @param state the state to insert.
+     * @return the identifier of the state if the state is new or <code>-(id + 1)</code> where <code>id</code> is the
+     *      identifier of the state already registered otherwise. Thus, the returned value is positive if and only if
+     *      the state was inserted.
+     */
+    public int insert(final BitSet state) {
+        return this.insert(state, this.zobrist.hash(state));
+    }
+
+    /**
+     * Inserts a state with a known hash in the registry. The hash is typically computed incrementally with
+     * {@link ZobristHash#apply(State, long, fr.uga.pddl4j.problem.operator.Effect)}. If the state is new, the search
+     * information of the state is initialized as in {@link #insert(BitSet)}.
+     *
+     * @param state the state to insert.
+     * @param hash  the hash of the state computed with the hash function of the registry.
+     * @return the identifier of the state if the state is new or <code>-(id + 1)</code> where <code>id</code> is the
+     *      identifier of the state already registered otherwise.
+     */
+    public int insert(final BitSet state, final long hash) {
+        final int mask = this.table.length - 1;
+        int slot = StateRegistry.mix(hash) & mask;
+        int id;
+        while ((id = this.table[slot]) != StateRegistry.EMPTY) {
+            if (this.hashes[id] == hash && this.equals(id, state)) {
+                return -(id + 1);
+            }
+            slot = (slot + 1) & mask;
+        }
+        id = this.size;
+        this.ensureCapacity(id + 1);
+        final int page = id >>> this.pageShift;
+        if (page == this.pages.length) {
+            this.pages = Arrays.copyOf(this.pages, page + 1);
+            this.pages[page] = new long[(this.pageMask + 1) * this.wordsPerState];
+        }
+        state.toLongArray(this.pages[page], (id & this.pageMask) * this.wordsPerState, this.wordsPerState);
+        this.hashes[id] = hash;
+        this.parents[id] = -1;
+        this.actions[id] = -1;
+        this.costs[id] = Double.POSITIVE_INFINITY;
+        this.heuristics[id] = 0.0;
+        this.depths[id] = -1;
+        this.table[slot] = id;
+        this.size++;
+        // Keep the load factor of the hash table under 0.5
+        if (this.size << 1 > this.table.length) {
+            this.rehash(this.table.length << 1);
+        }
+        return id;
+    }
+
+    /**
+     * Copies a registered state into a specified state. This method does not allocate memory if the specified state
+     * has already enough capacity.
+     *
+     * @param id    the identifier of the state.
+     * @param state the state where the registered state must be copied.
+     */
+    public void getState(final int id, final BitSet state) {
+        state.setWords(this.pages[id >>> this.pageShift], (id & this.pageMask) * this.wordsPerState,
+            this.wordsPerState);
+    }
+
+    /**
+     * Returns a new state equals to a registered state.
+     *
+     * @param id the identifier of the state.
+     * @return a new state equals to the registered state.
+     */
+    public State getState(final int id) {
+        final State state = new State();
+        this.getState(id, state);
+        return state;
+    }
+
+    /**
+     * Returns the hash of a state.
+     *
+     * @param id the identifier of the state.
+     * @return the hash of the state.
+     */
+    public long getHash(final int id) {
+        return this.hashes[id];
+    }
+
+    /**
+     * Returns the parent of a state or -1 if the state has no parent.
+     *
+     * @param id the identifier of the state.
+     * @return the parent of a state or -1 if the state has no parent.
+     */
+    public int getParent(final int id) {
+        return this.parents[id];
+    }
+
+    /**
+     * Sets the parent of a state.
+     *
+     * @param id     the identifier of the state.
+     * @param parent the identifier of the parent or -1 if the state has no parent.
+     */
+    public void setParent(final int id, final int parent) {
+        this.parents[id] = parent;
+    }
+
+    /**
+     * Returns the action used to reach a state from its parent.
+     *
+     * @param id the identifier of the state.
+     * @return the action used to reach a state from its parent or -1 if the state has no parent.
+     */
+    public int getAction(final int id) {
+        return this.actions[id];
+    }
+
+    /**
+     * Sets the action used to reach a state from its parent.
+     *
+     * @param id     the identifier of the state.
+     * @param action the index of the action.
+     */
+    public void setAction(final int id, final int action) {
+        this.actions[id] = action;
+    }
+
+    /**
+     * Returns the cost of a state, i.e., the cost of the path from the root to the state.
+     *
+     * @param id the identifier of the state.
+     * @return the cost of a state.
+     */
+    public double getCost(final int id) {
+        return this.costs[id];
+    }
+
+    /**
+     * Sets the cost of a state.
+     *
+     * @param id   the identifier of the state.
+     * @param cost the cost of the state.
+     */
+    public void setCost(final int id, final double cost) {
+        this.costs[id] = cost;
+    }
+
+    /**
+     * Returns the heuristic value of a state.
+     *
+     * @param id the identifier of the state.
+     * @return the heuristic value of a state.
+     */
+    public double getHeuristic(final int id) {
+        return this.heuristics[id];
+    }
+
+    /**
+     * Sets the heuristic value of a state.
+     *
+     * @param id        the identifier of the state.
+     * @param heuristic the heuristic value of the state.
+     */
+    public void setHeuristic(final int id, final double heuristic) {
+        this.heuristics[id] = heuristic;
+    }
+
+    /**
+     * Returns the depth of a state.
+     *
+     * @param id the identifier of the state.
+     * @return the depth of a state.
+     */
+    public int getDepth(final int id) {
+        return this.depths[id];
+    }
+
+    /**
+     * Sets the depth of a state.
+     *
+     * @param id    the identifier of the state.
+     * @param depth the depth of the state.
+     */
+    public void setDepth(final int id, final int depth) {
+        this.depths[id] = depth;
+    }
+
+    /**
+     * Sets the search information of a state.
+     *
+     * @param id     the identifier of the state.
+     * @param parent the identifier of the parent or -1 if the state has no parent.
+     * @param action the index of the action used to reach the state from its parent.
+     * @param cost   the cost of the state.
+     * @param depth  the depth of the state.
+     */
+    public void setPath(final int id, final int parent, final int action, final double cost, final int depth) {
+        this.parents[id] = parent;
+        this.actions[id] = action;
+        this.costs[id] = cost;
+        this.depths[id] = depth;
+    }
+
+    /**
+     * Returns the value of the function f = g + weight * h of a state.
+     *
+     * @param id     the identifier of the state.
+     * @param weight the weight of the heuristic.
+     * @return the value of the function f of the state.
+     */
+    public double getValueF(final int id, final double weight) {
+        return weight * this.heuristics[id] + this.costs[id];
+    }
+
+    /**
+     * Builds the search node of a registered state. The parent of the node is built recursively until the root of the
+     * search is reached. This method is used to return a solution node to the caller of a search.
+     *
+     * @param id the identifier of the state.
+     * @return the search node of a registered state or null if <code>id &lt; 0</code>.
+     */
+    public Node toNode(final int id) {
+        if (id < 0) {
+            return null;
+        }
+        // Collect the path from the root to the state
+        int length = 0;
+        for (int s = id; s != -1; s = this.parents[s]) {
+            length++;
+        }
+        final int[] path = new int[length];
+        for (int s = id, i = length - 1; s != -1; s = this.parents[s], i--) {
+            path[i] = s;
+        }
+        Node node = null;
+        for (int s : path) {
+            node = new Node(this.getState(s), node, this.actions[s], this.costs[s], this.depths[s],
+                this.heuristics[s]);
+        }
+        return node;
+    }
+
+    /**
+     * Returns an estimation of the amount of memory in bytes used by the registry. The estimation is computed in
+     * constant time from the capacity of the arrays of the registry.
+     *
+     * @return an estimation of the amount of memory in bytes used by the registry.
+     */
+    public long getMemoryUsed() {
+        final int capacity = this.hashes.length;
+        return MemoryEstimator.sizeOfArray(this.pages.length, MemoryEstimator.REFERENCE)
+            + this.pages.length * MemoryEstimator.sizeOfArray((long) (this.pageMask + 1) * this.wordsPerState,
+                Long.BYTES)
+            + MemoryEstimator.sizeOfArray(capacity, Long.BYTES)
+            + 3 * MemoryEstimator.sizeOfArray(capacity, Integer.BYTES)
+            + 2 * MemoryEstimator.sizeOfArray(capacity, Double.BYTES)
+            + MemoryEstimator.sizeOfArray(this.table.length, Integer.BYTES);
+    }
+
+    /**
+     * Returns <code>true</code> if a registered state is equal to a specified state.
+     *
+     * @param id    the identifier of the registered state.
+     * @param state the state.
+     * @return <code>true</code> if a registered state is equal to a specified state; <code>false</code> otherwise.
+     */
+    private boolean equals(final int id, final BitSet state) {
+        return state.equals(this.pages[id >>> this.pageShift], (id & this.pageMask) * this.wordsPerState,
+            this.wordsPerState);
+    }
+
+    /**
+     * Ensures that the parallel arrays can store the search information of a specified number of states.
+     *
+     * @param capacity the number of states.
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > this.hashes.length) {
+            final int newCapacity = Math.max(capacity, this.hashes.length + (this.hashes.length >> 1));
+            this.hashes = Arrays.copyOf(this.hashes, newCapacity);
+            this.parents = Arrays.copyOf(this.parents, newCapacity);
+            this.actions = Arrays.copyOf(this.actions, newCapacity);
+            this.costs = Arrays.copyOf(this.costs, newCapacity);
+            this.heuristics = Arrays.copyOf(this.heuristics, newCapacity);
+            this.depths = Arrays.copyOf(this.depths, newCapacity);
+        }
+    }
+
+    /**
+     * Rebuilds the hash table with a specified number of slots.
+     *
+     * @param slots the number of slots. The number of slots must be a power of 2.
+     */
+    private void rehash(final int slots) {
+        this.table = new int[slots];
+        Arrays.fill(this.table, StateRegistry.EMPTY);
+        final int mask = slots - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = StateRegistry.mix(this.hashes[id]) & mask;
+            while (this.table[slot] != StateRegistry.EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = id;
+        }
+    }
+
+    /**
+     * Folds a 64 bits hash into an integer used to compute the slot of a state in the hash table.
+     *
+     * @param hash the hash.
+     * @return the folded hash.
+     */
+    private static int mix(final long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -15,8 +15,10 @@
 
 package fr.uga.pddl4j.planners.statespace.search;
 
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchControl;
 import fr.uga.pddl4j.planners.SearchStrategy;
 import fr.uga.pddl4j.problem.Problem;
 
@@ -29,6 +31,27 @@ import fr.uga.pddl4j.problem.Problem;
  */
 public interface StateSpaceSearch extends SearchStrategy {
 
+    /**
+     * The uses of the helpful actions, also known as preferred operators, computed by the heuristic. Only the
+     * enforced hill climbing and the greedy best first search strategies use the helpful actions. The helpful actions
+     * are ignored if the heuristic does not compute them.
+     */
+    enum HelpfulActions {
+        /**
+         * The helpful actions are ignored.
+         */
+        IGNORE,
+        /**
+         * Only the successors reached by a helpful action are generated. The search is no longer complete.
+         */
+        PRUNE,
+        /**
+         * The successors reached by a helpful action are stored in a second pending list that is expanded in
+         * priority. The search remains complete.
+         */
+        PREFER,
+    }
+
     /**
      * The default heuristic used (FAST_FORWARD).
      */
@@ -44,6 +67,21 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     static final int DEFAULT_TIMEOUT = 600;
 
+    /**
+     * The default number of threads (1).
+     */
+    static final int DEFAULT_NUMBER_OF_THREADS = 1;
+
+    /**
+     * The default value of the stubborn set pruning (false).
+     */
+    static final boolean DEFAULT_STUBBORN_SET_PRUNING = false;
+
+    /**
+     * The default use of the helpful actions (IGNORE).
+     */
+    static final HelpfulActions DEFAULT_HELPFUL_ACTIONS = HelpfulActions.IGNORE;
+
     /**
      * Returns the heuristic to use to solve the planning problem.
      *
@@ -86,6 +124,67 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     int getTimeout();
 
+    /**
+     * Returns the number of threads used by the search.
+     *
+     * @return the number of threads used by the search.
+     */
+    int getNumberOfThreads();
+
+    /**
+     * Sets the number of threads used by the search.
+     *
+     * @param threads the number of threads used by the search. The number of threads must be greater than 0.
+     */
+    void setNumberOfThreads(final int threads);
+
+    /**
+     * Returns <code>true</code> if the search prunes the applicable actions of the states with strong stubborn sets.
+     *
+     * @return <code>true</code> if the search prunes the applicable actions with strong stubborn sets;
+     *      <code>false</code> otherwise.
+     * @see StubbornSets
+     */
+    boolean isStubbornSetPruning();
+
+    /**
+     * Sets if the search prunes the applicable actions of the states with strong stubborn sets.
+     *
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     * @see StubbornSets
+     */
+    void setStubbornSetPruning(final boolean pruning);
+
+    /**
+     * Returns the cache of the heuristic values used by the search.
+     *
+     * @return the cache of the heuristic values or null if the heuristic values are not cached.
+     */
+    HeuristicCache getHeuristicCache();
+
+    /**
+     * Sets the cache of the heuristic values used by the search. A cache can be shared by several searches of the same
+     * problem with the same heuristic, e.g., the successive searches run by a planner.
+     *
+     * @param cache the cache of the heuristic values or null if the heuristic values are not cached.
+     */
+    void setHeuristicCache(final HeuristicCache cache);
+
+    /**
+     * Returns the use of the helpful actions computed by the heuristic.
+     *
+     * @return the use of the helpful actions computed by the heuristic.
+     */
+    HelpfulActions getHelpfulActions();
+
+    /**
+     * Sets the use of the helpful actions computed by the heuristic.
+     *
+     * @param helpfulActions the use of the helpful actions. The use of the helpful actions cannot be null.
+     */
+    void setHelpfulActions(final HelpfulActions helpfulActions);
+
     /**
      * Returns the time spend to find a solution.
      *
@@ -101,7 +200,8 @@ public interface StateSpaceSearch extends SearchStrategy {
     void setSearchingTime(final long searchingTime);
 
     /**
-     * Returns the amount of memory used for the search.
+     * Returns the amount of memory in bytes used for the search. The amount is estimated from the data structures of
+     * the search and is updated while the search is running.
      *
      * @return the amount of memory used for the search.
      */
@@ -156,6 +256,46 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     void setCreatedNodes(final int createdNodes);
 
+    /**
+     * Returns the control of the search, i.e., the object that carries the deadline, the cancellation flag and the
+     * budgets of the search.
+     *
+     * @return the control of the search.
+     */
+    SearchControl getSearchControl();
+
+    /**
+     * Sets the control of the search. A control can be shared by several searches, e.g., to stop all the searches run
+     * by a planner.
+     *
+     * @param control the control of the search.
+     * @throws NullPointerException if <code>control == null</code>.
+     */
+    void setSearchControl(final SearchControl control);
+
+    /**
+     * Requests the cancellation of the search. The search stops at the next node expanded. A search can be
+     * cancelled from an other thread than the one that runs the search.
+     */
+    void cancel();
+
+    /**
+     * Returns <code>true</code> if the cancellation of the search was requested.
+     *
+     * @return <code>true</code> if the cancellation of the search was requested; <code>false</code> otherwise.
+     */
+    boolean isCancelled();
+
+    /**
+     * Returns the number of nodes explored by each thread of the search. By default, the search is single-threaded
+     * and the array returned contains only the number of explored nodes.
+     *
+     * @return the number of nodes explored by each thread of the search.
+     */
+    default int[] getExploredNodesPerThread() {
+        return new int[] {this.getExploredNodes()};
+    }
+
     /**
      * Solves the planning problem and returns the first solution node found.
      *
@@ -234,21 +374,76 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     static StateSpaceSearch getInstance(final SearchStrategy.Name name, final StateHeuristic.Name heuristic,
                                         final double weight, final int timeout) {
+        switch (name) {
+            case HDA_STAR:
+                return new HDAStar(timeout, heuristic, weight);
+            default:
+                return StateSpaceSearch.getInstance(name, heuristic, weight, timeout,
+                    StateSpaceSearch.DEFAULT_NUMBER_OF_THREADS);
+        }
+    }
+
+    /**
+     * Returns an instance of a specified search strategy that uses a specified number of threads. The threads are
+     * used by the search strategies that evaluate the heuristic and by the HDA* search strategy.
+     *
+     * @param name the name of the search strategy.
+     * @param heuristic the heuristic to used bt the search strategy.
+     * @param weight the weight of the heuristic to used of the search strategy.
+     * @param timeout the timeout of the search strategy.
+     * @param threads the number of threads used by the search strategy.
+     * @return the search strategy.
+     */
+    static StateSpaceSearch getInstance(final SearchStrategy.Name name, final StateHeuristic.Name heuristic,
+                                        final double weight, final int timeout, final int threads) {
+        final StateSpaceSearch search;
         switch (name) {
             case ASTAR:
-                return new AStar(timeout, heuristic, weight);
+                search = new AStar(timeout, heuristic, weight);
+                break;
             case BREADTH_FIRST:
-                return new BreadthFirstSearch(timeout);
+                search = new BreadthFirstSearch(timeout);
+                break;
             case DEPTH_FIRST:
-                return new DepthFirstSearch(timeout);
+                search = new DepthFirstSearch(timeout);
+                break;
             case ENFORCED_HILL_CLIMBING:
-                return new EnforcedHillClimbing(timeout, heuristic, weight);
+                search = new EnforcedHillClimbing(timeout, heuristic, weight);
+                break;
             case GREEDY_BEST_FIRST:
-                return new GreedyBestFirstSearch(timeout, heuristic, weight);
+                search = new GreedyBestFirstSearch(timeout, heuristic, weight);
+                break;
+            case LAZY_GREEDY_BEST_FIRST:
+                search = new LazyGreedyBestFirstSearch(timeout, heuristic, weight);
+                break;
             case HILL_CLIMBING:
-                return new HillClimbing(timeout, heuristic, weight);
+                search = new HillClimbing(timeout, heuristic, weight);
+                break;
+            case HDA_STAR:
+                search = new HDAStar(timeout, heuristic, weight);
+                break;
+            case REGRESSION:
+                search = new RegressionSearch(timeout, heuristic, weight);
+                break;
+            case BIDIRECTIONAL_ASTAR:
+                search = new BidirectionalAStar(timeout, heuristic, weight);
+                break;
+            case IDA_STAR:
+                search = new IDAStar(timeout, heuristic, weight);
+                break;
+            case SMA_STAR:
+                search = new SMAStar(timeout, heuristic, weight);
+                break;
+            case EXTERNAL_BREADTH_FIRST:
+                search = new ExternalBreadthFirstSearch(timeout);
+                break;
+            case EXTERNAL_ASTAR:
+                search = new ExternalAStar(timeout, heuristic, weight);
+                break;
             default:
                 return null;
         }
+        search.setNumberOfThreads(threads);
+        return search;
     }
 }
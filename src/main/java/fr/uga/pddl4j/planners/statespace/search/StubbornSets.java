@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class implements the pruning of the applicable actions of a state with strong stubborn sets as described in M.
+ * Wehrle and M. Helmert, About Partial Order Reduction in Planning and Computer Aided Verification, Proceedings of
+ * ICAPS, 2012. The pruning only keeps the applicable actions of a strong stubborn set of the state, which removes the
+ * permutations of independent actions while preserving at least one optimal plan from every state. Thus, A* with an
+ * admissible heuristic remains optimal.
+ * <p>
+ * Two actions interfere if one of them deletes a positive precondition or adds a negative precondition of the other,
+ * or if one of them adds a fluent deleted by the other. The stubborn set of a state is computed as a fixpoint: it
+ * starts with the achievers of a goal not satisfied in the state; then, the actions that interfere with each
+ * applicable action of the set are added and the achievers of a precondition not satisfied in the state are added for
+ * each non applicable action of the set. The interference relation and the achievers of the fluents are precomputed.
+ * Use {@link #getInstance(Problem)} to build them only once per problem.
+ * </p>
+ * <p>
+ * The pruning is only defined for the problems whose actions have unconditional effects (see {@link #isSupported()}):
+ * otherwise the applicable actions are not pruned. The pruning is thread-safe: the marks used to compute a stubborn set
+ * are kept by each thread.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 28.11.2021
+ * @since 4.0
+ */
+public final class StubbornSets {
+
+    /**
+     * The pruning that keeps all the applicable actions.
+     */
+    public static final StubbornSets NONE = new StubbornSets();
+
+    /**
+     * The cache of the stubborn sets already built.
+     */
+    private static final Map<Problem, StubbornSets> CACHE = new WeakHashMap<>();
+
+    /**
+     * The positive preconditions of each action.
+     */
+    private final int[][] positivePreconditions;
+
+    /**
+     * The negative preconditions of each action.
+     */
+    private final int[][] negativePreconditions;
+
+    /**
+     * The actions that interfere with each action.
+     */
+    private final int[][] interferences;
+
+    /**
+     * The actions that add each fluent.
+     */
+    private final int[][] adders;
+
+    /**
+     * The actions that delete each fluent.
+     */
+    private final int[][] deleters;
+
+    /**
+     * The positive fluents of the goal.
+     */
+    private final int[] positiveGoals;
+
+    /**
+     * The negative fluents of the goal.
+     */
+    private final int[] negativeGoals;
+
+    /**
+     * The flag set if all the effects of the actions are unconditional.
+     */
+    private final boolean supported;
+
+    /**
+     * The marks used by each thread to compute the stubborn sets.
+     */
+    private final ThreadLocal<Marks> local;
+
+    /**
+     * Returns the stubborn sets of a specified problem. The interference relation is built at the first call and is
+     * reused by the next calls for the same problem.
+     *
+     * @param problem the problem.
+     * @return the stubborn sets of the problem.
+     */
+    public static StubbornSets getInstance(final Problem problem) {
+        synchronized (StubbornSets.CACHE) {
+            StubbornSets sets = StubbornSets.CACHE.get(problem);
+            if (sets == null) {
+                sets = new StubbornSets(problem);
+                StubbornSets.CACHE.put(problem, sets);
+            }
+            return sets;
+        }
+    }
+
+    /**
+     * Creates a pruning that keeps all the applicable actions.
+     */
+    private StubbornSets() {
+        this.positivePreconditions = new int[0][];
+        this.negativePreconditions = new int[0][];
+        this.interferences = new int[0][];
+        this.adders = new int[0][];
+        this.deleters = new int[0][];
+        this.positiveGoals = new int[0];
+        this.negativeGoals = new int[0];
+        this.supported = false;
+        this.local = null;
+    }
+
+    /**
+     * Creates new stubborn sets for a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public StubbornSets(final Problem problem) {
+        final List<Action> actions = problem.getActions();
+        final int fluents = problem.getFluents().size();
+        final int size = actions.size();
+        this.positivePreconditions = new int[size][];
+        this.negativePreconditions = new int[size][];
+        final int[][] addEffects = new int[size][];
+        final int[][] deleteEffects = new int[size][];
+        boolean unconditional = true;
+        for (int i = 0; i < size; i++) {
+            final Action a = actions.get(i);
+            this.positivePreconditions[i] = a.getPrecondition().getPositiveFluents().stream().toArray();
+            this.negativePreconditions[i] = a.getPrecondition().getNegativeFluents().stream().toArray();
+            final BitVector add = new BitVector();
+            final BitVector del = new BitVector();
+            for (ConditionalEffect ce : a.getConditionalEffects()) {
+                if (ce.getCondition().isEmpty()) {
+                    add.or(ce.getEffect().getPositiveFluents());
+                    del.or(ce.getEffect().getNegativeFluents());
+                } else {
+                    unconditional = false;
+                }
+            }
+            del.andNot(add);
+            addEffects[i] = add.stream().toArray();
+            deleteEffects[i] = del.stream().toArray();
+        }
+        this.supported = unconditional;
+        this.adders = StubbornSets.invert(addEffects, fluents);
+        this.deleters = StubbornSets.invert(deleteEffects, fluents);
+        final int[][] positiveRequirers = StubbornSets.invert(this.positivePreconditions, fluents);
+        final int[][] negativeRequirers = StubbornSets.invert(this.negativePreconditions, fluents);
+        this.positiveGoals = problem.getGoal().getPositiveFluents().stream().toArray();
+        this.negativeGoals = problem.getGoal().getNegativeFluents().stream().toArray();
+
+        // The actions that interfere with an action a are the actions that a disables, the actions that disable a and
+        // the actions whose effects conflict with the effects of a
+        this.interferences = new int[size][];
+        final int[] marks = new int[size];
+        final int[] buffer = new int[size];
+        for (int a = 0; a < size; a++) {
+            final int stamp = a + 1;
+            marks[a] = stamp;
+            int count = 0;
+            for (int f : deleteEffects[a]) {
+                count = StubbornSets.collect(positiveRequirers[f], marks, stamp, buffer, count);
+                count = StubbornSets.collect(this.adders[f], marks, stamp, buffer, count);
+            }
+            for (int f : addEffects[a]) {
+                count = StubbornSets.collect(negativeRequirers[f], marks, stamp, buffer, count);
+                count = StubbornSets.collect(this.deleters[f], marks, stamp, buffer, count);
+            }
+            for (int f : this.positivePreconditions[a]) {
+                count = StubbornSets.collect(this.deleters[f], marks, stamp, buffer, count);
+            }
+            for (int f : this.negativePreconditions[a]) {
+                count = StubbornSets.collect(this.adders[f], marks, stamp, buffer, count);
+            }
+            this.interferences[a] = Arrays.copyOf(buffer, count);
+        }
+        this.local = ThreadLocal.withInitial(() -> new Marks(size));
+    }
+
+    /**
+     * Returns for each fluent the actions whose specified fluent lists contain the fluent.
+     *
+     * @param lists   the fluents of each action.
+     * @param fluents the number of fluents.
+     * @return the actions of each fluent.
+     */
+    private static int[][] invert(final int[][] lists, final int fluents) {
+        final int[] counts = new int[fluents];
+        for (int[] list : lists) {
+            for (int f : list) {
+                counts[f]++;
+            }
+        }
+        final int[][] inverse = new int[fluents][];
+        for (int f = 0; f < fluents; f++) {
+            inverse[f] = new int[counts[f]];
+        }
+        Arrays.fill(counts, 0);
+        for (int a = 0; a < lists.length; a++) {
+            for (int f : lists[a]) {
+                inverse[f][counts[f]++] = a;
+            }
+        }
+        return inverse;
+    }
+
+    /**
+     * Appends to a buffer the actions of a list not already marked and marks them.
+     *
+     * @param actions the actions to append.
+     * @param marks   the marks of the actions.
+     * @param stamp   the stamp of the marked actions.
+     * @param buffer  the buffer.
+     * @param count   the number of actions in the buffer.
+     * @return the new number of actions in the buffer.
+     */
+    private static int collect(final int[] actions, final int[] marks, final int stamp, final int[] buffer,
+                               final int count) {
+        int n = count;
+        for (int a : actions) {
+            if (marks[a] != stamp) {
+                marks[a] = stamp;
+                buffer[n++] = a;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns <code>true</code> if the pruning is defined for the problem, i.e., if all the effects of its actions are
+     * unconditional.
+     *
+     * @return <code>true</code> if the pruning is defined for the problem; <code>false</code> otherwise.
+     */
+    public boolean isSupported() {
+        return this.supported;
+    }
+
+    /**
+     * Prunes the applicable actions of a state. The actions kept are the applicable actions of a strong stubborn set of
+     * the state. They are moved at the beginning of the array in their original order. The applicable actions are not
+     * pruned if the pruning is not supported or if the state satisfies the goal. This method does not allocate memory.
+     *
+     * @param state   the state.
+     * @param actions the indexes of the actions applicable in the state.
+     * @param count   the number of actions applicable in the state.
+     * @return the number of actions kept.
+     */
+    public int prune(final State state, final int[] actions, final int count) {
+        if (!this.supported || count == 0) {
+            return count;
+        }
+        final Marks marks = this.local.get();
+        final int stamp = marks.next();
+        for (int i = 0; i < count; i++) {
+            marks.applicable[actions[i]] = stamp;
+        }
+        // Start with the achievers of a goal not satisfied, i.e., a disjunctive action landmark of the state
+        int size = -1;
+        for (int i = 0; i < this.positiveGoals.length && size == -1; i++) {
+            if (!state.get(this.positiveGoals[i])) {
+                size = StubbornSets.collect(this.adders[this.positiveGoals[i]], marks.stubborn, stamp, marks.queue, 0);
+            }
+        }
+        for (int i = 0; i < this.negativeGoals.length && size == -1; i++) {
+            if (state.get(this.negativeGoals[i])) {
+                size = StubbornSets.collect(this.deleters[this.negativeGoals[i]], marks.stubborn, stamp, marks.queue,
+                    0);
+            }
+        }
+        if (size == -1) {
+            return count;
+        }
+        for (int head = 0; head < size; head++) {
+            final int a = marks.queue[head];
+            if (marks.applicable[a] == stamp) {
+                size = StubbornSets.collect(this.interferences[a], marks.stubborn, stamp, marks.queue, size);
+            } else {
+                size = this.enable(a, state, marks.stubborn, stamp, marks.queue, size);
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (marks.stubborn[actions[i]] == stamp) {
+                actions[kept++] = actions[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Appends to the stubborn set the achievers of a precondition of an action not satisfied in a state, i.e., a
+     * necessary enabling set of the action.
+     *
+     * @param action the action not applicable in the state.
+     * @param state  the state.
+     * @param marks  the marks of the actions of the stubborn set.
+     * @param stamp  the stamp of the actions of the stubborn set.
+     * @param queue  the actions of the stubborn set.
+     * @param size   the number of actions of the stubborn set.
+     * @return the new number of actions of the stubborn set.
+     */
+    private int enable(final int action, final State state, final int[] marks, final int stamp, final int[] queue,
+                       final int size) {
+        for (int f : this.positivePreconditions[action]) {
+            if (!state.get(f)) {
+                return StubbornSets.collect(this.adders[f], marks, stamp, queue, size);
+            }
+        }
+        for (int f : this.negativePreconditions[action]) {
+            if (state.get(f)) {
+                return StubbornSets.collect(this.deleters[f], marks, stamp, queue, size);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * This class implements the marks used by a thread to compute the stubborn sets.
+     */
+    private static final class Marks {
+
+        /**
+         * The stamp of the last stubborn set that contains each action.
+         */
+        private final int[] stubborn;
+
+        /**
+         * The stamp of the last state in which each action is applicable.
+         */
+        private final int[] applicable;
+
+        /**
+         * The actions of the current stubborn set in the order they were added.
+         */
+        private final int[] queue;
+
+        /**
+         * The stamp of the current stubborn set.
+         */
+        private int stamp;
+
+        /**
+         * Creates new marks.
+         *
+         * @param actions the number of actions of the problem.
+         */
+        private Marks(final int actions) {
+            this.stubborn = new int[actions];
+            this.applicable = new int[actions];
+            this.queue = new int[actions];
+            this.stamp = 0;
+        }
+
+        /**
+         * Returns the stamp of a new stubborn set.
+         *
+         * @return the stamp of a new stubborn set.
+         */
+        private int next() {
+            if (this.stamp == Integer.MAX_VALUE) {
+                Arrays.fill(this.stubborn, 0);
+                Arrays.fill(this.applicable, 0);
+                this.stamp = 0;
+            }
+            return ++this.stamp;
+        }
+    }
+}
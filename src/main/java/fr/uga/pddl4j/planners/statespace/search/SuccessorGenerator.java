@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitSet;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class implements a successor generator, i.e., a structure that returns the actions applicable in a state
+ * without testing all the actions of a problem. The generator is a decision tree over the positive preconditions of the
+ * actions as described in M. Helmert, The Fast Downward Planning System, Journal of Artificial Intelligence Research,
+ * 26:191-246, 2006.
+ * <p>
+ * Each node of the tree tests a fluent. The actions that require this fluent are stored in the "true" subtree of the
+ * node and the actions that do not care about it are stored in the "don't care" chain of the node. The actions whose
+ * positive preconditions are all tested on the path from the root to a node are stored in the node. Thus, a state only
+ * visits the subtrees of the fluents it contains. The negative preconditions of the actions are tested on the leaves.
+ * The traversal of the tree does not allocate memory.
+ * </p>
+ * <p>
+ * The generator is immutable once built and can be shared between searches and threads. Use
+ * {@link #getInstance(Problem)} to build the generator only once per problem.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 04.11.2021
+ */
+public final class SuccessorGenerator implements Serializable {
+
+    /**
+     * The cache of the successor generators already built.
+     */
+    private static final Map<Problem, SuccessorGenerator> CACHE = new WeakHashMap<>();
+
+    /**
+     * The actions of the problem.
+     */
+    private final Action[] actions;
+
+    /**
+     * The fluent tested by each node of the tree or -1 if the node tests no fluent.
+     */
+    private int[] fluents;
+
+    /**
+     * The "true" child of each node or -1 if the node has no "true" child.
+     */
+    private int[] trueChildren;
+
+    /**
+     * The "don't care" child of each node or -1 if the node has no "don't care" child.
+     */
+    private int[] dontCareChildren;
+
+    /**
+     * The actions whose positive preconditions are all tested when a node is reached.
+     */
+    private int[][] immediates;
+
+    /**
+     * The negative preconditions of each action or null if the action has no negative precondition.
+     */
+    private final BitVector[] negativePreconditions;
+
+    /**
+     * The number of nodes of the tree.
+     */
+    private int size;
+
+    /**
+     * The root of the tree.
+     */
+    private final int root;
+
+    /**
+     * Returns the successor generator of a specified problem. The generator is built at the first call and is reused
+     * by the next calls for the same problem.
+     *
+     * @param problem the problem.
+     * @return the successor generator of the problem.
+     */
+    public static SuccessorGenerator getInstance(final Problem problem) {
+        synchronized (SuccessorGenerator.CACHE) {
+            SuccessorGenerator generator = SuccessorGenerator.CACHE.get(problem);
+            if (generator == null) {
+                generator = new SuccessorGenerator(problem);
+                SuccessorGenerator.CACHE.put(problem, generator);
+            }
+            return generator;
+        }
+    }
+
+    /**
+     * Creates a new successor generator for a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public SuccessorGenerator(final Problem problem) {
+        final List<Action> operators = problem.getActions();
+        this.actions = operators.toArray(new Action[0]);
+        this.negativePreconditions = new BitVector[this.actions.length];
+        final int[][] preconditions = new int[this.actions.length][];
+        for (int i = 0; i < this.actions.length; i++) {
+            final BitVector positive = this.actions[i].getPrecondition().getPositiveFluents();
+            preconditions[i] = positive.stream().toArray();
+            final BitVector negative = this.actions[i].getPrecondition().getNegativeFluents();
+            if (!negative.isEmpty()) {
+                this.negativePreconditions[i] = negative;
+            }
+        }
+        final int capacity = Math.max(16, this.actions.length);
+        this.fluents = new int[capacity];
+        this.trueChildren = new int[capacity];
+        this.dontCareChildren = new int[capacity];
+        this.immediates = new int[capacity][];
+        this.size = 0;
+        final int[] all = new int[this.actions.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        this.root = this.build(all, all.length, preconditions, 0);
+        this.fluents = Arrays.copyOf(this.fluents, this.size);
+        this.trueChildren = Arrays.copyOf(this.trueChildren, this.size);
+        this.dontCareChildren = Arrays.copyOf(this.dontCareChildren, this.size);
+        this.immediates = Arrays.copyOf(this.immediates, this.size);
+    }
+
+    /**
+     * Returns the number of actions of the problem.
+     *
+     * @return the number of actions of the problem.
+     */
+    public int getNumberOfActions() {
+        return this.actions.length;
+    }
+
+    /**
+     * Computes the actions applicable in a specified state. The indexes of the applicable actions are written in the
+     * specified array. This method does not allocate memory.
+     *
+     * @param state   the state.
+     * @param buffer  the array where the indexes of the applicable actions are written. The length of the array must
+     *                be greater or equal to the number of actions of the problem.
+     * @return the number of actions applicable in the state.
+     */
+    public int getApplicableActions(final BitSet state, final int[] buffer) {
+        return this.root == -1 ? 0 : this.collect(this.root, state, buffer, 0);
+    }
+
+    /**
+     * Returns the actions applicable in a specified state.
+     *
+     * @param state the state.
+     * @return the indexes of the actions applicable in the state.
+     */
+    public int[] getApplicableActions(final BitSet state) {
+        final int[] buffer = new int[this.actions.length];
+        return Arrays.copyOf(buffer, this.getApplicableActions(state, buffer));
+    }
+
+    /**
+     * Computes the successor of a state by an action. The conditional effects of the action are applied if their
+     * condition holds in the state. The action is assumed to be applicable in the state.
+     *
+     * @param action    the index of the action.
+     * @param state     the state.
+     * @param successor the state where the successor is written. The successor must not be the state itself.
+     */
+    public void apply(final int action, final State state, final State successor) {
+        successor.clear();
+        successor.or(state);
+        final List<ConditionalEffect> effects = this.actions[action].getConditionalEffects();
+        for (int i = 0; i < effects.size(); i++) {
+            final ConditionalEffect ce = effects.get(i);
+            if (state.satisfy(ce.getCondition())) {
+                successor.apply(ce.getEffect());
+            }
+        }
+    }
+
+    /**
+     * Computes the successor of a state by an action as {@link #apply(int, State, State)} and returns the hash of the
+     * successor. The hash is computed incrementally from the hash of the state.
+     *
+     * @param action    the index of the action.
+     * @param state     the state.
+     * @param hash      the hash of the state.
+     * @param successor the state where the successor is written. The successor must not be the state itself.
+     * @param zobrist   the hash function used to compute the hash of the state.
+     * @return the hash of the successor.
+     */
+    public long apply(final int action, final State state, final long hash, final State successor,
+                      final ZobristHash zobrist) {
+        successor.clear();
+        successor.or(state);
+        long h = hash;
+        final List<ConditionalEffect> effects = this.actions[action].getConditionalEffects();
+        for (int i = 0; i < effects.size(); i++) {
+            final ConditionalEffect ce = effects.get(i);
+            if (state.satisfy(ce.getCondition())) {
+                h = zobrist.apply(successor, h, ce.getEffect());
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Collects the actions applicable in a state from a specified node of the tree.
+     *
+     * @param node   the node.
+     * @param state  the state.
+     * @param buffer the array where the indexes of the applicable actions are written.
+     * @param n      the number of actions already written in the array.
+     * @return the number of actions written in the array.
+     */
+    private int collect(int node, final BitSet state, final int[] buffer, int n) {
+        // The "don't care" chain is followed iteratively and the "true" children recursively. The depth of the
+        // recursion is thus bounded by the number of positive preconditions of the actions.
+        while (node != -1) {
+            for (int a : this.immediates[node]) {
+                final BitVector negative = this.negativePreconditions[a];
+                if (negative == null || !state.intersects(negative)) {
+                    buffer[n++] = a;
+                }
+            }
+            final int fluent = this.fluents[node];
+            if (fluent != -1 && state.get(fluent)) {
+                n = this.collect(this.trueChildren[node], state, buffer, n);
+            }
+            node = this.dontCareChildren[node];
+        }
+        return n;
+    }
+
+    /**
+     * Builds the subtree for a specified set of actions.
+     *
+     * @param group         the actions of the subtree.
+     * @param length        the number of actions in the group.
+     * @param preconditions the positive preconditions of the actions sorted in ascending order.
+     * @param depth         the number of preconditions of the actions of the group already tested.
+     * @return the root of the subtree or -1 if the group is empty.
+     */
+    private int build(int[] group, int length, final int[][] preconditions, final int depth) {
+        int first = -1;
+        int previous = -1;
+        // The nodes of the "don't care" chain are built iteratively
+        while (length > 0) {
+            final int node = this.newNode();
+            if (previous == -1) {
+                first = node;
+            } else {
+                this.dontCareChildren[previous] = node;
+            }
+            // Split the group in the actions completely tested and the others and look for the smallest fluent
+            // still to test
+            final List<Integer> immediate = new ArrayList<>();
+            int fluent = Integer.MAX_VALUE;
+            int remaining = 0;
+            for (int i = 0; i < length; i++) {
+                final int a = group[i];
+                final int[] pre = preconditions[a];
+                if (depth == pre.length) {
+                    immediate.add(a);
+                } else {
+                    group[remaining++] = a;
+                    if (pre[depth] < fluent) {
+                        fluent = pre[depth];
+                    }
+                }
+            }
+            this.immediates[node] = immediate.stream().mapToInt(Integer::intValue).toArray();
+            if (remaining == 0) {
+                break;
+            }
+            this.fluents[node] = fluent;
+            // The preconditions are sorted, so an action requires the smallest fluent iff its next precondition is
+            // this fluent. These actions go to the "true" child; the others remain in the chain
+            final int[] trueGroup = new int[remaining];
+            int trueLength = 0;
+            int others = 0;
+            for (int i = 0; i < remaining; i++) {
+                final int a = group[i];
+                if (preconditions[a][depth] == fluent) {
+                    trueGroup[trueLength++] = a;
+                } else {
+                    group[others++] = a;
+                }
+            }
+            // The child must be built before the array is dereferenced because the array grows with the tree
+            final int child = this.build(trueGroup, trueLength, preconditions, depth + 1);
+            this.trueChildren[node] = child;
+            length = others;
+            previous = node;
+        }
+        return first;
+    }
+
+    /**
+     * Creates a new node and returns its index.
+     *
+     * @return the index of the new node.
+     */
+    private int newNode() {
+        if (this.size == this.fluents.length) {
+            final int capacity = this.size << 1;
+            this.fluents = Arrays.copyOf(this.fluents, capacity);
+            this.trueChildren = Arrays.copyOf(this.trueChildren, capacity);
+            this.dontCareChildren = Arrays.copyOf(this.dontCareChildren, capacity);
+            this.immediates = Arrays.copyOf(this.immediates, capacity);
+        }
+        final int node = this.size++;
+        this.fluents[node] = -1;
+        this.trueChildren[node] = -1;
+        this.dontCareChildren[node] = -1;
+        this.immediates[node] = new int[0];
+        return node;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.util.MemoryEstimator;
+
+/**
+ * This class implements a transposition table of fixed size used by the memory-bounded searches. The table maps the
+ * {@link ZobristHash} of a state to the lowest cost with which the state was reached during an iteration of the
+ * search and to the heuristic value learned for the state. The table is direct-mapped: each hash has a single slot and
+ * a new entry replaces the entry stored in its slot. The states themselves are not stored: two states are considered
+ * equal when their 64 bits hashes are equal.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.11.2021
+ * @since 4.0
+ */
+public final class TranspositionTable {
+
+    /**
+     * The hash of the state of each slot.
+     */
+    private final long[] keys;
+
+    /**
+     * The cost of the state of each slot.
+     */
+    private final double[] costs;
+
+    /**
+     * The heuristic value of the state of each slot.
+     */
+    private final double[] heuristics;
+
+    /**
+     * The iteration of the search that stored the entry of each slot or 0 if the slot is empty.
+     */
+    private final int[] iterations;
+
+    /**
+     * The mask used to compute the slot of a hash.
+     */
+    private final int mask;
+
+    /**
+     * Creates a new transposition table with a specified number of entries. The number of entries is rounded up to a
+     * power of two.
+     *
+     * @param entries the number of entries of the table.
+     * @throws IllegalArgumentException if <code>entries &lt; 1</code>.
+     */
+    public TranspositionTable(final int entries) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("entries < 1");
+        }
+        final int bounded = Math.min(entries, 1 << 30);
+        final int capacity = Integer.highestOneBit(Math.max(1, bounded - 1)) << (bounded > 1 ? 1 : 0);
+        this.keys = new long[capacity];
+        this.costs = new double[capacity];
+        this.heuristics = new double[capacity];
+        this.iterations = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of entries of the table.
+     *
+     * @return the number of entries of the table.
+     */
+    public int capacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * Returns the slot of the entry of a state or -1 if the table contains no entry for the state.
+     *
+     * @param hash the hash of the state.
+     * @return the slot of the entry of the state or -1 if the table contains no entry for the state.
+     */
+    public int lookup(final long hash) {
+        final int slot = TranspositionTable.mix(hash) & this.mask;
+        return this.iterations[slot] != 0 && this.keys[slot] == hash ? slot : -1;
+    }
+
+    /**
+     * Stores the entry of a state. The entry replaces the entry previously stored in the slot of the state.
+     *
+     * @param hash      the hash of the state.
+     * @param cost      the cost of the state.
+     * @param heuristic the heuristic value of the state.
+     * @param iteration the iteration of the search. The iteration must be strictly positive.
+     */
+    public void store(final long hash, final double cost, final double heuristic, final int iteration) {
+        final int slot = TranspositionTable.mix(hash) & this.mask;
+        this.keys[slot] = hash;
+        this.costs[slot] = cost;
+        this.heuristics[slot] = heuristic;
+        this.iterations[slot] = iteration;
+    }
+
+    /**
+     * Returns the cost of the entry of a slot.
+     *
+     * @param slot the slot.
+     * @return the cost of the entry.
+     */
+    public double getCost(final int slot) {
+        return this.costs[slot];
+    }
+
+    /**
+     * Returns the heuristic value of the entry of a slot.
+     *
+     * @param slot the slot.
+     * @return the heuristic value of the entry.
+     */
+    public double getHeuristic(final int slot) {
+        return this.heuristics[slot];
+    }
+
+    /**
+     * Sets the heuristic value of the entry of a slot.
+     *
+     * @param slot      the slot.
+     * @param heuristic the heuristic value of the entry.
+     */
+    public void setHeuristic(final int slot, final double heuristic) {
+        this.heuristics[slot] = heuristic;
+    }
+
+    /**
+     * Returns the iteration of the search that stored the entry of a slot.
+     *
+     * @param slot the slot.
+     * @return the iteration of the entry.
+     */
+    public int getIteration(final int slot) {
+        return this.iterations[slot];
+    }
+
+    /**
+     * Returns an estimation of the amount of memory in bytes used by the table.
+     *
+     * @return an estimation of the amount of memory in bytes used by the table.
+     */
+    public long getMemoryUsed() {
+        final int capacity = this.keys.length;
+        return MemoryEstimator.sizeOfArray(capacity, Long.BYTES)
+            + 2 * MemoryEstimator.sizeOfArray(capacity, Double.BYTES)
+            + MemoryEstimator.sizeOfArray(capacity, Integer.BYTES);
+    }
+
+    /**
+     * Folds a 64 bits hash into an integer used to compute the slot of a state.
+     *
+     * @param hash the hash.
+     * @return the folded hash.
+     */
+    private static int mix(final long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Effect;
+import fr.uga.pddl4j.util.BitSet;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.WeakHashMap;
+
+/**
+ * This class implements a Zobrist hash function over states. A random 64 bits key is associated to each fluent of a
+ * problem and the hash of a state is the exclusive or of the keys of the fluents true in the state. Thus, the hash of
+ * a successor can be computed from the hash of its parent by flipping only the keys of the fluents modified by the
+ * effects applied, without reading the whole state.
+ * <p>
+ * The keys are generated from a fixed seed so that the hash of a state is the same from one run to another. Use
+ * {@link #getInstance(Problem)} to generate the keys only once per problem.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 08.11.2021
+ */
+public final class ZobristHash implements Serializable {
+
+    /**
+     * The seed used to generate the keys.
+     */
+    private static final long SEED = 0x5DEECE66DL;
+
+    /**
+     * The cache of the hash functions already built.
+     */
+    private static final Map<Problem, ZobristHash> CACHE = new WeakHashMap<>();
+
+    /**
+     * The random key of each fluent.
+     */
+    private final long[] keys;
+
+    /**
+     * Returns the hash function of a specified problem. The keys are generated at the first call and are reused by the
+     * next calls for the same problem.
+     *
+     * @param problem the problem.
+     * @return the hash function of the problem.
+     */
+    public static ZobristHash getInstance(final Problem problem) {
+        synchronized (ZobristHash.CACHE) {
+            ZobristHash hash = ZobristHash.CACHE.get(problem);
+            if (hash == null) {
+                hash = new ZobristHash(problem.getFluents().size());
+                ZobristHash.CACHE.put(problem, hash);
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * Creates a new hash function for states defined over a specified number of fluents.
+     *
+     * @param fluents the number of fluents.
+     * @throws IllegalArgumentException if <code>fluents &lt; 0</code>.
+     */
+    public ZobristHash(final int fluents) {
+        if (fluents < 0) {
+            throw new IllegalArgumentException("fluents < 0");
+        }
+        final SplittableRandom random = new SplittableRandom(ZobristHash.SEED);
+        this.keys = new long[fluents];
+        for (int i = 0; i < fluents; i++) {
+            this.keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Returns the number of fluents of the hash function.
+     *
+     * @return the number of fluents of the hash function.
+     */
+    public int size() {
+        return this.keys.length;
+    }
+
+    /**
+     * Returns the hash of a specified state. The hash is computed from scratch.
+     *
+     * @param state the state.
+     * @return the hash of the state.
+     */
+    public long hash(final BitSet state) {
+        long hash = 0L;
+        for (int f = state.nextSetBit(0); f >= 0; f = state.nextSetBit(f + 1)) {
+            hash ^= this.keys[f];
+        }
+        return hash;
+    }
+
+    /**
+     * Applies an effect to a state and returns the hash of the resulting state. Only the keys of the fluents flipped
+     * by the effect are used to update the hash. This method does not allocate memory.
+     *
+     * @param state  the state modified.
+     * @param hash   the hash of the state before the application of the effect.
+     * @param effect the effect to apply.
+     * @return the hash of the state after the application of the effect.
+     */
+    public long apply(final State state, final long hash, final Effect effect) {
+        long h = hash;
+        final BitVector positive = effect.getPositiveFluents();
+        final BitVector negative = effect.getNegativeFluents();
+        // A fluent deleted is flipped if it was true and is not added back by the effect
+        for (int f = negative.nextSetBit(0); f >= 0; f = negative.nextSetBit(f + 1)) {
+            if (state.get(f) && !positive.get(f)) {
+                h ^= this.keys[f];
+            }
+        }
+        // A fluent added is flipped if it was false
+        for (int f = positive.nextSetBit(0); f >= 0; f = positive.nextSetBit(f + 1)) {
+            if (!state.get(f)) {
+                h ^= this.keys[f];
+            }
+        }
+        state.apply(effect);
+        return h;
+    }
+}
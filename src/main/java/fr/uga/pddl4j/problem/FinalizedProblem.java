@@ -19,6 +19,7 @@ import fr.uga.pddl4j.parser.Connector;
 import fr.uga.pddl4j.parser.DefaultParsedProblem;
 import fr.uga.pddl4j.parser.Expression;
 import fr.uga.pddl4j.parser.Message;
+import fr.uga.pddl4j.parser.Parser;
 import fr.uga.pddl4j.parser.Symbol;
 import fr.uga.pddl4j.parser.SymbolType;
 import fr.uga.pddl4j.parser.UnexpectedExpressionException;
@@ -893,6 +894,24 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return assignment;
     }
 
+    /**
+     * Returns if a specified numeric effect is an action cost, i.e., an increase of the total cost by a constant
+     * value. The static numeric functions, e.g., the lengths of the roads, are already replaced by their values.
+     *
+     * @param exp the numeric effect.
+     * @return <code>true</code> if the numeric effect is an action cost; <code>false</code> otherwise.
+     */
+    private boolean isActionCost(final Expression<Integer> exp) {
+        if (!exp.getConnector().equals(Connector.INCREASE)) {
+            return false;
+        }
+        final Expression<Integer> fluent = exp.getChildren().get(0);
+        return fluent.getConnector().equals(Connector.FN_HEAD)
+            && fluent.getSymbol() != null
+            && this.getFunctions().get(fluent.getSymbol().getValue()).equals(Parser.TOTAL_COST.getValue())
+            && exp.getChildren().get(1).getConnector().equals(Connector.NUMBER);
+    }
+
     /**
      * Encodes a specified action.
      *
@@ -930,6 +949,8 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         //System.out.println(this.toString(action));
         final ConditionalEffect unCondEffects = new ConditionalEffect();
         boolean hasUnConditionalEffects = false;
+        double cost = 0.0;
+        boolean hasCost = false;
         while (!effects.isEmpty()) { //for (Expression ei : effects) {
             Expression<Integer> ei = effects.poll();
             final Connector connective = ei.getConnector();
@@ -967,6 +988,11 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 case SCALE_UP:
                 case INCREASE:
                 case DECREASE:
+                    // The constant increases of the total cost, i.e., the action costs, are the cost of the action
+                    if (this.isActionCost(ei)) {
+                        cost += ei.getChildren().get(1).getValue();
+                        hasCost = true;
+                    }
                     NumericAssignment assignment = this.finalizeNumericAssignment(ei);
                     unCondEffects.getEffect().addNumericAssignment(assignment);
                     break;
@@ -980,6 +1006,9 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         if (hasUnConditionalEffects) {
             encoded.getConditionalEffects().add(unCondEffects);
         }
+        if (hasCost) {
+            encoded.getCost().setValue(cost);
+        }
         /*try {
             System.in.read();
         } catch (IOException e) {
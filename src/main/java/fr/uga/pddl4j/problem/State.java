@@ -80,8 +80,7 @@ public class State extends BitVector {
      * @param state the state to apply.
      */
     public final void apply(final Effect state) {
-        this.andNot(state.getNegativeFluents());
-        this.or(state.getPositiveFluents());
+        this.andNotOr(state.getNegativeFluents(), state.getPositiveFluents());
     }
 
     /**
@@ -90,7 +89,9 @@ public class State extends BitVector {
      * @param effects the list of conditional effects to apply.
      */
     public final void apply(final List<ConditionalEffect> effects) {
-        effects.stream().forEach(ce -> this.apply(ce.getEffect()));
+        for (int i = 0; i < effects.size(); i++) {
+            this.apply(effects.get(i).getEffect());
+        }
     }
 
     /**
@@ -113,8 +114,7 @@ public class State extends BitVector {
      * @return <code>true</code> if this state satisfy a specified state; <code>false</code> otherwise.
      */
     public final boolean satisfy(final Condition state) {
-        return this.include(state.getPositiveFluents()) && this.exclude(state.getNegativeFluents());
-
+        return this.contains(state.getPositiveFluents()) && !this.intersects(state.getNegativeFluents());
     }
 
 }
@@ -325,6 +325,73 @@ public class BitSet implements Cloneable, java.io.Serializable {
         return Arrays.copyOf(words, wordsInUse);
     }
 
+    /**
+     * Copies the words of this bit set into a region of a specified long array. The region is padded with zeros if
+     * this bit set uses fewer words than the length of the region. This method does not allocate memory.
+     * Change from the original code: added to store bit sets in packed arrays.
+     *
+     * @param dest   the destination array.
+     * @param offset the index of the first word of the region in the destination array.
+     * @param length the number of words of the region. The length must be greater or equal to the number of words in
+     *               use by this bit set.
+     * @throws IndexOutOfBoundsException if the region does not fit in the destination array or if the bit set uses
+     *                                   more words than the length of the region.
+     */
+    public void toLongArray(long[] dest, int offset, int length) {
+        if (wordsInUse > length) {
+            throw new IndexOutOfBoundsException("wordsInUse > length");
+        }
+        System.arraycopy(words, 0, dest, offset, wordsInUse);
+        Arrays.fill(dest, offset + wordsInUse, offset + length, 0L);
+    }
+
+    /**
+     * Replaces the content of this bit set by the words of a region of a specified long array. This method does not
+     * allocate memory if the bit set has already enough capacity.
+     * Change from the original code: added to load bit sets from packed arrays.
+     *
+     * @param src    the source array.
+     * @param offset the index of the first word of the region in the source array.
+     * @param length the number of words of the region.
+     */
+    public void setWords(long[] src, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(src, offset, words, 0, length);
+        if (wordsInUse > length) {
+            Arrays.fill(words, length, wordsInUse, 0L);
+        }
+        wordsInUse = length;
+        recalculateWordsInUse();
+        checkInvariants();
+    }
+
+    /**
+     * Returns {@code true} if this bit set has exactly the bits set in a region of a specified long array. This method
+     * does not allocate memory.
+     * Change from the original code: added to compare bit sets with packed arrays.
+     *
+     * @param src    the source array.
+     * @param offset the index of the first word of the region in the source array.
+     * @param length the number of words of the region.
+     * @return {@code true} if this bit set has exactly the bits set in the region; {@code false} otherwise.
+     */
+    public boolean equals(long[] src, int offset, int length) {
+        if (wordsInUse > length) {
+            return false;
+        }
+        for (int i = 0; i < wordsInUse; i++) {
+            if (words[i] != src[offset + i]) {
+                return false;
+            }
+        }
+        for (int i = wordsInUse; i < length; i++) {
+            if (src[offset + i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Ensures that the BitSet can hold enough words.
      *
@@ -911,6 +978,38 @@ public class BitSet implements Cloneable, java.io.Serializable {
         return false;
     }
 
+    /**
+     * Returns true if all the bits set to {@code true} in the specified {@code BitSet} are also set to {@code true}
+     * in this {@code BitSet}. This method does not allocate memory.
+     * Change from the original code: added to test the inclusion of bit sets without copy.
+     *
+     * @param set {@code BitSet} to test
+     * @return boolean indicating whether the specified {@code BitSet} is a subset of this {@code BitSet}
+     */
+    public boolean contains(BitSet set) {
+        if (set.wordsInUse > wordsInUse) {
+            return false;
+        }
+        for (int i = set.wordsInUse - 1; i >= 0; i--) {
+            if ((set.words[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the specified {@code BitSet} has no bit set to {@code true} that is also set to {@code true}
+     * in this {@code BitSet}. This method does not allocate memory.
+     * Change from the original code: added for symmetry with {@link #contains(BitSet)}.
+     *
+     * @param set {@code BitSet} to test
+     * @return boolean indicating whether this {@code BitSet} and the specified {@code BitSet} are disjoint
+     */
+    public boolean isDisjoint(BitSet set) {
+        return !intersects(set);
+    }
+
     /**
      * Returns the number of bits set to {@code true} in this {@code BitSet}.
      *
@@ -1045,6 +1144,34 @@ public class BitSet implements Cloneable, java.io.Serializable {
         checkInvariants();
     }
 
+    /**
+     * Clears all of the bits in this {@code BitSet} whose corresponding bit is set in the first specified
+     * {@code BitSet} and then sets all the bits set in the second specified {@code BitSet}, i.e., computes
+     * {@code (this & ~clear) | set} in a single pass over the words. This method does not allocate memory if the bit
+     * set has already enough capacity.
+     * Change from the original code: added to apply the effects of actions in place.
+     *
+     * @param clear the {@code BitSet} with which to mask this {@code BitSet}
+     * @param set   the {@code BitSet} to add to this {@code BitSet}
+     */
+    public void andNotOr(BitSet clear, BitSet set) {
+        final int n = Math.max(wordsInUse, set.wordsInUse);
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            long w = i < wordsInUse ? words[i] : 0L;
+            if (i < clear.wordsInUse) {
+                w &= ~clear.words[i];
+            }
+            if (i < set.wordsInUse) {
+                w |= set.words[i];
+            }
+            words[i] = w;
+        }
+        wordsInUse = n;
+        recalculateWordsInUse();
+        checkInvariants();
+    }
+
     /**
      * Returns the hash code value for this bit set. The hash code depends
      * only on which bits are set within this {@code BitSet}.
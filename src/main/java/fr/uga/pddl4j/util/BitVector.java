@@ -29,6 +29,7 @@ import java.util.Arrays;
  * Revisions:
  * <ul>
  * <li>26.06.2020: Add shift methods.</li>
+ * <li>05.11.2021: Test inclusion without copy.</li>
  * </ul>
  *
  * @author D. Pellier
@@ -84,9 +85,7 @@ public class BitVector extends BitSet {
      * <code>BitVector</code>; <code>false</code> otherwise.
      */
     public final boolean include(final BitVector vector) {
-        final BitVector copy = new BitVector(this);
-        copy.or(vector);
-        return copy.equals(this);
+        return this.contains(vector);
     }
 
     /**
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class implements an addressable binary heap. Unlike {@code java.util.PriorityQueue}, the position of each
+ * element in the heap is indexed. This makes it possible to retrieve, update or remove an element equal to a specified
+ * one in O(log n) instead of O(n). Elements that compare equal according to the comparator of the queue are polled in
+ * their insertion order.
+ * <p>
+ * The queue does not accept two equal elements (in the sense of {@code equals()}). Moreover, the fields of an element
+ * used to compute its priority must not be modified while the element is in the queue unless the method
+ * {@link #update(Object)} is called just after the modification.
+ * </p>
+ *
+ * @param <E> the type of the elements of the queue.
+ * @author D. Pellier
+ * @version 1.0 - 21.10.2021
+ */
+public final class IndexedPriorityQueue<E> implements Serializable {
+
+    /**
+     * The default initial capacity of the queue.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The comparator used to order the elements of the queue.
+     */
+    private final Comparator<? super E> comparator;
+
+    /**
+     * The heap of elements.
+     */
+    private Object[] heap;
+
+    /**
+     * The insertion stamp of the elements of the heap used to break ties.
+     */
+    private long[] stamps;
+
+    /**
+     * The index of each element in the heap.
+     */
+    private final Map<E, Integer> index;
+
+    /**
+     * The number of elements in the queue.
+     */
+    private int size;
+
+    /**
+     * The next insertion stamp.
+     */
+    private long stamp;
+
+    /**
+     * Creates a new empty queue with a specified comparator.
+     *
+     * @param comparator the comparator used to order the elements of the queue.
+     * @throws NullPointerException if <code>comparator == null</code>.
+     */
+    public IndexedPriorityQueue(final Comparator<? super E> comparator) {
+        this(IndexedPriorityQueue.DEFAULT_INITIAL_CAPACITY, comparator);
+    }
+
+    /**
+     * Creates a new empty queue with a specified initial capacity and comparator.
+     *
+     * @param capacity   the initial capacity of the queue.
+     * @param comparator the comparator used to order the elements of the queue.
+     * @throws NullPointerException if <code>comparator == null</code>.
+     * @throws IllegalArgumentException if <code>capacity &lt; 1</code>.
+     */
+    public IndexedPriorityQueue(final int capacity, final Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        this.comparator = comparator;
+        this.heap = new Object[capacity];
+        this.stamps = new long[capacity];
+        this.index = new HashMap<>(capacity);
+        this.size = 0;
+        this.stamp = 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements in the queue.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns <code>true</code> if the queue contains no element.
+     *
+     * @return <code>true</code> if the queue contains no element; <code>false</code> otherwise.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the queue contains an element equal to the specified element.
+     *
+     * @param e the element.
+     * @return <code>true</code> if the queue contains an element equal to the specified element; <code>false</code>
+     *      otherwise.
+     */
+    public boolean contains(final Object e) {
+        return this.index.containsKey(e);
+    }
+
+    /**
+     * Returns the element of the queue equal to a specified element or null if the queue does not contain such an
+     * element.
+     *
+     * @param e the element.
+     * @return the element of the queue equal to a specified element or null.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(final Object e) {
+        final Integer i = this.index.get(e);
+        return i == null ? null : (E) this.heap[i];
+    }
+
+    /**
+     * Adds an element to the queue.
+     *
+     * @param e the element to add.
+     * @return <code>true</code> if the element was added; <code>false</code> if an equal element is already in the
+     *      queue.
+     * @throws NullPointerException if <code>e == null</code>.
+     */
+    public boolean add(final E e) {
+        Objects.requireNonNull(e);
+        if (this.index.containsKey(e)) {
+            return false;
+        }
+        if (this.size == this.heap.length) {
+            final int capacity = this.heap.length << 1;
+            this.heap = Arrays.copyOf(this.heap, capacity);
+            this.stamps = Arrays.copyOf(this.stamps, capacity);
+        }
+        final int i = this.size++;
+        this.heap[i] = e;
+        this.stamps[i] = this.stamp++;
+        this.index.put(e, i);
+        this.siftUp(i);
+        return true;
+    }
+
+    /**
+     * Returns without removing the element at the head of the queue or null if the queue is empty.
+     *
+     * @return the element at the head of the queue or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return this.size == 0 ? null : (E) this.heap[0];
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue or null if the queue is empty.
+     *
+     * @return the element at the head of the queue or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        final E head = (E) this.heap[0];
+        this.removeAt(0);
+        return head;
+    }
+
+    /**
+     * Removes the element of the queue equal to a specified element.
+     *
+     * @param e the element to remove.
+     * @return <code>true</code> if an element was removed; <code>false</code> otherwise.
+     */
+    public boolean remove(final Object e) {
+        final Integer i = this.index.get(e);
+        if (i == null) {
+            return false;
+        }
+        this.removeAt(i);
+        return true;
+    }
+
+    /**
+     * Restores the order of the queue after the priority of an element of the queue was modified. The element keeps
+     * its original insertion stamp.
+     *
+     * @param e the element whose priority was modified.
+     * @return <code>true</code> if the element is in the queue; <code>false</code> otherwise.
+     */
+    public boolean update(final E e) {
+        final Integer i = this.index.get(e);
+        if (i == null) {
+            return false;
+        }
+        if (this.siftUp(i) == i) {
+            this.siftDown(i);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the elements of the queue.
+     */
+    public void clear() {
+        Arrays.fill(this.heap, 0, this.size, null);
+        this.index.clear();
+        this.size = 0;
+        this.stamp = 0;
+    }
+
+    /**
+     * Removes the element at a specified position in the heap.
+     *
+     * @param i the position of the element to remove.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeAt(final int i) {
+        this.index.remove(this.heap[i]);
+        final int last = --this.size;
+        if (i != last) {
+            this.heap[i] = this.heap[last];
+            this.stamps[i] = this.stamps[last];
+            this.index.put((E) this.heap[i], i);
+            this.heap[last] = null;
+            if (this.siftUp(i) == i) {
+                this.siftDown(i);
+            }
+        } else {
+            this.heap[last] = null;
+        }
+    }
+
+    /**
+     * Compares the elements at two positions of the heap.
+     *
+     * @param i the position of the first element.
+     * @param j the position of the second element.
+     * @return a negative integer, zero, or a positive integer as the first element has a higher, equal, or lower
+     *      priority than the second.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(final int i, final int j) {
+        final int cmp = this.comparator.compare((E) this.heap[i], (E) this.heap[j]);
+        return cmp != 0 ? cmp : Long.compare(this.stamps[i], this.stamps[j]);
+    }
+
+    /**
+     * Swaps two elements of the heap and updates their index.
+     *
+     * @param i the position of the first element.
+     * @param j the position of the second element.
+     */
+    @SuppressWarnings("unchecked")
+    private void swap(final int i, final int j) {
+        final Object e = this.heap[i];
+        this.heap[i] = this.heap[j];
+        this.heap[j] = e;
+        final long s = this.stamps[i];
+        this.stamps[i] = this.stamps[j];
+        this.stamps[j] = s;
+        this.index.put((E) this.heap[i], i);
+        this.index.put((E) this.heap[j], j);
+    }
+
+    /**
+     * Moves up the element at a specified position until the heap property is restored.
+     *
+     * @param i the position of the element.
+     * @return the new position of the element.
+     */
+    private int siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (this.compare(i, parent) >= 0) {
+                break;
+            }
+            this.swap(i, parent);
+            i = parent;
+        }
+        return i;
+    }
+
+    /**
+     * Moves down the element at a specified position until the heap property is restored.
+     *
+     * @param i the position of the element.
+     */
+    private void siftDown(int i) {
+        final int half = this.size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            final int right = child + 1;
+            if (right < this.size && this.compare(right, child) < 0) {
+                child = right;
+            }
+            if (this.compare(i, child) <= 0) {
+                break;
+            }
+            this.swap(i, child);
+            i = child;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class implements an addressable binary heap of non negative integers. It is the primitive counterpart of
+ * {@link IndexedPriorityQueue} designed for dense integer identifiers: the position of each element in the heap is
+ * stored in an array indexed by the element itself, so that no boxing and no hashing occur. Elements that compare
+ * equal according to the comparator of the queue are polled in their insertion order.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 28.10.2021
+ */
+public final class IntIndexedPriorityQueue implements Serializable {
+
+    /**
+     * This interface defines a comparison function over integers.
+     */
+    @FunctionalInterface
+    public interface IntComparator extends Serializable {
+
+        /**
+         * Compares two integers.
+         *
+         * @param i the first integer.
+         * @param j the second integer.
+         * @return a negative integer, zero, or a positive integer as the first integer has a higher, equal, or lower
+         *      priority than the second.
+         */
+        int compare(int i, int j);
+    }
+
+    /**
+     * The default initial capacity of the queue.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The comparator used to order the elements of the queue.
+     */
+    private final IntComparator comparator;
+
+    /**
+     * The heap of elements.
+     */
+    private int[] heap;
+
+    /**
+     * The insertion stamp of the elements of the heap used to break ties.
+     */
+    private long[] stamps;
+
+    /**
+     * The position of each element in the heap plus one. Zero means that the element is not in the queue.
+     */
+    private int[] positions;
+
+    /**
+     * The number of elements in the queue.
+     */
+    private int size;
+
+    /**
+     * The next insertion stamp.
+     */
+    private long stamp;
+
+    /**
+     * Creates a new empty queue with a specified comparator.
+     *
+     * @param comparator the comparator used to order the elements of the queue.
+     * @throws NullPointerException if <code>comparator == null</code>.
+     */
+    public IntIndexedPriorityQueue(final IntComparator comparator) {
+        this(IntIndexedPriorityQueue.DEFAULT_INITIAL_CAPACITY, comparator);
+    }
+
+    /**
+     * Creates a new empty queue with a specified initial capacity and comparator.
+     *
+     * @param capacity   the initial capacity of the queue.
+     * @param comparator the comparator used to order the elements of the queue.
+     * @throws NullPointerException if <code>comparator == null</code>.
+     * @throws IllegalArgumentException if <code>capacity &lt; 1</code>.
+     */
+    public IntIndexedPriorityQueue(final int capacity, final IntComparator comparator) {
+        Objects.requireNonNull(comparator);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        this.comparator = comparator;
+        this.heap = new int[capacity];
+        this.stamps = new long[capacity];
+        this.positions = new int[capacity];
+        this.size = 0;
+        this.stamp = 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements in the queue.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns <code>true</code> if the queue contains no element.
+     *
+     * @return <code>true</code> if the queue contains no element; <code>false</code> otherwise.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the queue contains a specified element.
+     *
+     * @param e the element.
+     * @return <code>true</code> if the queue contains the specified element; <code>false</code> otherwise.
+     */
+    public boolean contains(final int e) {
+        return e >= 0 && e < this.positions.length && this.positions[e] != 0;
+    }
+
+    /**
+     * Adds an element to the queue.
+     *
+     * @param e the element to add. The element must be positive or null.
+     * @return <code>true</code> if the element was added; <code>false</code> if the element is already in the queue.
+     * @throws IllegalArgumentException if <code>e &lt; 0</code>.
+     */
+    public boolean add(final int e) {
+        if (e < 0) {
+            throw new IllegalArgumentException("e < 0");
+        }
+        if (this.contains(e)) {
+            return false;
+        }
+        if (e >= this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, Math.max(e + 1, this.positions.length << 1));
+        }
+        if (this.size == this.heap.length) {
+            final int capacity = this.heap.length << 1;
+            this.heap = Arrays.copyOf(this.heap, capacity);
+            this.stamps = Arrays.copyOf(this.stamps, capacity);
+        }
+        final int i = this.size++;
+        this.heap[i] = e;
+        this.stamps[i] = this.stamp++;
+        this.positions[e] = i + 1;
+        this.siftUp(i);
+        return true;
+    }
+
+    /**
+     * Returns without removing the element at the head of the queue.
+     *
+     * @return the element at the head of the queue or -1 if the queue is empty.
+     */
+    public int peek() {
+        return this.size == 0 ? -1 : this.heap[0];
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue.
+     *
+     * @return the element at the head of the queue or -1 if the queue is empty.
+     */
+    public int poll() {
+        if (this.size == 0) {
+            return -1;
+        }
+        final int head = this.heap[0];
+        this.removeAt(0);
+        return head;
+    }
+
+    /**
+     * Removes a specified element from the queue.
+     *
+     * @param e the element to remove.
+     * @return <code>true</code> if the element was removed; <code>false</code> otherwise.
+     */
+    public boolean remove(final int e) {
+        if (!this.contains(e)) {
+            return false;
+        }
+        this.removeAt(this.positions[e] - 1);
+        return true;
+    }
+
+    /**
+     * Restores the order of the queue after the priority of an element of the queue was modified. The element keeps
+     * its original insertion stamp.
+     *
+     * @param e the element whose priority was modified.
+     * @return <code>true</code> if the element is in the queue; <code>false</code> otherwise.
+     */
+    public boolean update(final int e) {
+        if (!this.contains(e)) {
+            return false;
+        }
+        final int i = this.positions[e] - 1;
+        if (this.siftUp(i) == i) {
+            this.siftDown(i);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the elements of the queue.
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.positions[this.heap[i]] = 0;
+        }
+        this.size = 0;
+        this.stamp = 0;
+    }
+
+    /**
+     * Returns an estimation of the amount of memory in bytes used by the queue. The estimation is computed in constant
+     * time from the capacity of the arrays of the queue.
+     *
+     * @return an estimation of the amount of memory in bytes used by the queue.
+     */
+    public long getMemoryUsed() {
+        return MemoryEstimator.sizeOfArray(this.heap.length, Integer.BYTES)
+            + MemoryEstimator.sizeOfArray(this.stamps.length, Long.BYTES)
+            + MemoryEstimator.sizeOfArray(this.positions.length, Integer.BYTES);
+    }
+
+    /**
+     * Removes the element at a specified position in the heap.
+     *
+     * @param i the position of the element to remove.
+     */
+    private void removeAt(final int i) {
+        this.positions[this.heap[i]] = 0;
+        final int last = --this.size;
+        if (i != last) {
+            this.heap[i] = this.heap[last];
+            this.stamps[i] = this.stamps[last];
+            this.positions[this.heap[i]] = i + 1;
+            if (this.siftUp(i) == i) {
+                this.siftDown(i);
+            }
+        }
+    }
+
+    /**
+     * Compares the elements at two positions of the heap.
+     *
+     * @param i the position of the first element.
+     * @param j the position of the second element.
+     * @return a negative integer, zero, or a positive integer as the first element has a higher, equal, or lower
+     *      priority than the second.
+     */
+    private int compare(final int i, final int j) {
+        final int cmp = this.comparator.compare(this.heap[i], this.heap[j]);
+        return cmp != 0 ? cmp : Long.compare(this.stamps[i], this.stamps[j]);
+    }
+
+    /**
+     * Swaps two elements of the heap and updates their position.
+     *
+     * @param i the position of the first element.
+     * @param j the position of the second element.
+     */
+    private void swap(final int i, final int j) {
+        final int e = this.heap[i];
+        this.heap[i] = this.heap[j];
+        this.heap[j] = e;
+        final long s = this.stamps[i];
+        this.stamps[i] = this.stamps[j];
+        this.stamps[j] = s;
+        this.positions[this.heap[i]] = i + 1;
+        this.positions[this.heap[j]] = j + 1;
+    }
+
+    /**
+     * Moves up the element at a specified position until the heap property is restored.
+     *
+     * @param i the position of the element.
+     * @return the new position of the element.
+     */
+    private int siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (this.compare(i, parent) >= 0) {
+                break;
+            }
+            this.swap(i, parent);
+            i = parent;
+        }
+        return i;
+    }
+
+    /**
+     * Moves down the element at a specified position until the heap property is restored.
+     *
+     * @param i the position of the element.
+     */
+    private void siftDown(int i) {
+        final int half = this.size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            final int right = child + 1;
+            if (right < this.size && this.compare(right, child) < 0) {
+                child = right;
+            }
+            if (this.compare(i, child) <= 0) {
+                break;
+            }
+            this.swap(i, child);
+            i = child;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.util;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * This class implements the estimation of the memory used by the data structures of the searches. The estimations are
+ * computed in constant time from the shape of the structures, i.e., the capacity of their arrays and the number of
+ * their objects, for a 64-bit JVM with compressed references. They can thus be updated at each expansion of a search.
+ * <p>
+ * The exact deep size of an object graph is computed with JOL by {@link #deepSizeOf(Object...)}. This method walks the
+ * whole object graph. It is slow and allocates a lot of memory on large graphs and must only be used to debug the
+ * estimations.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 19.11.2021
+ * @since 4.0
+ */
+public final class MemoryEstimator {
+
+    /**
+     * The size in bytes of the header of an object.
+     */
+    public static final int OBJECT_HEADER = 12;
+
+    /**
+     * The size in bytes of the header of an array.
+     */
+    public static final int ARRAY_HEADER = 16;
+
+    /**
+     * The size in bytes of a reference.
+     */
+    public static final int REFERENCE = 4;
+
+    /**
+     * The alignment in bytes of the objects in the heap.
+     */
+    public static final int ALIGNMENT = 8;
+
+    /**
+     * The size in bytes of an entry of a linked list: the references to the element, the next and the previous
+     * entries.
+     */
+    public static final long LINKED_LIST_ENTRY = MemoryEstimator.sizeOfObject(3 * MemoryEstimator.REFERENCE);
+
+    /**
+     * The size in bytes of the fields of a bit set: the reference to the words, the number of words in use and the
+     * sticky flag.
+     */
+    private static final int BIT_SET_FIELDS = MemoryEstimator.REFERENCE + Integer.BYTES + 1;
+
+    /**
+     * The size in bytes of the fields added by a search node to a state: the references to the parent and to the
+     * landmarks accepted, the action, the cost, the heuristic value and the depth.
+     */
+    private static final int NODE_FIELDS = 2 * MemoryEstimator.REFERENCE + 2 * Integer.BYTES + 2 * Double.BYTES;
+
+    /**
+     * Creates a new memory estimator. This constructor is private because the class only contains static methods.
+     */
+    private MemoryEstimator() {
+        super();
+    }
+
+    /**
+     * Rounds a size to the alignment of the objects in the heap.
+     *
+     * @param size the size in bytes.
+     * @return the size rounded up to the next multiple of the alignment.
+     */
+    public static long align(final long size) {
+        return (size + MemoryEstimator.ALIGNMENT - 1) & -MemoryEstimator.ALIGNMENT;
+    }
+
+    /**
+     * Returns the size in bytes of an object with fields of a specified size.
+     *
+     * @param fields the size in bytes of the fields of the object.
+     * @return the size in bytes of the object.
+     */
+    public static long sizeOfObject(final long fields) {
+        return MemoryEstimator.align(MemoryEstimator.OBJECT_HEADER + fields);
+    }
+
+    /**
+     * Returns the size in bytes of an array of primitive values or references.
+     *
+     * @param length  the length of the array.
+     * @param element the size in bytes of an element of the array.
+     * @return the size in bytes of the array.
+     */
+    public static long sizeOfArray(final long length, final int element) {
+        return MemoryEstimator.align(MemoryEstimator.ARRAY_HEADER + length * element);
+    }
+
+    /**
+     * Returns the size in bytes of a state over a specified number of fluents.
+     *
+     * @param fluents the number of fluents.
+     * @return the size in bytes of the state.
+     */
+    public static long sizeOfState(final int fluents) {
+        return MemoryEstimator.sizeOfObject(MemoryEstimator.BIT_SET_FIELDS)
+            + MemoryEstimator.sizeOfArray(MemoryEstimator.words(fluents), Long.BYTES);
+    }
+
+    /**
+     * Returns the size in bytes of a search node over a specified number of fluents.
+     *
+     * @param fluents the number of fluents.
+     * @return the size in bytes of the search node.
+     */
+    public static long sizeOfNode(final int fluents) {
+        return MemoryEstimator.sizeOfObject(MemoryEstimator.BIT_SET_FIELDS + MemoryEstimator.NODE_FIELDS)
+            + MemoryEstimator.sizeOfArray(MemoryEstimator.words(fluents), Long.BYTES);
+    }
+
+    /**
+     * Returns the exact deep size in bytes of an object graph. This method walks the whole graph and must only be used
+     * for debugging.
+     *
+     * @param roots the roots of the object graph.
+     * @return the deep size in bytes of the object graph.
+     */
+    public static long deepSizeOf(final Object... roots) {
+        return GraphLayout.parseInstance(roots).totalSize();
+    }
+
+    /**
+     * Returns the number of words needed to store a specified number of bits.
+     *
+     * @param bits the number of bits.
+     * @return the number of words needed to store the bits.
+     */
+    private static int words(final int bits) {
+        return Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    }
+}
@@ -27,6 +27,7 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -144,6 +145,34 @@ public abstract class Tools {
         return null;
     }
 
+    /**
+     * Parses and instantiates the first problems of a benchmark directory. The problems are sorted by file name and
+     * use either the domain file of the directory or the domain file of the problem.
+     *
+     * @param path  the benchmark directory.
+     * @param count the maximum number of problems returned.
+     * @return the problems instantiated.
+     */
+    public static List<Problem> generateCodedProblems(String path, int count) {
+        Assert.assertTrue("missing benchmark [directory: " + path + "] test skipped !", Tools.isBenchmarkExist(path));
+        final File[] files = new File(path).listFiles((dir, name) -> name.matches("p[0-9]+\\" + Tools.PDDL_EXT));
+        Assert.assertNotNull(files);
+        Arrays.sort(files);
+        final List<Problem> problems = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, files.length); i++) {
+            final String problemFile = files[i].getName();
+            String domainFile = path + Tools.PDDL_DOMAIN;
+            if (!new File(domainFile).exists()) {
+                domainFile = path + Tools.removeExtension(problemFile) + "-" + Tools.PDDL_DOMAIN;
+            }
+            final Problem problem = Tools.generateCodedProblem(domainFile, path + problemFile);
+            Assert.assertNotNull("parse error on " + path + problemFile, problem);
+            problem.instantiate();
+            problems.add(problem);
+        }
+        return problems;
+    }
+
     /**
      * Change the permissions for PDDL_VAL file (add read, write and execute).
      */
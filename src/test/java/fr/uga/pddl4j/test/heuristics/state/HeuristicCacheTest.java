@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics.state;
+
+import fr.uga.pddl4j.heuristics.state.HeuristicCache;
+import fr.uga.pddl4j.planners.statespace.search.StateRegistry;
+import fr.uga.pddl4j.planners.statespace.search.ZobristHash;
+import fr.uga.pddl4j.problem.State;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implements the <tt>HeuristicCacheTest</tt> of the PDD4L library. The cache is checked on states chosen to fall in
+ * the same segment, and mostly in the same bucket, so that the entries evicted by the Clock algorithm and the entries
+ * unlinked from the chains of the buckets are known, and on random states read and written concurrently by several
+ * threads.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+public class HeuristicCacheTest {
+
+    /**
+     * The number of fluents of the states.
+     */
+    private static final int FLUENTS = 100;
+
+    /**
+     * The number of entries of the cache: 16 segments of 4 entries with 4 buckets each.
+     */
+    private static final int CAPACITY = 64;
+
+    /**
+     * The slot, i.e., the segment and the bucket, of the states whose entries collide.
+     */
+    private static final int SLOT = 0x05;
+
+    /**
+     * A slot of an other bucket of the same segment.
+     */
+    private static final int OTHER_SLOT = 0x25;
+
+    /**
+     * The number of threads of the concurrent tests.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * The number of operations performed by each thread of the concurrent tests.
+     */
+    private static final int OPERATIONS = 50000;
+
+    /**
+     * Tests that a value stored is read back, that an other state is missed and that the statistics are recorded.
+     */
+    @Test
+    public void testGetAndPut() {
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, HeuristicCacheTest.CAPACITY);
+        final List<State> states = HeuristicCacheTest.statesInSlot(HeuristicCacheTest.SLOT, 2);
+        Assert.assertTrue(Double.isNaN(cache.get(states.get(0))));
+        cache.put(states.get(0), 1.0);
+        Assert.assertEquals(1.0, cache.get(states.get(0)), 0.0);
+        Assert.assertEquals(1.0, cache.get(new State(states.get(0))), 0.0);
+        Assert.assertTrue(Double.isNaN(cache.get(states.get(1))));
+        cache.put(states.get(0), 2.0);
+        Assert.assertEquals(2.0, cache.get(states.get(0)), 0.0);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(3, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(0, cache.getEvictions());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertTrue(Double.isNaN(cache.get(states.get(0))));
+    }
+
+    /**
+     * Tests that the values stored with the Zobrist hash of the states, e.g., the hash of the states in the registry
+     * of a search, are read back with and without the hash, and conversely.
+     */
+    @Test
+    public void testGetAndPutWithHash() {
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, HeuristicCacheTest.CAPACITY);
+        final StateRegistry registry = new StateRegistry(HeuristicCacheTest.FLUENTS);
+        final List<State> states = HeuristicCacheTest.randomStates(new Random(2), 2);
+        final int id = registry.insert(states.get(0));
+        final long hash = registry.getHash(id);
+        Assert.assertEquals(hash, cache.getHashFunction().hash(states.get(0)));
+        Assert.assertTrue(Double.isNaN(cache.get(states.get(0), hash)));
+        cache.put(states.get(0), hash, 1.0);
+        Assert.assertEquals(1.0, cache.get(states.get(0), hash), 0.0);
+        Assert.assertEquals(1.0, cache.get(new State(states.get(0))), 0.0);
+        cache.put(states.get(0), 2.0);
+        Assert.assertEquals(2.0, cache.get(states.get(0), hash), 0.0);
+        final long other = cache.getHashFunction().hash(states.get(1));
+        cache.put(states.get(1), 3.0);
+        Assert.assertEquals(3.0, cache.get(states.get(1), other), 0.0);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(4, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Tests the entries evicted by the Clock algorithm in a full segment: the hand evicts the first entry whose
+     * reference bit is not set and gives a second chance to the entries read since it passed over them.
+     */
+    @Test
+    public void testClockEviction() {
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, HeuristicCacheTest.CAPACITY);
+        final List<State> s = HeuristicCacheTest.statesInSlot(HeuristicCacheTest.SLOT, 6);
+        for (int i = 0; i < 4; i++) {
+            cache.put(s.get(i), i);
+        }
+        Assert.assertEquals(0, cache.getEvictions());
+        // All the entries are referenced: the hand clears them all and evicts the first one
+        cache.put(s.get(4), 4);
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(0))));
+        // The second entry is read and gets a second chance: the third one is evicted
+        Assert.assertEquals(1.0, cache.get(s.get(1)), 0.0);
+        cache.put(s.get(5), 5);
+        Assert.assertEquals(2, cache.getEvictions());
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(2))));
+        Assert.assertEquals(1.0, cache.get(s.get(1)), 0.0);
+        Assert.assertEquals(3.0, cache.get(s.get(3)), 0.0);
+        Assert.assertEquals(4.0, cache.get(s.get(4)), 0.0);
+        Assert.assertEquals(5.0, cache.get(s.get(5)), 0.0);
+        Assert.assertEquals(4, cache.size());
+    }
+
+    /**
+     * Tests that the entries evicted at the tail and in the middle of the chain of a bucket are unlinked without
+     * losing the other entries of the chain.
+     */
+    @Test
+    public void testBucketUnlink() {
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, HeuristicCacheTest.CAPACITY);
+        final List<State> s = HeuristicCacheTest.statesInSlot(HeuristicCacheTest.SLOT, 7);
+        // The chain of the bucket is s3, s2, s1, s0
+        for (int i = 0; i < 4; i++) {
+            cache.put(s.get(i), i);
+        }
+        // s0 is evicted at the tail of the chain: s4, s3, s2, s1
+        cache.put(s.get(4), 4);
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(0))));
+        // s1 gets a second chance and s2 is evicted in the middle of the chain: s5, s4, s3, s1
+        cache.get(s.get(1));
+        cache.put(s.get(5), 5);
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(2))));
+        // s3 is evicted in the middle of the chain: s6, s5, s4, s1
+        cache.put(s.get(6), 6);
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(3))));
+        Assert.assertEquals(3, cache.getEvictions());
+        Assert.assertEquals(1.0, cache.get(s.get(1)), 0.0);
+        Assert.assertEquals(4.0, cache.get(s.get(4)), 0.0);
+        Assert.assertEquals(5.0, cache.get(s.get(5)), 0.0);
+        Assert.assertEquals(6.0, cache.get(s.get(6)), 0.0);
+        Assert.assertEquals(4, cache.size());
+    }
+
+    /**
+     * Tests that an entry evicted at the head of the chain of a bucket is unlinked without losing the other entries
+     * of the chain. The entries written to evict it fall in an other bucket of the same segment.
+     */
+    @Test
+    public void testBucketUnlinkHead() {
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, HeuristicCacheTest.CAPACITY);
+        final List<State> s = HeuristicCacheTest.statesInSlot(HeuristicCacheTest.SLOT, 3);
+        final List<State> o = HeuristicCacheTest.statesInSlot(HeuristicCacheTest.OTHER_SLOT, 3);
+        // The chain of the bucket is s2, s1, s0 and the chain of the other bucket is o0
+        for (int i = 0; i < 3; i++) {
+            cache.put(s.get(i), i);
+        }
+        cache.put(o.get(0), 10);
+        // s0 is evicted at the tail of the chain: s2, s1
+        cache.put(o.get(1), 11);
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(0))));
+        // s1 gets a second chance and s2 is evicted at the head of the chain: s1
+        cache.get(s.get(1));
+        cache.put(o.get(2), 12);
+        Assert.assertTrue(Double.isNaN(cache.get(s.get(2))));
+        Assert.assertEquals(2, cache.getEvictions());
+        Assert.assertEquals(1.0, cache.get(s.get(1)), 0.0);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(10.0 + i, cache.get(o.get(i)), 0.0);
+        }
+    }
+
+    /**
+     * Tests concurrent reads and writes on a cache smaller than the set of states: the values read are always the
+     * values written for the states, the cache never holds more entries than its capacity and every read is counted
+     * as a hit or a miss.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testConcurrentGetAndPut() throws InterruptedException {
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, HeuristicCacheTest.CAPACITY);
+        final List<State> states = HeuristicCacheTest.randomStates(new Random(0), 4 * HeuristicCacheTest.CAPACITY);
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger reads = new AtomicInteger();
+        final Thread[] threads = new Thread[HeuristicCacheTest.THREADS];
+        for (int t = 0; t < threads.length; t++) {
+            final Random random = new Random(t + 1);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < HeuristicCacheTest.OPERATIONS; i++) {
+                    final int index = random.nextInt(states.size());
+                    if (random.nextBoolean()) {
+                        cache.put(states.get(index), index);
+                    } else {
+                        reads.incrementAndGet();
+                        final double value = cache.get(states.get(index));
+                        if (!Double.isNaN(value) && value != index) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60000);
+            Assert.assertFalse("thread blocked", thread.isAlive());
+        }
+        Assert.assertEquals("wrong values read", 0, errors.get());
+        Assert.assertEquals(reads.get(), cache.getHits() + cache.getMisses());
+        Assert.assertTrue(cache.size() <= HeuristicCacheTest.CAPACITY);
+        Assert.assertTrue(cache.getEvictions() > 0);
+        // The entries that remain in the cache after the concurrent writes are consistent
+        int found = 0;
+        for (int i = 0; i < states.size(); i++) {
+            final double value = cache.get(states.get(i));
+            if (!Double.isNaN(value)) {
+                Assert.assertEquals(i, value, 0.0);
+                found++;
+            }
+        }
+        Assert.assertEquals(cache.size(), found);
+    }
+
+    /**
+     * Tests concurrent writes on a cache large enough for all the states: no state is lost.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testConcurrentPutWithoutEviction() throws InterruptedException {
+        final int size = 4 * HeuristicCacheTest.CAPACITY;
+        final HeuristicCache cache = new HeuristicCache(HeuristicCacheTest.FLUENTS, 4 * size);
+        final List<State> states = HeuristicCacheTest.randomStates(new Random(1), size);
+        final Thread[] threads = new Thread[HeuristicCacheTest.THREADS];
+        for (int t = 0; t < threads.length; t++) {
+            final int first = t;
+            threads[t] = new Thread(() -> {
+                for (int i = first; i < states.size(); i += HeuristicCacheTest.THREADS) {
+                    cache.put(states.get(i), i);
+                    cache.get(states.get((i * 31) % states.size()));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60000);
+            Assert.assertFalse("thread blocked", thread.isAlive());
+        }
+        Assert.assertEquals(0, cache.getEvictions());
+        Assert.assertEquals(states.size(), cache.size());
+        for (int i = 0; i < states.size(); i++) {
+            Assert.assertEquals(i, cache.get(states.get(i)), 0.0);
+        }
+    }
+
+    /**
+     * Returns distinct random states.
+     *
+     * @param random the random generator.
+     * @param size   the number of states.
+     * @return the states.
+     */
+    private static List<State> randomStates(final Random random, final int size) {
+        final List<State> states = new ArrayList<>(size);
+        while (states.size() < size) {
+            final State state = new State();
+            for (int f = 0; f < HeuristicCacheTest.FLUENTS; f++) {
+                if (random.nextBoolean()) {
+                    state.set(f);
+                }
+            }
+            if (!states.contains(state)) {
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Returns distinct states of a slot of a cache of {@link #CAPACITY} entries. The slot of a state is given by the
+     * low bits of its Zobrist hash folded as in the cache: the 4 lowest bits select one of the 16 segments and the
+     * next 2 bits one of the 4 buckets of the segment.
+     *
+     * @param slot the slot of the states.
+     * @param size the number of states.
+     * @return the states.
+     */
+    private static List<State> statesInSlot(final int slot, final int size) {
+        final Random random = new Random(slot);
+        final ZobristHash zobrist = new ZobristHash(HeuristicCacheTest.FLUENTS);
+        final List<State> states = new ArrayList<>(size);
+        while (states.size() < size) {
+            final State state = HeuristicCacheTest.randomStates(random, 1).get(0);
+            final long hash = zobrist.hash(state);
+            if (((int) (hash ^ (hash >>> 32)) & 0x3f) == slot && !states.contains(state)) {
+                states.add(state);
+            }
+        }
+        return states;
+    }
+}
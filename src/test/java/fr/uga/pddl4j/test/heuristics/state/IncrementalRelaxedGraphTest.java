@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics.state;
+
+import fr.uga.pddl4j.heuristics.state.AdjustedSum;
+import fr.uga.pddl4j.heuristics.state.FastForward;
+import fr.uga.pddl4j.heuristics.state.Max;
+import fr.uga.pddl4j.heuristics.state.RelaxedGraphHeuristic;
+import fr.uga.pddl4j.heuristics.state.Sum;
+import fr.uga.pddl4j.planners.statespace.search.SuccessorGenerator;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Implements the <tt>IncrementalRelaxedGraphTest</tt> of the PDD4L library. The class checks on IPC benchmarks that
+ * the relaxed graph heuristics give the same values and the same helpful actions when the levels of the graph are
+ * updated incrementally and when they are computed from scratch for each state. The states are estimated in sequence
+ * along random walks from the initial state, interleaved with jumps to random states.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class IncrementalRelaxedGraphTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 3;
+
+    /**
+     * The number of states estimated per problem and heuristic.
+     */
+    private static final int STATES = 300;
+
+    /**
+     * The maximum length of the random walks from the initial state.
+     */
+    private static final int WALK_LENGTH = 40;
+
+    /**
+     * The probability to jump to a random state instead of moving along the random walk.
+     */
+    private static final double JUMP = 0.1;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper ADL benchmarks.
+     */
+    @Test
+    public void test_IncrementalRelaxedGraph_IPC1998_Gripper_ADL() {
+        IncrementalRelaxedGraphTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks.
+     */
+    @Test
+    public void test_IncrementalRelaxedGraph_IPC1998_Logistics_STRIPS_Round1() {
+        IncrementalRelaxedGraphTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_IncrementalRelaxedGraph_IPC2000_Blocks_STRIPS_Typed() {
+        IncrementalRelaxedGraphTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Elevator ADL full typed benchmarks.
+     */
+    @Test
+    public void test_IncrementalRelaxedGraph_IPC2000_Elevator_ADL_Full_Typed() {
+        IncrementalRelaxedGraphTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/elevator/adl-full-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_IncrementalRelaxedGraph_IPC2002_Depots_STRIPS_Automatic() {
+        IncrementalRelaxedGraphTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2004 PSR small STRIPS benchmarks.
+     */
+    @Test
+    public void test_IncrementalRelaxedGraph_IPC2004_PSR_Small_STRIPS() {
+        IncrementalRelaxedGraphTest.check(Tools.PDDL_BENCH_DIR + "ipc2004/psr/small-strips" + File.separator);
+    }
+
+    /**
+     * Checks the relaxed graph heuristics on the first problems of a benchmark directory.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        Assert.assertTrue("missing benchmark [directory: " + path + "] test skipped !",
+            Tools.isBenchmarkExist(path));
+        final File[] files = new File(path).listFiles((dir, name) -> name.matches("p[0-9]+\\" + Tools.PDDL_EXT));
+        Assert.assertNotNull(files);
+        Arrays.sort(files);
+        for (int i = 0; i < Math.min(IncrementalRelaxedGraphTest.PROBLEMS, files.length); i++) {
+            final String problemFile = files[i].getName();
+            String domainFile = path + Tools.PDDL_DOMAIN;
+            if (!new File(domainFile).exists()) {
+                domainFile = path + Tools.removeExtension(problemFile) + "-" + Tools.PDDL_DOMAIN;
+            }
+            final Problem problem = Tools.generateCodedProblem(domainFile, path + problemFile);
+            Assert.assertNotNull("parse error on " + path + problemFile, problem);
+            problem.instantiate();
+            IncrementalRelaxedGraphTest.check(problem, new Random(i));
+        }
+    }
+
+    /**
+     * Checks that the FF, MAX, SUM and ADJUSTED_SUM heuristics of a problem give the same values and the same helpful
+     * actions with and without the incremental computation of the levels of the graph.
+     *
+     * @param problem the problem.
+     * @param random  the random generator used to draw the states.
+     */
+    static void check(final Problem problem, final Random random) {
+        IncrementalRelaxedGraphTest.check(problem, new FastForward(problem), new FastForward(problem), random);
+        IncrementalRelaxedGraphTest.check(problem, new Max(problem), new Max(problem), random);
+        IncrementalRelaxedGraphTest.check(problem, new Sum(problem), new Sum(problem), random);
+        IncrementalRelaxedGraphTest.check(problem, new AdjustedSum(problem), new AdjustedSum(problem), random);
+    }
+
+    /**
+     * Checks that two instances of a heuristic give the same values and the same helpful actions on a sequence of
+     * states when the first one updates the levels of the graph incrementally and the second one does not.
+     *
+     * @param problem     the problem.
+     * @param incremental the instance of the heuristic that updates the levels incrementally.
+     * @param layered     the instance of the heuristic that computes the levels from scratch.
+     * @param random      the random generator used to draw the states.
+     */
+    private static void check(final Problem problem, final RelaxedGraphHeuristic incremental,
+                              final RelaxedGraphHeuristic layered, final Random random) {
+        incremental.setIncremental(true);
+        layered.setIncremental(false);
+        final SuccessorGenerator generator = new SuccessorGenerator(problem);
+        final int fluents = problem.getFluents().size();
+        final Condition goal = problem.getGoal();
+        final int[] applicable = new int[generator.getNumberOfActions()];
+        final int[] expected = new int[generator.getNumberOfActions()];
+        final int[] actual = new int[generator.getNumberOfActions()];
+        final String name = incremental.getClass().getSimpleName();
+        State state = new State(problem.getInitialState());
+        int length = 0;
+        for (int k = 0; k < IncrementalRelaxedGraphTest.STATES; k++) {
+            final int value = layered.estimate(state, goal);
+            Assert.assertEquals(name + " value of " + state, value, incremental.estimate(state, goal));
+            final int n = layered.getHelpfulActions(expected);
+            Assert.assertEquals(name + " helpful actions of " + state, n, incremental.getHelpfulActions(actual));
+            if (n > 0) {
+                Assert.assertArrayEquals(name + " helpful actions of " + state, Arrays.copyOf(expected, n),
+                    Arrays.copyOf(actual, n));
+            }
+            // Moves one step further along the random walk, jumps to a random state or restarts from the initial state
+            final int count = generator.getApplicableActions(state, applicable);
+            if (random.nextDouble() < IncrementalRelaxedGraphTest.JUMP) {
+                state = new State();
+                final double density = random.nextDouble();
+                for (int f = 0; f < fluents; f++) {
+                    if (random.nextDouble() < density) {
+                        state.set(f);
+                    }
+                }
+            } else if (count == 0 || ++length == IncrementalRelaxedGraphTest.WALK_LENGTH) {
+                state = new State(problem.getInitialState());
+                length = 0;
+            } else {
+                final State successor = new State();
+                generator.apply(applicable[random.nextInt(count)], state, successor);
+                state = successor;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics.state;
+
+import fr.uga.pddl4j.heuristics.state.LandmarkCount;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.SuccessorGenerator;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Implements the <tt>LandmarkCountTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the LM-count
+ * heuristic gives the same values along random walks from the initial state whether the landmarks accepted are tracked
+ * in the nodes or per index of the states in a registry, by the heuristic itself, by the copies returned by
+ * <code>share()</code> and by the copies returned by <code>copy()</code>. It also checks that a state whose parent
+ * was not estimated has the value of the state estimated without its path.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LandmarkCountTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 3;
+
+    /**
+     * The number of random walks per problem.
+     */
+    private static final int WALKS = 20;
+
+    /**
+     * The maximum length of the random walks from the initial state.
+     */
+    private static final int WALK_LENGTH = 30;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks.
+     */
+    @Test
+    public void test_LandmarkCount_IPC1998_Gripper_STRIPS() {
+        LandmarkCountTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks.
+     */
+    @Test
+    public void test_LandmarkCount_IPC1998_Logistics_STRIPS_Round1() {
+        LandmarkCountTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_LandmarkCount_IPC2000_Blocks_STRIPS_Typed() {
+        LandmarkCountTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_LandmarkCount_IPC2002_Depots_STRIPS_Automatic() {
+        LandmarkCountTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Checks the LM-count heuristic on the first problems of a benchmark directory.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        final List<Problem> problems = Tools.generateCodedProblems(path, LandmarkCountTest.PROBLEMS);
+        for (int i = 0; i < problems.size(); i++) {
+            LandmarkCountTest.check(problems.get(i), new Random(i));
+        }
+    }
+
+    /**
+     * Checks that the LM-count heuristic of a problem gives the same values along random walks from the initial state
+     * with the nodes, with the indexes of a registry shared by the heuristic and a copy returned by
+     * <code>share()</code>, and with the indexes of the registry of a copy returned by <code>copy()</code>. The
+     * indexes of the states are drawn in sequence over the walks as a search would register them.
+     *
+     * @param problem the problem.
+     * @param random  the random generator used to draw the walks.
+     */
+    static void check(final Problem problem, final Random random) {
+        final LandmarkCount heuristic = new LandmarkCount(problem);
+        final LandmarkCount shared = heuristic.share();
+        final LandmarkCount copy = heuristic.copy();
+        final LandmarkCount pathless = heuristic.copy();
+        final SuccessorGenerator generator = new SuccessorGenerator(problem);
+        final Condition goal = problem.getGoal();
+        final int[] applicable = new int[generator.getNumberOfActions()];
+        int id = 0;
+        for (int walk = 0; walk < LandmarkCountTest.WALKS; walk++) {
+            State state = new State(problem.getInitialState());
+            Node node = new Node(state, null, -1, 0.0, 0.0);
+            int parent = -1;
+            for (int step = 0; step < LandmarkCountTest.WALK_LENGTH; step++) {
+                final double value = heuristic.estimate(node, goal);
+                // The heuristic and its shared copy estimate the states of the walk in turn
+                final LandmarkCount registry = step % 2 == 0 ? heuristic : shared;
+                Assert.assertEquals("LM-count value with the shared registry at step " + step, value,
+                    registry.estimateCost(state, id, parent, goal), 0.0);
+                Assert.assertEquals("LM-count value of the copy at step " + step, value,
+                    copy.estimateCost(state, id, parent, goal), 0.0);
+                // The parents of the states are never estimated by the copy used without the path of the states
+                final int expected = pathless.estimate(state, goal);
+                if (parent < 0) {
+                    Assert.assertEquals("LM-count value of the initial state", expected, value, 0.0);
+                }
+                Assert.assertEquals("LM-count value without the path at step " + step, expected,
+                    pathless.estimateCost(state, id + 1, id, goal), 0.0);
+                parent = id;
+                id += 2;
+                final int count = generator.getApplicableActions(state, applicable);
+                if (count == 0) {
+                    break;
+                }
+                final int action = applicable[random.nextInt(count)];
+                final State successor = new State();
+                generator.apply(action, state, successor);
+                state = successor;
+                node = new Node(state, node, action, 0.0, 0.0);
+            }
+        }
+    }
+}
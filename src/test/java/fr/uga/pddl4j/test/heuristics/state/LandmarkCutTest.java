@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics.state;
+
+import fr.uga.pddl4j.heuristics.state.LandmarkCut;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Implements the <tt>LandmarkCutTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the LM-cut
+ * heuristic is admissible: the value of each state along an optimal plan must not exceed the cost of the rest of the
+ * plan. The optimal plans are found by A* with the admissible <code>MaxCost</code> heuristic.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LandmarkCutTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 2;
+
+    /**
+     * The time out of the searches of the optimal plans in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The tolerance of the comparisons of the costs.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks.
+     */
+    @Test
+    public void test_LandmarkCut_IPC1998_Gripper_STRIPS() {
+        LandmarkCutTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks.
+     */
+    @Test
+    public void test_LandmarkCut_IPC1998_Logistics_STRIPS_Round1() {
+        LandmarkCutTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_LandmarkCut_IPC2000_Blocks_STRIPS_Typed() {
+        LandmarkCutTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_LandmarkCut_IPC2002_Depots_STRIPS_Automatic() {
+        LandmarkCutTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using the action costs benchmarks.
+     */
+    @Test
+    public void test_LandmarkCut_Personals_Action_Costs() {
+        LandmarkCutTest.check(Tools.PDDL_BENCH_DIR + "personals/action-costs" + File.separator);
+    }
+
+    /**
+     * Checks the LM-cut heuristic on the first problems of a benchmark directory.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        for (Problem problem : Tools.generateCodedProblems(path, LandmarkCutTest.PROBLEMS)) {
+            LandmarkCutTest.check(problem);
+        }
+    }
+
+    /**
+     * Checks that the values of the LM-cut heuristic and of its copy along an optimal plan of a problem do not exceed
+     * the cost of the rest of the plan. The check is skipped if no optimal plan is found before the time out.
+     *
+     * @param problem the problem.
+     */
+    static void check(final Problem problem) {
+        final Plan plan = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR, StateHeuristic.Name.MAX_COST, 1.0,
+            LandmarkCutTest.TIMEOUT).searchPlan(problem);
+        if (plan == null) {
+            return;
+        }
+        final LandmarkCut heuristic = new LandmarkCut(problem);
+        final LandmarkCut copy = heuristic.copy();
+        final Condition goal = problem.getGoal();
+        final List<Action> actions = plan.actions();
+        // The cost of the rest of the plan from each state along the plan
+        final double[] remaining = new double[actions.size() + 1];
+        for (int i = actions.size() - 1; i >= 0; i--) {
+            remaining[i] = remaining[i + 1] + actions.get(i).getCost().getValue();
+        }
+        Assert.assertEquals("plan cost", plan.cost(), remaining[0], LandmarkCutTest.EPSILON);
+        State state = new State(problem.getInitialState());
+        for (int i = 0; i <= actions.size(); i++) {
+            final double value = heuristic.estimateCost(state, goal);
+            Assert.assertTrue("LM-cut value " + value + " greater than the optimal cost " + remaining[i]
+                + " at step " + i, value <= remaining[i] + LandmarkCutTest.EPSILON);
+            Assert.assertEquals("LM-cut value of the copy at step " + i, value, copy.estimateCost(state, goal), 0.0);
+            if (i < actions.size()) {
+                final State successor = new State(state);
+                for (ConditionalEffect effect : actions.get(i).getConditionalEffects()) {
+                    if (state.satisfy(effect.getCondition())) {
+                        successor.apply(effect.getEffect());
+                    }
+                }
+                state = successor;
+            }
+        }
+        Assert.assertTrue("goal not reached by the plan", state.satisfy(goal));
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics.state;
+
+import fr.uga.pddl4j.heuristics.state.PatternDatabases;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.planners.statespace.search.SuccessorGenerator;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Implements the <tt>PatternDatabasesTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the
+ * pattern databases heuristic is admissible, with the default sizes and with small patterns that split the goal in
+ * several pattern databases:
+ * <ul>
+ * <li>the value of each state along an optimal plan must not exceed the cost of the rest of the plan;</li>
+ * <li>the value of the initial state for an other goal than the goal of the problem, i.e., a fluent of the goal or
+ * a state along the optimal plan, must not exceed the optimal cost from the initial state to this goal computed by a
+ * uniform cost search of the whole state space.</li>
+ * </ul>
+ * The class also checks that the distance from an other state than the initial state to an other goal is not supported.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PatternDatabasesTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 2;
+
+    /**
+     * The time out of the searches of the optimal plans in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The maximal number of states of the state spaces searched to compute the optimal costs to the other goals.
+     */
+    private static final int MAX_STATES = 100000;
+
+    /**
+     * The maximal number of fluents of the small patterns.
+     */
+    private static final int SMALL_PATTERN_SIZE = 2;
+
+    /**
+     * The maximal number of abstract states of the collection of small patterns.
+     */
+    private static final int SMALL_COLLECTION_SIZE = 64;
+
+    /**
+     * The tolerance of the comparisons of the costs.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks.
+     */
+    @Test
+    public void test_PatternDatabases_IPC1998_Gripper_STRIPS() {
+        PatternDatabasesTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks.
+     */
+    @Test
+    public void test_PatternDatabases_IPC1998_Logistics_STRIPS_Round1() {
+        PatternDatabasesTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_PatternDatabases_IPC2000_Blocks_STRIPS_Typed() {
+        PatternDatabasesTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_PatternDatabases_IPC2002_Depots_STRIPS_Automatic() {
+        PatternDatabasesTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using the action costs benchmarks.
+     */
+    @Test
+    public void test_PatternDatabases_Personals_Action_Costs() {
+        PatternDatabasesTest.check(Tools.PDDL_BENCH_DIR + "personals/action-costs" + File.separator);
+    }
+
+    /**
+     * Method that checks on the first IPC 1998 Gripper STRIPS problem that the distance from a successor of the
+     * initial state to a fluent of the goal is not supported.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_PatternDatabases_Other_Goal_From_Other_State() {
+        final String path = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator;
+        final Problem problem = Tools.generateCodedProblems(path, 1).get(0);
+        PatternDatabasesTest.checkOtherGoalFromOtherState(problem);
+    }
+
+    /**
+     * Checks the pattern databases heuristic on the first problems of a benchmark directory.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        for (Problem problem : Tools.generateCodedProblems(path, PatternDatabasesTest.PROBLEMS)) {
+            PatternDatabasesTest.check(problem);
+        }
+    }
+
+    /**
+     * Checks that the pattern databases heuristic of a problem is admissible, with the default sizes and with small
+     * patterns. The check is skipped if no optimal plan is found before the time out.
+     *
+     * @param problem the problem.
+     */
+    static void check(final Problem problem) {
+        final Plan plan = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR, StateHeuristic.Name.MAX_COST, 1.0,
+            PatternDatabasesTest.TIMEOUT).searchPlan(problem);
+        if (plan == null) {
+            return;
+        }
+        final List<State> states = PatternDatabasesTest.getStates(problem, plan);
+        final Map<State, Double> costs = PatternDatabasesTest.getCosts(problem);
+        PatternDatabasesTest.check(problem, new PatternDatabases(problem), plan, states, costs);
+        PatternDatabasesTest.check(problem, new PatternDatabases(problem, PatternDatabasesTest.SMALL_PATTERN_SIZE,
+            PatternDatabasesTest.SMALL_COLLECTION_SIZE, null), plan, states, costs);
+    }
+
+    /**
+     * Checks that a pattern databases heuristic is admissible for the goal of the problem along an optimal plan and
+     * for other goals from the initial state.
+     *
+     * @param problem   the problem.
+     * @param heuristic the pattern databases heuristic.
+     * @param plan      the optimal plan.
+     * @param states    the states along the optimal plan.
+     * @param costs     the optimal costs from the initial state to the states of the state space or null if the state
+     *                  space is too large.
+     */
+    private static void check(final Problem problem, final PatternDatabases heuristic, final Plan plan,
+                              final List<State> states, final Map<State, Double> costs) {
+        final Condition goal = problem.getGoal();
+        final List<Action> actions = plan.actions();
+        double remaining = plan.cost();
+        for (int i = 0; i < states.size(); i++) {
+            final double value = heuristic.estimateCost(states.get(i), goal);
+            Assert.assertTrue("PDB value " + value + " greater than the optimal cost " + remaining + " at step " + i,
+                value <= remaining + PatternDatabasesTest.EPSILON);
+            if (i < actions.size()) {
+                remaining -= actions.get(i).getCost().getValue();
+            }
+        }
+        if (costs == null) {
+            return;
+        }
+        final List<Condition> goals = new ArrayList<>();
+        for (int f = goal.getPositiveFluents().nextSetBit(0); f >= 0;
+             f = goal.getPositiveFluents().nextSetBit(f + 1)) {
+            final Condition fluent = new Condition();
+            fluent.getPositiveFluents().set(f);
+            goals.add(fluent);
+        }
+        for (State state : states) {
+            final Condition partial = new Condition();
+            partial.getPositiveFluents().or(state);
+            goals.add(partial);
+        }
+        final State init = states.get(0);
+        for (Condition other : goals) {
+            double optimal = Double.POSITIVE_INFINITY;
+            for (Map.Entry<State, Double> entry : costs.entrySet()) {
+                if (entry.getKey().satisfy(other)) {
+                    optimal = Math.min(optimal, entry.getValue());
+                }
+            }
+            final double value = heuristic.estimateCost(init, other);
+            Assert.assertTrue("PDB value " + value + " from the initial state greater than the optimal cost "
+                + optimal, value <= optimal + PatternDatabasesTest.EPSILON);
+        }
+    }
+
+    /**
+     * Estimates the distance from a successor of the initial state of a problem to a fluent of the goal of the
+     * problem. The goal of the problem must have several fluents.
+     *
+     * @param problem the problem.
+     * @throws UnsupportedOperationException if the distance from an other state than the initial state to an other
+     *      goal than the goal of the problem is not supported.
+     */
+    static void checkOtherGoalFromOtherState(final Problem problem) {
+        final Condition goal = problem.getGoal();
+        Assert.assertTrue("goal with a single fluent", goal.getPositiveFluents().cardinality() > 1);
+        final Condition fluent = new Condition();
+        fluent.getPositiveFluents().set(goal.getPositiveFluents().nextSetBit(0));
+        final State init = new State(problem.getInitialState());
+        final SuccessorGenerator generator = new SuccessorGenerator(problem);
+        final int[] applicable = generator.getApplicableActions(init);
+        Assert.assertTrue("no action applicable in the initial state", applicable.length > 0);
+        final State successor = new State();
+        generator.apply(applicable[0], init, successor);
+        Assert.assertFalse("successor equal to the initial state", init.equals(successor));
+        new PatternDatabases(problem).estimateCost(successor, fluent);
+    }
+
+    /**
+     * Returns the states along a plan of a problem, from the initial state to the last state of the plan.
+     *
+     * @param problem the problem.
+     * @param plan    the plan.
+     * @return the states along the plan.
+     */
+    private static List<State> getStates(final Problem problem, final Plan plan) {
+        final List<State> states = new ArrayList<>();
+        State state = new State(problem.getInitialState());
+        states.add(state);
+        for (Action action : plan.actions()) {
+            final State successor = new State(state);
+            for (ConditionalEffect effect : action.getConditionalEffects()) {
+                if (state.satisfy(effect.getCondition())) {
+                    successor.apply(effect.getEffect());
+                }
+            }
+            states.add(successor);
+            state = successor;
+        }
+        Assert.assertTrue("goal not reached by the plan", state.satisfy(problem.getGoal()));
+        return states;
+    }
+
+    /**
+     * Computes the optimal costs from the initial state of a problem to all the states of the state space with a
+     * uniform cost search.
+     *
+     * @param problem the problem.
+     * @return the optimal costs from the initial state to the states of the state space or null if the state space has
+     *      more than <code>MAX_STATES</code> states.
+     */
+    private static Map<State, Double> getCosts(final Problem problem) {
+        final SuccessorGenerator generator = new SuccessorGenerator(problem);
+        final Map<State, Double> costs = new HashMap<>();
+        final PriorityQueue<Node> open = new PriorityQueue<>(Comparator.comparingDouble(Node::getCost));
+        final State init = new State(problem.getInitialState());
+        costs.put(init, 0.0);
+        open.add(new Node(init, null, -1, 0.0, 0.0));
+        while (!open.isEmpty()) {
+            final Node node = open.poll();
+            final State state = new State(node);
+            if (node.getCost() > costs.get(state)) {
+                continue;
+            }
+            for (int action : generator.getApplicableActions(state)) {
+                final State successor = new State();
+                generator.apply(action, state, successor);
+                final double cost = node.getCost() + problem.getActions().get(action).getCost().getValue();
+                final Double previous = costs.get(successor);
+                if (previous == null || cost < previous) {
+                    if (previous == null && costs.size() == PatternDatabasesTest.MAX_STATES) {
+                        return null;
+                    }
+                    costs.put(successor, cost);
+                    open.add(new Node(successor, null, action, cost, 0.0));
+                }
+            }
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners;
+
+import fr.uga.pddl4j.planners.JsonLinesSearchListener;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.planners.SearchProgress;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Implements the <tt>JsonLinesSearchListenerTest</tt> of the PDD4L library. The class checks that the progress of the
+ * searches is written one JSON object per line, that each line parses back to the values reported and that the values
+ * that JSON cannot represent are written as <code>null</code>.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class JsonLinesSearchListenerTest {
+
+    /**
+     * Checks that each progress is written on its own line and parses back to the values reported.
+     *
+     * @throws IOException    if the file cannot be written or read.
+     * @throws ParseException if a line is not a JSON object.
+     */
+    @Test
+    public void testProgressed() throws IOException, ParseException {
+        final File file = File.createTempFile("progress", ".jsonl");
+        file.deleteOnExit();
+        try (JsonLinesSearchListener listener = new JsonLinesSearchListener(file.getPath())) {
+            listener.progressed(new SearchProgress(1000, 10, 40, 10.0, 40.0, 30, 10, 5.0, 7.0, 0.5, 2));
+            listener.progressed(new SearchProgress(2000, 30, 100, 20.0, 60.0, 70, 30, 3.0, 8.0, 0.25, 4));
+        }
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(2, lines.size());
+        final JSONObject first = JsonLinesSearchListenerTest.parse(lines.get(0));
+        Assert.assertEquals(1000L, ((Number) first.get("time")).longValue());
+        Assert.assertEquals(10L, ((Number) first.get("explored")).longValue());
+        Assert.assertEquals(40L, ((Number) first.get("created")).longValue());
+        Assert.assertEquals(10.0, ((Number) first.get("expansionRate")).doubleValue(), 0.0);
+        Assert.assertEquals(40.0, ((Number) first.get("generationRate")).doubleValue(), 0.0);
+        Assert.assertEquals(30L, ((Number) first.get("open")).longValue());
+        Assert.assertEquals(10L, ((Number) first.get("closed")).longValue());
+        Assert.assertEquals(5.0, ((Number) first.get("bestHeuristic")).doubleValue(), 0.0);
+        Assert.assertEquals(7.0, ((Number) first.get("layer")).doubleValue(), 0.0);
+        Assert.assertEquals(0.5, ((Number) first.get("heuristicTimeShare")).doubleValue(), 0.0);
+        Assert.assertEquals(2L, ((Number) first.get("gcTime")).longValue());
+        final JSONObject second = JsonLinesSearchListenerTest.parse(lines.get(1));
+        Assert.assertEquals(30L, ((Number) second.get("explored")).longValue());
+        Assert.assertEquals(3.0, ((Number) second.get("bestHeuristic")).doubleValue(), 0.0);
+    }
+
+    /**
+     * Checks that the values that are not a number or infinite are written as <code>null</code>.
+     *
+     * @throws IOException    if the file cannot be written or read.
+     * @throws ParseException if a line is not a JSON object.
+     */
+    @Test
+    public void testUndefinedValues() throws IOException, ParseException {
+        final File file = File.createTempFile("progress", ".jsonl");
+        file.deleteOnExit();
+        try (JsonLinesSearchListener listener = new JsonLinesSearchListener(file.getPath())) {
+            listener.progressed(new SearchProgress(0, 0, 0, Double.POSITIVE_INFINITY, 0.0, 1, 0, Double.NaN,
+                Double.NaN, 0.0, 0));
+        }
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(1, lines.size());
+        final JSONObject json = JsonLinesSearchListenerTest.parse(lines.get(0));
+        Assert.assertTrue(json.containsKey("bestHeuristic"));
+        Assert.assertNull(json.get("bestHeuristic"));
+        Assert.assertNull(json.get("layer"));
+        Assert.assertNull(json.get("expansionRate"));
+    }
+
+    /**
+     * Checks that the listener appends its lines to an existing file when requested and that the progress reported
+     * by a search control reaches the file.
+     *
+     * @throws IOException    if the file cannot be written or read.
+     * @throws ParseException if a line is not a JSON object.
+     */
+    @Test
+    public void testAppendFromControl() throws IOException, ParseException {
+        final File file = File.createTempFile("progress", ".jsonl");
+        file.deleteOnExit();
+        try (JsonLinesSearchListener listener = new JsonLinesSearchListener(file.getPath())) {
+            listener.progressed(new SearchProgress(0, 0, 0, 0.0, 0.0, 1, 0, 9.0, 9.0, 0.0, 0));
+        }
+        try (JsonLinesSearchListener listener = new JsonLinesSearchListener(file.getPath(), true)) {
+            final SearchControl control = new SearchControl();
+            control.addSearchListener(listener);
+            control.start(SearchControl.NO_LIMIT);
+            control.report(12, 48, 36, 12, 4.0, 6.0, 0);
+        }
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals(9.0, ((Number) JsonLinesSearchListenerTest.parse(lines.get(0)).get("bestHeuristic"))
+            .doubleValue(), 0.0);
+        final JSONObject json = JsonLinesSearchListenerTest.parse(lines.get(1));
+        Assert.assertEquals(12L, ((Number) json.get("explored")).longValue());
+        Assert.assertEquals(48L, ((Number) json.get("created")).longValue());
+        Assert.assertEquals(36L, ((Number) json.get("open")).longValue());
+        Assert.assertEquals(4.0, ((Number) json.get("bestHeuristic")).doubleValue(), 0.0);
+    }
+
+    /**
+     * Parses a line of the file.
+     *
+     * @param line the line.
+     * @return the JSON object of the line.
+     * @throws ParseException if the line is not a JSON object.
+     */
+    private static JSONObject parse(final String line) throws ParseException {
+        final Object json = new JSONParser().parse(line);
+        Assert.assertTrue("not a JSON object: " + line, json instanceof JSONObject);
+        return (JSONObject) json;
+    }
+}
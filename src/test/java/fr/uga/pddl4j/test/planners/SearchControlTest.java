@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchControl;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>SearchControlTest</tt> of the PDD4L library. The class checks the limits of the search controls,
+ * i.e., the cancellation, the deadline, the timeout and the node budget, first on the control alone and then on an A*
+ * search of an IPC problem.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SearchControlTest {
+
+    /**
+     * The time out of the searches in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The benchmark directory of the problem searched.
+     */
+    private static final String BENCHMARK = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator;
+
+    /**
+     * Checks that a cancelled control interrupts the search at once and keeps its status until it is reset.
+     */
+    @Test
+    public void testCancel() {
+        final SearchControl control = new SearchControl();
+        control.start(SearchControl.NO_LIMIT);
+        Assert.assertFalse(control.isInterrupted(1));
+        control.cancel();
+        Assert.assertTrue(control.isCancelled());
+        Assert.assertTrue(control.isInterrupted(1));
+        Assert.assertEquals(SearchControl.Status.CANCELLED, control.getStatus());
+        control.start(SearchControl.NO_LIMIT);
+        Assert.assertEquals(SearchControl.Status.CANCELLED, control.getStatus());
+        control.reset();
+        Assert.assertFalse(control.isCancelled());
+        Assert.assertEquals(SearchControl.Status.RUNNING, control.getStatus());
+        Assert.assertFalse(control.isInterrupted(control.getPollingInterval()));
+    }
+
+    /**
+     * Checks that a control stops the search when its deadline or the timeout of the search is reached.
+     */
+    @Test
+    public void testDeadlineAndTimeout() {
+        final SearchControl control = new SearchControl();
+        control.setDeadline(System.currentTimeMillis() - 1);
+        control.start(SearchControl.NO_LIMIT);
+        Assert.assertTrue(control.isInterrupted(control.getPollingInterval()));
+        Assert.assertEquals(SearchControl.Status.TIMEOUT, control.getStatus());
+
+        control.setDeadline(SearchControl.NO_LIMIT);
+        control.start(0);
+        Assert.assertEquals(SearchControl.Status.RUNNING, control.getStatus());
+        Assert.assertTrue(control.isInterrupted(control.getPollingInterval()));
+        Assert.assertEquals(SearchControl.Status.TIMEOUT, control.getStatus());
+
+        control.start(SearchControl.NO_LIMIT);
+        Assert.assertFalse(control.isInterrupted(control.getPollingInterval()));
+    }
+
+    /**
+     * Checks that a control stops the search when the node budget is reached and that the limits are only checked
+     * every polling interval.
+     */
+    @Test
+    public void testNodeBudget() {
+        final SearchControl control = new SearchControl();
+        control.setPollingInterval(4);
+        control.setNodeBudget(10);
+        control.start(SearchControl.NO_LIMIT);
+        Assert.assertFalse(control.isInterrupted(8));
+        Assert.assertFalse(control.isInterrupted(10));
+        Assert.assertTrue(control.isInterrupted(12));
+        Assert.assertEquals(SearchControl.Status.NODE_LIMIT, control.getStatus());
+        // The first reason recorded is kept
+        control.cancel();
+        Assert.assertEquals(SearchControl.Status.CANCELLED, control.getStatus());
+        control.reset();
+        control.setNodeBudget(SearchControl.NO_LIMIT);
+        control.start(SearchControl.NO_LIMIT);
+        Assert.assertFalse(control.isInterrupted(Integer.MAX_VALUE - 3));
+    }
+
+    /**
+     * Checks that the copy of a control keeps the limits but not the cancellation request.
+     */
+    @Test
+    public void testCopy() {
+        final SearchControl control = new SearchControl();
+        control.setNodeBudget(10);
+        control.setPollingInterval(2);
+        control.setTimeout(1000);
+        control.cancel();
+        final SearchControl copy = new SearchControl(control);
+        Assert.assertEquals(control.getNodeBudget(), copy.getNodeBudget());
+        Assert.assertEquals(control.getPollingInterval(), copy.getPollingInterval());
+        Assert.assertEquals(control.getDeadline(), copy.getDeadline());
+        Assert.assertFalse(copy.isCancelled());
+        Assert.assertEquals(SearchControl.Status.RUNNING, copy.getStatus());
+    }
+
+    /**
+     * Checks that the invalid limits are rejected.
+     */
+    @Test
+    public void testInvalidLimits() {
+        final SearchControl control = new SearchControl();
+        try {
+            control.setNodeBudget(-1);
+            Assert.fail("negative node budget accepted");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(SearchControl.NO_LIMIT, control.getNodeBudget());
+        }
+        try {
+            control.setPollingInterval(0);
+            Assert.fail("null polling interval accepted");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(SearchControl.DEFAULT_POLLING_INTERVAL, control.getPollingInterval());
+        }
+        try {
+            control.setTimeout(-1);
+            Assert.fail("negative timeout accepted");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(SearchControl.NO_LIMIT, control.getDeadline());
+        }
+    }
+
+    /**
+     * Checks that A* finds no plan and reports the status <code>CANCELLED</code> when its control is cancelled.
+     */
+    @Test
+    public void testCancelledSearch() {
+        final SearchControl control = new SearchControl();
+        control.cancel();
+        final StateSpaceSearch search = SearchControlTest.search(control);
+        Assert.assertNull(search.searchPlan(SearchControlTest.problem()));
+        Assert.assertTrue(search.isCancelled());
+        Assert.assertEquals(SearchControl.Status.CANCELLED, control.getStatus());
+        Assert.assertEquals(0, search.getExploredNodes());
+    }
+
+    /**
+     * Checks that A* finds no plan and reports the status <code>NODE_LIMIT</code> when its node budget is too small,
+     * and that the same search finds a plan once the budget is removed.
+     */
+    @Test
+    public void testNodeBudgetSearch() {
+        final Problem problem = SearchControlTest.problem();
+        final SearchControl control = new SearchControl();
+        control.setPollingInterval(1);
+        control.setNodeBudget(2);
+        final StateSpaceSearch search = SearchControlTest.search(control);
+        Assert.assertNull(search.searchPlan(problem));
+        Assert.assertEquals(SearchControl.Status.NODE_LIMIT, control.getStatus());
+        control.setNodeBudget(SearchControl.NO_LIMIT);
+        control.reset();
+        Assert.assertNotNull(search.searchPlan(problem));
+        Assert.assertEquals(SearchControl.Status.RUNNING, control.getStatus());
+    }
+
+    /**
+     * Checks that A* finds no plan and reports the status <code>TIMEOUT</code> when the deadline of its control is
+     * already reached.
+     */
+    @Test
+    public void testDeadlineSearch() {
+        final SearchControl control = new SearchControl();
+        control.setPollingInterval(1);
+        control.setDeadline(System.currentTimeMillis() - 1);
+        final StateSpaceSearch search = SearchControlTest.search(control);
+        Assert.assertNull(search.searchPlan(SearchControlTest.problem()));
+        Assert.assertEquals(SearchControl.Status.TIMEOUT, control.getStatus());
+    }
+
+    /**
+     * Returns an A* search controlled by a specified control.
+     *
+     * @param control the control of the search.
+     * @return the search.
+     */
+    private static StateSpaceSearch search(final SearchControl control) {
+        final StateSpaceSearch search = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR,
+            StateHeuristic.Name.FAST_FORWARD, 1.0, SearchControlTest.TIMEOUT);
+        search.setSearchControl(control);
+        return search;
+    }
+
+    /**
+     * Returns the first problem of the benchmark directory.
+     *
+     * @return the first problem of the benchmark directory.
+     */
+    private static Problem problem() {
+        return Tools.generateCodedProblems(SearchControlTest.BENCHMARK, 1).get(0);
+    }
+}
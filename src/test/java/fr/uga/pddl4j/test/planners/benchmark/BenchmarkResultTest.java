@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.benchmark;
+
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.plan.SequentialPlan;
+import fr.uga.pddl4j.planners.Statistics;
+import fr.uga.pddl4j.planners.benchmark.BenchmarkResult;
+import fr.uga.pddl4j.problem.operator.Action;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implements the <tt>BenchmarkResultTest</tt> of the PDD4L library. The class checks the rows of the CSV tables of
+ * results against their header and the round trip of the results through their JSON representation.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class BenchmarkResultTest {
+
+    /**
+     * The configuration of the results tested.
+     */
+    private static final String CONFIGURATION = "GSP --heuristic=MAX";
+
+    /**
+     * The domain of the results tested.
+     */
+    private static final String DOMAIN = "ipc1998/gripper/strips/domain.pddl";
+
+    /**
+     * The problem of the results tested.
+     */
+    private static final String PROBLEM = "ipc1998/gripper/strips/p01.pddl";
+
+    /**
+     * Checks that the row of a solved problem has one value per column of the header and the expected values.
+     */
+    @Test
+    public void testCsvRowSolved() {
+        final Map<String, String> row = BenchmarkResultTest.toRow(BenchmarkResultTest.solved());
+        Assert.assertEquals(BenchmarkResultTest.CONFIGURATION, row.get("configuration"));
+        Assert.assertEquals(BenchmarkResultTest.DOMAIN, row.get("domain"));
+        Assert.assertEquals(BenchmarkResultTest.PROBLEM, row.get("problem"));
+        Assert.assertEquals("SOLVED", row.get("status"));
+        Assert.assertEquals("10", row.get("time_to_parse"));
+        Assert.assertEquals("20", row.get("time_to_encode"));
+        Assert.assertEquals("30", row.get("time_to_search"));
+        Assert.assertEquals("500", row.get("wall_time"));
+        Assert.assertEquals("1024", row.get("memory_for_problem"));
+        Assert.assertEquals("2048", row.get("memory_to_search"));
+        Assert.assertEquals("12", row.get("actions"));
+        Assert.assertEquals("8", row.get("fluents"));
+        Assert.assertEquals("100", row.get("explored_nodes"));
+        Assert.assertEquals("400", row.get("created_nodes"));
+        Assert.assertEquals("2", row.get("plan_length"));
+        Assert.assertEquals("3.50", row.get("plan_cost"));
+    }
+
+    /**
+     * Checks that the row of a failed run has one value per column of the header, no plan length and no plan cost.
+     */
+    @Test
+    public void testCsvRowUnsolved() {
+        final BenchmarkResult result = new BenchmarkResult(BenchmarkResultTest.CONFIGURATION,
+            BenchmarkResultTest.DOMAIN, BenchmarkResultTest.PROBLEM);
+        Assert.assertEquals(BenchmarkResult.Status.ERROR, result.getStatus());
+        final Map<String, String> row = BenchmarkResultTest.toRow(result);
+        Assert.assertEquals("ERROR", row.get("status"));
+        Assert.assertEquals("-1", row.get("plan_length"));
+        Assert.assertEquals("", row.get("plan_cost"));
+    }
+
+    /**
+     * Checks that the fields that contain a comma or a quote are quoted.
+     */
+    @Test
+    public void testCsvEscaping() {
+        final BenchmarkResult result = new BenchmarkResult("GSP --weight=1,5 \"x\"", BenchmarkResultTest.DOMAIN,
+            BenchmarkResultTest.PROBLEM);
+        Assert.assertTrue(result.toCsv().startsWith("\"GSP --weight=1,5 \"\"x\"\"\"," + BenchmarkResultTest.DOMAIN
+            + ","));
+    }
+
+    /**
+     * Checks that a result is the same after a round trip through its JSON representation.
+     *
+     * @throws ParseException if the JSON representation cannot be parsed.
+     */
+    @Test
+    public void testJsonRoundTrip() throws ParseException {
+        final BenchmarkResult result = BenchmarkResultTest.solved();
+        final BenchmarkResult copy = BenchmarkResultTest.roundTrip(result);
+        Assert.assertEquals(result.getKey(), copy.getKey());
+        Assert.assertEquals(result.toCsv(), copy.toCsv());
+        Assert.assertEquals(result.getPlanCost(), copy.getPlanCost(), 0.0);
+
+        final BenchmarkResult unsolved = new BenchmarkResult(BenchmarkResultTest.CONFIGURATION,
+            BenchmarkResultTest.DOMAIN, BenchmarkResultTest.PROBLEM);
+        unsolved.setStatus(BenchmarkResult.Status.TIMEOUT);
+        Assert.assertNull(unsolved.toJson().get("planCost"));
+        final BenchmarkResult unsolvedCopy = BenchmarkResultTest.roundTrip(unsolved);
+        Assert.assertEquals(BenchmarkResult.Status.TIMEOUT, unsolvedCopy.getStatus());
+        Assert.assertTrue(Double.isNaN(unsolvedCopy.getPlanCost()));
+        Assert.assertEquals(-1, unsolvedCopy.getPlanLength());
+    }
+
+    /**
+     * Checks that an invalid JSON representation is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidJson() {
+        final JSONObject json = BenchmarkResultTest.solved().toJson();
+        json.remove("exploredNodes");
+        BenchmarkResult.fromJson(json);
+    }
+
+    /**
+     * Returns the result of a solved problem.
+     *
+     * @return the result of a solved problem.
+     */
+    private static BenchmarkResult solved() {
+        final Statistics statistics = new Statistics();
+        statistics.setTimeToParse(10);
+        statistics.setTimeToEncode(20);
+        statistics.setTimeToSearch(30);
+        statistics.setMemoryUsedForProblemRepresentation(1024);
+        statistics.setMemoryUsedToSearch(2048);
+        statistics.setNumberOfActions(12);
+        statistics.setNumberOfRelevantFluents(8);
+        statistics.setExploredNodes(100);
+        statistics.setCreatedNodes(400);
+        final Action pick = new Action("pick", 0);
+        pick.getCost().setValue(1.5);
+        final Action drop = new Action("drop", 0);
+        drop.getCost().setValue(2.0);
+        final Plan plan = new SequentialPlan();
+        plan.add(0, pick);
+        plan.add(1, drop);
+        final BenchmarkResult result = new BenchmarkResult(BenchmarkResultTest.CONFIGURATION,
+            BenchmarkResultTest.DOMAIN, BenchmarkResultTest.PROBLEM);
+        result.setStatistics(statistics);
+        result.setPlan(plan);
+        result.setWallTime(500);
+        result.setStatus(BenchmarkResult.Status.SOLVED);
+        Assert.assertEquals(60, result.getTotalTime());
+        return result;
+    }
+
+    /**
+     * Returns the row of a result in the CSV table indexed by the columns of the header.
+     *
+     * @param result the result.
+     * @return the row of the result indexed by the columns of the header.
+     */
+    private static Map<String, String> toRow(final BenchmarkResult result) {
+        final String[] columns = BenchmarkResult.CSV_HEADER.split(",", -1);
+        final String[] values = result.toCsv().split(",", -1);
+        Assert.assertEquals("number of columns", columns.length, values.length);
+        final Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            row.put(columns[i], values[i]);
+        }
+        return row;
+    }
+
+    /**
+     * Writes a result in JSON, parses it back and returns the result read.
+     *
+     * @param result the result.
+     * @return the result read.
+     * @throws ParseException if the JSON representation cannot be parsed.
+     */
+    private static BenchmarkResult roundTrip(final BenchmarkResult result) throws ParseException {
+        return BenchmarkResult.fromJson((JSONObject) new JSONParser().parse(result.toJson().toJSONString()));
+    }
+}
@@ -16,10 +16,13 @@
 package fr.uga.pddl4j.test.planners.statespace;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.SearchStrategy;
 import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.test.Tools;
 
 import org.junit.Assert;
@@ -29,6 +32,7 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * Implements the <tt>GenericPlannerTest</tt> of the PDD4L library. The planner accepts only PDDL3.0 language.
@@ -56,6 +60,35 @@ public class GSPTest {
      */
     private static final double HEURISTIC_WEIGHT = 1.0;
 
+    /**
+     * The maximum number of nodes of SMA*, small enough to make the search forget nodes.
+     */
+    private static final int NODE_LIMIT = 10000;
+
+    /**
+     * The number of entries of the transposition table of IDA*.
+     */
+    private static final int TABLE_SIZE = 1 << 16;
+
+    /**
+     * The number of records of the sort buffer of the external-memory searches, small enough to spill and merge runs.
+     */
+    private static final int BUFFER_SIZE = 64;
+
+    /**
+     * The heuristics used with the search strategies that are not tested with all the heuristics: a heuristic for
+     * the satisficing searches and an admissible heuristic for the optimal searches.
+     */
+    private static final StateHeuristic.Name[] REPRESENTATIVE_HEURISTICS = {
+        StateHeuristic.Name.FAST_FORWARD,
+        StateHeuristic.Name.MAX,
+    };
+
+    /**
+     * The optimal costs of the problems p01, p02 and p03 of the action costs benchmarks. The plans of these costs are
+     * longer than the shortest plans, whose costs are higher.
+     */
+    private static final double[] ACTION_COSTS_OPTIMAL_COSTS = {6.0, 2.0, 7.0};
 
     /**
      * The planner configuration used to run the tests.
@@ -70,6 +103,9 @@ public class GSPTest {
         this.config = GSP.getDefaultConfiguration();
         this.config.setProperty(GSP.TIME_OUT_SETTING, GSPTest.TIMEOUT);
         this.config.setProperty(GSP.WEIGHT_HEURISTIC_SETTING, GSPTest.HEURISTIC_WEIGHT);
+        this.config.setProperty(GSP.NODE_LIMIT_SETTING, GSPTest.NODE_LIMIT);
+        this.config.setProperty(GSP.TABLE_SIZE_SETTING, GSPTest.TABLE_SIZE);
+        this.config.setProperty(GSP.BUFFER_SIZE_SETTING, GSPTest.BUFFER_SIZE);
         Tools.changeVALPerm();
     }
 
@@ -84,6 +120,7 @@ public class GSPTest {
             switch (strategy) {
                 case BREADTH_FIRST:
                 case DEPTH_FIRST:
+                case EXTERNAL_BREADTH_FIRST:
                     this.config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, strategies);
                     Tools.solve(path, Tools.PDDL_EXT, Planner.Name.GSP, this.config);
                     break;
@@ -97,6 +134,19 @@ public class GSPTest {
                         Tools.solve(path, Tools.PDDL_EXT, Planner.Name.GSP, this.config);
                     }
                     break;
+                case REGRESSION:
+                case BIDIRECTIONAL_ASTAR:
+                case IDA_STAR:
+                case SMA_STAR:
+                case EXTERNAL_ASTAR:
+                case HDA_STAR:
+                case LAZY_GREEDY_BEST_FIRST:
+                    this.config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, strategies);
+                    for (StateHeuristic.Name heuristic : GSPTest.REPRESENTATIVE_HEURISTICS) {
+                        this.config.setProperty(GSP.HEURISTIC_SETTING, heuristic);
+                        Tools.solve(path, Tools.PDDL_EXT, Planner.Name.GSP, this.config);
+                    }
+                    break;
                 default:
                     break;
             }
@@ -677,4 +727,31 @@ public class GSPTest {
         Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.GSP, this.config);
     }*/
 
+    /**
+     * Method that executes tests using the personal road benchmarks with action costs.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GSP_Personals_Action_Costs() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "personals/action-costs" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        this.solve(localTestPath);
+        final List<Problem> problems = Tools.generateCodedProblems(localTestPath,
+            GSPTest.ACTION_COSTS_OPTIMAL_COSTS.length);
+        this.config.setProperty(GSP.HEURISTIC_SETTING, StateHeuristic.Name.MAX_COST);
+        this.config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + SearchStrategy.Name.ASTAR + "]");
+        for (int i = 0; i < problems.size(); i++) {
+            final Plan optimal = new GSP(this.config).solve(problems.get(i));
+            Assert.assertNotNull("no plan found for p0" + (i + 1), optimal);
+            Assert.assertEquals("plan cost for p0" + (i + 1), GSPTest.ACTION_COSTS_OPTIMAL_COSTS[i], optimal.cost(),
+                0.0);
+            final Plan shortest = StateSpaceSearch.getInstance(SearchStrategy.Name.BREADTH_FIRST).searchPlan(
+                problems.get(i));
+            Assert.assertNotNull("no shortest plan found for p0" + (i + 1), shortest);
+            Assert.assertTrue("shortest plan cost for p0" + (i + 1), optimal.cost() < shortest.cost());
+        }
+    }
+
 }
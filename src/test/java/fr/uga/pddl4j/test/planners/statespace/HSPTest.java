@@ -16,9 +16,13 @@
 package fr.uga.pddl4j.test.planners.statespace;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
 import fr.uga.pddl4j.planners.statespace.HSP;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.test.Tools;
 
 import org.junit.Assert;
@@ -28,6 +32,7 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * Implements the <tt>HSPTest</tt> of the PDD4L library. The class executes the junit tests with HSP on ADL and STRIPS
@@ -56,6 +61,12 @@ public class HSPTest {
      */
     private static final double HEURISTIC_WEIGHT = 1.0;
 
+    /**
+     * The optimal costs of the problems p01, p02 and p03 of the action costs benchmarks. The plans of these costs are
+     * longer than the shortest plans, whose costs are higher.
+     */
+    private static final double[] ACTION_COSTS_OPTIMAL_COSTS = {6.0, 2.0, 7.0};
+
     /**
      * The default planner configuration for the tests.
      */
@@ -647,4 +658,30 @@ public class HSPTest {
         Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.HSP, this.config);
     }*/
 
+    /**
+     * Method that executes tests using the personal road benchmarks with action costs.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_HSP_Personals_Action_Costs() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "personals/action-costs" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.HSP, this.config);
+        final List<Problem> problems = Tools.generateCodedProblems(localTestPath,
+            HSPTest.ACTION_COSTS_OPTIMAL_COSTS.length);
+        this.config.setProperty(HSP.HEURISTIC_SETTING, StateHeuristic.Name.MAX_COST);
+        for (int i = 0; i < problems.size(); i++) {
+            final Plan optimal = new HSP(this.config).solve(problems.get(i));
+            Assert.assertNotNull("no plan found for p0" + (i + 1), optimal);
+            Assert.assertEquals("plan cost for p0" + (i + 1), HSPTest.ACTION_COSTS_OPTIMAL_COSTS[i], optimal.cost(),
+                0.0);
+            final Plan shortest = StateSpaceSearch.getInstance(SearchStrategy.Name.BREADTH_FIRST).searchPlan(
+                problems.get(i));
+            Assert.assertNotNull("no shortest plan found for p0" + (i + 1), shortest);
+            Assert.assertTrue("shortest plan cost for p0" + (i + 1), optimal.cost() < shortest.cost());
+        }
+    }
+
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace;
+
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.statespace.Portfolio;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>PortfolioTest</tt> of the PDD4L library. The class executes the junit tests with the portfolio
+ * planner on STRIPS and ADL planning domains of IPC. A bound of 10 seconds is allocated to the search. The plan returns
+ * for each test is tested with the KCL-Planning validator: https://github.com/KCL-Planning/VAL.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 17.11.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PortfolioTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 10;
+
+    /**
+     * The default planner configuration for the tests.
+     */
+    private PlannerConfiguration config;
+
+    /**
+     * Test initialization.
+     */
+    @Before
+    public void initTest() {
+        this.config = Portfolio.getDefaultConfiguration();
+        this.config.setProperty(Portfolio.TIME_OUT_SETTING, PortfolioTest.TIMEOUT);
+        Tools.changeVALPerm();
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_PORTFOLIO_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.PORTFOLIO, this.config);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_PORTFOLIO_IPC1998_Logistics_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/logistics/adl" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.PORTFOLIO, this.config);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_PORTFOLIO_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.PORTFOLIO, this.config);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_PORTFOLIO_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.PORTFOLIO, this.config);
+    }
+}
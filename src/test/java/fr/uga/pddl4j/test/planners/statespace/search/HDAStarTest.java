@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>HDAStarTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the plans found by
+ * HDA* with an admissible heuristic are optimal: they must have the same cost as the plans found by A*, with a single
+ * worker thread and with several worker threads.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class HDAStarTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 2;
+
+    /**
+     * The time out of each search in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The numbers of worker threads of HDA* tested.
+     */
+    private static final int[] THREADS = {1, 4};
+
+    /**
+     * The admissible heuristic used by A* and HDA*.
+     */
+    private static final StateHeuristic.Name HEURISTIC = StateHeuristic.Name.MAX_COST;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks.
+     */
+    @Test
+    public void test_HDAStar_IPC1998_Gripper_STRIPS() {
+        HDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks.
+     */
+    @Test
+    public void test_HDAStar_IPC1998_Logistics_STRIPS_Round1() {
+        HDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_HDAStar_IPC2000_Blocks_STRIPS_Typed() {
+        HDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_HDAStar_IPC2002_Depots_STRIPS_Automatic() {
+        HDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using the action costs benchmarks.
+     */
+    @Test
+    public void test_HDAStar_Personals_Action_Costs() {
+        HDAStarTest.check(Tools.PDDL_BENCH_DIR + "personals/action-costs" + File.separator);
+    }
+
+    /**
+     * Checks that HDA* finds plans of the same cost as A* on the first problems of a benchmark directory. The check
+     * of a problem is skipped if A* does not end before the time out.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        for (Problem problem : Tools.generateCodedProblems(path, HDAStarTest.PROBLEMS)) {
+            final Plan optimal = HDAStarTest.search(problem, SearchStrategy.Name.ASTAR, 1);
+            if (optimal == null) {
+                continue;
+            }
+            for (int threads : HDAStarTest.THREADS) {
+                final Plan plan = HDAStarTest.search(problem, SearchStrategy.Name.HDA_STAR, threads);
+                Assert.assertNotNull("no plan found by HDA* with " + threads + " threads", plan);
+                Assert.assertEquals("plan cost of HDA* with " + threads + " threads", optimal.cost(), plan.cost(),
+                    1e-9);
+            }
+        }
+    }
+
+    /**
+     * Searches a plan with a specified search strategy.
+     *
+     * @param problem  the problem.
+     * @param strategy the search strategy.
+     * @param threads  the number of threads used by the search strategy.
+     * @return the plan found or null if no plan was found before the time out.
+     */
+    private static Plan search(final Problem problem, final SearchStrategy.Name strategy, final int threads) {
+        final StateSpaceSearch search = StateSpaceSearch.getInstance(strategy, HDAStarTest.HEURISTIC, 1.0,
+            HDAStarTest.TIMEOUT, threads);
+        return search.searchPlan(problem);
+    }
+}
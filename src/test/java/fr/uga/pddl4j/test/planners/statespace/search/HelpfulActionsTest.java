@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>HelpfulActionsTest</tt> of the PDD4L library. The class checks on IPC benchmarks that enforced
+ * hill climbing and greedy best first search still find plans when they prune or prefer the helpful actions computed
+ * by the FF heuristic, and that pruning the helpful actions creates fewer nodes than ignoring them.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class HelpfulActionsTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 2;
+
+    /**
+     * The time out of each search in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The heuristic computing the helpful actions.
+     */
+    private static final StateHeuristic.Name HEURISTIC = StateHeuristic.Name.FAST_FORWARD;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks with enforced hill climbing.
+     */
+    @Test
+    public void test_HelpfulActions_EHC_IPC1998_Gripper_STRIPS() {
+        HelpfulActionsTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator,
+            SearchStrategy.Name.ENFORCED_HILL_CLIMBING);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks with enforced hill climbing.
+     */
+    @Test
+    public void test_HelpfulActions_EHC_IPC1998_Logistics_STRIPS_Round1() {
+        HelpfulActionsTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator,
+            SearchStrategy.Name.ENFORCED_HILL_CLIMBING);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks with greedy best first search.
+     */
+    @Test
+    public void test_HelpfulActions_GBFS_IPC1998_Gripper_STRIPS() {
+        HelpfulActionsTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator,
+            SearchStrategy.Name.GREEDY_BEST_FIRST);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks with greedy best first search.
+     */
+    @Test
+    public void test_HelpfulActions_GBFS_IPC1998_Logistics_STRIPS_Round1() {
+        HelpfulActionsTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator,
+            SearchStrategy.Name.GREEDY_BEST_FIRST);
+    }
+
+    /**
+     * Checks on the first problems of a benchmark directory that a search finds a plan with each use of the helpful
+     * actions and that the search creates fewer nodes in total when the helpful actions are pruned than when they are
+     * ignored.
+     *
+     * @param path     the benchmark directory.
+     * @param strategy the search strategy.
+     */
+    private static void check(final String path, final SearchStrategy.Name strategy) {
+        long ignored = 0;
+        long pruned = 0;
+        for (Problem problem : Tools.generateCodedProblems(path, HelpfulActionsTest.PROBLEMS)) {
+            for (StateSpaceSearch.HelpfulActions mode : StateSpaceSearch.HelpfulActions.values()) {
+                final StateSpaceSearch search = StateSpaceSearch.getInstance(strategy, HelpfulActionsTest.HEURISTIC,
+                    1.0, HelpfulActionsTest.TIMEOUT);
+                search.setHelpfulActions(mode);
+                final Plan plan = search.searchPlan(problem);
+                Assert.assertNotNull("no plan found by " + strategy + " with the helpful actions " + mode, plan);
+                if (mode == StateSpaceSearch.HelpfulActions.IGNORE) {
+                    ignored += search.getCreatedNodes();
+                } else if (mode == StateSpaceSearch.HelpfulActions.PRUNE) {
+                    pruned += search.getCreatedNodes();
+                }
+            }
+        }
+        Assert.assertTrue("nodes created by " + strategy + " with and without pruning: " + pruned + " >= " + ignored,
+            pruned < ignored);
+    }
+}
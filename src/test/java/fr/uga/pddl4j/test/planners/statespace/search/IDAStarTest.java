@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.IDAStar;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>IDAStarTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the plans found by
+ * IDA* with an admissible heuristic are optimal: they must have the same cost as the plans found by A*, with the
+ * default transposition table and with a transposition table small enough for its entries to be replaced.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class IDAStarTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 2;
+
+    /**
+     * The time out of each search in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The numbers of entries of the transposition table of IDA* tested.
+     */
+    private static final int[] TABLE_SIZES = {IDAStar.DEFAULT_TABLE_SIZE, 64};
+
+    /**
+     * The admissible heuristic used by A* and IDA*.
+     */
+    private static final StateHeuristic.Name HEURISTIC = StateHeuristic.Name.MAX_COST;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks.
+     */
+    @Test
+    public void test_IDAStar_IPC1998_Gripper_STRIPS() {
+        IDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_IDAStar_IPC2000_Blocks_STRIPS_Typed() {
+        IDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_IDAStar_IPC2002_Depots_STRIPS_Automatic() {
+        IDAStarTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using the action costs benchmarks.
+     */
+    @Test
+    public void test_IDAStar_Personals_Action_Costs() {
+        IDAStarTest.check(Tools.PDDL_BENCH_DIR + "personals/action-costs" + File.separator);
+    }
+
+    /**
+     * Checks that IDA* finds plans of the same cost as A* on the first problems of a benchmark directory. The check
+     * of a problem is skipped if one of the searches does not end before the time out.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        for (Problem problem : Tools.generateCodedProblems(path, IDAStarTest.PROBLEMS)) {
+            final StateSpaceSearch astar = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR,
+                IDAStarTest.HEURISTIC, 1.0, IDAStarTest.TIMEOUT);
+            final Plan optimal = astar.searchPlan(problem);
+            if (optimal == null) {
+                continue;
+            }
+            for (int size : IDAStarTest.TABLE_SIZES) {
+                final IDAStar idastar = new IDAStar(IDAStarTest.TIMEOUT, IDAStarTest.HEURISTIC, 1.0);
+                idastar.setTableSize(size);
+                final Plan plan = idastar.searchPlan(problem);
+                if (plan != null) {
+                    Assert.assertEquals("plan cost of IDA* with a table of " + size + " entries", optimal.cost(),
+                        plan.cost(), 1e-9);
+                }
+            }
+        }
+    }
+}
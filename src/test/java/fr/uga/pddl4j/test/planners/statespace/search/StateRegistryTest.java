@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace.search;
+
+import fr.uga.pddl4j.planners.statespace.search.StateRegistry;
+import fr.uga.pddl4j.planners.statespace.search.ZobristHash;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.util.BitSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Implements the <tt>StateRegistryTest</tt> of the PDD4L library. The tests check that the registry stores each
+ * distinct state once, returns the identifier of the states already registered and keeps the states and their search
+ * information when its arrays, its hash table and its pages grow.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+public class StateRegistryTest {
+
+    /**
+     * Creates a state from a specified identifier and random fluents. Two states created from different identifiers
+     * are different.
+     *
+     * @param id      the identifier encoded in the first fluents of the state.
+     * @param fluents the number of fluents of the state.
+     * @param random  the random generator used to set the other fluents.
+     * @return the state.
+     */
+    private static State newState(final int id, final int fluents, final Random random) {
+        final State state = new State();
+        for (int i = 0; i < 31; i++) {
+            if ((id & (1 << i)) != 0) {
+                state.set(i);
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            state.set(31 + random.nextInt(fluents - 31));
+        }
+        return state;
+    }
+
+    /**
+     * Tests that a new state is initialized with no search information and that a duplicate is not inserted twice.
+     */
+    @Test
+    public void testInsertAndDuplicate() {
+        final StateRegistry registry = new StateRegistry(100);
+        final State s0 = new State();
+        s0.set(3);
+        s0.set(64);
+        final State s1 = new State(s0);
+        s1.set(99);
+        Assert.assertEquals(-1, registry.lookup(s0));
+        Assert.assertEquals(0, registry.insert(s0));
+        Assert.assertEquals(1, registry.insert(s1));
+        Assert.assertEquals(-1, registry.insert(new State(s0)));
+        Assert.assertEquals(-2, registry.insert(new State(s1)));
+        Assert.assertEquals(2, registry.size());
+        Assert.assertEquals(1, registry.lookup(s1));
+        Assert.assertEquals(-1, registry.getParent(0));
+        Assert.assertEquals(-1, registry.getAction(0));
+        Assert.assertEquals(-1, registry.getDepth(0));
+        Assert.assertEquals(Double.POSITIVE_INFINITY, registry.getCost(0), 0.0);
+        Assert.assertEquals(0.0, registry.getHeuristic(0), 0.0);
+        registry.setPath(1, 0, 7, 2.5, 1);
+        registry.setHeuristic(1, 4.0);
+        Assert.assertEquals(0, registry.getParent(1));
+        Assert.assertEquals(7, registry.getAction(1));
+        Assert.assertEquals(2.5, registry.getCost(1), 0.0);
+        Assert.assertEquals(1, registry.getDepth(1));
+        Assert.assertEquals(6.5, registry.getValueF(1, 1.0), 0.0);
+        Assert.assertEquals(s1, registry.getState(1));
+        // Copy a registered state into a larger state without keeping its previous bits
+        final BitSet copy = new BitSet(200);
+        copy.set(150);
+        registry.getState(0, copy);
+        Assert.assertEquals(s0, copy);
+    }
+
+    /**
+     * Tests that the states inserted with an incremental hash are found with the hash computed from scratch.
+     */
+    @Test
+    public void testInsertWithHash() {
+        final ZobristHash zobrist = new ZobristHash(70);
+        final StateRegistry registry = new StateRegistry(zobrist, 1);
+        final State state = new State();
+        state.set(1);
+        state.set(69);
+        final int id = registry.insert(state, zobrist.hash(state));
+        Assert.assertEquals(0, id);
+        Assert.assertEquals(zobrist.hash(state), registry.getHash(id));
+        Assert.assertEquals(id, registry.lookup(state));
+        Assert.assertEquals(-(id + 1), registry.insert(state));
+    }
+
+    /**
+     * Tests that the registry keeps the states and their search information when it grows beyond its initial
+     * capacity and over several pages.
+     */
+    @Test
+    public void testGrow() {
+        final int fluents = 1200;
+        final int states = 70000;
+        final Random random = new Random(0);
+        final StateRegistry registry = new StateRegistry(fluents, 1);
+        for (int i = 0; i < states; i++) {
+            final int id = registry.insert(StateRegistryTest.newState(i, fluents, random));
+            Assert.assertEquals(i, id);
+            registry.setPath(id, id - 1, i % 13, i, i % 100);
+        }
+        Assert.assertEquals(states, registry.size());
+        final Random replay = new Random(0);
+        final State state = new State();
+        for (int i = 0; i < states; i++) {
+            final State expected = StateRegistryTest.newState(i, fluents, replay);
+            Assert.assertEquals(-(i + 1), registry.insert(expected));
+            Assert.assertEquals(i, registry.lookup(expected));
+            registry.getState(i, state);
+            Assert.assertEquals(expected, state);
+            Assert.assertEquals(i - 1, registry.getParent(i));
+            Assert.assertEquals(i % 13, registry.getAction(i));
+            Assert.assertEquals(i, registry.getCost(i), 0.0);
+            Assert.assertEquals(i % 100, registry.getDepth(i));
+        }
+        Assert.assertEquals(states, registry.size());
+    }
+}
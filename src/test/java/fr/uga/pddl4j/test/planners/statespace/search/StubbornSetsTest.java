@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.planners.statespace.search.StubbornSets;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Implements the <tt>StubbornSetsTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the pruning
+ * of the applicable actions with strong stubborn sets preserves the optimality of A*: the plans found by A* with an
+ * admissible heuristic must have the same cost with and without the pruning.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class StubbornSetsTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 2;
+
+    /**
+     * The time out of each search in seconds.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The admissible heuristic used by A*.
+     */
+    private static final StateHeuristic.Name HEURISTIC = StateHeuristic.Name.MAX;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper STRIPS benchmarks.
+     */
+    @Test
+    public void test_StubbornSets_IPC1998_Gripper_STRIPS() {
+        StubbornSetsTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/strips" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics STRIPS round 1 benchmarks.
+     */
+    @Test
+    public void test_StubbornSets_IPC1998_Logistics_STRIPS_Round1() {
+        StubbornSetsTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/strips-round1" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_StubbornSets_IPC2000_Blocks_STRIPS_Typed() {
+        StubbornSetsTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_StubbornSets_IPC2002_Depots_STRIPS_Automatic() {
+        StubbornSetsTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2004 PSR small STRIPS benchmarks.
+     */
+    @Test
+    public void test_StubbornSets_IPC2004_PSR_Small_STRIPS() {
+        StubbornSetsTest.check(Tools.PDDL_BENCH_DIR + "ipc2004/psr/small-strips" + File.separator);
+    }
+
+    /**
+     * Checks the pruning on the first problems of a benchmark directory.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        Assert.assertTrue("missing benchmark [directory: " + path + "] test skipped !",
+            Tools.isBenchmarkExist(path));
+        final File[] files = new File(path).listFiles((dir, name) -> name.matches("p[0-9]+\\" + Tools.PDDL_EXT));
+        Assert.assertNotNull(files);
+        Arrays.sort(files);
+        for (int i = 0; i < Math.min(StubbornSetsTest.PROBLEMS, files.length); i++) {
+            final String problemFile = files[i].getName();
+            String domainFile = path + Tools.PDDL_DOMAIN;
+            if (!new File(domainFile).exists()) {
+                domainFile = path + Tools.removeExtension(problemFile) + "-" + Tools.PDDL_DOMAIN;
+            }
+            final Problem problem = Tools.generateCodedProblem(domainFile, path + problemFile);
+            Assert.assertNotNull("parse error on " + path + problemFile, problem);
+            problem.instantiate();
+            Assert.assertTrue("stubborn sets not supported on " + path + problemFile,
+                StubbornSets.getInstance(problem).isSupported());
+            StubbornSetsTest.check(problem, StubbornSetsTest.TIMEOUT);
+        }
+    }
+
+    /**
+     * Checks that A* finds a plan of the same cost with and without the pruning of the applicable actions. The check
+     * is skipped if one of the searches does not end before the time out.
+     *
+     * @param problem the problem.
+     * @param timeout the time out of each search in seconds.
+     */
+    static void check(final Problem problem, final int timeout) {
+        final Plan plan = StubbornSetsTest.search(problem, false, timeout);
+        final Plan pruned = StubbornSetsTest.search(problem, true, timeout);
+        if (plan != null && pruned != null) {
+            Assert.assertEquals("plan cost with stubborn sets", plan.cost(), pruned.cost(), 1e-9);
+        }
+    }
+
+    /**
+     * Searches a plan with A*.
+     *
+     * @param problem the problem.
+     * @param pruning <code>true</code> to prune the applicable actions with strong stubborn sets; <code>false</code>
+     *                otherwise.
+     * @param timeout the time out of the search in seconds.
+     * @return the plan found or null if no plan was found before the time out.
+     */
+    private static Plan search(final Problem problem, final boolean pruning, final int timeout) {
+        final StateSpaceSearch search = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR,
+            StubbornSetsTest.HEURISTIC, 1.0, timeout);
+        search.setStubbornSetPruning(pruning);
+        return search.searchPlan(problem);
+    }
+}
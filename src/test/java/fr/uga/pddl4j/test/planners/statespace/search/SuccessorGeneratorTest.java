@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace.search;
+
+import fr.uga.pddl4j.planners.statespace.search.SuccessorGenerator;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Implements the <tt>SuccessorGeneratorTest</tt> of the PDD4L library. The class checks on IPC benchmarks that the
+ * successor generator returns exactly the actions whose preconditions are satisfied, i.e., the actions returned by
+ * {@link Action#isApplicable(State)} when all the actions of the problem are tested. The states are drawn at random
+ * with different densities of fluents and along random walks from the initial state.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SuccessorGeneratorTest {
+
+    /**
+     * The number of problems tested per benchmark directory.
+     */
+    private static final int PROBLEMS = 3;
+
+    /**
+     * The number of random states tested per problem.
+     */
+    private static final int STATES = 500;
+
+    /**
+     * The maximum length of the random walks from the initial state.
+     */
+    private static final int WALK_LENGTH = 50;
+
+    /**
+     * Method that executes tests using IPC 1998 Gripper ADL benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC1998_Gripper_ADL() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 1998 Logistics ADL benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC1998_Logistics_ADL() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc1998/logistics/adl" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Blocks STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC2000_Blocks_STRIPS_Typed() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Elevator ADL full typed benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC2000_Elevator_ADL_Full_Typed() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/elevator/adl-full-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2000 Freecell STRIPS typed benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC2000_Freecell_STRIPS_Typed() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc2000/freecell/strips-typed" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2002 Depots STRIPS automatic benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC2002_Depots_STRIPS_Automatic() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator);
+    }
+
+    /**
+     * Method that executes tests using IPC 2004 PSR small STRIPS benchmarks.
+     */
+    @Test
+    public void test_SuccessorGenerator_IPC2004_PSR_Small_STRIPS() {
+        SuccessorGeneratorTest.check(Tools.PDDL_BENCH_DIR + "ipc2004/psr/small-strips" + File.separator);
+    }
+
+    /**
+     * Checks the successor generator on the first problems of a benchmark directory.
+     *
+     * @param path the benchmark directory.
+     */
+    private static void check(final String path) {
+        Assert.assertTrue("missing benchmark [directory: " + path + "] test skipped !",
+            Tools.isBenchmarkExist(path));
+        final File[] files = new File(path).listFiles((dir, name) -> name.matches("p[0-9]+\\" + Tools.PDDL_EXT));
+        Assert.assertNotNull(files);
+        Arrays.sort(files);
+        for (int i = 0; i < Math.min(SuccessorGeneratorTest.PROBLEMS, files.length); i++) {
+            final String problemFile = files[i].getName();
+            String domainFile = path + Tools.PDDL_DOMAIN;
+            if (!new File(domainFile).exists()) {
+                domainFile = path + Tools.removeExtension(problemFile) + "-" + Tools.PDDL_DOMAIN;
+            }
+            final Problem problem = Tools.generateCodedProblem(domainFile, path + problemFile);
+            Assert.assertNotNull("parse error on " + path + problemFile, problem);
+            problem.instantiate();
+            SuccessorGeneratorTest.check(problem, new Random(i));
+        }
+    }
+
+    /**
+     * Checks that the successor generator of a problem returns the same applicable actions as an exhaustive test of
+     * the actions on random states.
+     *
+     * @param problem the problem.
+     * @param random  the random generator used to draw the states.
+     */
+    static void check(final Problem problem, final Random random) {
+        final SuccessorGenerator generator = new SuccessorGenerator(problem);
+        final List<Action> actions = problem.getActions();
+        final int fluents = problem.getFluents().size();
+        Assert.assertEquals(actions.size(), generator.getNumberOfActions());
+        final int[] buffer = new int[actions.size()];
+        State walk = new State(problem.getInitialState());
+        int length = 0;
+        for (int k = 0; k < SuccessorGeneratorTest.STATES; k++) {
+            final State state;
+            if (k % 2 == 0) {
+                // Random states with a density of fluents from 0 to 1
+                state = new State();
+                final double density = random.nextDouble();
+                for (int f = 0; f < fluents; f++) {
+                    if (random.nextDouble() < density) {
+                        state.set(f);
+                    }
+                }
+            } else {
+                state = walk;
+            }
+            final int[] expected = SuccessorGeneratorTest.getApplicableActions(actions, state);
+            final int n = generator.getApplicableActions(state, buffer);
+            final int[] applicable = Arrays.copyOf(buffer, n);
+            Arrays.sort(applicable);
+            Assert.assertArrayEquals("applicable actions in " + state, expected, applicable);
+            final int[] copy = generator.getApplicableActions(state);
+            Arrays.sort(copy);
+            Assert.assertArrayEquals(expected, copy);
+            // Moves one step further along the random walk or restarts from the initial state
+            if (k % 2 == 1) {
+                if (expected.length == 0 || ++length == SuccessorGeneratorTest.WALK_LENGTH) {
+                    walk = new State(problem.getInitialState());
+                    length = 0;
+                } else {
+                    final State successor = new State();
+                    generator.apply(expected[random.nextInt(expected.length)], walk, successor);
+                    walk = successor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of the actions applicable in a specified state by testing all the actions.
+     *
+     * @param actions the actions.
+     * @param state   the state.
+     * @return the indexes of the applicable actions in increasing order.
+     */
+    private static int[] getApplicableActions(final List<Action> actions, final State state) {
+        final List<Integer> applicable = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            if (actions.get(i).isApplicable(state)) {
+                applicable.add(i);
+            }
+        }
+        return applicable.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.util;
+
+import fr.uga.pddl4j.util.IndexedPriorityQueue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Implements the <tt>IndexedPriorityQueueTest</tt> of the PDD4L library. The queue is checked against a naive
+ * reference that scans all its elements: the elements are polled by increasing priority and, in case of ties, in their
+ * insertion order, after arbitrary sequences of additions, updates and removals.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+public class IndexedPriorityQueueTest {
+
+    /**
+     * The number of elements used in the random tests.
+     */
+    private static final int ELEMENTS = 200;
+
+    /**
+     * The number of random operations performed on the queue.
+     */
+    private static final int OPERATIONS = 20000;
+
+    /**
+     * An element of the queue. Two elements are equal if they have the same identifier whatever their priority.
+     */
+    private static final class Item {
+
+        /**
+         * The identifier of the element.
+         */
+        private final int id;
+
+        /**
+         * The priority of the element.
+         */
+        private double priority;
+
+        /**
+         * The insertion stamp of the element in the reference.
+         */
+        private long stamp;
+
+        /**
+         * Creates a new element.
+         *
+         * @param id       the identifier of the element.
+         * @param priority the priority of the element.
+         */
+        Item(final int id, final double priority) {
+            this.id = id;
+            this.priority = priority;
+        }
+
+        /**
+         * Returns <code>true</code> if this element has the same identifier as a specified object.
+         *
+         * @param obj the object.
+         * @return <code>true</code> if this element has the same identifier as the specified object.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Item && ((Item) obj).id == this.id;
+        }
+
+        /**
+         * Returns the hash code of the element.
+         *
+         * @return the hash code of the element.
+         */
+        @Override
+        public int hashCode() {
+            return this.id;
+        }
+    }
+
+    /**
+     * The comparator used to order the elements of the queue.
+     */
+    private static final Comparator<Item> COMPARATOR = (i, j) -> Double.compare(i.priority, j.priority);
+
+    /**
+     * Tests that an element equal to an element of the queue is not added and that the elements are polled by
+     * priority.
+     */
+    @Test
+    public void testAddDuplicateAndPoll() {
+        final IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(1, IndexedPriorityQueueTest.COMPARATOR);
+        Assert.assertNull(queue.poll());
+        final Item a = new Item(0, 3.0);
+        final Item b = new Item(1, 1.0);
+        final Item c = new Item(2, 1.0);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+        Assert.assertFalse("duplicate added", queue.add(new Item(1, 0.0)));
+        Assert.assertSame(b, queue.get(new Item(1, 7.0)));
+        Assert.assertNull(queue.get(new Item(3, 0.0)));
+        Assert.assertEquals(3, queue.size());
+        // Ties are broken by insertion order
+        Assert.assertSame(b, queue.poll());
+        Assert.assertSame(c, queue.poll());
+        Assert.assertSame(a, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Tests that the queue grows beyond its initial capacity.
+     */
+    @Test
+    public void testGrow() {
+        final IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(1, IndexedPriorityQueueTest.COMPARATOR);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.add(new Item(i, -i)));
+        }
+        Assert.assertEquals(1000, queue.size());
+        for (int i = 999; i >= 0; i--) {
+            Assert.assertEquals(i, queue.poll().id);
+        }
+    }
+
+    /**
+     * Tests that an update restores the order of the queue and that a removed element can be added again.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        final IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(IndexedPriorityQueueTest.COMPARATOR);
+        final Item[] items = new Item[4];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(i, 5.0 - i);
+            queue.add(items[i]);
+        }
+        items[0].priority = 0.0;
+        Assert.assertTrue(queue.update(items[0]));
+        Assert.assertSame(items[0], queue.peek());
+        items[0].priority = 9.0;
+        Assert.assertTrue(queue.update(items[0]));
+        Assert.assertSame(items[3], queue.peek());
+        Assert.assertTrue(queue.remove(new Item(3, 0.0)));
+        Assert.assertFalse(queue.remove(items[3]));
+        Assert.assertFalse(queue.update(items[3]));
+        Assert.assertFalse(queue.contains(items[3]));
+        Assert.assertSame(items[2], queue.poll());
+        Assert.assertSame(items[1], queue.poll());
+        Assert.assertTrue(queue.add(items[3]));
+        Assert.assertSame(items[3], queue.poll());
+        Assert.assertSame(items[0], queue.poll());
+        queue.add(items[1]);
+        queue.clear();
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(queue.contains(items[1]));
+    }
+
+    /**
+     * Tests random sequences of additions, updates, removals and polls against a naive reference.
+     */
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(0);
+        final Item[] items = new Item[IndexedPriorityQueueTest.ELEMENTS];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(i, 0.0);
+        }
+        final List<Item> reference = new ArrayList<>();
+        final IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(4, IndexedPriorityQueueTest.COMPARATOR);
+        long stamp = 0;
+        for (int k = 0; k < IndexedPriorityQueueTest.OPERATIONS; k++) {
+            final Item e = items[random.nextInt(items.length)];
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (!reference.contains(e)) {
+                        e.priority = random.nextInt(20);
+                        e.stamp = stamp++;
+                        reference.add(e);
+                        Assert.assertTrue(queue.add(e));
+                    } else {
+                        Assert.assertFalse(queue.add(e));
+                    }
+                    break;
+                case 1:
+                    if (reference.contains(e)) {
+                        e.priority = random.nextInt(20);
+                    }
+                    Assert.assertEquals(reference.contains(e), queue.update(e));
+                    break;
+                case 2:
+                    Assert.assertEquals(reference.remove(e), queue.remove(e));
+                    break;
+                default:
+                    Item head = null;
+                    for (Item r : reference) {
+                        if (head == null || r.priority < head.priority
+                            || r.priority == head.priority && r.stamp < head.stamp) {
+                            head = r;
+                        }
+                    }
+                    reference.remove(head);
+                    Assert.assertSame(head, queue.poll());
+                    break;
+            }
+            Assert.assertEquals(reference.size(), queue.size());
+        }
+    }
+}
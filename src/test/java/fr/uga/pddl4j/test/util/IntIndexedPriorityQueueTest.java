@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.util;
+
+import fr.uga.pddl4j.util.IntIndexedPriorityQueue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Implements the <tt>IntIndexedPriorityQueueTest</tt> of the PDD4L library. The queue is checked against a naive
+ * reference that scans all its elements: the elements are polled by increasing priority and, in case of ties, in their
+ * insertion order, after arbitrary sequences of additions, updates and removals.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.12.2021
+ */
+public class IntIndexedPriorityQueueTest {
+
+    /**
+     * The number of elements used in the random tests.
+     */
+    private static final int ELEMENTS = 200;
+
+    /**
+     * The number of random operations performed on the queue.
+     */
+    private static final int OPERATIONS = 20000;
+
+    /**
+     * Tests that an element is added only once and that the elements are polled by priority.
+     */
+    @Test
+    public void testAddDuplicateAndPoll() {
+        final double[] priorities = {3.0, 1.0, 2.0, 1.0};
+        final IntIndexedPriorityQueue queue = new IntIndexedPriorityQueue(1,
+            (i, j) -> Double.compare(priorities[i], priorities[j]));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(-1, queue.poll());
+        for (int e = 0; e < priorities.length; e++) {
+            Assert.assertTrue(queue.add(e));
+        }
+        Assert.assertFalse("duplicate added", queue.add(2));
+        Assert.assertEquals(priorities.length, queue.size());
+        Assert.assertEquals(1, queue.peek());
+        // Ties are broken by insertion order
+        Assert.assertArrayEquals(new int[] {1, 3, 2, 0}, IntIndexedPriorityQueueTest.drain(queue));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(queue.contains(1));
+    }
+
+    /**
+     * Tests that elements larger than the initial capacity can be added.
+     */
+    @Test
+    public void testGrow() {
+        final IntIndexedPriorityQueue queue = new IntIndexedPriorityQueue(1, (i, j) -> Integer.compare(j, i));
+        for (int e = 0; e < 5000; e += 7) {
+            Assert.assertTrue(queue.add(e));
+        }
+        Assert.assertTrue(queue.add(100000));
+        Assert.assertTrue(queue.contains(100000));
+        Assert.assertFalse(queue.contains(100001));
+        Assert.assertFalse(queue.contains(-1));
+        int previous = Integer.MAX_VALUE;
+        while (!queue.isEmpty()) {
+            final int e = queue.poll();
+            Assert.assertTrue(e < previous);
+            previous = e;
+        }
+    }
+
+    /**
+     * Tests that an update keeps the insertion order of the element for ties and that a removed element can be added
+     * again.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        final double[] priorities = {5.0, 4.0, 3.0, 2.0};
+        final IntIndexedPriorityQueue queue = new IntIndexedPriorityQueue((i, j) ->
+            Double.compare(priorities[i], priorities[j]));
+        for (int e = 0; e < priorities.length; e++) {
+            queue.add(e);
+        }
+        priorities[2] = 1.0;
+        Assert.assertTrue(queue.update(2));
+        Assert.assertEquals(2, queue.peek());
+        priorities[2] = 2.0;
+        Assert.assertTrue(queue.update(2));
+        // Element 2 was inserted before element 3 and keeps its stamp
+        Assert.assertEquals(2, queue.peek());
+        priorities[0] = 0.0;
+        Assert.assertTrue(queue.update(0));
+        Assert.assertTrue(queue.remove(0));
+        Assert.assertFalse(queue.remove(0));
+        Assert.assertFalse(queue.update(0));
+        Assert.assertTrue(queue.add(0));
+        Assert.assertArrayEquals(new int[] {0, 2, 3, 1}, IntIndexedPriorityQueueTest.drain(queue));
+        queue.add(1);
+        queue.clear();
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(queue.contains(1));
+    }
+
+    /**
+     * Tests random sequences of additions, updates, removals and polls against a naive reference.
+     */
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(0);
+        final double[] priorities = new double[IntIndexedPriorityQueueTest.ELEMENTS];
+        final long[] stamps = new long[IntIndexedPriorityQueueTest.ELEMENTS];
+        final List<Integer> reference = new ArrayList<>();
+        final IntIndexedPriorityQueue queue = new IntIndexedPriorityQueue(4, (i, j) ->
+            Double.compare(priorities[i], priorities[j]));
+        long stamp = 0;
+        for (int k = 0; k < IntIndexedPriorityQueueTest.OPERATIONS; k++) {
+            final int e = random.nextInt(IntIndexedPriorityQueueTest.ELEMENTS);
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (!reference.contains(e)) {
+                        priorities[e] = random.nextInt(20);
+                        stamps[e] = stamp++;
+                        reference.add(e);
+                        Assert.assertTrue(queue.add(e));
+                    } else {
+                        Assert.assertFalse(queue.add(e));
+                    }
+                    break;
+                case 1:
+                    if (reference.contains(e)) {
+                        priorities[e] = random.nextInt(20);
+                    }
+                    Assert.assertEquals(reference.contains(e), queue.update(e));
+                    break;
+                case 2:
+                    Assert.assertEquals(reference.remove((Integer) e), queue.remove(e));
+                    break;
+                default:
+                    int head = -1;
+                    for (int r : reference) {
+                        if (head == -1 || priorities[r] < priorities[head]
+                            || priorities[r] == priorities[head] && stamps[r] < stamps[head]) {
+                            head = r;
+                        }
+                    }
+                    reference.remove((Integer) head);
+                    Assert.assertEquals(head, queue.poll());
+                    break;
+            }
+            Assert.assertEquals(reference.size(), queue.size());
+        }
+    }
+
+    /**
+     * Polls all the elements of a queue.
+     *
+     * @param queue the queue.
+     * @return the elements of the queue in the order they are polled.
+     */
+    private static int[] drain(final IntIndexedPriorityQueue queue) {
+        final int[] elements = new int[queue.size()];
+        int i = 0;
+        while (!queue.isEmpty()) {
+            elements[i++] = queue.poll();
+        }
+        return Arrays.copyOf(elements, i);
+    }
+}